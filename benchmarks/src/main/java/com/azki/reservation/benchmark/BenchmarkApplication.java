@@ -0,0 +1,62 @@
+package com.azki.reservation.benchmark;
+
+import com.azki.reservation.config.AuditorAwareImpl;
+import com.azki.reservation.config.JpaAuditingConfig;
+import com.azki.reservation.config.ReadReplicaConfig;
+import com.azki.reservation.entity.User;
+import com.azki.reservation.entity.UserChangePublisher;
+import com.azki.reservation.repository.ReservationRepository;
+import com.azki.reservation.service.BulkReservationService;
+import com.azki.reservation.service.CacheableOperationsImpl;
+import com.azki.reservation.service.ReservationExpiryScheduler;
+import com.azki.reservation.service.ReservationExpiryService;
+import com.azki.reservation.service.ReservationMetrics;
+import com.azki.reservation.service.ReservationService;
+import com.azki.reservation.service.UserIdentityCache;
+import com.azki.reservation.service.UserIdentityInvalidationListener;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.redis.RedisRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * The slice of the application the database benchmarks run against: the reservation service with its real
+ * repositories, transactions, retry and caching proxies, but without the web layer, security or Redis.
+ * <p>
+ * The next-slot cache is an in-memory cache ({@code spring.cache.type=simple}) here, so cache hits measure the
+ * caching proxy rather than a Redis round trip.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration(exclude = {
+    RedisAutoConfiguration.class,
+    RedisReactiveAutoConfiguration.class,
+    RedisRepositoriesAutoConfiguration.class,
+    SecurityAutoConfiguration.class
+})
+@EnableCaching
+@EnableRetry
+@EntityScan(basePackageClasses = User.class)
+@EnableJpaRepositories(basePackageClasses = ReservationRepository.class)
+@Import({
+    JpaAuditingConfig.class,
+    AuditorAwareImpl.class,
+    ReadReplicaConfig.class,
+    ReservationService.class,
+    BulkReservationService.class,
+    ReservationMetrics.class,
+    CacheableOperationsImpl.class,
+    ReservationExpiryScheduler.class,
+    ReservationExpiryService.class,
+    UserIdentityCache.class,
+    UserIdentityInvalidationListener.class,
+    UserChangePublisher.class
+})
+public class BenchmarkApplication {
+}
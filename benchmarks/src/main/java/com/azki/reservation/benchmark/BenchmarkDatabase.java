@@ -0,0 +1,163 @@
+package com.azki.reservation.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An embedded PostgreSQL server with the Liquibase schema applied and an application (by default
+ * {@link BenchmarkApplication}) running on top.
+ * <p>
+ * {@link #seed} bulk-inserts benchmark users ({@code bench<n>@example.com}) and future slots; {@link #reset} frees
+ * every slot again between iterations so each iteration starts from the same state.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+    private final JdbcTemplate jdbcTemplate;
+
+    private BenchmarkDatabase(EmbeddedPostgres postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+        this.jdbcTemplate = context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * Starts PostgreSQL and {@link BenchmarkApplication}.
+     *
+     * @param poolSize maximum size of the Hikari connection pool
+     */
+    public static BenchmarkDatabase start(int poolSize) throws IOException {
+        return start(BenchmarkApplication.class, poolSize,
+            "--spring.main.web-application-type=none",
+            "--spring.cache.type=simple",
+            "--reservation.expiry.wheel.enabled=false");
+    }
+
+    /**
+     * Starts PostgreSQL and the given application on top of it.
+     *
+     * @param application the Spring Boot application class to run
+     * @param poolSize maximum size of the Hikari connection pool
+     * @param properties further properties, as {@code --name=value} arguments
+     */
+    public static BenchmarkDatabase start(Class<?> application, int poolSize, String... properties) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        try {
+            List<String> args = new ArrayList<>(List.of(
+                "--spring.profiles.active=benchmark",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.azki.reservation=warn",
+                "--logging.level.org.hibernate.SQL=warn"));
+            args.addAll(List.of(properties));
+            // Passed as arguments so they take precedence over the application's own application.yml
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(application)
+                    .initializers(ctx -> ctx.getBeanFactory()
+                        .registerSingleton("benchmarkExcludeFilter", new BenchmarkExcludeFilter()))
+                    .run(args.toArray(String[]::new));
+            return new BenchmarkDatabase(postgres, context);
+        } catch (RuntimeException e) {
+            postgres.close();
+            throw e;
+        }
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    /**
+     * @return port of the embedded PostgreSQL, for clients outside this JVM
+     */
+    public int getPort() {
+        return postgres.getPort();
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Inserts {@code users} users and {@code slots} free hourly slots starting one hour from now.
+     *
+     * @param passwordHash password hash given to every user
+     */
+    public void seed(int users, int slots, String passwordHash) {
+        jdbcTemplate.update("""
+            INSERT INTO users (user_name, email, password, created_by, created_date, version)
+            SELECT 'bench' || g, 'bench' || g || '@example.com', ?, 'benchmark', now(), 0
+            FROM generate_series(1, ?) g""", passwordHash, users);
+        jdbcTemplate.update("""
+            INSERT INTO available_slot (start_time, end_time, is_reserved, created_by, created_date, version)
+            SELECT now() + g * interval '1 hour', now() + (g + 1) * interval '1 hour', false, 'benchmark', now(), 0
+            FROM generate_series(1, ?) g""", slots);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    /**
+     * Inserts {@code count} users and {@code count} free slots.
+     */
+    public void seed(int count) {
+        seed(count, count, "not-a-hash");
+    }
+
+    /**
+     * Deletes all reservations and frees their slots.
+     */
+    public void reset() {
+        jdbcTemplate.update("DELETE FROM reservation");
+        jdbcTemplate.update("UPDATE available_slot SET is_reserved = false WHERE is_reserved");
+    }
+
+    public static String email(int user) {
+        return "bench" + user + "@example.com";
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            context.close();
+        } finally {
+            postgres.close();
+        }
+    }
+
+    /**
+     * Keeps {@link BenchmarkApplication} out of the component scan of {@code ReservationApplication}, which covers
+     * this package too.
+     */
+    private static final class BenchmarkExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getClassMetadata().getClassName().startsWith(BenchmarkDatabase.class.getPackageName() + ".");
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof BenchmarkExcludeFilter;
+        }
+
+        @Override
+        public int hashCode() {
+            return BenchmarkExcludeFilter.class.hashCode();
+        }
+    }
+}
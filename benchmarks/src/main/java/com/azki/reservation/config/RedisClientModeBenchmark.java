@@ -0,0 +1,133 @@
+package com.azki.reservation.config;
+
+import com.azki.reservation.service.RedisPipelineExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.ReflectionUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Status writes and reads through the application's Redis client setup in each {@link RedisConfig.ClientMode},
+ * against an embedded Redis server on localhost. {@code SHARED} multiplexes regular commands over one native
+ * connection; {@code POOLED} borrows a validated connection per operation, here from a pool of 10 so that callers
+ * queue for connections as they do under load.
+ * <p>
+ * {@code setGet} is a status write followed by a poll; {@code pipeline} is the enqueue's RPUSH and SET EX in one
+ * round trip. Runs 500 threads by default, override with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(500)
+@Fork(1)
+public class RedisClientModeBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final String QUEUE_KEY = "bench:{queue}:pending";
+
+    @Param({"SHARED", "POOLED"})
+    public RedisConfig.ClientMode clientMode;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private RedisServer redis;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        int port = freePort();
+        redis = new RedisServer(port);
+        redis.start();
+
+        RedisProperties properties = new RedisProperties();
+        properties.setPort(port);
+        RedisConfig config = new RedisConfig();
+        set(config, "clientMode", clientMode);
+        set(config, "poolMaxTotal", clientMode == RedisConfig.ClientMode.POOLED ? 10 : 16);
+        set(config, "poolMaxIdle", 8);
+        set(config, "poolMinIdle", 0);
+        connectionFactory = config.createConnectionFactory(config.topology(properties),
+            config.clientConfiguration(properties, null));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(new StringRedisSerializer());
+        redisTemplate.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+        redisPipelineExecutor = new RedisPipelineExecutor(redisTemplate, new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Iteration)
+    public void trimQueue() {
+        redisTemplate.delete(QUEUE_KEY);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Benchmark
+    public Object setGet() {
+        String key = "bench:status:{" + sequence.incrementAndGet() + "}";
+        redisTemplate.opsForValue().set(key, "QUEUED", TTL);
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Benchmark
+    public List<Object> pipeline() {
+        long index = sequence.incrementAndGet();
+        return redisPipelineExecutor.execute(operations -> {
+            operations.opsForList().rightPush(QUEUE_KEY, "item-" + index);
+            operations.opsForValue().set("bench:status:{" + index + "}", "QUEUED", TTL);
+        });
+    }
+
+    private static void set(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.azki.reservation.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of {@code concurrency} blocking calls, as when that many requests arrive at once, on platform threads
+ * versus virtual threads. {@code platform} is a fixed pool the size of Tomcat's default {@code threads.max} (200);
+ * {@code virtual} starts one virtual thread per call. Each score is the time until every call of the burst is done.
+ * <p>
+ * {@code sleep} blocks for {@code ioMillis} and stands in for a remote call with a fixed latency; {@code redis}
+ * reads a status key from an embedded Redis server over the application's default shared Lettuce connection, the
+ * blocking call of a status poll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final String STATUS_KEY = "reservation:status:{bench}";
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"sleep", "redis"})
+    public String workload;
+
+    @Param({"1000", "10000"})
+    public int concurrency;
+
+    @Param("10")
+    public int ioMillis;
+
+    private ExecutorService executor;
+    private RedisServer redis;
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        executor = "virtual".equals(threads)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        if ("redis".equals(workload)) {
+            int port = freePort();
+            redis = new RedisServer(port);
+            redis.start();
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            redisTemplate = new StringRedisTemplate(connectionFactory);
+            redisTemplate.opsForValue().set(STATUS_KEY, "QUEUED");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        executor.shutdownNow();
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Benchmark
+    public int burst() throws Exception {
+        List<Future<?>> calls = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            calls.add(executor.submit(this::blockingCall));
+        }
+        for (Future<?> call : calls) {
+            call.get();
+        }
+        return calls.size();
+    }
+
+    private Object blockingCall() throws InterruptedException {
+        if (redisTemplate != null) {
+            return redisTemplate.opsForValue().get(STATUS_KEY);
+        }
+        Thread.sleep(ioMillis);
+        return null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
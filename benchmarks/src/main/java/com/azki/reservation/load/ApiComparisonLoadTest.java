@@ -0,0 +1,306 @@
+package com.azki.reservation.load;
+
+import com.azki.reservation.ReservationApplication;
+import com.azki.reservation.benchmark.BenchmarkDatabase;
+import com.azki.reservation.service.ReservationQueueService;
+import com.azki.reservation.util.RedisKeys;
+import org.springframework.data.redis.core.RedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same workload against the servlet API ({@code ReservationController}) and the reactive API
+ * ({@code reactive-api/}) on one machine, one after the other, sharing one embedded PostgreSQL and Redis.
+ * <p>
+ * The servlet application runs in-process as in {@link FlashSaleLoadTest}; the reactive one is started from its
+ * jar in a child JVM. Both get the same connection pool size and queue threshold. Per API there are two phases:
+ * <ul>
+ *   <li>reserve: every seeded user sends one reservation at the same moment; queued requests are left to the
+ *       servlet application's worker, which drains the queue before the next phase</li>
+ *   <li>status: {@code --connections} clients each poll a request status, pausing {@code --think-millis} between
+ *       polls, for {@code --seconds}; with a long pause most connections sit idle, as on an edge node</li>
+ * </ul>
+ * It prints response percentiles, throughput and status codes per API and phase.
+ */
+public final class ApiComparisonLoadTest {
+
+    private static final String RESERVE = "/api/v1/reservations/reserve";
+    private static final String STATUS = "/api/v1/reservations/status/";
+    private static final String STATUS_REQUEST_ID = "api-comparison";
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 1.0};
+
+    /**
+     * @param reactiveJar path of the reactive API's executable jar
+     * @param users seeded users, each sending one reservation per API; as many slots are seeded
+     * @param connections concurrent status clients
+     * @param thinkMillis pause of a status client between two polls
+     * @param seconds duration of the status phase
+     * @param poolSize connection pool size of both applications
+     * @param queueThreshold concurrent reservations above which both applications queue
+     */
+    record Options(String reactiveJar, int users, int connections, long thinkMillis, int seconds, int poolSize,
+                   int queueThreshold) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            int poolSize = Integer.parseInt(values.getOrDefault("pool-size", "10"));
+            return new Options(
+                values.getOrDefault("reactive-jar", "reactive-api/target/reservation-reactive-api.jar"),
+                Integer.parseInt(values.getOrDefault("users", "1000")),
+                Integer.parseInt(values.getOrDefault("connections", "2000")),
+                Long.parseLong(values.getOrDefault("think-millis", "1000")),
+                Integer.parseInt(values.getOrDefault("seconds", "20")),
+                poolSize,
+                Integer.parseInt(values.getOrDefault("queue-threshold", String.valueOf(poolSize))));
+        }
+    }
+
+    /**
+     * Latency and HTTP status of every request of one phase.
+     */
+    private record Phase(List<Long> nanos, Map<Integer, Long> statusCodes, long elapsedNanos) {
+
+        Map<String, Object> summary() {
+            long[] sorted = nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", sorted.length);
+            summary.put("requestsPerSecond", elapsedNanos > 0 ? sorted.length * 1e9 / elapsedNanos : 0);
+            summary.put("statusCodes", statusCodes);
+            for (double percentile : PERCENTILES) {
+                int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+                summary.put(percentile == 1.0 ? "maxMillis" : "p" + Math.round(percentile * 100) + "Millis",
+                    sorted.length > 0 ? sorted[index] / 1e6 : 0);
+            }
+            return summary;
+        }
+    }
+
+    private final Options options;
+    private final BenchmarkDatabase database;
+
+    private ApiComparisonLoadTest(Options options, BenchmarkDatabase database) {
+        this.options = options;
+        this.database = database;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        if (!Files.isRegularFile(Path.of(options.reactiveJar()))) {
+            throw new IllegalArgumentException("Reactive API jar not found, build it with "
+                + "mvn -f reactive-api/pom.xml package: " + options.reactiveJar());
+        }
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        Path spoolDirectory = Files.createTempDirectory("reservation-spool");
+        try (BenchmarkDatabase database = BenchmarkDatabase.start(ReservationApplication.class, options.poolSize(),
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--reservation.request.threshold=" + options.queueThreshold(),
+                "--reservation.queue.spool.directory=" + spoolDirectory,
+                "--reservation.rate-limiting.enabled=false")) {
+            database.seed(options.users(), options.users(), "not-a-hash");
+            new ApiComparisonLoadTest(options, database).run(redisPort);
+        } finally {
+            redis.stop();
+        }
+        System.exit(0);
+    }
+
+    private void run(int redisPort) throws Exception {
+        String servletUrl = "http://localhost:" + database.getContext().getEnvironment().getProperty("local.server.port");
+        int reactivePort = freePort();
+        Path reactiveLog = Files.createTempFile("reactive-api", ".log");
+        Process reactive = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-jar", options.reactiveJar(),
+                "--server.port=" + reactivePort,
+                "--spring.r2dbc.url=r2dbc:postgresql://localhost:" + database.getPort() + "/postgres",
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=",
+                "--spring.r2dbc.pool.max-size=" + options.poolSize(),
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--reservation.request.threshold=" + options.queueThreshold(),
+                "--logging.level.com.azki.reservation=warn")
+            .redirectErrorStream(true)
+            .redirectOutput(reactiveLog.toFile())
+            .start();
+        try {
+            String reactiveUrl = "http://localhost:" + reactivePort;
+            awaitHealthy(reactiveUrl, reactive, reactiveLog);
+            @SuppressWarnings("unchecked")
+            RedisTemplate<String, Object> redisTemplate = database.getBean(RedisTemplate.class);
+            redisTemplate.opsForValue().set(RedisKeys.status(STATUS_REQUEST_ID), "SUCCESS");
+
+            Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+            for (Map.Entry<String, String> api : Map.of("servlet", servletUrl, "reactive", reactiveUrl)
+                    .entrySet().stream().sorted(Map.Entry.comparingByKey(Collections.reverseOrder())).toList()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                Map<String, Object> phases = new LinkedHashMap<>();
+                phases.put("reserve", reservePhase(client, api.getValue()).summary());
+                awaitQueueDrained();
+                database.reset();
+                phases.put("status", statusPhase(client, api.getValue()).summary());
+                results.put(api.getKey(), phases);
+            }
+            print(results, System.out);
+        } finally {
+            reactive.destroy();
+            if (!reactive.waitFor(10, TimeUnit.SECONDS)) {
+                reactive.destroyForcibly();
+            }
+        }
+    }
+
+    private Phase reservePhase(HttpClient client, String baseUrl) throws Exception {
+        List<String> emails = database.getJdbcTemplate().queryForList(
+            "SELECT email FROM users WHERE email LIKE 'bench%@example.com' ORDER BY id", String.class);
+        CountDownLatch open = new CountDownLatch(1);
+        List<Long> nanos = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, Long> statusCodes = Collections.synchronizedMap(new TreeMap<>());
+        long start;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String email : emails) {
+                clients.submit(() -> {
+                    open.await();
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + RESERVE))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\"}"))
+                            .build();
+                    send(client, request, nanos, statusCodes);
+                    return null;
+                });
+            }
+            start = System.nanoTime();
+            open.countDown();
+        }
+        return new Phase(nanos, statusCodes, System.nanoTime() - start);
+    }
+
+    private Phase statusPhase(HttpClient client, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + STATUS + STATUS_REQUEST_ID)).GET().build();
+        List<Long> nanos = Collections.synchronizedList(new ArrayList<>());
+        Map<Integer, Long> statusCodes = Collections.synchronizedMap(new TreeMap<>());
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(options.seconds());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.connections(); i++) {
+                clients.submit(() -> {
+                    // Spread the first polls so the connections do not fire in lockstep
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(options.thinkMillis() + 1));
+                    while (System.nanoTime() < deadline) {
+                        send(client, request, nanos, statusCodes);
+                        Thread.sleep(options.thinkMillis());
+                    }
+                    return null;
+                });
+            }
+        }
+        return new Phase(nanos, statusCodes, System.nanoTime() - start);
+    }
+
+    private static void send(HttpClient client, HttpRequest request, List<Long> nanos, Map<Integer, Long> statusCodes)
+            throws InterruptedException {
+        long sentAt = System.nanoTime();
+        int statusCode;
+        try {
+            statusCode = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            statusCode = 0; // No response
+        }
+        nanos.add(System.nanoTime() - sentAt);
+        statusCodes.merge(statusCode, 1L, Long::sum);
+    }
+
+    /**
+     * Waits until the servlet application's worker has processed every queued reservation, whichever API queued it.
+     */
+    private void awaitQueueDrained() throws InterruptedException {
+        ReservationQueueService queueService = database.getBean(ReservationQueueService.class);
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (queueService.getQueueLength() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+        // The last batch is still in flight after the queue looks empty, wait until no reservation is added
+        Integer previous = null;
+        Integer current = countReservations();
+        while (!current.equals(previous) && System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            previous = current;
+            current = countReservations();
+        }
+    }
+
+    private Integer countReservations() {
+        return database.getJdbcTemplate().queryForObject("SELECT count(*) FROM reservation", Integer.class);
+    }
+
+    private static void awaitHealthy(String baseUrl, Process process, Path log) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Reactive API exited, see " + log);
+            }
+            try {
+                if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        throw new IllegalStateException("Reactive API did not become healthy, see " + log);
+    }
+
+    private void print(Map<String, Map<String, Object>> results, PrintStream out) {
+        out.println();
+        out.println("API comparison: " + options.users() + " reservations, " + options.connections()
+            + " status connections polling every " + options.thinkMillis() + "ms for " + options.seconds()
+            + "s, pool size " + options.poolSize() + ", queue threshold " + options.queueThreshold());
+        results.forEach((api, phases) ->
+            phases.forEach((phase, summary) -> out.println(api + " " + phase + ": " + summary)));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
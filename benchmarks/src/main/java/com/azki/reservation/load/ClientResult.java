@@ -0,0 +1,32 @@
+package com.azki.reservation.load;
+
+/**
+ * What one simulated user saw.
+ *
+ * @param email the user's email
+ * @param path "queued" if the request went through the queue (HTTP 202, or 200 once it finished within the await
+ *             budget), "error" if no response arrived, "direct" for everything else
+ * @param httpStatus status code of the reserve call
+ * @param responseNanos latency of the reserve call
+ * @param finalStatus SUCCESS, FAILED, TIMEOUT (queued request never finished) or ERROR (no response)
+ * @param completionNanos time from sending the request to its final status
+ * @param sentAtNanos when the request was sent, relative to the sale opening
+ */
+record ClientResult(
+        String email,
+        String path,
+        int httpStatus,
+        long responseNanos,
+        String finalStatus,
+        long completionNanos,
+        long sentAtNanos) {
+
+    static final String SUCCESS = "SUCCESS";
+    static final String FAILED = "FAILED";
+    static final String TIMEOUT = "TIMEOUT";
+    static final String ERROR = "ERROR";
+
+    boolean succeeded() {
+        return SUCCESS.equals(finalStatus);
+    }
+}
@@ -0,0 +1,240 @@
+package com.azki.reservation.load;
+
+import com.azki.reservation.ReservationApplication;
+import com.azki.reservation.benchmark.BenchmarkDatabase;
+import com.azki.reservation.entity.User;
+import com.azki.reservation.security.util.JwtUtil;
+import com.azki.reservation.service.ReservationQueueService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a flash sale against the complete application and checks that no reservation was lost or doubled.
+ * <p>
+ * The application runs in-process on an embedded PostgreSQL and an embedded Redis server, with rate limiting off
+ * and the queue threshold from {@code --queue-threshold}. Every seeded user gets one virtual-thread client; all
+ * clients are released at the same moment and send their request at a random offset within the ramp window, so
+ * the burst spills over into the queue. Queued requests are polled until they finish or the timeout passes.
+ * <p>
+ * Afterwards it prints throughput, latency percentiles per path and the queue drain curve, checks the invariants
+ * in {@link InvariantChecker} against the database and exits with status 1 if any of them is violated.
+ */
+public final class FlashSaleLoadTest {
+
+    private static final String RESERVE = "/api/v1/reservations/reserve";
+    private static final String STATUS = "/api/v1/reservations/status/";
+    private static final long DRAIN_SAMPLE_MILLIS = 250;
+
+    private final LoadOptions options;
+    private final BenchmarkDatabase database;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+
+    private FlashSaleLoadTest(LoadOptions options, BenchmarkDatabase database) {
+        this.options = options;
+        this.database = database;
+        this.objectMapper = database.getBean(ObjectMapper.class);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = "http://localhost:" + database.getContext().getEnvironment().getProperty("local.server.port");
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+        int redisPort = freePort();
+        RedisServer redis = new RedisServer(redisPort);
+        redis.start();
+        // A fresh spool per run, so requests spooled while a previous run shut down are not replayed into this one
+        Path spoolDirectory = Files.createTempDirectory("reservation-spool");
+        boolean passed;
+        try (BenchmarkDatabase database = BenchmarkDatabase.start(ReservationApplication.class, options.poolSize(),
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--reservation.request.threshold=" + options.queueThreshold(),
+                "--reservation.queue.backend=" + options.queueBackend(),
+                "--spring.threads.virtual.enabled=" + options.virtualThreads(),
+                "--reservation.queue.spool.directory=" + spoolDirectory,
+                "--reservation.rate-limiting.enabled=false")) {
+            database.seed(options.users(), options.slots(), "not-a-hash");
+            passed = new FlashSaleLoadTest(options, database).run();
+        } finally {
+            redis.stop();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        List<User> users = users();
+        JwtUtil jwtUtil = database.getBean(JwtUtil.class);
+        ReservationQueueService queueService = database.getBean(ReservationQueueService.class);
+
+        CountDownLatch open = new CountDownLatch(1);
+        long[] saleStart = new long[1];
+        long rampNanos = TimeUnit.SECONDS.toNanos(options.rampSeconds());
+        long deadline = rampNanos + TimeUnit.SECONDS.toNanos(options.timeoutSeconds());
+        List<LoadReport.DrainSample> drainCurve = Collections.synchronizedList(new ArrayList<>());
+        List<ClientResult> results = new ArrayList<>(users.size());
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ClientResult>> futures = new ArrayList<>(users.size());
+            for (User user : users) {
+                String token = jwtUtil.generateToken(user);
+                long offset = rampNanos > 0 ? ThreadLocalRandom.current().nextLong(rampNanos) : 0;
+                futures.add(clients.submit(() -> {
+                    open.await();
+                    LockSupport.parkNanos(saleStart[0] + offset - System.nanoTime());
+                    return reserve(user.getEmail(), token, saleStart[0], saleStart[0] + deadline);
+                }));
+            }
+
+            saleStart[0] = System.nanoTime();
+            open.countDown();
+            sampler.scheduleAtFixedRate(() -> drainCurve.add(new LoadReport.DrainSample(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - saleStart[0]),
+                    queueService.getQueueLength(),
+                    countReservations())),
+                0, DRAIN_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+            for (Future<ClientResult> future : futures) {
+                results.add(future.get());
+            }
+        } finally {
+            sampler.shutdownNow();
+            sampler.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        Map<String, Long> violations = new InvariantChecker(database.getJdbcTemplate()).check(results);
+        long dlqLength = queueService.getDLQLength();
+        violations.put("deadLetters", dlqLength);
+        LoadReport report = new LoadReport(options, results, List.copyOf(drainCurve), violations, dlqLength);
+        report.print(System.out);
+        if (options.report() != null) {
+            report.write(Path.of(options.report()), objectMapper);
+        }
+        return report.passed();
+    }
+
+    /**
+     * Sends one reservation request and, if it was queued, polls its status until it finishes.
+     */
+    private ClientResult reserve(String email, String token, long saleStart, long deadline) throws InterruptedException {
+        long sentAt = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + RESERVE))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\"}"))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            long elapsed = System.nanoTime() - sentAt;
+            return new ClientResult(email, "error", 0, elapsed, ClientResult.ERROR, elapsed, sentAt - saleStart);
+        }
+        long responseNanos = System.nanoTime() - sentAt;
+
+        if (response.statusCode() != 202) {
+            // A queued request that finished within the await budget is answered with 200 and its final status
+            String requestId = response.statusCode() == 200 ? field(response.body(), "requestId") : null;
+            String path = requestId == null || requestId.startsWith("direct-") ? "direct" : "queued";
+            String current = response.statusCode() == 200 ? field(response.body(), "status") : null;
+            String status = current != null && current.startsWith(ClientResult.SUCCESS)
+                ? ClientResult.SUCCESS : ClientResult.FAILED;
+            return new ClientResult(email, path, response.statusCode(), responseNanos, status, responseNanos,
+                sentAt - saleStart);
+        }
+
+        String requestId = field(response.body(), "requestId");
+        String status = ClientResult.TIMEOUT;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(options.pollIntervalMillis());
+            String current = pollStatus(requestId, token);
+            if (current != null && current.startsWith(ClientResult.SUCCESS)) {
+                status = ClientResult.SUCCESS;
+                break;
+            }
+            if (current != null && current.startsWith(ClientResult.FAILED)) {
+                status = ClientResult.FAILED;
+                break;
+            }
+        }
+        return new ClientResult(email, "queued", 202, responseNanos, status, System.nanoTime() - sentAt,
+            sentAt - saleStart);
+    }
+
+    /**
+     * @return the current status, or null if it could not be read; the caller keeps polling
+     */
+    private String pollStatus(String requestId, String token) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + STATUS + requestId))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? field(response.body(), "status") : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private String field(String body, String name) {
+        try {
+            JsonNode value = objectMapper.readTree(body).get(name);
+            return value != null ? value.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private List<User> users() {
+        return database.getJdbcTemplate().query(
+            "SELECT id, email FROM users WHERE email LIKE 'bench%@example.com' ORDER BY id",
+            (rs, row) -> {
+                User user = new User();
+                user.setId(rs.getLong("id"));
+                user.setEmail(rs.getString("email"));
+                return user;
+            });
+    }
+
+    private long countReservations() {
+        Long count = database.getJdbcTemplate().queryForObject("SELECT count(*) FROM reservation", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.azki.reservation.load;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Post-run consistency checks of the database against what the clients were told.
+ */
+final class InvariantChecker {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    InvariantChecker(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return number of violations per invariant; every value is 0 for a correct run
+     */
+    Map<String, Long> check(List<ClientResult> results) {
+        Map<String, Long> violations = new LinkedHashMap<>();
+        violations.put("slotBookedTwice", count("""
+            SELECT count(*) FROM (
+                SELECT available_slot_id FROM reservation GROUP BY available_slot_id HAVING count(*) > 1) s"""));
+        violations.put("reservationOnFreeSlot", count("""
+            SELECT count(*) FROM reservation r JOIN available_slot s ON s.id = r.available_slot_id
+            WHERE NOT s.is_reserved"""));
+        violations.put("reservedSlotWithoutReservation", count("""
+            SELECT count(*) FROM available_slot s
+            WHERE s.is_reserved AND NOT EXISTS (SELECT 1 FROM reservation r WHERE r.available_slot_id = s.id)"""));
+        violations.put("userWithTwoReservations", count("""
+            SELECT count(*) FROM (
+                SELECT user_id FROM reservation GROUP BY user_id HAVING count(*) > 1) u"""));
+
+        Set<String> reserved = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT u.email FROM reservation r JOIN users u ON u.id = r.user_id", String.class));
+        long unfinished = results.stream()
+                .filter(result -> ClientResult.TIMEOUT.equals(result.finalStatus())
+                    || ClientResult.ERROR.equals(result.finalStatus()))
+                .count();
+        long successWithoutReservation = results.stream()
+                .filter(result -> result.succeeded() && !reserved.contains(result.email()))
+                .count();
+        Set<String> succeeded = new HashSet<>();
+        results.stream().filter(ClientResult::succeeded).forEach(result -> succeeded.add(result.email()));
+        long reservationWithoutSuccess = reserved.stream().filter(email -> !succeeded.contains(email)).count();
+        // A request is lost if its client never learnt the outcome or was told something the database contradicts
+        violations.put("lostRequest", unfinished + successWithoutReservation + reservationWithoutSuccess);
+        return violations;
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+}
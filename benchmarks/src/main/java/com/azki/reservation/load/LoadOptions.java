@@ -0,0 +1,53 @@
+package com.azki.reservation.load;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a flash-sale run, parsed from {@code --name=value} arguments.
+ *
+ * @param users distinct users that each send one reservation request
+ * @param slots free slots on offer; fewer than users makes late requests fail with "no slot"
+ * @param rampSeconds window over which the requests are spread after the sale opens
+ * @param queueThreshold concurrent requests above which the controller queues ({@code reservation.request.threshold})
+ * @param pollIntervalMillis interval at which clients poll the status of queued requests
+ * @param queueBackend queue backend of the application ({@code reservation.queue.backend}): redis or memory
+ * @param virtualThreads whether the application serves requests on virtual threads ({@code spring.threads.virtual.enabled})
+ * @param poolSize maximum size of the application's connection pool
+ * @param timeoutSeconds time after the last request by which every queued request must have finished
+ * @param report optional path of a JSON report
+ */
+record LoadOptions(
+        int users,
+        int slots,
+        int rampSeconds,
+        int queueThreshold,
+        long pollIntervalMillis,
+        String queueBackend,
+        boolean virtualThreads,
+        int poolSize,
+        int timeoutSeconds,
+        String report) {
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        int users = Integer.parseInt(values.getOrDefault("users", "2000"));
+        return new LoadOptions(
+            users,
+            Integer.parseInt(values.getOrDefault("slots", String.valueOf(users * 3 / 4))),
+            Integer.parseInt(values.getOrDefault("ramp-seconds", "2")),
+            Integer.parseInt(values.getOrDefault("queue-threshold", "5")),
+            Long.parseLong(values.getOrDefault("poll-interval-ms", "200")),
+            values.getOrDefault("queue-backend", "redis"),
+            Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+            Integer.parseInt(values.getOrDefault("pool-size", "10")),
+            Integer.parseInt(values.getOrDefault("timeout-seconds", "120")),
+            values.get("report"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.azki.reservation.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Summary of a flash-sale run: throughput, latency percentiles per path, the queue drain curve and the invariant
+ * check results. Printed as text and optionally written as JSON for comparison between runs.
+ */
+final class LoadReport {
+
+    /**
+     * One point of the drain curve.
+     *
+     * @param elapsedMillis time since the sale opened
+     * @param queueLength requests waiting in the queue
+     * @param reservations reservations committed so far
+     */
+    record DrainSample(long elapsedMillis, long queueLength, long reservations) {
+    }
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99, 1.0};
+
+    private final LoadOptions options;
+    private final List<ClientResult> results;
+    private final List<DrainSample> drainCurve;
+    private final Map<String, Long> violations;
+    private final long dlqLength;
+
+    LoadReport(LoadOptions options, List<ClientResult> results, List<DrainSample> drainCurve,
+               Map<String, Long> violations, long dlqLength) {
+        this.options = options;
+        this.results = results;
+        this.drainCurve = drainCurve;
+        this.violations = violations;
+        this.dlqLength = dlqLength;
+    }
+
+    boolean passed() {
+        return violations.values().stream().allMatch(count -> count == 0);
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+
+        long lastSent = results.stream().mapToLong(ClientResult::sentAtNanos).max().orElse(0);
+        long lastDone = results.stream().mapToLong(result -> result.sentAtNanos() + result.completionNanos()).max().orElse(0);
+        long succeeded = results.stream().filter(ClientResult::succeeded).count();
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        throughput.put("requests", results.size());
+        throughput.put("succeeded", succeeded);
+        throughput.put("requestsPerSecond", perSecond(results.size(), lastSent));
+        throughput.put("reservationsPerSecond", perSecond(succeeded, lastDone));
+        throughput.put("durationMillis", TimeUnit.NANOSECONDS.toMillis(lastDone));
+        report.put("throughput", throughput);
+
+        Map<String, Object> paths = new TreeMap<>();
+        for (String path : List.of("direct", "queued", "error")) {
+            List<ClientResult> onPath = results.stream().filter(result -> path.equals(result.path())).toList();
+            if (onPath.isEmpty()) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", onPath.size());
+            stats.put("outcomes", outcomes(onPath));
+            stats.put("responseMillis", percentiles(onPath, ClientResult::responseNanos));
+            stats.put("completionMillis", percentiles(onPath, ClientResult::completionNanos));
+            paths.put(path, stats);
+        }
+        report.put("paths", paths);
+        report.put("drainCurve", drainCurve);
+        report.put("deadLetterQueueLength", dlqLength);
+        report.put("invariantViolations", violations);
+        report.put("passed", passed());
+        return report;
+    }
+
+    void print(PrintStream out) {
+        Map<String, Object> report = toMap();
+        out.println();
+        out.println("Flash sale: " + options.users() + " users, " + options.slots() + " slots, ramp "
+            + options.rampSeconds() + "s, queue threshold " + options.queueThreshold());
+        out.println("Throughput: " + report.get("throughput"));
+        ((Map<?, ?>) report.get("paths")).forEach((path, stats) -> out.println("Path " + path + ": " + stats));
+        out.println("Drain curve (ms, queued, reservations):");
+        for (DrainSample sample : drainCurve) {
+            out.printf("  %6d %6d %6d%n", sample.elapsedMillis(), sample.queueLength(), sample.reservations());
+        }
+        out.println("Dead letter queue: " + dlqLength);
+        out.println("Invariants: " + violations + (passed() ? " PASSED" : " FAILED"));
+    }
+
+    void write(Path path, ObjectMapper objectMapper) throws IOException {
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), toMap());
+    }
+
+    private static Map<String, Long> outcomes(List<ClientResult> results) {
+        Map<String, Long> outcomes = new TreeMap<>();
+        for (ClientResult result : results) {
+            // Direct failures are told apart by their HTTP status, queued ones all answered 202
+            String outcome = "direct".equals(result.path()) && !result.succeeded()
+                ? result.finalStatus() + " " + result.httpStatus()
+                : result.finalStatus();
+            outcomes.merge(outcome, 1L, Long::sum);
+        }
+        return outcomes;
+    }
+
+    private static Map<String, Double> percentiles(List<ClientResult> results, ToLongFunction<ClientResult> nanos) {
+        long[] sorted = results.stream().mapToLong(nanos).sorted().toArray();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            int index = Math.max(0, (int) Math.ceil(percentile * sorted.length) - 1);
+            percentiles.put(percentile == 1.0 ? "max" : "p" + Math.round(percentile * 100), sorted[index] / 1e6);
+        }
+        return percentiles;
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos > 0 ? count * 1e9 / nanos : 0;
+    }
+}
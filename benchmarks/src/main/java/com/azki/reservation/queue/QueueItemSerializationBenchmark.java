@@ -0,0 +1,56 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.dto.reservation.ReservationRequestDto;
+import com.azki.reservation.util.TraceParent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trip of a queue item, as done on every enqueue, dequeue and retry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueueItemSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private QueueItem item;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        // Configured like the application's mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail("bench1@example.com");
+        item = new QueueItem(request, 0, UUID.randomUUID().toString(), System.currentTimeMillis(),
+            TraceParent.currentOrNew());
+        json = objectMapper.writeValueAsString(item);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(item);
+    }
+
+    @Benchmark
+    public QueueItem deserialize() throws Exception {
+        return objectMapper.readValue(json, QueueItem.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.dto.reservation.ReservationRequestDto;
+import com.azki.reservation.service.RedisPipelineExecutor;
+import io.lettuce.core.api.StatefulConnection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One request through a queue backend: enqueue, dequeue, mark as processing and ack. {@code memory} is the zero-I/O
+ * baseline; {@code redis} runs against an embedded Redis server on localhost with the application's default client
+ * setup: a shared native connection plus a pool of dedicated connections for pipelines.
+ * <p>
+ * Run with {@code -t} above 1 to measure contention: with several threads a dequeue may return another thread's
+ * request, which is acked all the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationQueueBenchmark {
+
+    @Param({"memory", "redis"})
+    public String backend;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ReservationQueue queue;
+    private RedisServer redis;
+    private LettuceConnectionFactory connectionFactory;
+
+    @Setup(Level.Trial)
+    public void startQueue() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        if ("memory".equals(backend)) {
+            queue = new InMemoryReservationQueue(meterRegistry, 65536, 4096, 1_000_000, 24);
+            return;
+        }
+        int port = freePort();
+        redis = new RedisServer(port);
+        redis.start();
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(16);
+        poolConfig.setMaxIdle(8);
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port),
+            LettucePoolingClientConfiguration.builder().poolConfig(poolConfig).build());
+        connectionFactory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.flushOnClose());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.afterPropertiesSet();
+        queue = new RedisReservationQueue(template, template, new RedisPipelineExecutor(template, meterRegistry),
+            Jackson2ObjectMapperBuilder.json().build(), meterRegistry, 600000, 24);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopQueue() throws Exception {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+    }
+
+    @Benchmark
+    public QueueItem enqueueDequeueAck() {
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail("bench" + sequence.incrementAndGet() + "@example.com");
+        queue.enqueue(new QueueItem(request, 0, UUID.randomUUID().toString(), System.currentTimeMillis(), null), "QUEUED");
+        List<QueueItem> items = queue.dequeue(1);
+        if (items.isEmpty()) {
+            return null;
+        }
+        QueueItem item = items.getFirst();
+        queue.markProcessing(item, "PROCESSING");
+        queue.ack(item, "SUCCESS");
+        return item;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
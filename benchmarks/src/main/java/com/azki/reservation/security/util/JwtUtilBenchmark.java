@@ -0,0 +1,65 @@
+package com.azki.reservation.security.util;
+
+import com.azki.reservation.entity.User;
+import com.azki.reservation.security.AuthenticatedUser;
+import io.jsonwebtoken.JwtException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and verification: a valid token, and one whose signature does not match.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil("benchmark-secret-key-0123456789-0123456789", 86_400_000);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("bench42@example.com");
+        token = jwtUtil.generateToken(user);
+        JwtUtil otherKey = new JwtUtil("another-secret-key-0123456789-0123456789", 86_400_000);
+        String otherToken = otherKey.generateToken(user);
+        tamperedToken = token.substring(0, token.lastIndexOf('.')) + otherToken.substring(otherToken.lastIndexOf('.'));
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser parseValid() {
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public Object parseBadSignature() {
+        try {
+            return jwtUtil.parse(tamperedToken);
+        } catch (JwtException e) {
+            return e;
+        }
+    }
+}
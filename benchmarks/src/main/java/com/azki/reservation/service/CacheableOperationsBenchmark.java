@@ -0,0 +1,67 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.benchmark.BenchmarkDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Next-slot lookup through {@link CacheableOperations}: a cache hit, and a miss that evicts first and queries
+ * PostgreSQL. Slots are never reserved here, so both paths see the same data throughout.
+ * <p>
+ * Both run inside a transaction, as they do when called from a reservation attempt: the slot query takes row locks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheableOperationsBenchmark {
+
+    @Param("10000")
+    public int slots;
+
+    private BenchmarkDatabase database;
+    private CacheableOperations cacheableOperations;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws Exception {
+        database = BenchmarkDatabase.start(4);
+        database.seed(slots);
+        cacheableOperations = database.getBean(CacheableOperations.class);
+        transactionTemplate = new TransactionTemplate(database.getBean(PlatformTransactionManager.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() throws Exception {
+        database.close();
+    }
+
+    @Benchmark
+    public Object hit() {
+        return transactionTemplate.execute(status -> cacheableOperations.findNextAvailableSlotCached(LocalDateTime.now()));
+    }
+
+    @Benchmark
+    public Object miss() {
+        cacheableOperations.evictNextSlotCache();
+        return transactionTemplate.execute(status -> cacheableOperations.findNextAvailableSlotCached(LocalDateTime.now()));
+    }
+}
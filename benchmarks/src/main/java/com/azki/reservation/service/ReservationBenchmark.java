@@ -0,0 +1,122 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.benchmark.BenchmarkDatabase;
+import com.azki.reservation.dto.user.UserIdentity;
+import com.azki.reservation.exception.BusinessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reservation throughput and latency against an embedded PostgreSQL.
+ * <p>
+ * Every invocation reserves the nearest free slot for a user that has no reservation yet, as concurrent requests do
+ * in production. A claim is a single {@code UPDATE ... FOR UPDATE SKIP LOCKED}, so concurrent threads each lock a
+ * different free slot rather than queueing on the first one. Run with {@code -t} between 1 and 256 to see how the
+ * connection pool ({@code poolSize}) and the index of free slots limit throughput. {@code users} must exceed the
+ * reservations made per iteration; the state is reset between iterations.
+ * <p>
+ * Failed reservations (no slot left, duplicates) are returned rather than thrown, so they are measured like
+ * successful ones and show up in the error counts printed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReservationBenchmark {
+
+    @Param("50000")
+    public int users;
+
+    @Param("20")
+    public int poolSize;
+
+    private BenchmarkDatabase database;
+    private ReservationService reservationService;
+    private UserIdentityCache userIdentityCache;
+    private CacheableOperations cacheableOperations;
+    private TransactionTemplate transactionTemplate;
+    private final AtomicInteger nextUser = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void startDatabase() throws Exception {
+        database = BenchmarkDatabase.start(poolSize);
+        database.seed(users);
+        reservationService = database.getBean(ReservationService.class);
+        userIdentityCache = database.getBean(UserIdentityCache.class);
+        cacheableOperations = database.getBean(CacheableOperations.class);
+        transactionTemplate = database.getBean(TransactionTemplate.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetReservations() {
+        database.reset();
+        cacheableOperations.evictNextSlotCache();
+        nextUser.set(0);
+        failures.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportIteration() {
+        int used = nextUser.get();
+        System.out.printf("%n%d reservations attempted, %d failed%s%n", used, failures.get(),
+            used > users ? " (users exhausted, increase -p users)" : "");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() throws Exception {
+        database.close();
+    }
+
+    /**
+     * The full service call: the duplicate check on the replica path, then the write transaction with the repeated
+     * check, the claim and the insert.
+     */
+    @Benchmark
+    public Object reserveNearestSlot() {
+        try {
+            return reservationService.reserveNearestSlot(nextEmail(), ReservationPath.DIRECT);
+        } catch (BusinessException e) {
+            failures.incrementAndGet();
+            return e;
+        }
+    }
+
+    /**
+     * A single attempt in its own write transaction: the claim and the insert, without the duplicate checks or
+     * retries.
+     */
+    @Benchmark
+    public Object attemptReservation() {
+        UserIdentity user = userIdentityCache.findByEmail(nextEmail()).orElseThrow();
+        try {
+            return transactionTemplate.execute(status -> reservationService.attemptReservation(user, ReservationPath.DIRECT));
+        } catch (BusinessException | OptimisticLockingFailureException e) {
+            failures.incrementAndGet();
+            return e;
+        }
+    }
+
+    private String nextEmail() {
+        // Wrap around rather than fail; the iteration report flags it
+        return BenchmarkDatabase.email(nextUser.getAndIncrement() % users + 1);
+    }
+}
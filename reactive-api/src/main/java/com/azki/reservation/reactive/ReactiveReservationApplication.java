@@ -0,0 +1,16 @@
+package com.azki.reservation.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Non-blocking edge deployment of the reservation API. It shares the database schema, the Redis queue and the
+ * status keys with the servlet application, whose nodes still own the schema migrations and the queue worker.
+ */
+@SpringBootApplication
+public class ReactiveReservationApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveReservationApplication.class, args);
+    }
+}
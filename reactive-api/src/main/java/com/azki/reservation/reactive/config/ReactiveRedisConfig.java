@@ -0,0 +1,31 @@
+package com.azki.reservation.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Reactive Redis access over the auto-configured Lettuce connection factory, which multiplexes every command of
+ * this node over one connection.
+ * <p>
+ * Keys and values are serialized like the servlet application's {@code RedisConfig} templates, so both read and
+ * write the same queue items, markers and statuses.
+ */
+@Configuration
+public class ReactiveRedisConfig {
+
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+            .<String, Object>newSerializationContext(new StringRedisSerializer())
+            .value(new GenericJackson2JsonRedisSerializer())
+            .hashKey(new StringRedisSerializer())
+            .hashValue(new GenericJackson2JsonRedisSerializer())
+            .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, serializationContext);
+    }
+}
@@ -0,0 +1,108 @@
+package com.azki.reservation.reactive.controller;
+
+import com.azki.reservation.dto.ApiError;
+import com.azki.reservation.exception.BusinessException;
+import com.azki.reservation.exception.DuplicateReservationException;
+import com.azki.reservation.exception.ReservationCapacityExceededException;
+import com.azki.reservation.exception.ReservationNotAvailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps failures to the same status codes and {@link ApiError} bodies as the servlet application's
+ * {@code GlobalExceptionHandler}, so clients cannot tell the two APIs apart.
+ */
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveExceptionHandler.class);
+
+    @ExceptionHandler(DuplicateReservationException.class)
+    public ResponseEntity<ApiError> handleDuplicateReservation(DuplicateReservationException ex, ServerWebExchange exchange) {
+        logger.warn("Duplicate reservation attempt: {}", ex.getMessage());
+        return buildErrorResponse(ex, "A reservation already exists for this user", HttpStatus.CONFLICT, exchange);
+    }
+
+    @ExceptionHandler(ReservationNotAvailableException.class)
+    public ResponseEntity<ApiError> handleReservationNotAvailable(ReservationNotAvailableException ex,
+                                                                  ServerWebExchange exchange) {
+        logger.warn("No available slots found: {}", ex.getMessage());
+        return buildErrorResponse(ex, "No available time slots found", HttpStatus.NOT_FOUND, exchange);
+    }
+
+    @ExceptionHandler(ReservationCapacityExceededException.class)
+    public ResponseEntity<ApiError> handleCapacityExceeded(ReservationCapacityExceededException ex,
+                                                           ServerWebExchange exchange) {
+        logger.error("System capacity exceeded: {}", ex.getMessage());
+        return buildErrorResponse(ex, "System is currently at full capacity, please try again later",
+                HttpStatus.SERVICE_UNAVAILABLE, exchange);
+    }
+
+    @ExceptionHandler(BusinessException.class)
+    public ResponseEntity<ApiError> handleBusinessException(BusinessException ex, ServerWebExchange exchange) {
+        logger.warn("Business rule violation: {}", ex.getMessage());
+        return buildErrorResponse(ex, ex.getMessage(), HttpStatus.BAD_REQUEST, exchange);
+    }
+
+    /**
+     * A connection could not be acquired from the R2DBC pool in time, or a statement timed out.
+     */
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ApiError> handleQueryTimeout(QueryTimeoutException ex, ServerWebExchange exchange) {
+        logger.error("Database timeout: {}", ex.getMessage());
+        return buildErrorResponse(ex, "Service temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE, exchange);
+    }
+
+    @ExceptionHandler(RedisConnectionFailureException.class)
+    public ResponseEntity<ApiError> handleRedisConnectionFailure(RedisConnectionFailureException ex,
+                                                                 ServerWebExchange exchange) {
+        logger.error("Redis connection failure: {}", ex.getMessage());
+        return buildErrorResponse(ex, "Service temporarily unavailable", HttpStatus.SERVICE_UNAVAILABLE, exchange);
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ApiError> handleValidationErrors(WebExchangeBindException ex, ServerWebExchange exchange) {
+        logger.warn("Validation failure: {}", ex.getMessage());
+
+        Map<String, String> validationErrors = new HashMap<>();
+        ex.getBindingResult().getFieldErrors().forEach(error ->
+            validationErrors.put(error.getField(), error.getDefaultMessage())
+        );
+
+        ApiError apiError = new ApiError(
+            HttpStatus.BAD_REQUEST.value(),
+            "Validation error",
+            validationErrors.toString(),
+            exchange.getRequest().getPath().value());
+
+        return new ResponseEntity<>(apiError, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiError> handleGenericException(Exception ex, ServerWebExchange exchange) {
+        logger.error("Unhandled exception occurred", ex);
+        return buildErrorResponse(ex, "An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR, exchange);
+    }
+
+    private ResponseEntity<ApiError> buildErrorResponse(Exception ex, String message, HttpStatus status,
+                                                       ServerWebExchange exchange) {
+        ApiError apiError = new ApiError(
+            status.value(),
+            ex.getMessage(),
+            message,
+            exchange.getRequest().getPath().value());
+
+        return new ResponseEntity<>(apiError, status);
+    }
+}
@@ -0,0 +1,65 @@
+package com.azki.reservation.reactive.controller;
+
+import com.azki.reservation.dto.reservation.ReservationRequestDto;
+import com.azki.reservation.dto.reservation.ReservationResponseDto;
+import com.azki.reservation.exception.DuplicateReservationException;
+import com.azki.reservation.queue.QueueItem;
+import com.azki.reservation.reactive.service.ReactiveReservationQueue;
+import com.azki.reservation.reactive.service.ReactiveReservationService;
+import com.azki.reservation.service.ReservationQueueService.RequestStatus;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * The servlet application's reservation API (reserve, status, cancel) with the same paths, payloads and status
+ * codes, served without a thread per request.
+ * <p>
+ * Under load a reserve call is queued on Redis and answered with 202 right away; the servlet nodes' workers
+ * process it and clients poll {@code /status/{requestId}} as usual.
+ */
+@RestController
+@RequestMapping("/api/v1/reservations")
+public class ReactiveReservationController {
+
+    private final ReactiveReservationService reservationService;
+    private final ReactiveReservationQueue reservationQueue;
+
+    public ReactiveReservationController(ReactiveReservationService reservationService,
+                                         ReactiveReservationQueue reservationQueue) {
+        this.reservationService = reservationService;
+        this.reservationQueue = reservationQueue;
+    }
+
+    @PostMapping("/reserve")
+    public Mono<ResponseEntity<ReservationResponseDto>> reserveNearest(@RequestBody @Valid ReservationRequestDto request) {
+        if (reservationService.shouldQueueRequest()) {
+            String requestId = UUID.randomUUID().toString();
+            QueueItem item = new QueueItem(request, 0, requestId, System.currentTimeMillis(), null);
+            return reservationQueue.enqueue(item, RequestStatus.QUEUED.name())
+                .flatMap(enqueued -> enqueued
+                    ? Mono.just(ResponseEntity.accepted()
+                        .body(new ReservationResponseDto(requestId, RequestStatus.QUEUED.name())))
+                    : Mono.error(new DuplicateReservationException(
+                        "A reservation request for this email is already in queue")));
+        }
+        return reservationService.reserveNearestSlot(request.getEmail())
+            .map(id -> ResponseEntity.ok(new ReservationResponseDto("direct-" + id, RequestStatus.SUCCESS.name())));
+    }
+
+    @GetMapping("/status/{requestId}")
+    public Mono<ResponseEntity<ReservationResponseDto>> getReservationStatus(@PathVariable String requestId) {
+        return reservationQueue.status(requestId)
+            .map(status -> ResponseEntity.ok(new ReservationResponseDto(requestId, status)))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/cancel/{id}")
+    public Mono<ResponseEntity<Void>> cancelReservation(@PathVariable Long id) {
+        return reservationService.cancelReservation(id)
+            .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
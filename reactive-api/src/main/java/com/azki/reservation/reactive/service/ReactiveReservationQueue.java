@@ -0,0 +1,94 @@
+package com.azki.reservation.reactive.service;
+
+import com.azki.reservation.queue.QueueItem;
+import com.azki.reservation.util.RedisKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The Redis reservation queue seen from the reactive API: enqueue and status reads only. Items are processed by
+ * the queue workers of the servlet application, exactly like the ones its own nodes enqueue.
+ * <p>
+ * An enqueue claims the email's in-queue marker with {@code SET NX PX} and then pushes the item and writes its
+ * status. Lettuce pipelines the two writes on the shared connection, so they cost one round trip without an
+ * explicit pipeline.
+ */
+@Service
+public class ReactiveReservationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReservationQueue.class);
+
+    /**
+     * Deletes an in-queue marker only if it still belongs to the given request.
+     */
+    private static final RedisScript<Long> RELEASE_MARKER_SCRIPT = RedisScript.of(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration markerLease;
+    private final Duration statusTtl;
+
+    public ReactiveReservationQueue(
+            ReactiveRedisTemplate<String, Object> redisTemplate,
+            ObjectMapper objectMapper,
+            @Value("${reservation.queue.marker-lease-ms:600000}") long markerLeaseMillis,
+            @Value("${reservation.status.expiry-hours:24}") int statusExpiryHours) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.markerLease = Duration.ofMillis(markerLeaseMillis);
+        this.statusTtl = Duration.ofHours(statusExpiryHours);
+    }
+
+    /**
+     * Claims the in-queue marker of the item's email, then appends the item and records its initial status.
+     *
+     * @return false, without enqueueing anything, if a request for the same email is already queued
+     */
+    public Mono<Boolean> enqueue(QueueItem item, String status) {
+        String markerKey = RedisKeys.queuedMarker(item.request.getEmail());
+        return Mono.fromCallable(() -> serialize(item))
+            .flatMap(json -> redisTemplate.opsForValue().setIfAbsent(markerKey, item.requestId, markerLease)
+                .flatMap(claimed -> !claimed ? Mono.just(false) : Mono.when(
+                        redisTemplate.opsForList().rightPush(RedisKeys.QUEUE, json),
+                        redisTemplate.opsForValue().set(RedisKeys.status(item.requestId), status, statusTtl))
+                    .thenReturn(true)
+                    .onErrorResume(e -> releaseMarker(markerKey, item.requestId).then(Mono.error(e)))));
+    }
+
+    /**
+     * @return the status of a request, or empty if the request is unknown or its status expired
+     */
+    public Mono<String> status(String requestId) {
+        return redisTemplate.opsForValue().get(RedisKeys.status(requestId)).map(Object::toString);
+    }
+
+    private Mono<Void> releaseMarker(String markerKey, String requestId) {
+        return redisTemplate.execute(RELEASE_MARKER_SCRIPT, List.of(markerKey), List.of(requestId))
+            .then()
+            .onErrorResume(e -> {
+                // The lease lets the marker expire on its own
+                logger.warn("Failed to release in-queue marker of request {}", requestId, e);
+                return Mono.empty();
+            });
+    }
+
+    private String serialize(QueueItem item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Failed to serialize queue item " + item.requestId, e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.azki.reservation.reactive.service;
+
+import com.azki.reservation.exception.BusinessException;
+import com.azki.reservation.exception.DuplicateReservationException;
+import com.azki.reservation.exception.ReservationNotAvailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserves and cancels slots over R2DBC, without a thread blocked on the database.
+ * <p>
+ * A slot is claimed with a single {@code UPDATE ... FOR UPDATE SKIP LOCKED} that takes the nearest free slot no
+ * other transaction holds, so concurrent reservations never wait on each other's row locks and need no retry;
+ * the servlet application's optimistic claim on its cached next slot would turn every conflict into a retry here.
+ * Afterwards the shared {@code nextSlot} cache entry of the servlet nodes is evicted, as they do themselves.
+ * <p>
+ * Direct claims are counted in {@code reservation.active.requests}; once {@code reservation.request.threshold} of
+ * them are in flight the controller queues further requests instead, which bounds the concurrency the database
+ * sees no matter how many connections are open.
+ */
+@Service
+public class ReactiveReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveReservationService.class);
+    private static final String AUDITOR = "system";
+    private static final String NEXT_SLOT_CACHE_KEY = "nextSlot::single";
+
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final int requestThreshold;
+
+    public ReactiveReservationService(
+            DatabaseClient databaseClient,
+            TransactionalOperator transactionalOperator,
+            ReactiveRedisTemplate<String, Object> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.request.threshold:5}") int requestThreshold) {
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.redisTemplate = redisTemplate;
+        this.requestThreshold = requestThreshold;
+        meterRegistry.gauge("reservation.active.requests", activeRequests);
+    }
+
+    /**
+     * @return true if further reservations should be queued rather than claimed directly
+     */
+    public boolean shouldQueueRequest() {
+        return activeRequests.get() >= requestThreshold;
+    }
+
+    /**
+     * Reserves the nearest free slot for the user with the given email.
+     *
+     * @return the id of the new reservation
+     */
+    public Mono<Long> reserveNearestSlot(String email) {
+        Mono<Long> reservation = findUserId(email)
+            .switchIfEmpty(Mono.error(() -> new BusinessException("User not found for email: " + email)))
+            .flatMap(userId -> hasActiveReservation(email)
+                .flatMap(active -> active
+                    ? Mono.error(new DuplicateReservationException("User already has an active reservation"))
+                    : claimNearestSlot())
+                .flatMap(slotId -> insertReservation(userId, slotId)));
+        return transactionalOperator.transactional(reservation)
+            .flatMap(id -> evictNextSlotCache().thenReturn(id))
+            .doOnNext(id -> logger.info("Reservation {} created for user {}", id, email))
+            .doFirst(activeRequests::incrementAndGet)
+            .doFinally(signal -> activeRequests.decrementAndGet());
+    }
+
+    /**
+     * Cancels a reservation and frees its slot.
+     */
+    public Mono<Void> cancelReservation(Long id) {
+        Mono<Long> freed = databaseClient.sql("DELETE FROM reservation WHERE id = :id RETURNING available_slot_id")
+            .bind("id", id)
+            .map(row -> row.get("available_slot_id", Long.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new BusinessException("Reservation not found for id: " + id)))
+            .flatMap(slotId -> databaseClient.sql("""
+                    UPDATE available_slot SET is_reserved = false, version = version + 1,
+                        last_modified_date = :now, last_modified_by = :auditor
+                    WHERE id = :slotId""")
+                .bind("now", LocalDateTime.now())
+                .bind("auditor", AUDITOR)
+                .bind("slotId", slotId)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(slotId));
+        return transactionalOperator.transactional(freed)
+            .doOnNext(slotId -> logger.info("Slot {} freed from reservation {}", slotId, id))
+            .then(evictNextSlotCache());
+    }
+
+    private Mono<Long> findUserId(String email) {
+        return databaseClient.sql("SELECT id FROM users WHERE email = :email")
+            .bind("email", email)
+            .map(row -> row.get("id", Long.class))
+            .one();
+    }
+
+    private Mono<Boolean> hasActiveReservation(String email) {
+        return databaseClient.sql("""
+                SELECT EXISTS (SELECT 1 FROM reservation r
+                    JOIN users u ON u.id = r.user_id
+                    JOIN available_slot a ON a.id = r.available_slot_id
+                    WHERE u.email = :email AND a.start_time > :now)""")
+            .bind("email", email)
+            .bind("now", LocalDateTime.now())
+            .map(row -> row.get(0, Boolean.class))
+            .one();
+    }
+
+    private Mono<Long> claimNearestSlot() {
+        return databaseClient.sql("""
+                UPDATE available_slot SET is_reserved = true, version = version + 1,
+                    last_modified_date = :now, last_modified_by = :auditor
+                WHERE id = (SELECT id FROM available_slot
+                    WHERE is_reserved = false AND start_time >= :now
+                    ORDER BY start_time LIMIT 1
+                    FOR UPDATE SKIP LOCKED)
+                RETURNING id""")
+            .bind("now", LocalDateTime.now())
+            .bind("auditor", AUDITOR)
+            .map(row -> row.get("id", Long.class))
+            .one()
+            .switchIfEmpty(Mono.error(() -> new ReservationNotAvailableException("No available time slots")));
+    }
+
+    private Mono<Long> insertReservation(Long userId, Long slotId) {
+        LocalDateTime now = LocalDateTime.now();
+        return databaseClient.sql("""
+                INSERT INTO reservation (user_id, available_slot_id, reserved_at, created_by, created_date, version)
+                VALUES (:userId, :slotId, :now, :auditor, :now, 0)
+                RETURNING id""")
+            .bind("userId", userId)
+            .bind("slotId", slotId)
+            .bind("now", now)
+            .bind("auditor", AUDITOR)
+            .map(row -> row.get("id", Long.class))
+            .one();
+    }
+
+    private Mono<Void> evictNextSlotCache() {
+        return redisTemplate.delete(NEXT_SLOT_CACHE_KEY)
+            .then()
+            .onErrorResume(e -> {
+                // The servlet nodes re-check a cached slot against the database before claiming it
+                logger.warn("Failed to evict the nextSlot cache", e);
+                return Mono.empty();
+            });
+    }
+}
@@ -0,0 +1,131 @@
+package com.azki.reservation.reactive.controller;
+
+import com.azki.reservation.exception.ReservationNotAvailableException;
+import com.azki.reservation.queue.QueueItem;
+import com.azki.reservation.reactive.service.ReactiveReservationQueue;
+import com.azki.reservation.reactive.service.ReactiveReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveReservationControllerTest {
+
+    @Mock
+    private ReactiveReservationService reservationService;
+
+    @Mock
+    private ReactiveReservationQueue reservationQueue;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToController(new ReactiveReservationController(reservationService, reservationQueue))
+            .controllerAdvice(new ReactiveExceptionHandler())
+            .build();
+    }
+
+    @Test
+    void shouldReserveDirectlyBelowThreshold() {
+        // Given
+        when(reservationService.reserveNearestSlot("test@example.com")).thenReturn(Mono.just(42L));
+
+        // When
+        WebTestClient.ResponseSpec response = reserve("test@example.com");
+
+        // Then
+        response.expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$.requestId").isEqualTo("direct-42")
+            .jsonPath("$.status").isEqualTo("SUCCESS");
+        verifyNoInteractions(reservationQueue);
+    }
+
+    @Test
+    void shouldQueueAtThreshold() {
+        // Given
+        when(reservationService.shouldQueueRequest()).thenReturn(true);
+        when(reservationQueue.enqueue(any(QueueItem.class), eq("QUEUED"))).thenReturn(Mono.just(true));
+
+        // When
+        WebTestClient.ResponseSpec response = reserve("test@example.com");
+
+        // Then
+        response.expectStatus().isAccepted()
+            .expectBody()
+            .jsonPath("$.status").isEqualTo("QUEUED");
+        ArgumentCaptor<QueueItem> item = ArgumentCaptor.forClass(QueueItem.class);
+        verify(reservationQueue).enqueue(item.capture(), eq("QUEUED"));
+        assertEquals("test@example.com", item.getValue().request.getEmail());
+        verify(reservationService, never()).reserveNearestSlot(any());
+    }
+
+    @Test
+    void shouldRejectDuplicateQueuedRequest() {
+        // Given
+        when(reservationService.shouldQueueRequest()).thenReturn(true);
+        when(reservationQueue.enqueue(any(QueueItem.class), eq("QUEUED"))).thenReturn(Mono.just(false));
+
+        // When
+        WebTestClient.ResponseSpec response = reserve("test@example.com");
+
+        // Then
+        response.expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void shouldMapMissingSlotToNotFound() {
+        // Given
+        when(reservationService.reserveNearestSlot("test@example.com"))
+            .thenReturn(Mono.error(new ReservationNotAvailableException("No available time slots")));
+
+        // When
+        WebTestClient.ResponseSpec response = reserve("test@example.com");
+
+        // Then
+        response.expectStatus().isNotFound()
+            .expectBody()
+            .jsonPath("$.message").isEqualTo("No available time slots found");
+    }
+
+    @Test
+    void shouldRejectInvalidEmail() {
+        // When
+        WebTestClient.ResponseSpec response = reserve("not-an-email");
+
+        // Then
+        response.expectStatus().isBadRequest();
+        verifyNoInteractions(reservationQueue);
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownStatus() {
+        // Given
+        when(reservationQueue.status("request-123")).thenReturn(Mono.empty());
+
+        // When
+        WebTestClient.ResponseSpec response = client.get().uri("/api/v1/reservations/status/request-123").exchange();
+
+        // Then
+        response.expectStatus().isNotFound();
+    }
+
+    private WebTestClient.ResponseSpec reserve(String email) {
+        return client.post().uri("/api/v1/reservations/reserve")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"email\":\"" + email + "\"}")
+            .exchange();
+    }
+}
@@ -0,0 +1,206 @@
+package com.azki.reservation.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the latency of application methods into Micrometer timers ({@code reservation.method.time}).
+ * <p>
+ * Which beans get instrumented is decided once, when their proxies are created: only types directly in one of the
+ * configured sub-packages of {@code com.azki.reservation} are advised, so disabled packages are not proxied at all
+ * and {@code reservation.instrumentation.enabled=false} removes the advisor entirely. Once all singletons exist, timers
+ * are registered for the public methods each advised type declares itself; inherited methods (such as the
+ * {@code JpaRepository} CRUD methods) get theirs on first call. Calls then look them up without reflection. Arguments
+ * are only rendered for a sampled fraction of calls, and only when debug logging is on for the instrumented type.
+ * <p>
+ * Advisors are instantiated while bean post-processors are still being registered, so the registry is resolved
+ * lazily: taking it directly would create it before Boot's {@code MeterRegistryPostProcessor} exists, losing the
+ * common tags, meter filters and binders.
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+@ConditionalOnProperty(prefix = "reservation.instrumentation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MethodMetricsAdvisor extends AbstractPointcutAdvisor implements SmartInitializingSingleton {
+
+    private static final String BASE_PACKAGE = "com.azki.reservation.";
+    private static final Logger logger = LoggerFactory.getLogger(MethodMetricsAdvisor.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final Set<String> packages;
+    private final boolean histogram;
+    private final double argumentSampleRate;
+    private final long slowThresholdMs;
+    private final ClassValue<TypeTimers> timers = new ClassValue<>() {
+        @Override
+        protected TypeTimers computeValue(Class<?> runtimeClass) {
+            Class<?> type = instrumentedType(runtimeClass);
+            return new TypeTimers(type != null ? type : ClassUtils.getUserClass(runtimeClass));
+        }
+    };
+    private final Set<Class<?>> advisedClasses = ConcurrentHashMap.newKeySet();
+    private final Pointcut pointcut = new InstrumentedMethodPointcut();
+    private final MethodInterceptor interceptor = this::invoke;
+
+    public MethodMetricsAdvisor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${reservation.instrumentation.packages:controller,service,repository}") Set<String> packages,
+            @Value("${reservation.instrumentation.histogram:true}") boolean histogram,
+            @Value("${reservation.instrumentation.argument-sample-rate:0.01}") double argumentSampleRate,
+            @Value("${reservation.instrumentation.slow-threshold-ms:500}") long slowThresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.packages = Set.copyOf(packages);
+        this.histogram = histogram;
+        this.argumentSampleRate = argumentSampleRate;
+        this.slowThresholdMs = slowThresholdMs;
+        // Inside the security audit aspect but outside the transaction interceptor, so commit time is included
+        setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        logger.info("Method instrumentation enabled for packages {}", this.packages);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return interceptor;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Class<?> advisedClass : advisedClasses) {
+            TypeTimers typeTimers = timers.get(advisedClass);
+            for (Method method : typeTimers.type.getDeclaredMethods()) {
+                if (Modifier.isPublic(method.getModifiers()) && !method.isSynthetic()) {
+                    typeTimers.byMethod.computeIfAbsent(method, m -> registerTimers(typeTimers.type, m));
+                }
+            }
+        }
+    }
+
+    private Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        TypeTimers typeTimers = timers.get(invocation.getThis().getClass());
+        MethodTimers methodTimers = typeTimers.byMethod.computeIfAbsent(method, m -> registerTimers(typeTimers.type, m));
+        if (methodTimers.log.isDebugEnabled() && ThreadLocalRandom.current().nextDouble() < argumentSampleRate) {
+            methodTimers.log.debug("Sampled call: {}() with arguments = {}",
+                method.getName(), Arrays.toString(invocation.getArguments()));
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invocation.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            (failed ? methodTimers.error : methodTimers.success).record(elapsed, TimeUnit.NANOSECONDS);
+            if (elapsed > slowThresholdMs * 1_000_000 && methodTimers.log.isInfoEnabled()) {
+                methodTimers.log.info("Long execution time: {}() took {}ms", method.getName(), elapsed / 1_000_000);
+            }
+        }
+    }
+
+    private MethodTimers registerTimers(Class<?> type, Method method) {
+        return new MethodTimers(
+            LoggerFactory.getLogger(type),
+            timer(type, method, "success"),
+            timer(type, method, "error"));
+    }
+
+    private Timer timer(Class<?> type, Method method, String outcome) {
+        return Timer.builder("reservation.method.time")
+                .description("Execution time of instrumented application methods")
+                .tag("class", type.getSimpleName())
+                .tag("method", method.getName())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram(histogram)
+                .register(meterRegistry.getObject());
+    }
+
+    /**
+     * @return true if the type lives directly in one of the enabled sub-packages
+     */
+    boolean isInstrumented(Class<?> type) {
+        String packageName = type.getPackageName();
+        return packageName.startsWith(BASE_PACKAGE) && packages.contains(packageName.substring(BASE_PACKAGE.length()));
+    }
+
+    /**
+     * Resolves the application type behind a bean's runtime class: the class itself, or for Spring Data
+     * repositories (JDK proxies) the repository interface.
+     *
+     * @return the instrumented type, or null if the class is not instrumented
+     */
+    Class<?> instrumentedType(Class<?> runtimeClass) {
+        Class<?> userClass = ClassUtils.getUserClass(runtimeClass);
+        if (isInstrumented(userClass)) {
+            return userClass;
+        }
+        for (Class<?> iface : ClassUtils.getAllInterfacesForClassAsSet(runtimeClass)) {
+            if (isInstrumented(iface)) {
+                return iface;
+            }
+        }
+        return null;
+    }
+
+    private record MethodTimers(Logger log, Timer success, Timer error) {
+    }
+
+    private record TypeTimers(Class<?> type, ConcurrentMap<Method, MethodTimers> byMethod) {
+        TypeTimers(Class<?> type) {
+            this(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Matches public methods of application beans, including Spring Data repositories whose runtime class is a
+     * JDK proxy implementing the repository interface.
+     */
+    private class InstrumentedMethodPointcut extends StaticMethodMatcherPointcut {
+
+        InstrumentedMethodPointcut() {
+            setClassFilter(clazz -> {
+                if (instrumentedType(clazz) == null) {
+                    return false;
+                }
+                advisedClasses.add(clazz);
+                return true;
+            });
+        }
+
+        @Override
+        public boolean matches(Method method, Class<?> targetClass) {
+            return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+        }
+    }
+}
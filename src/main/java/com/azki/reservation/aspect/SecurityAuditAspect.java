@@ -13,6 +13,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * Aspect for security audit logging.
  * Logs authentication attempts, successful logins, and access denials.
@@ -65,6 +67,21 @@ public class SecurityAuditAspect {
         String methodName = joinPoint.getSignature().getName();
         String username = extractUsername(request);
 
+        // Asynchronous endpoints only know the outcome once their future completes
+        if (result instanceof CompletionStage<?> stage) {
+            stage.whenComplete((value, exception) -> {
+                if (exception != null) {
+                    securityLogger.warn("Authentication failed for user: {}. Reason: {}", username, exception.getMessage());
+                } else {
+                    logAuthenticationOutcome(methodName, username, value);
+                }
+            });
+            return;
+        }
+        logAuthenticationOutcome(methodName, username, result);
+    }
+
+    private void logAuthenticationOutcome(String methodName, String username, Object result) {
         if (methodName.toLowerCase().contains("login") && isSuccessful(result)) {
             securityLogger.info("Successful authentication for user: {}", username);
         } else if (methodName.toLowerCase().contains("register") && isSuccessful(result)) {
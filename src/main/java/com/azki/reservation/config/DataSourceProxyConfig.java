@@ -0,0 +1,45 @@
+package com.azki.reservation.config;
+
+import com.azki.reservation.jdbc.QueryMetricsListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application data source in a datasource-proxy so every JDBC statement, including lazy loads and
+ * flushes that never go through a repository method, is seen by {@link QueryMetricsListener}.
+ * <p>
+ * Data sources that only delegate, like the read/write routing of {@link ReadReplicaConfig}, are left alone: the
+ * pools behind them are wrapped already, and wrapping both would count every statement twice.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "reservation.jdbc", name = "metrics-enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryMetricsListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && !(bean instanceof DelegatingDataSource)) {
+                    // Resolved lazily: the listener's meter registry must not be created by a post-processor
+                    QueryMetricsListener queryMetrics = listener.getObject();
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(queryMetrics)
+                            .proxyResultSet()
+                            .methodListener(queryMetrics)
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
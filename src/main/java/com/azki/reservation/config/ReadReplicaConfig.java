@@ -0,0 +1,82 @@
+package com.azki.reservation.config;
+
+import com.azki.reservation.jdbc.ReplicaLagMonitor;
+import com.azki.reservation.jdbc.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary.
+ * <p>
+ * The primary pool is configured like the default one ({@code spring.datasource.*}), the replica pool under
+ * {@code reservation.datasource.replica.*}; each has its own Hikari settings and {@code hikaricp.*} metrics, tagged
+ * {@code pool=primary} or {@code pool=replica}. The application data source is a
+ * {@link LazyConnectionDataSourceProxy} that only takes a physical connection at the first statement, once the
+ * transaction has declared whether it is read-only, and takes it from the primary or from
+ * {@link ReplicaRoutingDataSource}. Reads therefore only move to the replica where they run in their own
+ * {@code @Transactional(readOnly = true)} transaction; a read inside a write transaction stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "reservation.datasource.replica", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("reservation.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${reservation.datasource.replica.url}") String url,
+            @Value("${reservation.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${reservation.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.datasource.replica.max-lag-ms:1000}") long maxLagMillis,
+            @Value("${reservation.datasource.replica.lag-check-interval-ms:500}") long checkIntervalMillis) {
+        return new ReplicaLagMonitor(replica, meterRegistry, maxLagMillis, checkIntervalMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagMonitor replicaLagMonitor,
+            MeterRegistry meterRegistry) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(replica, primary, replicaLagMonitor, meterRegistry));
+        return dataSource;
+    }
+}
@@ -1,57 +1,169 @@
 package com.azki.reservation.config;
 
+import com.azki.reservation.queue.RedisCompletionListener;
+import com.azki.reservation.service.UserIdentityInvalidationListener;
+import com.azki.reservation.util.RedisKeys;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.time.Duration;
+import java.util.HashSet;
 
+/**
+ * Redis connection setup.
+ * <p>
+ * The topology follows the standard {@code spring.data.redis} properties: {@code cluster.nodes} selects Redis
+ * Cluster, {@code sentinel.master}/{@code sentinel.nodes} selects Sentinel, and otherwise a standalone server at
+ * {@code host}/{@code port} is used. On Sentinel and Cluster a second connection factory reads from replicas
+ * and backs {@code statusReadRedisTemplate}, which only serves request status polling; standalone Redis has no
+ * replicas, so neither is created and status polling reads the primary.
+ * <p>
+ * By default non-blocking commands share one multiplexed Lettuce connection per factory (see {@link ClientMode});
+ * multi-command sequences should go through {@code RedisPipelineExecutor} to cost a single round trip.
+ */
 @Configuration
+@EnableConfigurationProperties(RedisProperties.class)
 public class RedisConfig {
 
-    @Value("${spring.data.redis.host:localhost}")
-    private String redisHost;
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
 
-    @Value("${spring.data.redis.port:6379}")
-    private int redisPort;
+    @Value("${reservation.redis.status-read-from:REPLICA_PREFERRED}")
+    private String statusReadFrom;
 
-    @Value("${spring.data.redis.password:}")
-    private String redisPassword;
+    @Value("${reservation.redis.cluster-refresh-period-ms:30000}")
+    private long clusterRefreshPeriodMillis;
 
-    @Bean
-    public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration redisConfig = new RedisStandaloneConfiguration(redisHost, redisPort);
+    @Value("${reservation.redis.client-mode:SHARED}")
+    private ClientMode clientMode;
 
-        if (redisPassword != null && !redisPassword.isEmpty()) {
-            redisConfig.setPassword(redisPassword);
-        }
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
 
-        GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
-        poolConfig.setMaxTotal(10);
-        poolConfig.setMaxIdle(5);
-        poolConfig.setMinIdle(1);
-        poolConfig.setTestOnBorrow(true);
-        poolConfig.setTestOnReturn(true);
-        poolConfig.setTestWhileIdle(true);
+    @Value("${reservation.redis.pool.max-total:16}")
+    private int poolMaxTotal;
 
-        LettucePoolingClientConfiguration lettucePoolConfig = LettucePoolingClientConfiguration.builder()
-                .commandTimeout(Duration.ofSeconds(2))
-                .shutdownTimeout(Duration.ZERO)
-                .poolConfig(poolConfig)
-                .build();
+    @Value("${reservation.redis.pool.max-idle:8}")
+    private int poolMaxIdle;
+
+    @Value("${reservation.redis.pool.min-idle:0}")
+    private int poolMinIdle;
+
+    /**
+     * How commands reach Redis.
+     */
+    public enum ClientMode {
+        /**
+         * Regular commands are multiplexed over one shared native Lettuce connection. The pool only hands out
+         * dedicated connections for blocking commands, transactions and pipelines, and never pings on borrow.
+         */
+        SHARED,
+        /**
+         * Every operation borrows a pooled connection that is validated on borrow and return.
+         */
+        POOLED
+    }
+
+    @Bean
+    @Primary
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties properties) {
+        RedisConfiguration topology = topology(properties);
+        logger.info("Using Redis {} topology in {} client mode", topology.getClass().getSimpleName(), clientMode);
+        if (virtualThreads && clientMode == ClientMode.POOLED) {
+            // Borrowers beyond max-total wait on a monitor inside commons-pool2, pinning their carrier threads
+            logger.warn("POOLED Redis client mode borrows a connection for every command and can pin virtual "
+                + "threads under load; use SHARED with virtual threads");
+        }
+        return createConnectionFactory(topology, clientConfiguration(properties, null));
+    }
 
-        return new LettuceConnectionFactory(redisConfig, lettucePoolConfig);
+    /**
+     * Connection factory for status reads, which may be served by replicas.
+     */
+    @Bean
+    @Conditional(ReplicaTopologyCondition.class)
+    public LettuceConnectionFactory statusReadConnectionFactory(RedisProperties properties) {
+        // ReadFrom names are camel case (replicaPreferred); accept the enum-style spelling used in configuration
+        ReadFrom readFrom = ReadFrom.valueOf(statusReadFrom.replace("_", ""));
+        return createConnectionFactory(topology(properties), clientConfiguration(properties, readFrom));
+    }
+
+    LettuceConnectionFactory createConnectionFactory(RedisConfiguration topology,
+                                                     LettuceClientConfiguration clientConfiguration) {
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(topology, clientConfiguration);
+        factory.setShareNativeConnection(clientMode == ClientMode.SHARED);
+        // Write a whole pipeline to the socket at once instead of flushing after every command
+        factory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.flushOnClose());
+        return factory;
     }
 
     @Bean
+    @Primary
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+        return createTemplate(connectionFactory);
+    }
+
+    /**
+     * Subscribes to the completions published when a queued request finishes (with the {@code redis} queue
+     * backend) and to user changes made on any node. Listeners run on the Lettuce thread that received the
+     * message: completing a future or evicting a cache entry is cheap and a thread per message is not.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            ObjectProvider<RedisCompletionListener> completionListener,
+            UserIdentityInvalidationListener userIdentityInvalidationListener) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setTaskExecutor(Runnable::run);
+        completionListener.ifAvailable(listener ->
+            container.addMessageListener(listener, new ChannelTopic(RedisKeys.COMPLETIONS_CHANNEL)));
+        container.addMessageListener(userIdentityInvalidationListener, new ChannelTopic(RedisKeys.USER_CHANGES_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Template for request status lookups only; may return slightly stale values when reading from a replica.
+     */
+    @Bean
+    @Conditional(ReplicaTopologyCondition.class)
+    public RedisTemplate<String, Object> statusReadRedisTemplate(
+            @Qualifier("statusReadConnectionFactory") RedisConnectionFactory connectionFactory) {
+        return createTemplate(connectionFactory);
+    }
+
+    private RedisTemplate<String, Object> createTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
@@ -60,4 +172,94 @@ public class RedisConfig {
         template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
         return template;
     }
+
+    RedisConfiguration topology(RedisProperties properties) {
+        if (isCluster(properties)) {
+            RedisProperties.Cluster cluster = properties.getCluster();
+            RedisClusterConfiguration config = new RedisClusterConfiguration(cluster.getNodes());
+            if (cluster.getMaxRedirects() != null) {
+                config.setMaxRedirects(cluster.getMaxRedirects());
+            }
+            config.setUsername(properties.getUsername());
+            config.setPassword(RedisPassword.of(properties.getPassword()));
+            return config;
+        }
+
+        if (isSentinel(properties)) {
+            RedisProperties.Sentinel sentinel = properties.getSentinel();
+            RedisSentinelConfiguration config =
+                new RedisSentinelConfiguration(sentinel.getMaster(), new HashSet<>(sentinel.getNodes()));
+            config.setDatabase(properties.getDatabase());
+            config.setUsername(properties.getUsername());
+            config.setPassword(RedisPassword.of(properties.getPassword()));
+            config.setSentinelUsername(sentinel.getUsername());
+            config.setSentinelPassword(RedisPassword.of(sentinel.getPassword()));
+            return config;
+        }
+
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(properties.getHost(), properties.getPort());
+        config.setDatabase(properties.getDatabase());
+        config.setUsername(properties.getUsername());
+        config.setPassword(RedisPassword.of(properties.getPassword()));
+        return config;
+    }
+
+    /**
+     * @param readFrom replica read preference, or {@code null} to always read from the primary
+     */
+    LettucePoolingClientConfiguration clientConfiguration(RedisProperties properties, ReadFrom readFrom) {
+        GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+        poolConfig.setMaxTotal(poolMaxTotal);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        // In shared mode a broken connection surfaces on first use and Lettuce reconnects it; validating
+        // every borrow and return would add two round trips to each pipeline or blocking call
+        boolean validate = clientMode == ClientMode.POOLED;
+        poolConfig.setTestOnBorrow(validate);
+        poolConfig.setTestOnReturn(validate);
+        poolConfig.setTestWhileIdle(true);
+        poolConfig.setTimeBetweenEvictionRuns(Duration.ofSeconds(30));
+
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder builder =
+            LettucePoolingClientConfiguration.builder()
+                .commandTimeout(Duration.ofSeconds(2))
+                .shutdownTimeout(Duration.ZERO)
+                .poolConfig(poolConfig);
+        if (readFrom != null) {
+            builder.readFrom(readFrom);
+        }
+
+        if (isCluster(properties)) {
+            // Follow slot migrations and failovers without waiting for MOVED redirects to pile up
+            ClusterTopologyRefreshOptions refreshOptions = ClusterTopologyRefreshOptions.builder()
+                .enablePeriodicRefresh(Duration.ofMillis(clusterRefreshPeriodMillis))
+                .enableAllAdaptiveRefreshTriggers()
+                .build();
+            builder.clientOptions(ClusterClientOptions.builder().topologyRefreshOptions(refreshOptions).build());
+        }
+        return builder.build();
+    }
+
+    private static boolean isCluster(RedisProperties properties) {
+        return properties.getCluster() != null && properties.getCluster().getNodes() != null
+            && !properties.getCluster().getNodes().isEmpty();
+    }
+
+    private static boolean isSentinel(RedisProperties properties) {
+        return properties.getSentinel() != null && properties.getSentinel().getMaster() != null;
+    }
+
+    /**
+     * Matches Sentinel and Cluster topologies, the ones with replicas to read from.
+     */
+    static class ReplicaTopologyCondition implements Condition {
+
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            RedisProperties properties = Binder.get(context.getEnvironment())
+                .bind("spring.data.redis", RedisProperties.class)
+                .orElseGet(RedisProperties::new);
+            return isCluster(properties) || isSentinel(properties);
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package com.azki.reservation.config;
 
-import com.azki.reservation.service.ReservationQueueService;
+import com.azki.reservation.service.QueueStats;
+import com.azki.reservation.service.QueueStatsSampler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.stereotype.Component;
@@ -8,45 +10,97 @@ import org.springframework.stereotype.Component;
 /**
  * Custom health indicator that monitors the reservation queue.
  * Provides insights into the queue's health and backlog status.
+ * <p>
+ * It only reads the snapshot kept by {@link QueueStatsSampler}, so a probe never waits on Redis. Besides the queue
+ * and DLQ length thresholds it reports on the drain rate: a backlog that would take longer than
+ * {@code drain-warning-seconds} to work off is a WARNING, and a backlog that has not shrunk across samples while
+ * nothing drained for longer than {@code stall-seconds} is DOWN. A snapshot older than {@code stale-after-ms} is
+ * reported as UNKNOWN, which does not affect the aggregate status.
  */
 @Component
 public class ReservationQueueHealthIndicator implements HealthIndicator {
 
-    private final ReservationQueueService reservationQueueService;
+    private static final String WARNING = "WARNING";
 
-    // Configurable thresholds for queue health status
-    private static final int QUEUE_WARNING_THRESHOLD = 50;
-    private static final int QUEUE_CRITICAL_THRESHOLD = 100;
-    private static final int DLQ_WARNING_THRESHOLD = 10;
+    private final QueueStatsSampler queueStatsSampler;
+    private final long queueWarningThreshold;
+    private final long queueCriticalThreshold;
+    private final long dlqWarningThreshold;
+    private final long drainWarningSeconds;
+    private final long stallSeconds;
+    private final long staleAfterMillis;
 
-    public ReservationQueueHealthIndicator(ReservationQueueService reservationQueueService) {
-        this.reservationQueueService = reservationQueueService;
+    public ReservationQueueHealthIndicator(
+            QueueStatsSampler queueStatsSampler,
+            @Value("${reservation.queue.health.queue-warning:50}") long queueWarningThreshold,
+            @Value("${reservation.queue.health.queue-critical:100}") long queueCriticalThreshold,
+            @Value("${reservation.queue.health.dlq-warning:10}") long dlqWarningThreshold,
+            @Value("${reservation.queue.health.drain-warning-seconds:60}") long drainWarningSeconds,
+            @Value("${reservation.queue.health.stall-seconds:120}") long stallSeconds,
+            @Value("${reservation.queue.health.stale-after-ms:30000}") long staleAfterMillis) {
+        this.queueStatsSampler = queueStatsSampler;
+        this.queueWarningThreshold = queueWarningThreshold;
+        this.queueCriticalThreshold = queueCriticalThreshold;
+        this.dlqWarningThreshold = dlqWarningThreshold;
+        this.drainWarningSeconds = drainWarningSeconds;
+        this.stallSeconds = stallSeconds;
+        this.staleAfterMillis = staleAfterMillis;
     }
 
     @Override
     public Health health() {
-        long queueSize = reservationQueueService.getQueueLength();
-        long dlqSize = reservationQueueService.getDLQLength();
+        QueueStats stats = queueStatsSampler.snapshot();
+        String lastFailure = queueStatsSampler.lastFailure();
+        if (stats == null) {
+            Health.Builder builder = Health.unknown().withDetail("reason", "Queue has not been sampled yet");
+            return lastFailure != null ? builder.withDetail("lastFailure", lastFailure).build() : builder.build();
+        }
+
+        long sampleAgeMs = stats.ageMillis(System.currentTimeMillis());
+        double drainSeconds = stats.estimatedDrainSeconds();
 
         // Build health response with queue details
         Health.Builder builder = Health.up()
-            .withDetail("queueSize", queueSize)
-            .withDetail("deadLetterQueueSize", dlqSize);
+            .withDetail("queueSize", stats.queueLength())
+            .withDetail("deadLetterQueueSize", stats.dlqLength())
+            .withDetail("inFlight", stats.inFlight())
+            .withDetail("drainRatePerSecond", stats.drainRate())
+            .withDetail("retryRatePerSecond", stats.retryRate())
+            .withDetail("estimatedDrainSeconds", Double.isInfinite(drainSeconds) ? "unbounded" : drainSeconds)
+            .withDetail("oldestAgeSeconds", stats.oldestAgeSeconds())
+            .withDetail("stalledSeconds", stats.stalledSeconds())
+            .withDetail("sampleAgeMs", sampleAgeMs);
+
+        if (sampleAgeMs > staleAfterMillis) {
+            builder.unknown().withDetail("warning", "Queue stats are stale");
+            return lastFailure != null ? builder.withDetail("lastFailure", lastFailure).build() : builder.build();
+        }
 
         // Check queue size thresholds
-        if (queueSize > QUEUE_CRITICAL_THRESHOLD) {
+        if (stats.queueLength() > queueCriticalThreshold) {
             return builder.down()
                 .withDetail("error", "Queue size exceeds critical threshold")
                 .build();
-        } else if (queueSize > QUEUE_WARNING_THRESHOLD) {
-            return builder.status("WARNING")
+        }
+        if (stats.stalledSeconds() > stallSeconds) {
+            return builder.down()
+                .withDetail("error", "Queue is not draining")
+                .build();
+        }
+        if (stats.queueLength() > queueWarningThreshold) {
+            return builder.status(WARNING)
                 .withDetail("warning", "Queue size exceeds warning threshold")
                 .build();
         }
+        if (drainSeconds > drainWarningSeconds) {
+            return builder.status(WARNING)
+                .withDetail("warning", "Queue drains slower than the warning threshold")
+                .build();
+        }
 
         // Check DLQ size threshold
-        if (dlqSize > DLQ_WARNING_THRESHOLD) {
-            return builder.status("WARNING")
+        if (stats.dlqLength() > dlqWarningThreshold) {
+            return builder.status(WARNING)
                 .withDetail("warning", "Dead letter queue size exceeds threshold")
                 .build();
         }
@@ -0,0 +1,68 @@
+package com.azki.reservation.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * One scheduler per background job, so a long expiry sweep or Redis key scan never delays the queue poller.
+ * Each {@code @Scheduled} method names its scheduler; sizes come from {@code reservation.scheduling.*.pool-size}.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} every run starts on a new virtual thread and the pool size becomes
+ * the job's concurrency limit. Otherwise each job gets its own small pool of platform threads.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String QUEUE_POLLER_SCHEDULER = "queuePollerScheduler";
+    public static final String EXPIRY_SWEEP_SCHEDULER = "expirySweepScheduler";
+    public static final String REDIS_CLEANUP_SCHEDULER = "redisCleanupScheduler";
+    public static final String AVAILABILITY_REBUILD_SCHEDULER = "availabilityRebuildScheduler";
+
+    private final boolean virtualThreads;
+
+    public SchedulingConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Bean(QUEUE_POLLER_SCHEDULER)
+    public TaskScheduler queuePollerScheduler(
+            @Value("${reservation.scheduling.queue-poller.pool-size:1}") int poolSize) {
+        return scheduler("reservation-queue-poller-", poolSize);
+    }
+
+    @Bean(EXPIRY_SWEEP_SCHEDULER)
+    public TaskScheduler expirySweepScheduler(
+            @Value("${reservation.scheduling.expiry-sweep.pool-size:1}") int poolSize) {
+        return scheduler("reservation-expiry-sweep-", poolSize);
+    }
+
+    @Bean(REDIS_CLEANUP_SCHEDULER)
+    public TaskScheduler redisCleanupScheduler(
+            @Value("${reservation.scheduling.redis-cleanup.pool-size:1}") int poolSize) {
+        return scheduler("reservation-redis-cleanup-", poolSize);
+    }
+
+    @Bean(AVAILABILITY_REBUILD_SCHEDULER)
+    public TaskScheduler availabilityRebuildScheduler(
+            @Value("${reservation.scheduling.availability-rebuild.pool-size:1}") int poolSize) {
+        return scheduler("reservation-availability-rebuild-", poolSize);
+    }
+
+    private TaskScheduler scheduler(String threadNamePrefix, int poolSize) {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setThreadNamePrefix(threadNamePrefix);
+            scheduler.setVirtualThreads(true);
+            scheduler.setConcurrencyLimit(poolSize);
+            return scheduler;
+        }
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        scheduler.setPoolSize(poolSize);
+        return scheduler;
+    }
+}
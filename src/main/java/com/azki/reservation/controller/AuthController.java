@@ -2,8 +2,10 @@ package com.azki.reservation.controller;
 
 import com.azki.reservation.dto.auth.LoginRequestDto;
 import com.azki.reservation.dto.auth.LoginResponseDto;
+import com.azki.reservation.entity.User;
 import com.azki.reservation.repository.UserRepository;
 import com.azki.reservation.security.util.JwtUtil;
+import com.azki.reservation.service.PasswordHashingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,12 +18,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -31,24 +35,38 @@ public class AuthController {
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     @Operation(summary = "User login", description = "Authenticates a user and provides a JWT token")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Successful login",
             content = @Content(schema = @Schema(implementation = LoginResponseDto.class))),
         @ApiResponse(responseCode = "401", description = "Invalid credentials"),
-        @ApiResponse(responseCode = "400", description = "Invalid request")
+        @ApiResponse(responseCode = "400", description = "Invalid request"),
+        @ApiResponse(responseCode = "503", description = "Too many concurrent logins")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequestDto loginRequest) {
         logger.debug("Login attempt for email: {}", loginRequest.getEmail());
 
-        return userRepository.findByEmail(loginRequest.getEmail())
-                .filter(user -> passwordEncoder.matches(loginRequest.getPassword(), user.getPassword()))
-                .map(user -> {
+        Optional<User> candidate = userRepository.findByEmail(loginRequest.getEmail());
+        if (candidate.isEmpty()) {
+            logger.warn("Failed login attempt for email: {}", loginRequest.getEmail());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        User user = candidate.get();
+
+        // Verify on the bounded hashing executor so login bursts cannot starve request threads
+        return passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())
+                .<ResponseEntity<?>>thenApply(matched -> {
+                    if (!matched) {
+                        logger.warn("Failed login attempt for email: {}", loginRequest.getEmail());
+                        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                    }
+                    rehashIfNeeded(user, loginRequest.getPassword());
+
                     // Generate token
-                    String token = jwtUtil.generateToken(user.getEmail());
+                    String token = jwtUtil.generateToken(user);
 
                     // Create response with detailed information
                     LoginResponseDto response = LoginResponseDto.builder()
@@ -61,10 +79,27 @@ public class AuthController {
 
                     logger.info("Successful login for user: {}", user.getEmail());
                     return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Transparently upgrades a hash made with weaker parameters than currently configured. Best effort: the login
+     * succeeds regardless, and the upgrade is simply retried on a later login if it is rejected or fails.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        String oldHash = user.getPassword();
+        passwordHashingService.encode(rawPassword)
+                .thenAccept(newHash -> {
+                    if (userRepository.updatePasswordHash(user.getId(), oldHash, newHash) > 0) {
+                        logger.info("Rehashed password of user {} with the current parameters", user.getId());
+                    }
                 })
-                .orElseGet(() -> {
-                    logger.warn("Failed login attempt for email: {}", loginRequest.getEmail());
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                .exceptionally(e -> {
+                    logger.warn("Could not rehash password of user {}: {}", user.getId(), e.getMessage());
+                    return null;
                 });
     }
 }
@@ -0,0 +1,72 @@
+package com.azki.reservation.controller;
+
+import com.azki.reservation.dto.availability.AvailabilityResponseDto;
+import com.azki.reservation.dto.availability.AvailabilityResponseDto.Granularity;
+import com.azki.reservation.dto.availability.FreeSlotPageDto;
+import com.azki.reservation.service.AvailabilityService;
+import com.azki.reservation.service.AvailabilityService.Tagged;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.LocalDate;
+
+/**
+ * Availability search, so clients can see free slots without probing with reserve calls.
+ * <p>
+ * Both endpoints answer conditional GETs: a request whose {@code If-None-Match} still matches gets 304 after a
+ * single Redis read of the histogram version. Responses are marked {@code no-cache} rather than the default
+ * {@code no-store}, so clients keep them and revalidate.
+ */
+@Tag(name = "Availability API", description = "جستجوی زمان‌های آزاد")
+@RestController
+@RequestMapping("/api/v1/reservations/availability")
+public class AvailabilityController {
+
+    private final AvailabilityService availabilityService;
+
+    public AvailabilityController(AvailabilityService availabilityService) {
+        this.availabilityService = availabilityService;
+    }
+
+    @Operation(summary = "تعداد زمان‌های آزاد در هر روز یا ساعت")
+    @GetMapping
+    public ResponseEntity<AvailabilityResponseDto> getAvailability(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") Granularity granularity,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(availabilityService.availabilityEtag(from, to))) {
+            return null;
+        }
+        return tagged(availabilityService.availability(from, to, granularity));
+    }
+
+    @Operation(summary = "فهرست صفحه‌بندی‌شده زمان‌های آزاد")
+    @GetMapping("/slots")
+    public ResponseEntity<FreeSlotPageDto> getFreeSlots(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+        String etag = availabilityService.freeSlotsEtag(cursor);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return tagged(availabilityService.freeSlots(cursor, size));
+    }
+
+    private static <T> ResponseEntity<T> tagged(Tagged<T> response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate());
+        if (response.etag() != null) {
+            builder.eTag(response.etag());
+        }
+        return builder.body(response.body());
+    }
+}
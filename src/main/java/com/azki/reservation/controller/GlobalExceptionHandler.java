@@ -1,8 +1,10 @@
 package com.azki.reservation.controller;
 
 import com.azki.reservation.dto.ApiError;
+import com.azki.reservation.exception.AvailabilityNotReadyException;
 import com.azki.reservation.exception.BusinessException;
 import com.azki.reservation.exception.DuplicateReservationException;
+import com.azki.reservation.exception.PasswordHashingOverloadedException;
 import com.azki.reservation.exception.ReservationCapacityExceededException;
 import com.azki.reservation.exception.ReservationNotAvailableException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -53,6 +55,22 @@ public class GlobalExceptionHandler {
                 HttpStatus.SERVICE_UNAVAILABLE, request.getRequestURI());
     }
 
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ApiError> handlePasswordHashingOverloaded(PasswordHashingOverloadedException ex, HttpServletRequest request) {
+        logger.warn("Login rejected, password hashing is saturated: {}", ex.getMessage());
+        return buildErrorResponse(ex, "Too many concurrent logins, please try again shortly",
+                HttpStatus.SERVICE_UNAVAILABLE, request.getRequestURI());
+    }
+
+    @ExceptionHandler(AvailabilityNotReadyException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ResponseEntity<ApiError> handleAvailabilityNotReady(AvailabilityNotReadyException ex, HttpServletRequest request) {
+        logger.warn("Availability requested before it was ready: {}", ex.getMessage());
+        return buildErrorResponse(ex, "Availability is not ready yet, please try again shortly",
+                HttpStatus.SERVICE_UNAVAILABLE, request.getRequestURI());
+    }
+
     @ExceptionHandler(BusinessException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<ApiError> handleBusinessException(BusinessException ex, HttpServletRequest request) {
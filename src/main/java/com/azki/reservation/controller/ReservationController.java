@@ -1,10 +1,20 @@
 package com.azki.reservation.controller;
 
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto;
+import com.azki.reservation.dto.reservation.BulkReservationResponseDto;
+import com.azki.reservation.dto.reservation.BulkReservationResultDto;
 import com.azki.reservation.dto.reservation.ReservationRequestDto;
 import com.azki.reservation.dto.reservation.ReservationResponseDto;
 import com.azki.reservation.entity.Reservation;
+import com.azki.reservation.security.JwtFilter;
+import com.azki.reservation.service.BulkReservationService;
 import com.azki.reservation.service.LoadMonitoringService;
+import com.azki.reservation.service.ReservationCompletionRegistry;
+import com.azki.reservation.service.ReservationMetrics;
+import com.azki.reservation.service.ReservationMetrics.Phase;
+import com.azki.reservation.service.ReservationPath;
 import com.azki.reservation.service.ReservationQueueService;
+import com.azki.reservation.service.ReservationQueueService.RequestStatus;
 import com.azki.reservation.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -12,9 +22,14 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 @Tag(name = "Reservation API", description = "مدیریت رزرو زمان")
 @RestController
 @RequestMapping("/api/v1/reservations")
@@ -22,22 +37,42 @@ public class ReservationController {
 
     private static final Logger logger = LoggerFactory.getLogger(ReservationController.class);
     private final ReservationService reservationService;
+    private final BulkReservationService bulkReservationService;
     private final ReservationQueueService reservationQueueService;
     private final LoadMonitoringService loadMonitoringService;
+    private final ReservationMetrics reservationMetrics;
+    private final ReservationCompletionRegistry completionRegistry;
+    @Value("${reservation.queue.await-result-ms:250}")
+    private long awaitResultMillis;
 
     @Autowired
     public ReservationController(
             ReservationService reservationService,
+            BulkReservationService bulkReservationService,
             ReservationQueueService reservationQueueService,
-            LoadMonitoringService loadMonitoringService) {
+            LoadMonitoringService loadMonitoringService,
+            ReservationMetrics reservationMetrics,
+            ReservationCompletionRegistry completionRegistry) {
         this.reservationService = reservationService;
+        this.bulkReservationService = bulkReservationService;
         this.reservationQueueService = reservationQueueService;
         this.loadMonitoringService = loadMonitoringService;
+        this.reservationMetrics = reservationMetrics;
+        this.completionRegistry = completionRegistry;
     }
 
+    /**
+     * Reserves the nearest free slot, directly or, under high load, through the queue.
+     * <p>
+     * A queued request is held for up to {@code reservation.queue.await-result-ms} without blocking the servlet
+     * thread: if the worker finishes it in time the response carries its final status, 200 if it succeeded and 409
+     * if it failed, otherwise 202 and the client polls {@code /status/{requestId}}.
+     */
     @Operation(summary = "رزرو نزدیک‌ترین زمان آزاد")
     @PostMapping("/reserve")
-    public ResponseEntity<ReservationResponseDto> reserveNearest(@RequestBody @Valid ReservationRequestDto request) {
+    public CompletableFuture<ResponseEntity<ReservationResponseDto>> reserveNearest(
+            @RequestBody @Valid ReservationRequestDto request,
+            @RequestAttribute(name = JwtFilter.AUTH_NANOS_ATTRIBUTE, required = false) Long authNanos) {
         try {
             // Increment active request counter
             loadMonitoringService.incrementActiveRequests();
@@ -45,16 +80,28 @@ public class ReservationController {
             // Check if we should queue this request based on current system load
             if (loadMonitoringService.shouldQueueRequest()) {
                 // High load - use queue
+                recordAuth(ReservationPath.QUEUED, authNanos);
                 logger.info("Processing reservation request for {} through queue due to high load", request.getEmail());
                 String requestId = reservationQueueService.enqueueReservationRequest(request);
-                String status = reservationQueueService.getRequestStatus(requestId);
-                return ResponseEntity.accepted().body(new ReservationResponseDto(requestId, status));
+                return awaitResult(requestId);
             } else {
                 // Normal load - process directly
+                recordAuth(ReservationPath.DIRECT, authNanos);
                 logger.info("Processing reservation request for {} directly", request.getEmail());
-                Reservation reservation = reservationService.reserveNearestSlot(request.getEmail());
-                String requestId = "direct-" + reservation.getId();
-                return ResponseEntity.ok().body(new ReservationResponseDto(requestId, "SUCCESS"));
+                long start = System.nanoTime();
+                RuntimeException failure = null;
+                try {
+                    Reservation reservation = reservationService.reserveNearestSlot(request.getEmail(), ReservationPath.DIRECT);
+                    String requestId = "direct-" + reservation.getId();
+                    return CompletableFuture.completedFuture(
+                        ResponseEntity.ok().body(new ReservationResponseDto(requestId, "SUCCESS")));
+                } catch (RuntimeException e) {
+                    failure = e;
+                    throw e;
+                } finally {
+                    // Measured around the proxied call so the transaction commit is included
+                    reservationMetrics.recordProcessing(ReservationPath.DIRECT, System.nanoTime() - start, failure);
+                }
             }
         } finally {
             // Always decrement the counter when processing is complete
@@ -62,6 +109,68 @@ public class ReservationController {
         }
     }
 
+    /**
+     * Reserves several slots in one transaction, for a list of emails or several slots for one email.
+     * <p>
+     * Answered directly with one result per entry: 200 if anything was reserved, 409 if nothing was. Under high
+     * load the request is queued as a single item and, like {@code /reserve}, held for up to
+     * {@code reservation.queue.await-result-ms}; the queued status sums the results up instead of listing them.
+     */
+    @Operation(summary = "رزرو گروهی چند زمان آزاد در یک تراکنش")
+    @PostMapping("/bulk")
+    public CompletableFuture<ResponseEntity<BulkReservationResponseDto>> reserveBulk(
+            @RequestBody @Valid BulkReservationRequestDto request) {
+        // Rejected up front so an oversized request never reaches the queue
+        bulkReservationService.validate(request);
+        try {
+            loadMonitoringService.incrementActiveRequests();
+
+            if (loadMonitoringService.shouldQueueRequest()) {
+                logger.info("Processing bulk reservation request through queue due to high load");
+                String requestId = reservationQueueService.enqueueBulkReservationRequest(request);
+                return awaitResult(requestId).thenApply(response -> ResponseEntity.status(response.getStatusCode())
+                    .body(new BulkReservationResponseDto(requestId, response.getBody().getStatus(), null)));
+            }
+            logger.info("Processing bulk reservation request directly");
+            List<BulkReservationResultDto> results = bulkReservationService.reserve(request);
+            String status = BulkReservationService.status(results);
+            return CompletableFuture.completedFuture(
+                ResponseEntity.status(finalHttpStatus(status)).body(new BulkReservationResponseDto("direct-bulk", status, results)));
+        } finally {
+            loadMonitoringService.decrementActiveRequests();
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<ReservationResponseDto>> awaitResult(String requestId) {
+        if (awaitResultMillis <= 0) {
+            String status = reservationQueueService.getRequestStatus(requestId);
+            return CompletableFuture.completedFuture(
+                ResponseEntity.accepted().body(new ReservationResponseDto(requestId, status)));
+        }
+        CompletableFuture<String> result = completionRegistry.await(requestId, awaitResultMillis);
+        // The worker may have finished before the wait was registered
+        String status = reservationQueueService.getRequestStatus(requestId);
+        if (RequestStatus.isFinal(status)) {
+            completionRegistry.complete(requestId, status);
+        }
+        return result.thenApply(finalStatus -> finalStatus != null
+            ? ResponseEntity.status(finalHttpStatus(finalStatus)).body(new ReservationResponseDto(requestId, finalStatus))
+            : ResponseEntity.accepted().body(new ReservationResponseDto(requestId, status)));
+    }
+
+    /**
+     * 200 for a {@code SUCCESS} status and 409 for a {@code FAILED} one, which only keeps the failure's message.
+     */
+    private static HttpStatus finalHttpStatus(String status) {
+        return status.startsWith(RequestStatus.SUCCESS.name()) ? HttpStatus.OK : HttpStatus.CONFLICT;
+    }
+
+    private void recordAuth(ReservationPath path, Long authNanos) {
+        if (authNanos != null) {
+            reservationMetrics.record(path, Phase.AUTH, authNanos, true);
+        }
+    }
+
     @Operation(summary = "بررسی وضعیت درخواست رزرو با requestId")
     @GetMapping("/status/{requestId}")
     public ResponseEntity<ReservationResponseDto> getReservationStatus(@PathVariable String requestId) {
@@ -0,0 +1,17 @@
+package com.azki.reservation.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Free slots starting on {@code date}, or within {@code hour} of it for hourly availability.
+ */
+@Data
+@AllArgsConstructor
+public class AvailabilityBucketDto {
+    private LocalDate date;
+    private Integer hour;
+    private long free;
+}
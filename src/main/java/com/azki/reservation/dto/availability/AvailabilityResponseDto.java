@@ -0,0 +1,25 @@
+package com.azki.reservation.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Free slot counts from {@code from} to {@code to}, both included. Only days or hours with free slots are listed.
+ */
+@Data
+@AllArgsConstructor
+public class AvailabilityResponseDto {
+
+    public enum Granularity {
+        DAY,
+        HOUR
+    }
+
+    private LocalDate from;
+    private LocalDate to;
+    private Granularity granularity;
+    private List<AvailabilityBucketDto> buckets;
+}
@@ -0,0 +1,14 @@
+package com.azki.reservation.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class FreeSlotDto {
+    private Long id;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,16 @@
+package com.azki.reservation.dto.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * A page of free slots in start time order. {@code nextCursor} fetches the next page and is null on the last one.
+ */
+@Data
+@AllArgsConstructor
+public class FreeSlotPageDto {
+    private List<FreeSlotDto> slots;
+    private String nextCursor;
+}
@@ -0,0 +1,43 @@
+package com.azki.reservation.dto.reservation;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Reserves several slots at once: one for each email in {@code emails}, or {@code count} slots for a single
+ * {@code email}.
+ */
+@Data
+public class BulkReservationRequestDto {
+
+    public enum Mode {
+        /** Reserve every entry or none of them. */
+        ALL_OR_NOTHING,
+        /** Reserve what can be reserved and report the rest as failed. */
+        BEST_EFFORT
+    }
+
+    private List<@Email(message = "Invalid email format") @NotBlank(message = "Email is required") String> emails;
+
+    @Email(message = "Invalid email format")
+    private String email;
+
+    @Positive(message = "Count must be positive")
+    private Integer count;
+
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    @JsonIgnore
+    @AssertTrue(message = "Either emails, or email with count, is required")
+    public boolean isSingleForm() {
+        boolean list = emails != null && !emails.isEmpty();
+        boolean counted = email != null && count != null;
+        return list ? email == null && count == null : counted;
+    }
+}
@@ -0,0 +1,18 @@
+package com.azki.reservation.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk reservation. {@code results} holds one entry per requested slot, in request order, and is
+ * null while the request is queued.
+ */
+@Data
+@AllArgsConstructor
+public class BulkReservationResponseDto {
+    private String requestId;
+    private String status;
+    private List<BulkReservationResultDto> results;
+}
@@ -0,0 +1,28 @@
+package com.azki.reservation.dto.reservation;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one entry of a bulk reservation: the reservation and its slot's start time on success, the reason
+ * otherwise.
+ */
+@Data
+@AllArgsConstructor
+public class BulkReservationResultDto {
+    private String email;
+    private String status;
+    private Long reservationId;
+    private LocalDateTime startTime;
+    private String reason;
+
+    public static BulkReservationResultDto reserved(String email, Long reservationId, LocalDateTime startTime) {
+        return new BulkReservationResultDto(email, "SUCCESS", reservationId, startTime, null);
+    }
+
+    public static BulkReservationResultDto failed(String email, String reason) {
+        return new BulkReservationResultDto(email, "FAILED", null, null, reason);
+    }
+}
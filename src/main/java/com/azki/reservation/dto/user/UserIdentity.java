@@ -0,0 +1,11 @@
+package com.azki.reservation.dto.user;
+
+/**
+ * Compact, immutable view of a user: just what the reservation path needs to identify them.
+ *
+ * @param id the user id
+ * @param email the user's email
+ * @param userName the user's display name
+ */
+public record UserIdentity(Long id, String email, String userName) {
+}
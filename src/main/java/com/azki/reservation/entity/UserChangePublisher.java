@@ -0,0 +1,29 @@
+package com.azki.reservation.entity;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns writes of a {@link User} into {@link UserChangedEvent}s, so the entity does not
+ * need to know who reacts to them.
+ * <p>
+ * Resolved through Spring's bean container by Hibernate. New users are not announced: nothing is cached or issued
+ * for a user before it exists.
+ */
+@Component
+public class UserChangePublisher {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserChangePublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail()));
+    }
+}
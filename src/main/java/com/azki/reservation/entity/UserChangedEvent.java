@@ -0,0 +1,13 @@
+package com.azki.reservation.entity;
+
+/**
+ * Published when a user is updated or removed through JPA.
+ * <p>
+ * Published at flush time, inside the transaction that writes the user, so listeners that must not act on a
+ * change that is rolled back should listen after commit.
+ *
+ * @param userId id of the user
+ * @param email the user's email as written
+ */
+public record UserChangedEvent(Long userId, String email) {
+}
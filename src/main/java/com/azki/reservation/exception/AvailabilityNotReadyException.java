@@ -0,0 +1,10 @@
+package com.azki.reservation.exception;
+
+/**
+ * Exception thrown when availability is requested before the availability histogram has been built.
+ */
+public class AvailabilityNotReadyException extends BusinessException {
+    public AvailabilityNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.azki.reservation.exception;
+
+/**
+ * Exception thrown when the password hashing executor is saturated and a login
+ * cannot be verified right now.
+ */
+public class PasswordHashingOverloadedException extends BusinessException {
+    public PasswordHashingOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.azki.reservation.filter;
+
+import com.azki.reservation.jdbc.QueryMetricsListener;
+import com.azki.reservation.jdbc.RequestStatementScope;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the JDBC statements each request executes and reports them, tagged with the matched URL pattern, so
+ * N+1 query patterns show up per endpoint.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reservation.jdbc", name = "metrics-enabled", havingValue = "true", matchIfMissing = true)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private final QueryMetricsListener queryMetricsListener;
+
+    public StatementCountFilter(QueryMetricsListener queryMetricsListener) {
+        this.queryMetricsListener = queryMetricsListener;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestStatementScope scope = RequestStatementScope.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatementScope.close();
+            // The pattern, unlike the raw URI, keeps the route tag bounded
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            queryMetricsListener.completeScope(scope, pattern != null ? pattern.toString() : "unmapped");
+        }
+    }
+}
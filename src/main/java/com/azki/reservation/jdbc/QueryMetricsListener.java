@@ -0,0 +1,254 @@
+package com.azki.reservation.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every statement executed through the proxied data source, grouped by {@link QueryShape}.
+ * <p>
+ * Per shape it publishes {@code reservation.jdbc.query.time} (latency histogram) and
+ * {@code reservation.jdbc.query.rows} (rows read by selects, rows affected by updates). The first time a shape is
+ * seen its SQL is logged at INFO so the {@code shape} tag can be mapped back to a statement. Statements slower than
+ * {@code reservation.jdbc.slow-query-ms} are logged at WARN; bind values are only included for a sampled fraction
+ * of them. The per-request statement counts are reported by {@link #completeScope}.
+ * <p>
+ * Statements are timed with {@link System#nanoTime()} around the execution rather than datasource-proxy's elapsed
+ * time, which has whole-millisecond resolution and would record most statements as zero. Rows read by a select are
+ * counted from {@link ResultSet#next()} calls on the current thread, until the result set is closed or another
+ * select starts. That matches how Hibernate consumes results.
+ */
+@Component
+public class QueryMetricsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMetricsListener.class);
+    private static final Logger slowQueryLogger = LoggerFactory.getLogger("SLOW_QUERIES");
+
+    private final MeterRegistry meterRegistry;
+    private final int maxShapes;
+    private final long slowQueryNanos;
+    private final double bindSampleRate;
+    private final int nPlusOneThreshold;
+    private final ConcurrentMap<String, ShapeMeters> bySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ShapeMeters> byShape = new ConcurrentHashMap<>();
+    private final ShapeMeters otherShape;
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+
+    public QueryMetricsListener(
+            MeterRegistry meterRegistry,
+            @Value("${reservation.jdbc.max-shapes:500}") int maxShapes,
+            @Value("${reservation.jdbc.slow-query-ms:200}") long slowQueryMs,
+            @Value("${reservation.jdbc.bind-sample-rate:0.1}") double bindSampleRate,
+            @Value("${reservation.jdbc.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.maxShapes = maxShapes;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+        this.bindSampleRate = bindSampleRate;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.otherShape = new ShapeMeters(QueryShape.OTHER, meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // A new statement ends whatever result set this thread was reading
+        flushPendingRead();
+        threadState.get().queryStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        ThreadState state = threadState.get();
+        long elapsedNanos = System.nanoTime() - state.queryStartNanos;
+        ShapeMeters meters = shape(queryInfoList.get(0).getQuery());
+        meters.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet) {
+            state.pendingRead = new PendingRead(meters);
+        } else if (result instanceof Integer updated) {
+            meters.rows.record(Math.max(updated, 0));
+        } else if (result instanceof int[] batch) {
+            long updated = 0;
+            for (int count : batch) {
+                updated += Math.max(count, 0);
+            }
+            meters.rows.record(updated);
+        }
+
+        RequestStatementScope scope = RequestStatementScope.current();
+        if (scope != null) {
+            scope.record(meters.shape);
+        }
+        if (elapsedNanos >= slowQueryNanos) {
+            logSlowQuery(queryInfoList, meters.shape, elapsedNanos);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        // Nothing to do before a JDBC method call
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (!(executionContext.getTarget() instanceof ResultSet)) {
+            return;
+        }
+        PendingRead read = threadState.get().pendingRead;
+        if (read == null) {
+            return;
+        }
+        String method = executionContext.getMethod().getName();
+        if ("next".equals(method) && Boolean.TRUE.equals(executionContext.getResult())) {
+            read.rows++;
+        } else if ("close".equals(method)) {
+            flushPendingRead();
+        }
+    }
+
+    /**
+     * Reports the statements executed in a finished unit of work and flags shapes that ran often enough to look
+     * like an N+1 pattern.
+     *
+     * @param scope the closed scope
+     * @param route bounded name of the unit of work, e.g. the matched URL pattern
+     */
+    public void completeScope(RequestStatementScope scope, String route) {
+        flushPendingRead();
+        DistributionSummary.builder("reservation.jdbc.statements.per_request")
+                .description("JDBC statements executed per request")
+                .tag("route", route)
+                .register(meterRegistry)
+                .record(scope.total());
+        for (Map.Entry<QueryShape, Integer> entry : scope.executions().entrySet()) {
+            QueryShape shape = entry.getKey();
+            if (shape.isSelect() && entry.getValue() >= nPlusOneThreshold) {
+                logger.warn("Possible N+1 on {}: shape {} ran {} times in one request: {}",
+                    route, shape.id(), entry.getValue(), shape.sql());
+                Counter.builder("reservation.jdbc.n_plus_one")
+                        .description("Requests that repeated one select shape at least the N+1 threshold")
+                        .tag("route", route)
+                        .tag("shape", shape.id())
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+    }
+
+    private ShapeMeters shape(String sql) {
+        ShapeMeters meters = bySql.get(sql);
+        if (meters != null) {
+            return meters;
+        }
+        QueryShape shape = QueryShape.of(sql);
+        meters = byShape.get(shape.sql());
+        if (meters == null) {
+            meters = byShape.size() < maxShapes
+                ? byShape.computeIfAbsent(shape.sql(), key -> {
+                    logger.info("New query shape {} ({} on {}): {}",
+                        shape.id(), shape.operation(), shape.table(), shape.sql());
+                    return new ShapeMeters(shape, meterRegistry);
+                })
+                : otherShape;
+        }
+        // Remember the raw statement too so normalization runs once per distinct SQL string
+        if (bySql.size() < maxShapes * 4) {
+            bySql.putIfAbsent(sql, meters);
+        }
+        return meters;
+    }
+
+    private void flushPendingRead() {
+        ThreadState state = threadState.get();
+        PendingRead read = state.pendingRead;
+        if (read != null) {
+            state.pendingRead = null;
+            read.meters.rows.record(read.rows);
+        }
+    }
+
+    private void logSlowQuery(List<QueryInfo> queryInfoList, QueryShape shape, long elapsedNanos) {
+        if (!slowQueryLogger.isWarnEnabled()) {
+            return;
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (ThreadLocalRandom.current().nextDouble() < bindSampleRate) {
+            slowQueryLogger.warn("Slow query {} took {}ms: {} binds={}",
+                shape.id(), elapsedMs, queryInfoList.get(0).getQuery(), binds(queryInfoList.get(0)));
+        } else {
+            slowQueryLogger.warn("Slow query {} took {}ms: {}", shape.id(), elapsedMs, shape.sql());
+        }
+    }
+
+    private static String binds(QueryInfo queryInfo) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (List<ParameterSetOperation> parameters : queryInfo.getParametersList()) {
+            StringJoiner row = new StringJoiner(", ", "(", ")");
+            for (ParameterSetOperation parameter : parameters) {
+                Object[] args = parameter.getArgs();
+                row.add(args.length > 1 ? String.valueOf(args[1]) : "null");
+            }
+            joiner.add(row.toString());
+        }
+        return joiner.toString();
+    }
+
+    private static final class ShapeMeters {
+        private final QueryShape shape;
+        private final Timer timer;
+        private final DistributionSummary rows;
+
+        private ShapeMeters(QueryShape shape, MeterRegistry meterRegistry) {
+            this.shape = shape;
+            this.timer = Timer.builder("reservation.jdbc.query.time")
+                    .description("JDBC statement execution time per query shape")
+                    .tags("shape", shape.id(), "operation", shape.operation(), "table", shape.table())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("reservation.jdbc.query.rows")
+                    .description("Rows read or affected per statement, per query shape")
+                    .tags("shape", shape.id(), "operation", shape.operation(), "table", shape.table())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Per-thread state between the callbacks of one statement: its start time and the result set being read.
+     */
+    private static final class ThreadState {
+        private long queryStartNanos;
+        private PendingRead pendingRead;
+    }
+
+    private static final class PendingRead {
+        private final ShapeMeters meters;
+        private long rows;
+
+        private PendingRead(ShapeMeters meters) {
+            this.meters = meters;
+        }
+    }
+}
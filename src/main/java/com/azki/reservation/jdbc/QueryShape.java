@@ -0,0 +1,64 @@
+package com.azki.reservation.jdbc;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized form of a SQL statement, used to group executions that only differ in their parameters.
+ * <p>
+ * Hibernate already binds values as {@code ?}; normalization additionally collapses whitespace, inlined literals
+ * and variable-length {@code IN (?, ?, ...)} lists so that batch loads of different sizes share one shape.
+ */
+public record QueryShape(String id, String sql, String operation, String table) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+([\\w.\"]+)", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Shape shared by all statements once the configured number of distinct shapes has been reached.
+     */
+    public static final QueryShape OTHER = new QueryShape("other", "other", "other", "other");
+
+    /**
+     * @param sql the statement as executed
+     * @return its normalized shape
+     */
+    public static QueryShape of(String sql) {
+        String normalized = normalize(sql);
+        return new QueryShape(
+            String.format("%08x", normalized.hashCode()),
+            normalized,
+            operation(normalized),
+            table(normalized));
+    }
+
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return IN_LIST.matcher(normalized).replaceAll("(?)");
+    }
+
+    private static String operation(String sql) {
+        int end = sql.indexOf(' ');
+        String keyword = (end < 0 ? sql : sql.substring(0, end)).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "with" -> "select";
+            case "insert", "update", "delete", "merge" -> keyword;
+            default -> "other";
+        };
+    }
+
+    private static String table(String sql) {
+        Matcher matcher = TABLE.matcher(sql);
+        return matcher.find() ? matcher.group(1).replace("\"", "").toLowerCase(Locale.ROOT) : "unknown";
+    }
+
+    public boolean isSelect() {
+        return "select".equals(operation);
+    }
+}
@@ -0,0 +1,121 @@
+package com.azki.reservation.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples how far the read replica lags behind the primary at a fixed cadence, so routing a read never waits on it.
+ * <p>
+ * Every {@code reservation.datasource.replica.lag-check-interval-ms} a dedicated thread asks the replica how old
+ * the last transaction it replayed is; a replica that has replayed everything it received counts as not lagging,
+ * so an idle primary does not make it look stale. {@link #isUsable()} is true while the last sample succeeded, is
+ * recent and is within {@code max-lag-ms}. Until the first sample, after a failed one, or once the samples stop
+ * coming, it is false and reads go to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END""";
+    private static final long UNKNOWN = -1;
+    // A sample older than this many intervals means the checks have stalled
+    private static final int STALE_AFTER_INTERVALS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final Counter failureCounter;
+    private volatile long lagMillis = UNKNOWN;
+    private volatile long sampledAtNanos;
+    private ScheduledExecutorService sampler;
+
+    public ReplicaLagMonitor(DataSource replica, MeterRegistry meterRegistry, long maxLagMillis,
+                             long checkIntervalMillis) {
+        this.jdbcTemplate = new JdbcTemplate(replica);
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(checkIntervalMillis)));
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.failureCounter = Counter.builder("reservation.datasource.replica.lag.failures")
+                .description("Replica lag checks that failed, e.g. because the replica was unreachable")
+                .register(meterRegistry);
+        Gauge.builder("reservation.datasource.replica.lag", this, monitor -> monitor.lagSeconds())
+                .description("Replication lag of the read replica as of the last check, NaN if unknown")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts sampling once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(this::sample, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Replica lag checks started: interval={}ms, max lag={}ms", checkIntervalMillis, maxLagMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return true if read-only transactions may use the replica
+     */
+    public boolean isUsable() {
+        long lag = lagMillis;
+        long ageNanos = System.nanoTime() - sampledAtNanos;
+        return lag != UNKNOWN && lag <= maxLagMillis
+                && ageNanos <= TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis * STALE_AFTER_INTERVALS);
+    }
+
+    /**
+     * Stops routing reads to the replica until the next successful check, e.g. after it refused a connection.
+     */
+    public void markUnavailable() {
+        lagMillis = UNKNOWN;
+    }
+
+    void sample() {
+        try {
+            Double seconds = jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            // Nothing replayed yet while WAL is pending: the lag cannot be told, treat it as too large
+            lagMillis = seconds == null ? Long.MAX_VALUE : Math.max(0, Math.round(seconds * 1000));
+            sampledAtNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            boolean wasUsable = isUsable();
+            lagMillis = UNKNOWN;
+            failureCounter.increment();
+            if (wasUsable) {
+                logger.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            } else {
+                logger.debug("Replica lag check failed", e);
+            }
+        }
+    }
+
+    private double lagSeconds() {
+        long lag = lagMillis;
+        return lag == UNKNOWN || lag == Long.MAX_VALUE ? Double.NaN : lag / 1000.0;
+    }
+}
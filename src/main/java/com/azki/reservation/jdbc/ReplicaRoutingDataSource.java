@@ -0,0 +1,75 @@
+package com.azki.reservation.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections for read-only transactions: from the replica while {@link ReplicaLagMonitor} reports it
+ * usable, from the primary otherwise.
+ * <p>
+ * A replica that refuses a connection is marked unavailable right away, and the read falls back to the primary
+ * instead of failing; the monitor's next successful check brings it back.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource replica;
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        this.replicaReads = readCounter(meterRegistry, "replica");
+        this.primaryReads = readCounter(meterRegistry, "primary");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (lagMonitor.isUsable()) {
+            try {
+                Connection connection = source.connect(replica);
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                lagMonitor.markUnavailable();
+                logger.warn("No connection from the replica, reading from the primary: {}", e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return source.connect(primary);
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String pool) {
+        return Counter.builder("reservation.datasource.reads")
+                .description("Read-only transactions by the pool that served them")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,57 @@
+package com.azki.reservation.jdbc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the statements executed on the current thread while a unit of work (an HTTP request) is in progress.
+ * <p>
+ * Not thread-safe: a scope is only ever touched by the thread that opened it. Statements run on other threads,
+ * e.g. after an async controller hands off, are not attributed to the request.
+ */
+public final class RequestStatementScope {
+
+    private static final ThreadLocal<RequestStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final Map<QueryShape, Integer> executions = new HashMap<>();
+    private int total;
+
+    private RequestStatementScope() {
+    }
+
+    /**
+     * Starts counting on the current thread, replacing any scope left open.
+     */
+    public static RequestStatementScope open() {
+        RequestStatementScope scope = new RequestStatementScope();
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Stops counting on the current thread.
+     */
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the open scope, or null outside a unit of work
+     */
+    static RequestStatementScope current() {
+        return CURRENT.get();
+    }
+
+    void record(QueryShape shape) {
+        total++;
+        executions.merge(shape, 1, Integer::sum);
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public Map<QueryShape, Integer> executions() {
+        return executions;
+    }
+}
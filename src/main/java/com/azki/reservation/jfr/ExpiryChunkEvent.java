@@ -0,0 +1,34 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One short transaction expiring a chunk of reservations and releasing their slots.
+ */
+@Name("com.azki.reservation.ExpiryChunk")
+@Label("Expiry Chunk")
+@Category({"Reservation", "Expiry"})
+@Enabled(false)
+@StackTrace(false)
+public class ExpiryChunkEvent extends Event {
+
+    @Label("Requested")
+    public int requested;
+
+    @Label("Expired")
+    public int expired;
+
+    @Label("First Id")
+    public long firstId;
+
+    @Label("Last Id")
+    public long lastId;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,29 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An attempt of a {@code @Retryable} operation that failed with an optimistic-lock conflict. The duration covers the
+ * failed attempt.
+ */
+@Name("com.azki.reservation.OptimisticLockFailure")
+@Label("Optimistic Lock Failure")
+@Category({"Reservation", "Slots"})
+@Enabled(false)
+@StackTrace(false)
+public class OptimisticLockFailureEvent extends Event {
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Message")
+    public String message;
+}
@@ -0,0 +1,25 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Final status write and in-queue marker release of a queued request.
+ */
+@Name("com.azki.reservation.QueueAck")
+@Label("Queue Item Acknowledgement")
+@Category({"Reservation", "Queue"})
+@Enabled(false)
+@StackTrace(false)
+public class QueueAckEvent extends Event {
+
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Status")
+    public String status;
+}
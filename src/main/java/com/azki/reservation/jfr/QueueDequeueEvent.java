@@ -0,0 +1,27 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One poll of the reservation queue, popping up to a batch of items.
+ */
+@Name("com.azki.reservation.QueueDequeue")
+@Label("Queue Dequeue")
+@Category({"Reservation", "Queue"})
+@Enabled(false)
+@StackTrace(false)
+public class QueueDequeueEvent extends Event {
+
+    @Label("Requested")
+    @Description("Batch size the poll asked for")
+    public int requested;
+
+    @Label("Dequeued")
+    public int dequeued;
+}
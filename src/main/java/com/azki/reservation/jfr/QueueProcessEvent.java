@@ -0,0 +1,36 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Processing of one queued reservation request, from the idempotency check to its outcome.
+ */
+@Name("com.azki.reservation.QueueProcess")
+@Label("Queue Item Processing")
+@Category({"Reservation", "Queue"})
+@Enabled(false)
+@StackTrace(false)
+public class QueueProcessEvent extends Event {
+
+    @Label("Request Id")
+    public String requestId;
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("Queue Wait")
+    @Description("Time the item waited in the queue before this attempt")
+    @Timespan(Timespan.MILLISECONDS)
+    public long waitMillis;
+
+    @Label("Outcome")
+    @Description("success, duplicate, no_slot, conflict, error or skipped")
+    public String outcome;
+}
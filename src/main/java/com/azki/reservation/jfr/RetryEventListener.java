@@ -0,0 +1,63 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.EventType;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Role;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits an {@link OptimisticLockFailureEvent} for every attempt of a {@code @Retryable} operation that fails with
+ * an optimistic-lock conflict. Registered as a bean, it applies to every {@code @Retryable} method that does not
+ * name its own listeners. Spring Retry collects the listeners while post-processors are still being created, so it
+ * is declared as infrastructure rather than an ordinary post-processed bean.
+ */
+@Component
+@Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+public class RetryEventListener implements RetryListener {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(OptimisticLockFailureEvent.class);
+    private static final String ATTEMPT_EVENT = RetryEventListener.class.getName() + ".attempt";
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        beginAttempt(context);
+        return true;
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                               Throwable throwable) {
+        context.removeAttribute(ATTEMPT_EVENT);
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                 Throwable throwable) {
+        if (context.getAttribute(ATTEMPT_EVENT) instanceof OptimisticLockFailureEvent event
+                && throwable instanceof OptimisticLockingFailureException) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = String.valueOf(context.getAttribute(RetryContext.NAME));
+                event.attempt = context.getRetryCount();
+                event.message = throwable.getMessage();
+                event.commit();
+            }
+        }
+        beginAttempt(context);
+    }
+
+    private static void beginAttempt(RetryContext context) {
+        // The event object is only created while a recording has the event enabled
+        if (EVENT_TYPE.isEnabled()) {
+            OptimisticLockFailureEvent event = new OptimisticLockFailureEvent();
+            event.begin();
+            context.setAttribute(ATTEMPT_EVENT, event);
+        } else {
+            context.removeAttribute(ATTEMPT_EVENT);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A miss of the {@code nextSlot} cache, loading the next available slot from the database.
+ */
+@Name("com.azki.reservation.SlotCacheLoad")
+@Label("Next Slot Cache Load")
+@Category({"Reservation", "Cache"})
+@Enabled(false)
+@StackTrace(false)
+public class SlotCacheLoadEvent extends Event {
+
+    @Label("Slot Id")
+    @Description("Loaded slot, or -1 if none was available")
+    public long slotId;
+}
@@ -0,0 +1,39 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One attempt to claim the nearest free slot for a user. The duration covers slot selection, the slot update and
+ * the reservation insert.
+ */
+@Name("com.azki.reservation.SlotClaim")
+@Label("Slot Claim")
+@Category({"Reservation", "Slots"})
+@Enabled(false)
+@StackTrace(false)
+public class SlotClaimEvent extends Event {
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Slot Id")
+    public long slotId;
+
+    @Label("Path")
+    @Description("direct or queued")
+    public String path;
+
+    @Label("Attempt")
+    @Description("1 for the first attempt, higher when retried after an optimistic-lock failure")
+    public int attempt;
+
+    @Label("Outcome")
+    @Description("claimed, no_slot, conflict or error")
+    public String outcome;
+}
@@ -0,0 +1,105 @@
+package com.azki.reservation.jfr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, e.g. inside a {@code synchronized}
+ * block or a native frame. A pinned virtual thread holds a carrier for the whole blocking call, and with few
+ * carriers a handful of them stalls every other virtual thread.
+ * <p>
+ * Streams the JDK's {@code jdk.VirtualThreadPinned} event in-process for pins longer than
+ * {@code reservation.virtual-threads.pinned-threshold-ms}. Every pin is recorded in the
+ * {@code reservation.virtual_threads.pinned} timer; the stack trace is logged once per pinning site.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.azki.reservation.";
+    private static final int MAX_REPORTED_SITES = 100;
+    private static final int LOGGED_FRAMES = 20;
+
+    private final Duration threshold;
+    private final Timer pinnedTimer;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${reservation.virtual-threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+        this.pinnedTimer = Timer.builder("reservation.virtual_threads.pinned")
+                .description("Virtual threads that blocked while pinned to their carrier thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts streaming pinning events once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Virtual thread pinning monitor started: threshold={}ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String site = pinningSite(frames);
+        if (reportedSites.size() < MAX_REPORTED_SITES && reportedSites.add(site)) {
+            logger.warn("Virtual thread pinned for {}ms at {}:\n{}", event.getDuration().toMillis(), site,
+                frames.stream().limit(LOGGED_FRAMES).map(frame -> "\tat " + format(frame))
+                    .collect(Collectors.joining("\n")));
+        }
+    }
+
+    /**
+     * @return the innermost application frame, which is usually what to fix, else the innermost frame
+     */
+    private static String pinningSite(List<RecordedFrame> frames) {
+        return frames.stream()
+                .filter(frame -> frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(VirtualThreadPinningMonitor::format)
+                .orElse("unknown");
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + "(line " + frame.getLineNumber() + ")";
+    }
+}
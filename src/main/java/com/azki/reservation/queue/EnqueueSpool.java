@@ -0,0 +1,587 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.exception.ReservationCapacityExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedOutputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local write-ahead log for enqueues that could not reach Redis. {@link RedisReservationQueue} appends here during
+ * a Redis outage and {@link SpoolReplayer} forwards the items once Redis is back.
+ * <p>
+ * The spool is a sequence of fixed-size, memory-mapped segment files in {@code reservation.queue.spool.directory}.
+ * Each record is framed as {@code [length][CRC32C][JSON]}; the item is serialized straight into the mapping and the
+ * length is written last, so a zero length marks the end of the written data and a torn or corrupt record fails its
+ * checksum. Appends are sequential under one lock and allocate nothing beyond Jackson's own buffers.
+ * <p>
+ * A flusher thread forces dirty pages to disk every {@code fsync-interval-ms}; with {@code sync-writes} an append
+ * returns only once a force has covered it, so one fsync serves every append of its batch. A failed force is counted
+ * and retried on the next batch; an append that is not forced within {@code sync-timeout-ms}, or before the spool
+ * closes, is answered with a capacity error although its record may still be replayed. The replay position is
+ * kept in a checkpoint file and segments are deleted once fully replayed. Replay is at-least-once: an item replayed
+ * just before a crash may be read again, which the replayer detects from its existing status.
+ */
+@Component
+@ConditionalOnExpression("${reservation.queue.spool.enabled:true} and '${reservation.queue.backend:redis}' == 'redis'")
+public class EnqueueSpool {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnqueueSpool.class);
+    private static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT = "checkpoint";
+
+    /**
+     * An item read back from the spool with the status it was enqueued with and the position just after its record.
+     */
+    public record SpooledItem(QueueItem item, String status, long segmentId, int nextOffset) {
+    }
+
+    private record SpoolRecord(String status, QueueItem item) {
+    }
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long fsyncIntervalMillis;
+    private final boolean syncWrites;
+    private final long syncTimeoutNanos;
+    private final ObjectMapper objectMapper;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dirty = lock.newCondition();
+    private final Condition forced = lock.newCondition();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final CRC32C crc = new CRC32C();
+    private long appendedPosition;
+    private long durablePosition;
+    private long readSegmentId;
+    private int readOffset;
+    private boolean closed;
+
+    // Spooled requests not replayed yet, so status polls and duplicate checks work while Redis is down
+    private final ConcurrentMap<String, String> statusByRequestId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> pendingByEmail = new ConcurrentHashMap<>();
+
+    private final Counter appendedCounter;
+    private final Counter corruptCounter;
+    private final Timer fsyncTimer;
+    private final Counter fsyncFailureCounter;
+    private final Thread flusher;
+
+    public EnqueueSpool(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.queue.spool.directory:${java.io.tmpdir}/reservation-spool}") Path directory,
+            @Value("${reservation.queue.spool.segment-bytes:67108864}") int segmentBytes,
+            @Value("${reservation.queue.spool.max-segments:16}") int maxSegments,
+            @Value("${reservation.queue.spool.fsync-interval-ms:5}") long fsyncIntervalMillis,
+            @Value("${reservation.queue.spool.sync-writes:true}") boolean syncWrites,
+            @Value("${reservation.queue.spool.sync-timeout-ms:1000}") long syncTimeoutMillis) throws IOException {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.syncWrites = syncWrites;
+        this.syncTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(syncTimeoutMillis);
+        this.appendedCounter = Counter.builder("reservation.queue.spool.appended")
+                .description("Enqueues written to the local spool because Redis was unavailable")
+                .register(meterRegistry);
+        this.corruptCounter = Counter.builder("reservation.queue.spool.corrupt")
+                .description("Spool segments whose tail failed its checksum and was skipped")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder("reservation.queue.spool.fsync.time")
+                .description("Time to force one batch of spool appends to disk")
+                .register(meterRegistry);
+        this.fsyncFailureCounter = Counter.builder("reservation.queue.spool.fsync.failures")
+                .description("Batches of spool appends whose force to disk failed")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.spool.pending", statusByRequestId, ConcurrentMap::size)
+                .description("Spooled enqueues waiting to be replayed to Redis")
+                .register(meterRegistry);
+
+        Files.createDirectories(directory);
+        recover();
+        this.flusher = new Thread(this::flushLoop, "reservation-spool-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Enqueue spool at {}: {} pending, segment size {} bytes, sync writes {}",
+            directory, statusByRequestId.size(), segmentBytes, syncWrites);
+    }
+
+    /**
+     * Appends an item and, with sync writes, waits until it is on disk.
+     *
+     * @return false if a request for the same email is already waiting in the spool
+     * @throws ReservationCapacityExceededException if all segments are full, or the append was not forced to disk
+     *                                              within the sync timeout or before the spool closed
+     */
+    public boolean append(QueueItem item, String status) {
+        long position;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Enqueue spool is closed");
+            }
+            if (pendingByEmail.containsKey(item.markerKey())) {
+                return false;
+            }
+            Segment segment = segments.getLast();
+            SpoolRecord spoolRecord = new SpoolRecord(status, item);
+            int length = write(segment, spoolRecord);
+            if (length < 0) {
+                segment = roll();
+                length = write(segment, spoolRecord);
+                if (length < 0) {
+                    throw new IllegalArgumentException("Queue item does not fit into a spool segment: " + item.requestId);
+                }
+            }
+            segment.writeOffset += HEADER_BYTES + length;
+            appendedPosition = position(segment.id, segment.writeOffset);
+            position = appendedPosition;
+            statusByRequestId.put(item.requestId, status);
+            pendingByEmail.put(item.markerKey(), item.requestId);
+            dirty.signal();
+        } finally {
+            lock.unlock();
+        }
+        appendedCounter.increment();
+        if (syncWrites) {
+            awaitDurable(position);
+        }
+        return true;
+    }
+
+    /**
+     * Reads up to {@code max} items after the replay position, without advancing it.
+     */
+    public List<SpooledItem> read(int max) {
+        List<SpooledItem> items = new ArrayList<>();
+        long segmentId;
+        int offset;
+        List<Segment> snapshot;
+        lock.lock();
+        try {
+            segmentId = readSegmentId;
+            offset = readOffset;
+            snapshot = new ArrayList<>(segments);
+        } finally {
+            lock.unlock();
+        }
+        for (Segment segment : snapshot) {
+            if (segment.id < segmentId) {
+                continue;
+            }
+            int end;
+            lock.lock();
+            try {
+                end = segment.writeOffset; // Records below it are complete and never change
+            } finally {
+                lock.unlock();
+            }
+            int position = segment.id == segmentId ? offset : 0;
+            ByteBuffer view = segment.buffer.duplicate();
+            while (position < end && items.size() < max) {
+                int length = view.getInt(position);
+                SpoolRecord spoolRecord = readRecord(view, position + HEADER_BYTES, length);
+                position += HEADER_BYTES + length;
+                items.add(new SpooledItem(spoolRecord.item(), spoolRecord.status(), segment.id, position));
+            }
+            if (items.size() >= max) {
+                break;
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Advances the replay position past the given items, persists it and deletes fully replayed segments.
+     */
+    public void commit(List<SpooledItem> replayed) {
+        if (replayed.isEmpty()) {
+            return;
+        }
+        SpooledItem last = replayed.getLast();
+        lock.lock();
+        try {
+            readSegmentId = last.segmentId();
+            readOffset = last.nextOffset();
+            writeCheckpoint();
+            while (segments.size() > 1 && segments.getFirst().id < readSegmentId) {
+                Segment consumed = segments.removeFirst();
+                consumed.close();
+                Files.deleteIfExists(consumed.path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to commit spool replay position", e);
+        } finally {
+            lock.unlock();
+        }
+        for (SpooledItem spooled : replayed) {
+            statusByRequestId.remove(spooled.item().requestId);
+            pendingByEmail.remove(spooled.item().markerKey(), spooled.item().requestId);
+        }
+    }
+
+    /**
+     * @return the status the request was spooled with, or null if it is not waiting for replay
+     */
+    public String pendingStatus(String requestId) {
+        return statusByRequestId.get(requestId);
+    }
+
+    /**
+     * @return true if a spooled request for the email is not replayed yet
+     */
+    public boolean isEmailPending(String email) {
+        return pendingByEmail.containsKey(email);
+    }
+
+    public int pendingCount() {
+        return statusByRequestId.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            dirty.signalAll();
+            forced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Serializes the item into the segment after its write offset and frames it.
+     *
+     * @return the payload length, or -1 if it does not fit
+     */
+    private int write(Segment segment, SpoolRecord spoolRecord) {
+        int start = segment.writeOffset;
+        if (segmentBytes - start <= HEADER_BYTES) {
+            return -1;
+        }
+        ByteBuffer payload = segment.buffer.duplicate();
+        payload.position(start + HEADER_BYTES);
+        try {
+            objectMapper.writeValue(new ByteBufferBackedOutputStream(payload), spoolRecord);
+        } catch (BufferOverflowException e) {
+            return -1;
+        } catch (IOException e) {
+            // Jackson wraps overflows raised while flushing its own buffer
+            if (e.getCause() instanceof BufferOverflowException) {
+                return -1;
+            }
+            throw new UncheckedIOException("Failed to serialize queue item " + spoolRecord.item().requestId, e);
+        }
+        int length = payload.position() - start - HEADER_BYTES;
+        crc.reset();
+        crc.update(payload.flip().position(start + HEADER_BYTES));
+        segment.buffer.putInt(start + 4, (int) crc.getValue());
+        // Written last: a non-zero length marks the record as complete
+        segment.buffer.putInt(start, length);
+        return length;
+    }
+
+    private SpoolRecord readRecord(ByteBuffer view, int offset, int length) {
+        try {
+            return objectMapper.readValue(new ByteBufferBackedInputStream(view.slice(offset, length)), SpoolRecord.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read spooled item at offset " + offset, e);
+        }
+    }
+
+    private Segment roll() {
+        if (segments.size() >= maxSegments) {
+            throw new ReservationCapacityExceededException("Reservation queue is unavailable, please try again later");
+        }
+        Segment current = segments.getLast();
+        current.buffer.force();
+        try {
+            Segment next = Segment.open(segmentPath(current.id + 1), current.id + 1, segmentBytes);
+            segments.addLast(next);
+            logger.info("Enqueue spool rolled to segment {}", next.id);
+            return next;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create spool segment", e);
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            flushBatches();
+        } finally {
+            // Appends still waiting must not outlive the flusher
+            lock.lock();
+            try {
+                forced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void flushBatches() {
+        boolean failing = false;
+        while (true) {
+            Segment segment;
+            long position;
+            lock.lock();
+            try {
+                while (appendedPosition == durablePosition && !closed) {
+                    dirty.await(fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+                if (closed) {
+                    return;
+                }
+                segment = segments.getLast();
+                position = appendedPosition;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            // Outside the lock so appends continue while the batch is forced
+            try {
+                fsyncTimer.record(() -> segment.buffer.force());
+            } catch (RuntimeException e) {
+                // Left dirty, so the next batch retries it; waiting appends time out if it keeps failing
+                fsyncFailureCounter.increment();
+                if (!failing) {
+                    logger.error("Failed to force spool segment {} to disk, retrying every batch", segment.id, e);
+                    failing = true;
+                }
+                sleepUntilNextBatch();
+                continue;
+            }
+            if (failing) {
+                logger.info("Spool segment {} forced to disk again", segment.id);
+                failing = false;
+            }
+            lock.lock();
+            try {
+                durablePosition = Math.max(durablePosition, position);
+                forced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            sleepUntilNextBatch();
+        }
+    }
+
+    private void sleepUntilNextBatch() {
+        try {
+            // Lets appends accumulate so one force covers the whole batch
+            Thread.sleep(fsyncIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitDurable(long position) {
+        lock.lock();
+        try {
+            long remaining = syncTimeoutNanos;
+            while (durablePosition < position) {
+                if (closed || remaining <= 0) {
+                    throw new ReservationCapacityExceededException("Reservation queue is unavailable, please try again later");
+                }
+                remaining = forced.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReservationCapacityExceededException("Reservation queue is unavailable, please try again later");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long position(long segmentId, int offset) {
+        return segmentId * segmentBytes + offset;
+    }
+
+    /**
+     * Reopens the existing segments, finds the end of the written data and rebuilds the pending index from the
+     * records after the checkpoint.
+     */
+    private void recover() throws IOException {
+        readCheckpoint();
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (Path file : files) {
+            long id = segmentId(file);
+            if (id < readSegmentId) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            Segment segment = Segment.open(file, id, segmentBytes);
+            segment.writeOffset = scan(segment, id == readSegmentId ? readOffset : 0);
+            segments.addLast(segment);
+        }
+        if (segments.isEmpty()) {
+            segments.addLast(Segment.open(segmentPath(readSegmentId), readSegmentId, segmentBytes));
+            readOffset = 0;
+        }
+        Segment last = segments.getLast();
+        appendedPosition = position(last.id, last.writeOffset);
+        durablePosition = appendedPosition;
+    }
+
+    /**
+     * Validates the records of a segment from the start, indexing those at or after {@code pendingFrom}.
+     *
+     * @return the offset after the last valid record
+     */
+    private int scan(Segment segment, int pendingFrom) {
+        ByteBuffer view = segment.buffer.duplicate();
+        int position = 0;
+        while (segmentBytes - position > HEADER_BYTES) {
+            int length = view.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            int checksum = view.getInt(position + 4);
+            if (length < 0 || length > segmentBytes - position - HEADER_BYTES || checksum != checksum(view, position, length)) {
+                corruptCounter.increment();
+                logger.error("Spool segment {} is corrupt at offset {}; records after it are skipped", segment.id, position);
+                // Zero the torn tail so appends after recovery are never mixed with its leftovers
+                view.position(position);
+                while (view.remaining() >= Long.BYTES) {
+                    view.putLong(0L);
+                }
+                while (view.hasRemaining()) {
+                    view.put((byte) 0);
+                }
+                break;
+            }
+            if (position >= pendingFrom) {
+                SpoolRecord spoolRecord = readRecord(view, position + HEADER_BYTES, length);
+                statusByRequestId.put(spoolRecord.item().requestId, spoolRecord.status());
+                pendingByEmail.put(spoolRecord.item().markerKey(), spoolRecord.item().requestId);
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private int checksum(ByteBuffer view, int position, int length) {
+        crc.reset();
+        crc.update(view.slice(position + HEADER_BYTES, length));
+        return (int) crc.getValue();
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT);
+        if (Files.isRegularFile(checkpoint) && Files.size(checkpoint) >= 12) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+            readSegmentId = buffer.getLong();
+            readOffset = buffer.getInt();
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(12).putLong(readSegmentId).putInt(readOffset).flip());
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        static Segment open(Path path, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            // Mapping past the end extends the file sparsely; unwritten bytes read as zero
+            return new Segment(id, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close spool segment {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.exception.ReservationCapacityExceededException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Reservation queue held in this JVM, for single-node deployments and benchmarks. Nothing survives a restart and
+ * nothing is shared with other nodes.
+ * <p>
+ * The queue and the DLQ are {@link MpmcRingBuffer}s of {@code reservation.queue.memory.capacity} and
+ * {@code reservation.queue.memory.dlq-capacity} items, so enqueueing and dequeueing never lock or do I/O. A full
+ * queue rejects new requests with {@link ReservationCapacityExceededException}; a full DLQ drops its oldest item.
+ * Statuses expire like their Redis counterparts and in-queue markers are held until their request completes,
+ * without a lease. Retried items go to the tail of the queue rather than the head.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reservation.queue", name = "backend", havingValue = "memory")
+public class InMemoryReservationQueue implements ReservationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryReservationQueue.class);
+
+    private final MpmcRingBuffer<QueueItem> pending;
+    private final MpmcRingBuffer<QueueItem> deadLetters;
+    private final ConcurrentMap<String, String> markers = new ConcurrentHashMap<>();
+    private final Cache<String, String> statuses;
+    private final Counter rejectedCounter;
+    private final Counter deadLetterDroppedCounter;
+
+    public InMemoryReservationQueue(
+            MeterRegistry meterRegistry,
+            @Value("${reservation.queue.memory.capacity:65536}") int capacity,
+            @Value("${reservation.queue.memory.dlq-capacity:4096}") int dlqCapacity,
+            @Value("${reservation.queue.memory.max-statuses:1000000}") long maxStatuses,
+            @Value("${reservation.status.expiry-hours:24}") int statusExpiryHours) {
+        this.pending = new MpmcRingBuffer<>(capacity);
+        this.deadLetters = new MpmcRingBuffer<>(dlqCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxStatuses)
+                .expireAfterWrite(Duration.ofHours(statusExpiryHours))
+                .build();
+        this.rejectedCounter = Counter.builder("reservation.queue.rejected")
+                .description("Requests rejected because the in-memory queue was full")
+                .register(meterRegistry);
+        this.deadLetterDroppedCounter = Counter.builder("reservation.dlq.dropped")
+                .description("Dead letters dropped because the in-memory DLQ was full")
+                .register(meterRegistry);
+        logger.info("In-memory reservation queue: capacity={}, dlq capacity={}", pending.capacity(), deadLetters.capacity());
+    }
+
+    @Override
+    public boolean enqueue(QueueItem item, String status) {
+        String email = item.markerKey();
+        if (markers.putIfAbsent(email, item.requestId) != null) {
+            return false;
+        }
+        // Written first so a client polling right away never sees an unknown request
+        statuses.put(item.requestId, status);
+        if (!pending.offer(item)) {
+            statuses.invalidate(item.requestId);
+            markers.remove(email, item.requestId);
+            rejectedCounter.increment();
+            throw new ReservationCapacityExceededException("Reservation queue is full, please try again later");
+        }
+        return true;
+    }
+
+    @Override
+    public List<QueueItem> dequeue(int max) {
+        List<QueueItem> items = new ArrayList<>(Math.min(max, pending.capacity()));
+        QueueItem item;
+        while (items.size() < max && (item = pending.poll()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+
+    @Override
+    public void markProcessing(QueueItem item, String status) {
+        if (item.requestId != null) {
+            statuses.put(item.requestId, status);
+        }
+    }
+
+    @Override
+    public void ack(QueueItem item, String status) {
+        if (item.requestId == null) {
+            return;
+        }
+        statuses.put(item.requestId, status);
+        markers.remove(item.markerKey(), item.requestId);
+    }
+
+    @Override
+    public boolean nack(QueueItem item) {
+        return pending.offer(item);
+    }
+
+    @Override
+    public void deadLetter(QueueItem item) {
+        while (!deadLetters.offer(item)) {
+            QueueItem dropped = deadLetters.poll();
+            if (dropped != null) {
+                deadLetterDroppedCounter.increment();
+                logger.warn("DLQ full, dropped dead letter {}", dropped.requestId);
+            }
+        }
+    }
+
+    @Override
+    public String status(String requestId) {
+        return statuses.getIfPresent(requestId);
+    }
+
+    @Override
+    public String currentStatus(String requestId) {
+        return statuses.getIfPresent(requestId);
+    }
+
+    @Override
+    public boolean isQueued(String email) {
+        return markers.containsKey(email);
+    }
+
+    @Override
+    public long size() {
+        return pending.size();
+    }
+
+    @Override
+    public long deadLetterSize() {
+        return deadLetters.size();
+    }
+}
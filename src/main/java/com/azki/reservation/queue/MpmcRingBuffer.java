@@ -0,0 +1,118 @@
+package com.azki.reservation.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer FIFO queue (Dmitry Vyukov's array queue).
+ * <p>
+ * Every cell carries a sequence number telling producers and consumers whose turn it is: a producer at position
+ * {@code p} may fill the cell once its sequence equals {@code p}, a consumer may empty it once it equals
+ * {@code p + 1}. Claiming a position is one CAS on the tail or head counter, so producers and consumers only
+ * contend among themselves and never block; {@link #offer} fails on a full buffer and {@link #poll} returns null
+ * on an empty one.
+ *
+ * @param <E> element type
+ */
+final class MpmcRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final PaddedCounter tail = new PaddedCounter();
+    private final PaddedCounter head = new PaddedCounter();
+
+    /**
+     * @param capacity minimum capacity, rounded up to a power of two
+     */
+    MpmcRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(index, element);
+                    // Publishes the element to the consumer that waits for this sequence
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The cell still holds the element from one lap ago
+                return false;
+            } else {
+                // Another producer claimed this position; catch up
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest element, or null if the buffer is empty
+     */
+    E poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = elements.getPlain(index);
+                    elements.setPlain(index, null);
+                    // Hands the cell to the producer one lap ahead
+                    sequences.setRelease(index, position + capacity);
+                    return element;
+                }
+                position = head.get();
+            } else if (difference < 0) {
+                // Nothing published at this position yet
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    /**
+     * @return the number of elements, exact only while no other thread is offering or polling
+     */
+    int size() {
+        long consumed = head.get();
+        long produced = tail.get();
+        return (int) Math.max(0, Math.min(capacity, produced - consumed));
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Counter padded to its own cache line, so producers updating the tail do not invalidate the head for consumers.
+     */
+    @SuppressWarnings("unused")
+    private static final class PaddedCounter extends AtomicLong {
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
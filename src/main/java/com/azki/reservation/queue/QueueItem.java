@@ -0,0 +1,47 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto;
+import com.azki.reservation.dto.reservation.ReservationRequestDto;
+
+/**
+ * A queued reservation request with its attempt count, as stored by every {@link ReservationQueue} backend.
+ * <p>
+ * A bulk reservation is queued as a single item carrying {@link #bulk} instead of {@link #request}.
+ */
+public class QueueItem {
+    private static final String BULK_MARKER_PREFIX = "bulk:";
+
+    public ReservationRequestDto request;
+    public BulkReservationRequestDto bulk;
+    public int attempts;
+    public String requestId;
+    public long enqueuedAt; // Epoch millis of the original enqueue; 0 for items enqueued by older versions
+    public String traceparent; // W3C trace context of the enqueueing request
+
+    @SuppressWarnings("unused") // Used by Jackson; fields missing from older items keep their defaults
+    private QueueItem() {
+    }
+
+    public QueueItem(ReservationRequestDto request, int attempts, String requestId, long enqueuedAt, String traceparent) {
+        this.request = request;
+        this.attempts = attempts;
+        this.requestId = requestId;
+        this.enqueuedAt = enqueuedAt;
+        this.traceparent = traceparent;
+    }
+
+    public QueueItem(BulkReservationRequestDto bulk, String requestId, long enqueuedAt, String traceparent) {
+        this.bulk = bulk;
+        this.requestId = requestId;
+        this.enqueuedAt = enqueuedAt;
+        this.traceparent = traceparent;
+    }
+
+    /**
+     * Key of the in-queue marker that suppresses duplicates: the email of a single request. A bulk request has its
+     * own marker, as its entries are checked for duplicates when it is processed.
+     */
+    public String markerKey() {
+        return bulk != null ? BULK_MARKER_PREFIX + requestId : request.getEmail();
+    }
+}
@@ -0,0 +1,10 @@
+package com.azki.reservation.queue;
+
+/**
+ * Lengths of the pending queue and the dead letter queue, read together.
+ *
+ * @param pending requests waiting to be processed
+ * @param deadLettered requests that exhausted their attempts
+ */
+public record QueueLengths(long pending, long deadLettered) {
+}
@@ -0,0 +1,46 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.service.ReservationCompletionRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Receives the completions {@link RedisReservationQueue#ack} publishes on {@code RedisKeys.COMPLETIONS_CHANNEL}
+ * and passes them to the {@link ReservationCompletionRegistry}, so a reserve call held on one node learns about a
+ * request another node processed. Every node gets every completion; those nobody waits for are dropped.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reservation.queue", name = "backend", havingValue = "redis", matchIfMissing = true)
+public class RedisCompletionListener implements MessageListener {
+
+    private final ReservationCompletionRegistry completionRegistry;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public RedisCompletionListener(ReservationCompletionRegistry completionRegistry,
+                                   RedisTemplate<String, Object> redisTemplate) {
+        this.completionRegistry = completionRegistry;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof String completion)) {
+            return;
+        }
+        int separator = completion.indexOf(' ');
+        if (separator > 0) {
+            completionRegistry.complete(completion.substring(0, separator), completion.substring(separator + 1));
+        }
+    }
+
+    /**
+     * @return the message announcing the final status of a request; request ids never contain a space
+     */
+    static String message(String requestId, String status) {
+        return requestId + ' ' + status;
+    }
+}
@@ -0,0 +1,416 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.service.RedisPipelineExecutor;
+import com.azki.reservation.util.RedisKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservation queue on Redis, shared by every node: the queue and DLQ are lists of JSON items, statuses are
+ * string keys with a TTL, and each queued email holds a marker key whose value is the id of its request.
+ * <p>
+ * The marker is claimed with {@code SET NX PX} and leased for {@code reservation.queue.marker-lease-ms}; the lease
+ * is renewed while the request is processed and the marker is released by a script that only deletes it if it
+ * still belongs to the request. Multi-command writes are pipelined into one round trip.
+ * <p>
+ * Status keys written before the hash-tagged layout ({@code reservation:status:<id>}) are still read for one
+ * status TTL after startup, so requests in flight during an upgrade stay visible; requests found in the legacy
+ * queue lists on startup are moved over together with their status and in-queue marker.
+ * <p>
+ * With an {@link EnqueueSpool}, an enqueue that cannot reach Redis is written to the local spool instead and
+ * reported as queued; {@code SpoolReplayer} later moves it into Redis through {@link #restore}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "reservation.queue", name = "backend", havingValue = "redis", matchIfMissing = true)
+public class RedisReservationQueue implements ReservationQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisReservationQueue.class);
+
+    /**
+     * Deletes an in-queue marker only if it still belongs to the given request.
+     */
+    private static final RedisScript<Long> RELEASE_MARKER_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Object> statusReadRedisTemplate;
+    private final RedisPipelineExecutor redisPipelineExecutor;
+    private final ObjectMapper objectMapper;
+    private final long markerLeaseMillis;
+    private final Duration statusTtl;
+    private final Counter markerExpiredCounter;
+    private final EnqueueSpool spool;
+    private final long legacyStatusReadsUntil;
+
+    public RedisReservationQueue(
+            RedisTemplate<String, Object> redisTemplate,
+            RedisTemplate<String, Object> statusReadRedisTemplate,
+            RedisPipelineExecutor redisPipelineExecutor,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            long markerLeaseMillis,
+            int statusExpiryHours) {
+        this(redisTemplate, statusReadRedisTemplate, redisPipelineExecutor, objectMapper, meterRegistry,
+            markerLeaseMillis, statusExpiryHours, null);
+    }
+
+    @Autowired
+    public RedisReservationQueue(
+            RedisTemplate<String, Object> redisTemplate,
+            @Qualifier("statusReadRedisTemplate") @Nullable RedisTemplate<String, Object> statusReadRedisTemplate,
+            RedisPipelineExecutor redisPipelineExecutor,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.queue.marker-lease-ms:600000}") long markerLeaseMillis,
+            @Value("${reservation.status.expiry-hours:24}") int statusExpiryHours,
+            @Nullable EnqueueSpool spool) {
+        this.spool = spool;
+        this.redisTemplate = redisTemplate;
+        this.statusReadRedisTemplate = statusReadRedisTemplate != null ? statusReadRedisTemplate : redisTemplate;
+        this.redisPipelineExecutor = redisPipelineExecutor;
+        this.objectMapper = objectMapper;
+        this.markerLeaseMillis = markerLeaseMillis;
+        this.statusTtl = Duration.ofHours(statusExpiryHours);
+        this.legacyStatusReadsUntil = System.currentTimeMillis() + statusTtl.toMillis();
+        this.markerExpiredCounter = Counter.builder("reservation.queue.marker.expired")
+                .description("In-queue markers whose lease expired before their request completed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean enqueue(QueueItem item, String status) {
+        String email = item.markerKey();
+        if (spool != null && spool.isEmailPending(email)) {
+            return false; // Still waiting in the spool for Redis
+        }
+        // SET NX PX: atomically rejects duplicates and claims the email for the lease duration
+        boolean claimed;
+        try {
+            claimed = claimMarker(email, item.requestId);
+        } catch (RuntimeException e) {
+            if (spool == null || !isUnreachable(e)) {
+                throw e;
+            }
+            return spool(item, status, e);
+        }
+        if (!claimed) {
+            return false;
+        }
+        try {
+            String json = serialize(item);
+            // Push and status write in one round trip
+            redisPipelineExecutor.execute(operations -> {
+                operations.opsForList().rightPush(RedisKeys.QUEUE, json);
+                operations.opsForValue().set(RedisKeys.status(item.requestId), status, statusTtl);
+            });
+            return true;
+        } catch (RuntimeException e) {
+            if (spool == null || !isUnreachable(e)) {
+                releaseMarker(email, item.requestId);
+                throw e;
+            }
+            // A timed-out pipeline may still have been applied: the marker is recognized as this request's own
+            // and a status written by the pipeline makes the replay skip the request
+            return spool(item, status, e);
+        }
+    }
+
+    /**
+     * Moves a spooled request into Redis with the status it was enqueued with. A request whose status already
+     * exists was restored before and is skipped; one whose email has been claimed by another request meanwhile
+     * completes as a duplicate, as its enqueue would have.
+     *
+     * @param duplicateStatus the final status for a request rejected as a duplicate
+     */
+    public void restore(QueueItem item, String status, String duplicateStatus) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(RedisKeys.status(item.requestId)))) {
+            return;
+        }
+        String email = item.markerKey();
+        if (!claimMarker(email, item.requestId)
+                && !item.requestId.equals(redisTemplate.opsForValue().get(RedisKeys.queuedMarker(email)))) {
+            logger.info("Spooled request {} is a duplicate of a request queued meanwhile", item.requestId);
+            redisTemplate.opsForValue().set(RedisKeys.status(item.requestId), duplicateStatus, statusTtl);
+            return;
+        }
+        String json = serialize(item);
+        redisPipelineExecutor.execute(operations -> {
+            operations.opsForList().rightPush(RedisKeys.QUEUE, json);
+            operations.opsForValue().set(RedisKeys.status(item.requestId), status, statusTtl);
+        });
+    }
+
+    @Override
+    public List<QueueItem> dequeue(int max) {
+        List<QueueItem> items = new ArrayList<>(max);
+        while (items.size() < max) {
+            Object json = redisTemplate.opsForList().leftPop(RedisKeys.QUEUE);
+            if (!(json instanceof String value)) {
+                break;
+            }
+            try {
+                items.add(objectMapper.readValue(value, QueueItem.class));
+            } catch (Exception e) {
+                logger.error("Failed to deserialize queue item: {}", value, e);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Marks a dequeued request as being processed and renews its marker lease, in one round trip. A missing marker
+     * means the lease ran out before the request completed; it is counted and re-claimed so duplicates stay
+     * suppressed.
+     */
+    @Override
+    public void markProcessing(QueueItem item, String status) {
+        String markerKey = RedisKeys.queuedMarker(item.markerKey());
+        List<Object> results = redisPipelineExecutor.execute(operations -> {
+            if (item.requestId != null) {
+                operations.opsForValue().set(RedisKeys.status(item.requestId), status, statusTtl);
+            }
+            operations.expire(markerKey, markerLeaseMillis, TimeUnit.MILLISECONDS);
+        });
+        onMarkerRenewed(item, results.isEmpty() ? null : results.getLast());
+    }
+
+    /**
+     * Records the final status of a request, publishes it for reserve calls waiting on any node and releases its
+     * in-queue marker, in one round trip.
+     */
+    @Override
+    public void ack(QueueItem item, String status) {
+        if (item.requestId == null) {
+            return; // Neither a status nor a marker is tracked without a request id
+        }
+        List<String> markerKeys = List.of(RedisKeys.queuedMarker(item.markerKey()));
+        List<Object> results = redisPipelineExecutor.execute(operations -> {
+            operations.opsForValue().set(RedisKeys.status(item.requestId), status, statusTtl);
+            operations.convertAndSend(RedisKeys.COMPLETIONS_CHANNEL,
+                RedisCompletionListener.message(item.requestId, status));
+            operations.execute(RELEASE_MARKER_SCRIPT, markerKeys, item.requestId);
+        });
+        onMarkerReleased(item.requestId, results.isEmpty() ? null : results.getLast());
+    }
+
+    /**
+     * Pushes the item back onto the head of the queue, so the next poll picks it up again, and renews its marker.
+     */
+    @Override
+    public boolean nack(QueueItem item) {
+        try {
+            redisTemplate.opsForList().leftPush(RedisKeys.QUEUE, serialize(item));
+            renewMarker(item);
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to re-enqueue reservation request: {}", item.requestId, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void deadLetter(QueueItem item) {
+        redisTemplate.opsForList().rightPush(RedisKeys.DLQ, serialize(item));
+    }
+
+    /**
+     * Reads may be served by a replica; a status not replicated yet is read again from the primary.
+     */
+    @Override
+    public String status(String requestId) {
+        String spooled = spool != null ? spool.pendingStatus(requestId) : null;
+        if (spooled != null) {
+            return spooled;
+        }
+        Object status = statusReadRedisTemplate.opsForValue().get(RedisKeys.status(requestId));
+        if (status == null && statusReadRedisTemplate != redisTemplate) {
+            status = redisTemplate.opsForValue().get(RedisKeys.status(requestId));
+        }
+        if (status == null) {
+            status = legacyStatus(requestId);
+        }
+        return status != null ? status.toString() : null;
+    }
+
+    @Override
+    public String currentStatus(String requestId) {
+        String spooled = spool != null ? spool.pendingStatus(requestId) : null;
+        if (spooled != null) {
+            return spooled;
+        }
+        // Always read from the primary: a stale replica could make us process a request twice
+        Object status = redisTemplate.opsForValue().get(RedisKeys.status(requestId));
+        if (status == null) {
+            status = legacyStatus(requestId);
+        }
+        return status != null ? status.toString() : null;
+    }
+
+    @Override
+    public boolean isQueued(String email) {
+        if (spool != null && spool.isEmailPending(email)) {
+            return true;
+        }
+        // O(1) lookup of the per-email marker
+        return Boolean.TRUE.equals(redisTemplate.hasKey(RedisKeys.queuedMarker(email)));
+    }
+
+    @Override
+    public long size() {
+        Long size = redisTemplate.opsForList().size(RedisKeys.QUEUE);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public long deadLetterSize() {
+        Long size = redisTemplate.opsForList().size(RedisKeys.DLQ);
+        return size != null ? size : 0;
+    }
+
+    @Override
+    public QueueLengths lengths() {
+        List<Object> lengths = redisPipelineExecutor.execute(operations -> {
+            operations.opsForList().size(RedisKeys.QUEUE);
+            operations.opsForList().size(RedisKeys.DLQ);
+        });
+        return new QueueLengths(longAt(lengths, 0), longAt(lengths, 1));
+    }
+
+    /**
+     * Moves requests left in the queue keys used before the hash-tagged key layout into the current ones.
+     * Every item is popped before it is pushed, so nodes starting concurrently never move an item twice.
+     * Pending requests also get their status copied to the current key and claim their in-queue marker, so
+     * polling keeps finding them and a second request for the same email is still rejected as a duplicate.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyQueues() {
+        migrateList(RedisKeys.LEGACY_QUEUE, RedisKeys.QUEUE, true);
+        migrateList(RedisKeys.LEGACY_DLQ, RedisKeys.DLQ, false);
+    }
+
+    private void migrateList(String legacyKey, String key, boolean pending) {
+        try {
+            int moved = 0;
+            Object item;
+            while ((item = redisTemplate.opsForList().leftPop(legacyKey)) != null) {
+                redisTemplate.opsForList().rightPush(key, item);
+                if (pending && item instanceof String json) {
+                    migrateRequestKeys(json);
+                }
+                moved++;
+            }
+            if (moved > 0) {
+                logger.info("Migrated {} items from {} to {}", moved, legacyKey, key);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to migrate legacy queue {} to {}", legacyKey, key, e);
+        }
+    }
+
+    private void migrateRequestKeys(String json) {
+        try {
+            QueueItem item = objectMapper.readValue(json, QueueItem.class);
+            if (item.requestId == null) {
+                return;
+            }
+            Object status = redisTemplate.opsForValue().get(RedisKeys.legacyStatus(item.requestId));
+            if (status != null) {
+                redisTemplate.opsForValue().setIfAbsent(RedisKeys.status(item.requestId), status, statusTtl);
+            }
+            claimMarker(item.markerKey(), item.requestId);
+        } catch (Exception e) {
+            logger.error("Failed to migrate status and marker of legacy queue item: {}", json, e);
+        }
+    }
+
+    /**
+     * @return status under the key layout used before hash tags, or null once such keys have expired
+     */
+    private Object legacyStatus(String requestId) {
+        if (System.currentTimeMillis() > legacyStatusReadsUntil) {
+            return null;
+        }
+        return redisTemplate.opsForValue().get(RedisKeys.legacyStatus(requestId));
+    }
+
+    /**
+     * @return true if Redis could not be reached or did not answer in time, including inside a pipeline
+     */
+    private static boolean isUnreachable(RuntimeException e) {
+        Throwable failure = e instanceof RedisPipelineException ? e.getCause() : e;
+        return failure instanceof RedisConnectionFailureException || failure instanceof QueryTimeoutException;
+    }
+
+    private boolean spool(QueueItem item, String status, RuntimeException failure) {
+        logger.warn("Redis is unavailable, spooling reservation request {}: {}", item.requestId, failure.getMessage());
+        return spool.append(item, status);
+    }
+
+    private boolean claimMarker(String email, String requestId) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue()
+            .setIfAbsent(RedisKeys.queuedMarker(email), requestId, Duration.ofMillis(markerLeaseMillis)));
+    }
+
+    private void renewMarker(QueueItem item) {
+        String markerKey = RedisKeys.queuedMarker(item.markerKey());
+        onMarkerRenewed(item, redisTemplate.expire(markerKey, markerLeaseMillis, TimeUnit.MILLISECONDS));
+    }
+
+    private void onMarkerRenewed(QueueItem item, Object renewed) {
+        if (!Boolean.TRUE.equals(renewed)) {
+            markerExpiredCounter.increment();
+            logger.warn("In-queue marker for request {} expired before completion", item.requestId);
+            claimMarker(item.markerKey(), item.requestId);
+        }
+    }
+
+    /**
+     * Removes the email's in-queue marker once its request is completed, unless it now belongs to another request.
+     */
+    private void releaseMarker(String email, String requestId) {
+        onMarkerReleased(requestId, redisTemplate.execute(RELEASE_MARKER_SCRIPT, List.of(RedisKeys.queuedMarker(email)), requestId));
+    }
+
+    private void onMarkerReleased(String requestId, Object deleted) {
+        if (!(deleted instanceof Number count) || count.longValue() == 0) {
+            markerExpiredCounter.increment();
+            logger.warn("In-queue marker for request {} had already expired on completion", requestId);
+        }
+    }
+
+    private String serialize(QueueItem item) {
+        try {
+            return objectMapper.writeValueAsString(item);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Failed to serialize queue item " + item.requestId, e);
+        }
+    }
+
+    private static long longAt(List<Object> results, int index) {
+        return results.size() > index && results.get(index) instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -0,0 +1,81 @@
+package com.azki.reservation.queue;
+
+import java.util.List;
+
+/**
+ * Storage behind the reservation queue: the pending queue, the dead letter queue, the per-email in-queue markers
+ * and the request status store.
+ * <p>
+ * {@link RedisReservationQueue} shares all of them between nodes; {@link InMemoryReservationQueue} keeps them in
+ * the JVM for single-node deployments and benchmarks. {@code reservation.queue.backend} selects one of them.
+ * Processing, retry policy and metrics stay in {@code ReservationQueueService}.
+ */
+public interface ReservationQueue {
+
+    /**
+     * Claims the in-queue marker of the item's email, then appends the item and records its initial status.
+     *
+     * @param status the initial status of the request
+     * @return false, without enqueueing anything, if a request for the same email is already queued
+     */
+    boolean enqueue(QueueItem item, String status);
+
+    /**
+     * Removes up to {@code max} items from the head of the queue.
+     *
+     * @return the removed items in queue order; empty if the queue is empty
+     */
+    List<QueueItem> dequeue(int max);
+
+    /**
+     * Records that a dequeued item is being processed and keeps its in-queue marker alive.
+     */
+    void markProcessing(QueueItem item, String status);
+
+    /**
+     * Records the final status of a dequeued item and releases its in-queue marker.
+     */
+    void ack(QueueItem item, String status);
+
+    /**
+     * Puts a dequeued item back for another attempt and keeps its in-queue marker alive.
+     *
+     * @return false if the item could not be put back
+     */
+    boolean nack(QueueItem item);
+
+    /**
+     * Moves a dequeued item to the dead letter queue. Its status and marker are left to {@link #ack}.
+     */
+    void deadLetter(QueueItem item);
+
+    /**
+     * Returns the status of a request for polling clients; it may lag behind the latest write.
+     *
+     * @return the status, or null if the request is unknown or its status expired
+     */
+    String status(String requestId);
+
+    /**
+     * Returns the latest status of a request, for idempotency checks.
+     *
+     * @return the status, or null if the request is unknown or its status expired
+     */
+    String currentStatus(String requestId);
+
+    /**
+     * @return true if a request for the email is queued or being processed
+     */
+    boolean isQueued(String email);
+
+    long size();
+
+    long deadLetterSize();
+
+    /**
+     * Reads both lengths, in one round trip where the backend has one.
+     */
+    default QueueLengths lengths() {
+        return new QueueLengths(size(), deadLetterSize());
+    }
+}
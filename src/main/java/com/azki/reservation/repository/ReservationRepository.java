@@ -1,18 +1,41 @@
 package com.azki.reservation.repository;
 
 import com.azki.reservation.entity.Reservation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
+    /**
+     * Lightweight projection of the fields needed to schedule a reservation's expiry.
+     */
+    interface ExpiryCandidate {
+        Long getId();
+
+        LocalDateTime getCreatedDate();
+    }
+
+    /**
+     * Id and slot of a reservation created by {@link #insertReservations}.
+     */
+    interface InsertedReservation {
+        Long getId();
+
+        Long getSlotId();
+    }
+
     /**
      * Checks if a user with the given email has any reservations starting after the specified time.
      * Useful for preventing duplicate active reservations.
+     * <p>
+     * Read-only, so when called outside a transaction it is served by the read replica if one is configured.
      *
      * @param email the user's email
      * @param dateTime the date and time to check from (usually current time)
@@ -21,15 +44,80 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END FROM Reservation r " +
            "JOIN r.user u JOIN r.availableSlot a " +
            "WHERE u.email = :email AND a.startTime > :dateTime")
+    @Transactional(readOnly = true)
     boolean existsByUserEmailAndStartTimeAfter(@Param("email") String email, @Param("dateTime") LocalDateTime dateTime);
 
     /**
-     * Finds all reservations that have expired based on the given threshold time.
-     * This is used for cleaning up old reservations.
+     * Returns which of the given emails belong to users with a reservation starting after the specified time, with
+     * a single query for a whole bulk request.
+     * <p>
+     * Read-only, so when called outside a transaction it is served by the read replica if one is configured.
+     *
+     * @param emails the users' emails
+     * @param dateTime the date and time to check from (usually current time)
+     * @return the emails of users with future reservations
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT DISTINCT u.email FROM Reservation r JOIN r.user u JOIN r.availableSlot a " +
+           "WHERE u.email IN :emails AND a.startTime > :dateTime")
+    List<String> findEmailsWithReservationAfter(@Param("emails") Collection<String> emails,
+                                                @Param("dateTime") LocalDateTime dateTime);
+
+    /**
+     * Inserts one reservation per pair of {@code userIds[i]} and {@code slotIds[i]} in a single statement; the
+     * identity ids rule out JDBC batching of entity inserts.
+     *
+     * @param userIds users to reserve for
+     * @param slotIds slots to reserve, in the same order
+     * @param reservedAt reservation and creation time
+     * @param auditor recorded as the creator
+     * @return the new reservations' ids with their slots
+     */
+    @Query(value = "INSERT INTO reservation (user_id, available_slot_id, reserved_at, created_by, created_date, version) " +
+                   "SELECT e.user_id, e.slot_id, :reservedAt, :auditor, :reservedAt, 0 " +
+                   "FROM unnest(CAST(:userIds AS bigint[]), CAST(:slotIds AS bigint[])) AS e(user_id, slot_id) " +
+                   "RETURNING id, available_slot_id AS \"slotId\"", nativeQuery = true)
+    List<InsertedReservation> insertReservations(@Param("userIds") Long[] userIds,
+                                                 @Param("slotIds") Long[] slotIds,
+                                                 @Param("reservedAt") LocalDateTime reservedAt,
+                                                 @Param("auditor") String auditor);
+
+    /**
+     * Returns the ids of expired reservations greater than {@code afterId}, in id order.
+     * Used for keyset pagination so that expiry never loads reservation entities or their relations.
      *
      * @param thresholdTime Reservations created before this time are considered expired
-     * @return List of expired reservation entities
+     * @param afterId the last id of the previous chunk (0 for the first chunk)
+     * @param limit maximum number of ids to return
+     * @return ids of expired reservations
+     */
+    @Query(value = "SELECT r.id FROM reservation r WHERE r.created_date < :thresholdTime AND r.id > :afterId " +
+                   "ORDER BY r.id LIMIT :limit", nativeQuery = true)
+    List<Long> findExpiredReservationIds(@Param("thresholdTime") LocalDateTime thresholdTime,
+                                         @Param("afterId") long afterId,
+                                         @Param("limit") int limit);
+
+    /**
+     * Deletes the given reservations in a single statement, provided they are still expired,
+     * and returns the ids of the slots they were holding.
+     *
+     * @param ids reservation ids to delete
+     * @param thresholdTime Reservations created before this time are considered expired
+     * @return ids of the slots freed by the deleted reservations
+     */
+    @Query(value = "DELETE FROM reservation WHERE id IN (:ids) AND created_date < :thresholdTime " +
+                   "RETURNING available_slot_id", nativeQuery = true)
+    List<Long> deleteExpiredReturningSlotIds(@Param("ids") Collection<Long> ids,
+                                             @Param("thresholdTime") LocalDateTime thresholdTime);
+
+    /**
+     * Returns the id and creation time of reservations with an id greater than {@code afterId}, in id order.
+     * Used to load expiry deadlines on startup without loading entities or their relations.
+     *
+     * @param afterId the last id of the previous page (0 for the first page)
+     * @param limit maximum number of rows to return
+     * @return expiry candidates
      */
-    @Query("SELECT r FROM Reservation r WHERE r.createdDate < :thresholdTime")
-    List<Reservation> findExpiredReservations(@Param("thresholdTime") LocalDateTime thresholdTime);
+    @Query("SELECT r.id AS id, r.createdDate AS createdDate FROM Reservation r WHERE r.id > :afterId ORDER BY r.id")
+    List<ExpiryCandidate> findExpiryCandidates(@Param("afterId") long afterId, Limit limit);
 }
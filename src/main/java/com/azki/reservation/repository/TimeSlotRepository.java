@@ -1,30 +1,121 @@
 package com.azki.reservation.repository;
 
 import com.azki.reservation.entity.AvailableSlot;
-import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface TimeSlotRepository extends JpaRepository<AvailableSlot, Long> {
+
+    /**
+     * Id and start time of a slot claimed by {@link #claimAvailableSlots}.
+     */
+    interface ClaimedSlot {
+        Long getId();
+
+        LocalDateTime getStartTime();
+    }
+
+    /**
+     * Number of free slots starting in one hour, as counted by {@link #countFreeSlotsByHour}.
+     */
+    interface FreeSlotCount {
+        Long getEpochDay();
+
+        Integer getHour();
+
+        Long getFree();
+    }
+
+    /**
+     * A free slot as listed by {@link #findFreeSlotsAfter}.
+     */
+    interface FreeSlot {
+        Long getId();
+
+        LocalDateTime getStartTime();
+
+        LocalDateTime getEndTime();
+    }
+
     /**
-     * Finds the next available time slot using pessimistic locking.
-     * Limits the result to only the first available slot to avoid the "Query did not return a unique result" exception.
+     * Finds available time slots in start time order, without locking them. Only used to show the next slot;
+     * reservations claim theirs with {@link #claimAvailableSlots}.
      */
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query(value = "SELECT t FROM AvailableSlot t WHERE t.isReserved = false AND t.startTime >= :now ORDER BY t.startTime ASC")
-    List<AvailableSlot> findAvailableSlots(@Param("now") LocalDateTime now);
+    List<AvailableSlot> findAvailableSlots(@Param("now") LocalDateTime now, Limit limit);
 
     /**
      * Returns the first available time slot, or empty if none exists.
      */
     default Optional<AvailableSlot> findNextAvailable(LocalDateTime now) {
-        List<AvailableSlot> slots = findAvailableSlots(now);
-        return slots.isEmpty() ? Optional.empty() : Optional.of(slots.getFirst());
+        return findAvailableSlots(now, Limit.of(1)).stream().findFirst();
     }
+
+    /**
+     * Claims up to {@code limit} of the nearest available slots in a single statement. Slots locked by another
+     * transaction are skipped rather than waited for, so concurrent claims never block each other.
+     * The version is bumped so that concurrent optimistic updates of the same slots fail.
+     *
+     * @param now only slots starting at or after this time are claimed
+     * @param limit maximum number of slots to claim
+     * @return the claimed slots, in no particular order
+     */
+    @Query(value = "UPDATE available_slot SET is_reserved = true, version = version + 1, " +
+                   "last_modified_date = CURRENT_TIMESTAMP, last_modified_by = 'system' " +
+                   "WHERE id IN (SELECT id FROM available_slot WHERE is_reserved = false AND start_time >= :now " +
+                   "ORDER BY start_time LIMIT :limit FOR UPDATE SKIP LOCKED) " +
+                   "RETURNING id, start_time AS \"startTime\"", nativeQuery = true)
+    List<ClaimedSlot> claimAvailableSlots(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Marks the given slots as available again in a single statement.
+     * The version is bumped so that concurrent optimistic updates of the same slots still fail.
+     *
+     * @param ids slot ids to release
+     * @return start times of the slots updated
+     */
+    @Query(value = "UPDATE available_slot SET is_reserved = false, version = version + 1, " +
+                   "last_modified_date = CURRENT_TIMESTAMP, last_modified_by = 'system' WHERE id IN (:ids) " +
+                   "RETURNING start_time", nativeQuery = true)
+    List<LocalDateTime> releaseSlots(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the free slots starting at or after {@code from}, per day and hour. Only used to rebuild the
+     * availability histogram, never to answer a request.
+     *
+     * @param from start of the first counted hour
+     * @return one row per hour with at least one free slot
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT CAST(start_time AS date) - DATE '1970-01-01' AS \"epochDay\", " +
+                   "CAST(EXTRACT(HOUR FROM start_time) AS int) AS hour, count(*) AS free " +
+                   "FROM available_slot WHERE is_reserved = false AND start_time >= :from GROUP BY 1, 2",
+           nativeQuery = true)
+    List<FreeSlotCount> countFreeSlotsByHour(@Param("from") LocalDateTime from);
+
+    /**
+     * Returns the next page of free slots in {@code (start_time, id)} order, after the given position.
+     * The row comparison is answered by a range scan of the partial index on free slots, so every page costs the
+     * same however deep it is.
+     *
+     * @param afterStart start time of the last slot of the previous page
+     * @param afterId id of the last slot of the previous page, 0 for the first page
+     * @param limit page size
+     * @return up to {@code limit} free slots
+     */
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT id, start_time AS \"startTime\", end_time AS \"endTime\" FROM available_slot " +
+                   "WHERE is_reserved = false AND (start_time, id) > (:afterStart, :afterId) " +
+                   "ORDER BY start_time, id LIMIT :limit", nativeQuery = true)
+    List<FreeSlot> findFreeSlotsAfter(@Param("afterStart") LocalDateTime afterStart,
+                                      @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
 }
@@ -1,10 +1,14 @@
 package com.azki.reservation.repository;
 
+import com.azki.reservation.dto.user.UserIdentity;
 import com.azki.reservation.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,4 +28,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
         List<User> users = findByEmailOrderedById(email);
         return users.isEmpty() ? Optional.empty() : Optional.of(users.getFirst());
     }
+
+    /**
+     * Loads the identity projection of the users with the given emails, without materializing entities.
+     * Ordered by id so the first match wins should an email be duplicated.
+     */
+    @Query("SELECT new com.azki.reservation.dto.user.UserIdentity(u.id, u.email, u.userName) " +
+           "FROM User u WHERE u.email IN :emails ORDER BY u.id ASC")
+    List<UserIdentity> findIdentitiesByEmailIn(@Param("emails") Collection<String> emails);
+
+    /**
+     * Loads the identity projection of the users with the given ids.
+     */
+    @Query("SELECT new com.azki.reservation.dto.user.UserIdentity(u.id, u.email, u.userName) " +
+           "FROM User u WHERE u.id IN :ids")
+    List<UserIdentity> findIdentitiesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Replaces a user's password hash, only if it has not been changed in the meantime.
+     *
+     * @return number of updated rows (0 or 1)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                           @Param("newPassword") String newPassword);
 }
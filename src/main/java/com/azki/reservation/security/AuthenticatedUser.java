@@ -0,0 +1,16 @@
+package com.azki.reservation.security;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Identity carried by a verified JWT; everything authentication needs without loading the user.
+ *
+ * @param userId id of the user the token was issued to
+ * @param email the user's email, also the token subject
+ * @param roles role names granted by the token
+ * @param issuedAt when the token was issued
+ * @param expiresAt when the token expires
+ */
+public record AuthenticatedUser(Long userId, String email, List<String> roles, Instant issuedAt, Instant expiresAt) {
+}
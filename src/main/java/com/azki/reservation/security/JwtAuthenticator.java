@@ -0,0 +1,91 @@
+package com.azki.reservation.security;
+
+import com.azki.reservation.security.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Authenticates bearer tokens without touching the database.
+ * <p>
+ * A token is verified (signature, expiry, required claims) and checked against {@link TokenRevocationService}
+ * once, then kept in a bounded cache for a short TTL so repeated requests with the same token skip both the
+ * signature check and the revocation lookup. The TTL bounds how long a revocation can take to apply.
+ */
+@Component
+public class JwtAuthenticator {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticator.class);
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationService tokenRevocationService;
+    private final Cache<String, AuthenticatedUser> verifiedTokens;
+
+    public JwtAuthenticator(
+            JwtUtil jwtUtil,
+            TokenRevocationService tokenRevocationService,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.security.jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${reservation.security.jwt.cache.ttl-seconds:30}") long cacheTtlSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationService = tokenRevocationService;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    /**
+     * @param token bearer token
+     * @return the token's identity, or empty if the token is invalid, expired or revoked
+     */
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        AuthenticatedUser user = verifiedTokens.getIfPresent(token);
+        if (user == null) {
+            user = verify(token);
+            if (user == null) {
+                return Optional.empty();
+            }
+            verifiedTokens.put(token, user);
+        }
+        // A cached token may have expired since it was verified
+        if (!user.expiresAt().isAfter(Instant.now())) {
+            verifiedTokens.invalidate(token);
+            return Optional.empty();
+        }
+        return Optional.of(user);
+    }
+
+    private AuthenticatedUser verify(String token) {
+        AuthenticatedUser user;
+        try {
+            user = jwtUtil.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Rejected invalid token: {}", e.getMessage());
+            return null;
+        }
+        try {
+            if (tokenRevocationService.isRevoked(user)) {
+                logger.debug("Rejected revoked token of user {}", user.userId());
+                return null;
+            }
+        } catch (Exception e) {
+            // Fail closed: without the revocation check the token cannot be trusted
+            logger.warn("Token revocation check failed for user {}", user.userId(), e);
+            return null;
+        }
+        return user;
+    }
+}
@@ -0,0 +1,65 @@
+package com.azki.reservation.security;
+
+import com.azki.reservation.entity.UserChangedEvent;
+import com.azki.reservation.util.RedisKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Token revocation by user, replacing the per-request check that the user still exists.
+ * <p>
+ * Revoking a user stores a "revoked before" instant in Redis; every token issued to that user before it is
+ * rejected. The entry only needs to outlive the longest-lived token, so it expires with the token lifetime.
+ * Every committed update or removal of a user revokes its tokens: users are only written when deleted or when
+ * their email, name or password changes, all of which invalidate tokens issued before.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${reservation.security.jwt.expiration-ms:86400000}")
+    private long tokenExpirationMillis;
+
+    public TokenRevocationService(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * Revokes every token issued to the user until now.
+     *
+     * @param userId the user id
+     */
+    public void revokeAllTokens(Long userId) {
+        redisTemplate.opsForValue().set(RedisKeys.revokedBefore(userId), System.currentTimeMillis(),
+            Duration.ofMillis(tokenExpirationMillis));
+        logger.info("Revoked all tokens of user {}", userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        try {
+            revokeAllTokens(event.userId());
+        } catch (Exception e) {
+            logger.error("Failed to revoke the tokens of changed user {}", event.userId(), e);
+        }
+    }
+
+    /**
+     * @param user identity from a verified token
+     * @return true if the token was issued before its user's tokens were revoked
+     */
+    public boolean isRevoked(AuthenticatedUser user) {
+        Object revokedBefore = redisTemplate.opsForValue().get(RedisKeys.revokedBefore(user.userId()));
+        // iat has second precision, so a token issued in the same second as the revocation is revoked too
+        return revokedBefore instanceof Number millis && user.issuedAt().toEpochMilli() <= millis.longValue();
+    }
+}
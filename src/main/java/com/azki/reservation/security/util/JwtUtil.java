@@ -1,53 +1,87 @@
 package com.azki.reservation.security.util;
 
+import com.azki.reservation.entity.User;
+import com.azki.reservation.security.AuthenticatedUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
 
+/**
+ * Issues and verifies JWT tokens.
+ * <p>
+ * The signing key and the parser are built once; verifying a token parses and checks its signature exactly once.
+ * Tokens carry the user id ({@code uid}) and roles ({@code roles}) so requests can be authenticated without
+ * loading the user.
+ */
 @Component
 public class JwtUtil {
 
-    private static final String secret = "mysecretkey12345678901234567890"; // حداقل ۲۵ کاراکتر
-    private static final long expiration = 86400000; // 1 روز
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    private static final List<String> DEFAULT_ROLES = List.of("USER");
 
-    private Key getKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final long expiration;
+
+    public JwtUtil(
+            @Value("${reservation.security.jwt.secret:mysecretkey12345678901234567890-change-me}") String secret,
+            @Value("${reservation.security.jwt.expiration-ms:86400000}") long expiration) {
+        // HS256 needs at least 256 bits of key material
+        this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.expiration = expiration;
     }
 
     /**
      * Generates a JWT token with user information
      *
-     * @param email User's email
+     * @param user The user the token is issued to
      * @return The generated JWT token
      */
-    public String generateToken(String email) {
+    public String generateToken(User user) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
-                .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getKey())
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLES_CLAIM, DEFAULT_ROLES)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + expiration))
+                .signWith(key)
                 .compact();
     }
+
     /**
-     * Extracts the user email from a JWT token
+     * Verifies a JWT token and extracts the identity it carries
      *
      * @param token JWT token
-     * @return User's email
+     * @return The authenticated user
+     * @throws JwtException if the token is malformed, expired, badly signed or lacks the user id
      */
-    public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+    public AuthenticatedUser parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null || claims.getIssuedAt() == null || claims.getExpiration() == null) {
+            throw new JwtException("Token is missing required claims");
+        }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new AuthenticatedUser(
+                userId.longValue(),
+                claims.getSubject(),
+                roles != null ? roles.stream().map(String::valueOf).toList() : List.of(),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant());
     }
 
     /**
@@ -57,38 +91,8 @@ public class JwtUtil {
      * @return Expiration date as LocalDateTime
      */
     public LocalDateTime getExpirationDate(String token) {
-        Date expiration = extractAllClaims(token).getExpiration();
-        return expiration.toInstant()
+        return parse(token).expiresAt()
                 .atZone(ZoneId.systemDefault())
                 .toLocalDateTime();
     }
-
-    /**
-     * Extracts all claims from a JWT token
-     *
-     * @param token JWT token
-     * @return All claims in the token
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * Validates if a JWT token is valid
-     *
-     * @param token JWT token
-     * @return true if valid, false otherwise
-     */
-    public boolean isTokenValid(String token) {
-        try {
-            extractEmail(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,313 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.config.SchedulingConfig;
+import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.FreeSlotCount;
+import com.azki.reservation.util.RedisKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free slot counts per hour, kept in Redis so that availability is answered without reading {@code available_slot}.
+ * <p>
+ * One hash holds a field {@code <epoch day>:<hour>} for every hour with free slots, next to a version that is
+ * bumped on every change and serves as the ETag of availability responses. Reservations, cancellations and
+ * expiries publish a {@link SlotAvailabilityEvent}; once their transaction has committed, one script adjusts the
+ * affected hours and bumps the version, on every node alike.
+ * <p>
+ * The histogram is rebuilt from the database at startup and every {@code reservation.availability.rebuild-minutes}.
+ * This repairs adjustments lost while Redis was unreachable and picks up slots added to the database directly. A
+ * rebuild is only applied if the version has not moved since it started counting and no change is in flight, so
+ * it never overwrites a concurrent adjustment with an older count, nor applies a count that already includes a
+ * change whose adjustment is still to come. A change is marked in flight just before its transaction commits and
+ * unmarked by the same script that adjusts the counts; a mark left behind by a node that died in between expires
+ * after {@link #IN_FLIGHT_LEASE_MILLIS}. Until the first rebuild, adjustments are ignored and {@link #version()} is
+ * empty.
+ */
+@Service
+public class AvailabilityHistogram {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityHistogram.class);
+    static final int HOURS_PER_DAY = 24;
+    private static final int REBUILD_ATTEMPTS = 3;
+    static final long IN_FLIGHT_LEASE_MILLIS = 60_000;
+
+    /**
+     * Unmarks the in-flight change ARGV[1], if any, then adds a delta to each given hour and bumps the version;
+     * does nothing more before the first rebuild or without deltas. ARGV[2..] holds field and delta pairs.
+     */
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>("""
+        if ARGV[1] ~= '' then redis.call('ZREM', KEYS[3], ARGV[1]) end
+        if #ARGV == 1 or redis.call('EXISTS', KEYS[2]) == 0 then return 0 end
+        for i = 2, #ARGV, 2 do
+          if redis.call('HINCRBY', KEYS[1], ARGV[i], ARGV[i + 1]) <= 0 then redis.call('HDEL', KEYS[1], ARGV[i]) end
+        end
+        return redis.call('INCR', KEYS[2])
+        """, Long.class);
+
+    /**
+     * Replaces the histogram if the version is still ARGV[1] (empty if there is none yet) and no change is in
+     * flight as of ARGV[2], and returns the new version, or -1 if not. A first build starts the version at ARGV[2].
+     * ARGV[3..] holds field and count pairs.
+     */
+    private static final RedisScript<Long> REBUILD_SCRIPT = new DefaultRedisScript<>("""
+        local current = redis.call('GET', KEYS[2])
+        if (current or '') ~= ARGV[1] then return -1 end
+        redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', ARGV[2])
+        if redis.call('ZCARD', KEYS[3]) > 0 then return -1 end
+        redis.call('DEL', KEYS[1])
+        for i = 3, #ARGV, 2 do
+          redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+        end
+        if current then return redis.call('INCR', KEYS[2]) end
+        redis.call('SET', KEYS[2], ARGV[2])
+        return tonumber(ARGV[2])
+        """, Long.class);
+
+    /**
+     * Marks change ARGV[2] as in flight until ARGV[1].
+     */
+    private static final RedisScript<Long> MARK_SCRIPT = new DefaultRedisScript<>(
+        "return redis.call('ZADD', KEYS[1], ARGV[1], ARGV[2])", Long.class);
+
+    private static final List<String> KEYS = List.of(
+        RedisKeys.AVAILABILITY, RedisKeys.AVAILABILITY_VERSION, RedisKeys.AVAILABILITY_IN_FLIGHT);
+    private static final RedisSerializer<String> ARGS_SERIALIZER = new StringRedisSerializer();
+    private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    /**
+     * Free slots per hour of whole days, as of {@code version}.
+     *
+     * @param version version of the histogram the counts were read at
+     * @param from first day of the counts
+     * @param free free slots of hour {@code h} of day {@code from + d} at index {@code d * 24 + h}
+     */
+    public record Snapshot(long version, LocalDate from, long[] free) {
+
+        public long free(int day, int hour) {
+            return free[day * HOURS_PER_DAY + hour];
+        }
+
+        public int days() {
+            return free.length / HOURS_PER_DAY;
+        }
+    }
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisPipelineExecutor redisPipelineExecutor;
+    private final TimeSlotRepository timeSlotRepository;
+    private final Counter updateFailureCounter;
+    private final Counter rebuiltCounter;
+    private final Counter rebuildConflictCounter;
+    private final Counter rebuildFailureCounter;
+
+    public AvailabilityHistogram(
+            RedisTemplate<String, Object> redisTemplate,
+            RedisPipelineExecutor redisPipelineExecutor,
+            TimeSlotRepository timeSlotRepository,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.redisPipelineExecutor = redisPipelineExecutor;
+        this.timeSlotRepository = timeSlotRepository;
+        this.updateFailureCounter = Counter.builder("reservation.availability.update.failures")
+                .description("Availability changes that could not be applied to the histogram")
+                .register(meterRegistry);
+        this.rebuiltCounter = Counter.builder("reservation.availability.rebuilds")
+                .description("Rebuilds of the availability histogram, by outcome")
+                .tag("outcome", "applied")
+                .register(meterRegistry);
+        this.rebuildConflictCounter = Counter.builder("reservation.availability.rebuilds")
+                .description("Rebuilds of the availability histogram, by outcome")
+                .tag("outcome", "conflict")
+                .register(meterRegistry);
+        this.rebuildFailureCounter = Counter.builder("reservation.availability.rebuilds")
+                .description("Rebuilds of the availability histogram, by outcome")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies a change of availability once the transaction that published it has committed, or right away when
+     * it was published outside a transaction. Slots of past days are left out, the next rebuild drops those days.
+     * Until the transaction completes, the change is marked in flight so that no rebuild is applied meanwhile.
+     */
+    @EventListener
+    public void onSlotAvailabilityChanged(SlotAvailabilityEvent event) {
+        long today = LocalDate.now().toEpochDay();
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        for (LocalDateTime startTime : event.startTimes()) {
+            if (startTime.toLocalDate().toEpochDay() >= today) {
+                deltas.merge(field(startTime), event.delta(), Integer::sum);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(deltas.size() * 2);
+        deltas.forEach((field, delta) -> {
+            args.add(field);
+            args.add(Integer.toString(delta));
+        });
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            adjust("", args);
+            return;
+        }
+        String change = UUID.randomUUID().toString();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                markInFlight(change);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                adjust(change, status == STATUS_COMMITTED ? args : List.of());
+            }
+        });
+    }
+
+    private void markInFlight(String change) {
+        // Never fails the commit: without the mark, a rebuild racing this change is off until the next one
+        try {
+            redisTemplate.execute(MARK_SCRIPT, ARGS_SERIALIZER, RESULT_SERIALIZER,
+                List.of(RedisKeys.AVAILABILITY_IN_FLIGHT),
+                Long.toString(System.currentTimeMillis() + IN_FLIGHT_LEASE_MILLIS), change);
+        } catch (RuntimeException e) {
+            updateFailureCounter.increment();
+            logger.warn("Failed to mark an availability change in flight: {}", e.getMessage());
+        }
+    }
+
+    private void adjust(String change, List<Object> deltas) {
+        Object[] args = new Object[deltas.size() + 1];
+        args[0] = change;
+        for (int i = 0; i < deltas.size(); i++) {
+            args[i + 1] = deltas.get(i);
+        }
+        try {
+            redisTemplate.execute(ADJUST_SCRIPT, ARGS_SERIALIZER, RESULT_SERIALIZER, KEYS, args);
+        } catch (RuntimeException e) {
+            updateFailureCounter.increment();
+            logger.warn("Failed to update the availability histogram, the next rebuild repairs it: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the current version, empty until the histogram has been built
+     */
+    public OptionalLong version() {
+        return toVersion(redisTemplate.opsForValue().get(RedisKeys.AVAILABILITY_VERSION));
+    }
+
+    /**
+     * Reads the free slot counts of the days from {@code from} to {@code to}, both included, with the version
+     * they were read at, in one round trip.
+     *
+     * @return the counts, empty until the histogram has been built
+     */
+    public Optional<Snapshot> read(LocalDate from, LocalDate to) {
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        List<Object> fields = new ArrayList<>(days * HOURS_PER_DAY);
+        for (long day = from.toEpochDay(); day <= to.toEpochDay(); day++) {
+            for (int hour = 0; hour < HOURS_PER_DAY; hour++) {
+                fields.add(field(day, hour));
+            }
+        }
+        List<Object> results = redisPipelineExecutor.execute(operations -> {
+            operations.opsForValue().get(RedisKeys.AVAILABILITY_VERSION);
+            operations.opsForHash().multiGet(RedisKeys.AVAILABILITY, fields);
+        });
+        OptionalLong version = toVersion(results.get(0));
+        if (version.isEmpty()) {
+            return Optional.empty();
+        }
+        List<?> counts = (List<?>) results.get(1);
+        long[] free = new long[fields.size()];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = counts.get(i) instanceof Number count ? count.longValue() : 0;
+        }
+        return Optional.of(new Snapshot(version.getAsLong(), from, free));
+    }
+
+    /**
+     * Recounts the free slots from today on and replaces the histogram with the counts. Runs at startup and then
+     * every {@code reservation.availability.rebuild-minutes}; retried right away if the histogram changed while
+     * the slots were being counted.
+     */
+    @Scheduled(fixedDelayString = "${reservation.availability.rebuild-minutes:60}", timeUnit = TimeUnit.MINUTES,
+        scheduler = SchedulingConfig.AVAILABILITY_REBUILD_SCHEDULER)
+    public void rebuild() {
+        try {
+            for (int attempt = 1; attempt <= REBUILD_ATTEMPTS; attempt++) {
+                if (tryRebuild()) {
+                    return;
+                }
+                rebuildConflictCounter.increment();
+            }
+            logger.warn("Availability histogram kept changing while it was rebuilt, retrying at the next run");
+        } catch (Exception e) {
+            rebuildFailureCounter.increment();
+            logger.error("Failed to rebuild the availability histogram", e);
+        }
+    }
+
+    private boolean tryRebuild() {
+        // Read before counting: any adjustment committed after this point moves the version and voids the rebuild,
+        // and one whose commit the count may already have seen is still marked in flight when the rebuild applies
+        OptionalLong expected = version();
+        List<FreeSlotCount> counts = timeSlotRepository.countFreeSlotsByHour(LocalDate.now().atStartOfDay());
+        List<Object> args = new ArrayList<>(2 + counts.size() * 2);
+        args.add(expected.isPresent() ? Long.toString(expected.getAsLong()) : "");
+        // A first build starts at the clock, so a histogram lost with its Redis never reissues an earlier ETag
+        args.add(Long.toString(System.currentTimeMillis()));
+        long free = 0;
+        for (FreeSlotCount count : counts) {
+            args.add(field(count.getEpochDay(), count.getHour()));
+            args.add(Long.toString(count.getFree()));
+            free += count.getFree();
+        }
+        Long version = redisTemplate.execute(REBUILD_SCRIPT, ARGS_SERIALIZER, RESULT_SERIALIZER, KEYS, args.toArray());
+        if (version == null || version < 0) {
+            return false;
+        }
+        rebuiltCounter.increment();
+        logger.info("Rebuilt availability histogram: {} free slots in {} hours, version {}", free, counts.size(), version);
+        return true;
+    }
+
+    private static OptionalLong toVersion(Object value) {
+        return value instanceof Number version ? OptionalLong.of(version.longValue()) : OptionalLong.empty();
+    }
+
+    private static String field(LocalDateTime startTime) {
+        return field(startTime.toLocalDate().toEpochDay(), startTime.getHour());
+    }
+
+    static String field(long epochDay, int hour) {
+        return epochDay + ":" + hour;
+    }
+}
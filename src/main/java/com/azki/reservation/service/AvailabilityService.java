@@ -0,0 +1,214 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.dto.availability.AvailabilityBucketDto;
+import com.azki.reservation.dto.availability.AvailabilityResponseDto;
+import com.azki.reservation.dto.availability.AvailabilityResponseDto.Granularity;
+import com.azki.reservation.dto.availability.FreeSlotDto;
+import com.azki.reservation.dto.availability.FreeSlotPageDto;
+import com.azki.reservation.exception.AvailabilityNotReadyException;
+import com.azki.reservation.exception.BusinessException;
+import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.FreeSlot;
+import com.azki.reservation.service.AvailabilityHistogram.Snapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Answers availability searches: free slot counts per day or hour from {@link AvailabilityHistogram}, and pages of
+ * free slots by keyset pagination over the partial index on free slots. Neither scans {@code available_slot}.
+ * <p>
+ * Responses are tagged with a weak ETag built from the histogram version, which moves with every reservation,
+ * cancellation and expiry, and from the resolved range, so a conditional request is answered from the version
+ * alone. Hours that have already started are left out of the counts, as they can no longer be reserved; a range
+ * that includes them is scoped to the current hour too.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final String CURSOR_SEPARATOR = "|";
+
+    /**
+     * A response body with the ETag of the histogram version it was read at, if any.
+     */
+    public record Tagged<T>(String etag, T body) {
+    }
+
+    private final AvailabilityHistogram availabilityHistogram;
+    private final TimeSlotRepository timeSlotRepository;
+
+    @Value("${reservation.availability.max-days:31}")
+    private int maxDays;
+
+    @Value("${reservation.availability.max-page-size:100}")
+    private int maxPageSize;
+
+    public AvailabilityService(AvailabilityHistogram availabilityHistogram, TimeSlotRepository timeSlotRepository) {
+        this.availabilityHistogram = availabilityHistogram;
+        this.timeSlotRepository = timeSlotRepository;
+    }
+
+    /**
+     * @param from first day, today if null
+     * @param to last day, a week from {@code from} if null
+     * @return the ETag the counts of these days currently have
+     * @throws BusinessException if the range is empty or longer than {@code reservation.availability.max-days}
+     * @throws AvailabilityNotReadyException if the histogram has not been built yet
+     */
+    public String availabilityEtag(LocalDate from, LocalDate to) {
+        LocalDate first = firstDay(from);
+        LocalDate last = lastDay(first, to);
+        OptionalLong version = availabilityHistogram.version();
+        if (version.isEmpty()) {
+            throw notReady();
+        }
+        return etag(version.getAsLong(), scope(first, last, currentHour()));
+    }
+
+    /**
+     * Counts the free slots of the given days, per day or per hour, from the current hour on.
+     *
+     * @param from first day, today if null
+     * @param to last day, a week from {@code from} if null
+     * @throws BusinessException if the range is empty or longer than {@code reservation.availability.max-days}
+     * @throws AvailabilityNotReadyException if the histogram has not been built yet
+     */
+    public Tagged<AvailabilityResponseDto> availability(LocalDate from, LocalDate to, Granularity granularity) {
+        LocalDate first = firstDay(from);
+        LocalDate last = lastDay(first, to);
+        LocalDateTime currentHour = currentHour();
+        Snapshot snapshot = availabilityHistogram.read(first, last).orElseThrow(AvailabilityService::notReady);
+        List<AvailabilityBucketDto> buckets = new ArrayList<>();
+        for (int day = 0; day < snapshot.days(); day++) {
+            LocalDate date = first.plusDays(day);
+            long dayTotal = 0;
+            for (int hour = 0; hour < AvailabilityHistogram.HOURS_PER_DAY; hour++) {
+                // The histogram keeps today's started hours until the next rebuild
+                if (date.atTime(hour, 0).isBefore(currentHour)) {
+                    continue;
+                }
+                long free = snapshot.free(day, hour);
+                if (granularity == Granularity.HOUR && free > 0) {
+                    buckets.add(new AvailabilityBucketDto(date, hour, free));
+                }
+                dayTotal += free;
+            }
+            if (granularity == Granularity.DAY && dayTotal > 0) {
+                buckets.add(new AvailabilityBucketDto(date, null, dayTotal));
+            }
+        }
+        return new Tagged<>(etag(snapshot.version(), scope(first, last, currentHour)),
+                new AvailabilityResponseDto(first, last, granularity, buckets));
+    }
+
+    /**
+     * @param cursor position after which the page starts, null for the first page
+     * @return the ETag the page currently has, or null before the histogram has been built
+     * @throws BusinessException if the cursor is malformed
+     */
+    public String freeSlotsEtag(String cursor) {
+        OptionalLong version = availabilityHistogram.version();
+        return version.isPresent() ? etag(version.getAsLong(), scope(cursor)) : null;
+    }
+
+    /**
+     * Lists the next free slots after {@code cursor}, or from now on for the first page.
+     *
+     * @param cursor {@code nextCursor} of the previous page, null for the first page
+     * @param size page size, at most {@code reservation.availability.max-page-size}
+     * @throws BusinessException if the cursor is malformed or the size out of range
+     */
+    public Tagged<FreeSlotPageDto> freeSlots(String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new BusinessException("Page size must be between 1 and " + maxPageSize);
+        }
+        // Read first: a change made while the page is read moves the version past this ETag
+        String etag = freeSlotsEtag(cursor);
+        Position after = cursor != null ? decode(cursor) : new Position(firstPageStart(), 0);
+        List<FreeSlot> slots = timeSlotRepository.findFreeSlotsAfter(after.startTime(), after.id(), size);
+        List<FreeSlotDto> page = slots.stream()
+                .map(slot -> new FreeSlotDto(slot.getId(), slot.getStartTime(), slot.getEndTime()))
+                .toList();
+        String nextCursor = page.size() < size ? null : encode(page.getLast().getStartTime(), page.getLast().getId());
+        return new Tagged<>(etag, new FreeSlotPageDto(page, nextCursor));
+    }
+
+    private LocalDate firstDay(LocalDate from) {
+        return from != null ? from : LocalDate.now();
+    }
+
+    private LocalDate lastDay(LocalDate first, LocalDate to) {
+        LocalDate last = to != null ? to : first.plusDays(6);
+        if (last.isBefore(first)) {
+            throw new BusinessException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= maxDays) {
+            throw new BusinessException("Availability can be searched for at most " + maxDays + " days at once");
+        }
+        return last;
+    }
+
+    /**
+     * Scope of an availability ETag: the range, and for a range from today or earlier also the current hour, as
+     * hours that have started drop out of it without the version moving.
+     */
+    private static String scope(LocalDate first, LocalDate last, LocalDateTime currentHour) {
+        String range = first + ".." + last;
+        return first.isAfter(currentHour.toLocalDate()) ? range : range + "@" + currentHour;
+    }
+
+    private static LocalDateTime currentHour() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * Scope of a free slot page's ETag: its cursor, or for the first page the minute it starts at, as slots that
+     * have started drop out of it without the version moving.
+     */
+    private String scope(String cursor) {
+        if (cursor != null) {
+            Position position = decode(cursor);
+            return position.startTime() + "_" + position.id();
+        }
+        return firstPageStart().toString();
+    }
+
+    private static LocalDateTime firstPageStart() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private record Position(LocalDateTime startTime, long id) {
+    }
+
+    private static String encode(LocalDateTime startTime, Long id) {
+        String position = startTime + CURSOR_SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(CURSOR_SEPARATOR);
+            return new Position(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String etag(long version, String scope) {
+        return "W/\"" + version + "-" + scope + "\"";
+    }
+
+    private static AvailabilityNotReadyException notReady() {
+        return new AvailabilityNotReadyException("The availability histogram has not been built yet");
+    }
+}
@@ -0,0 +1,283 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto;
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto.Mode;
+import com.azki.reservation.dto.reservation.BulkReservationResultDto;
+import com.azki.reservation.dto.user.UserIdentity;
+import com.azki.reservation.exception.BusinessException;
+import com.azki.reservation.repository.ReservationRepository;
+import com.azki.reservation.repository.ReservationRepository.InsertedReservation;
+import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.ClaimedSlot;
+import com.azki.reservation.service.ReservationQueueService.RequestStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reserves several slots in one transaction, for a list of users or several slots for one user.
+ * <p>
+ * Users and existing reservations are looked up for the whole request up front, outside the write transaction.
+ * The write transaction repeats the reservation check on the primary, since the first one may have been answered
+ * by a lagging replica. It then claims the nearest free slots with one {@code UPDATE ... FOR UPDATE SKIP LOCKED}
+ * and inserts all reservations with one statement, so a request of N entries costs a few statements instead of N
+ * reservation transactions, and the next-slot cache is evicted once.
+ * <p>
+ * In {@link Mode#ALL_OR_NOTHING} mode a single failing entry, or too few free slots, leaves everything unreserved;
+ * in {@link Mode#BEST_EFFORT} mode the entries that can be reserved are, in request order.
+ */
+@Service
+public class BulkReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkReservationService.class);
+    private static final String NO_SLOTS = "No available time slots";
+    private static final String ACTIVE_RESERVATION = "User already has an active reservation";
+
+    private final TimeSlotRepository timeSlotRepository;
+    private final ReservationRepository reservationRepository;
+    private final UserIdentityCache userIdentityCache;
+    private final CacheableOperations cacheableOperations;
+    private final ReservationExpiryScheduler reservationExpiryScheduler;
+    private final ReservationMetrics reservationMetrics;
+    private final AuditorAware<String> auditorAware;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter reservedCounter;
+    private final Counter failedCounter;
+
+    @Value("${reservation.bulk.max-size:100}")
+    private int maxSize;
+
+    @Value("${reservation.bulk.max-slots-per-email:10}")
+    private int maxSlotsPerEmail;
+
+    public BulkReservationService(
+            TimeSlotRepository timeSlotRepository,
+            ReservationRepository reservationRepository,
+            UserIdentityCache userIdentityCache,
+            CacheableOperations cacheableOperations,
+            ReservationExpiryScheduler reservationExpiryScheduler,
+            ReservationMetrics reservationMetrics,
+            AuditorAware<String> auditorAware,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
+        this.timeSlotRepository = timeSlotRepository;
+        this.reservationRepository = reservationRepository;
+        this.userIdentityCache = userIdentityCache;
+        this.cacheableOperations = cacheableOperations;
+        this.reservationExpiryScheduler = reservationExpiryScheduler;
+        this.reservationMetrics = reservationMetrics;
+        this.auditorAware = auditorAware;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.reservedCounter = Counter.builder("reservation.bulk.entries")
+                .description("Entries of bulk reservations, by outcome")
+                .tag("outcome", "reserved")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("reservation.bulk.entries")
+                .description("Entries of bulk reservations, by outcome")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks the request against the bulk policy before it is processed or queued.
+     *
+     * @throws BusinessException if the request is larger than {@code reservation.bulk.max-size} or asks for more
+     *                           than {@code reservation.bulk.max-slots-per-email} slots for one email
+     */
+    public void validate(BulkReservationRequestDto request) {
+        List<String> entries = entries(request);
+        if (entries.isEmpty()) {
+            throw new BusinessException("Either emails, or email with count, is required");
+        }
+        if (entries.size() > maxSize) {
+            throw new BusinessException("A bulk reservation can reserve at most " + maxSize + " slots");
+        }
+        if (request.getCount() != null && request.getCount() > maxSlotsPerEmail) {
+            throw new BusinessException("At most " + maxSlotsPerEmail + " slots can be reserved for one email");
+        }
+    }
+
+    /**
+     * Reserves the requested slots.
+     *
+     * @return one result per requested slot, in request order
+     * @throws BusinessException if the request breaks the bulk policy
+     */
+    public List<BulkReservationResultDto> reserve(BulkReservationRequestDto request) {
+        validate(request);
+        List<String> entries = entries(request);
+        Mode mode = request.getMode() != null ? request.getMode() : Mode.ALL_OR_NOTHING;
+        LocalDateTime now = LocalDateTime.now();
+        BulkReservationResultDto[] results = new BulkReservationResultDto[entries.size()];
+
+        // Reject what can be rejected without a write transaction
+        userIdentityCache.preload(entries);
+        Map<String, UserIdentity> users = new HashMap<>();
+        for (String email : new HashSet<>(entries)) {
+            userIdentityCache.findByEmail(email).ifPresent(user -> users.put(email, user));
+        }
+        Set<String> withReservation = users.isEmpty() ? Set.of()
+                : new HashSet<>(reservationRepository.findEmailsWithReservationAfter(users.keySet(), now));
+        boolean perEmail = request.getCount() == null;
+        Set<String> seen = new HashSet<>();
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            String email = entries.get(i);
+            if (!users.containsKey(email)) {
+                results[i] = BulkReservationResultDto.failed(email, "User not found for email: " + email);
+            } else if (withReservation.contains(email)) {
+                results[i] = BulkReservationResultDto.failed(email, ACTIVE_RESERVATION);
+            } else if (perEmail && !seen.add(email)) {
+                results[i] = BulkReservationResultDto.failed(email, "Email appears more than once in the request");
+            } else {
+                pending.add(i);
+            }
+        }
+        if (mode == Mode.ALL_OR_NOTHING && pending.size() < entries.size()) {
+            failAll(entries, pending, results, "Not reserved because another entry failed");
+        } else if (!pending.isEmpty()) {
+            reservePending(entries, pending, users, mode, now, results);
+        }
+
+        List<BulkReservationResultDto> outcome = List.of(results);
+        long reserved = outcome.stream().filter(BulkReservationService::isReserved).count();
+        reservedCounter.increment(reserved);
+        failedCounter.increment(outcome.size() - reserved);
+        logger.info("Bulk reservation of {} slots ({}): {} reserved", entries.size(), mode, reserved);
+        return outcome;
+    }
+
+    /**
+     * Sums the results up as a request status: {@code SUCCESS} if every entry was reserved,
+     * {@code SUCCESS: n of m reserved} if some were, and {@code FAILED: reason} if none was.
+     */
+    public static String status(List<BulkReservationResultDto> results) {
+        long reserved = results.stream().filter(BulkReservationService::isReserved).count();
+        if (reserved == results.size()) {
+            return RequestStatus.SUCCESS.name();
+        }
+        if (reserved > 0) {
+            return RequestStatus.SUCCESS.name() + ": " + reserved + " of " + results.size() + " reserved";
+        }
+        String reason = results.stream()
+                .map(BulkReservationResultDto::getReason)
+                .filter(r -> !r.startsWith("Not reserved"))
+                .findFirst()
+                .orElse(NO_SLOTS);
+        return RequestStatus.FAILED.name() + ": " + reason;
+    }
+
+    private void reservePending(List<String> entries, List<Integer> pending, Map<String, UserIdentity> users,
+                                Mode mode, LocalDateTime now, BulkReservationResultDto[] results) {
+        String auditor = auditorAware.getCurrentAuditor().orElse("system");
+        List<InsertedReservation> inserted = transactionTemplate.execute(status -> {
+            List<Integer> claimable = withoutReservation(entries, pending, now, results);
+            if (claimable.isEmpty() || (mode == Mode.ALL_OR_NOTHING && claimable.size() < pending.size())) {
+                failAll(entries, pending, results, "Not reserved because another entry failed");
+                return List.of();
+            }
+            List<ClaimedSlot> slots = new ArrayList<>(timeSlotRepository.claimAvailableSlots(now, claimable.size()));
+            if (slots.size() < claimable.size() && (mode == Mode.ALL_OR_NOTHING || slots.isEmpty())) {
+                status.setRollbackOnly();
+                return List.of();
+            }
+            slots.sort(Comparator.comparing(ClaimedSlot::getStartTime));
+            Long[] userIds = new Long[slots.size()];
+            Long[] slotIds = new Long[slots.size()];
+            for (int i = 0; i < slots.size(); i++) {
+                userIds[i] = users.get(entries.get(claimable.get(i))).id();
+                slotIds[i] = slots.get(i).getId();
+            }
+            Map<Long, Long> reservationIds = new HashMap<>();
+            List<InsertedReservation> rows = reservationRepository.insertReservations(userIds, slotIds, now, auditor);
+            rows.forEach(row -> reservationIds.put(row.getSlotId(), row.getId()));
+            eventPublisher.publishEvent(SlotAvailabilityEvent.reserved(
+                    slots.stream().map(ClaimedSlot::getStartTime).toList()));
+            for (int i = 0; i < slots.size(); i++) {
+                int entry = claimable.get(i);
+                results[entry] = BulkReservationResultDto.reserved(entries.get(entry), reservationIds.get(slotIds[i]),
+                        slots.get(i).getStartTime());
+            }
+            return rows;
+        });
+        // Entries left over once the free slots ran out, or all of them if the claim was rolled back
+        failAll(entries, pending, results, NO_SLOTS);
+        if (inserted != null && !inserted.isEmpty()) {
+            cacheableOperations.evictNextSlotCache();
+            for (InsertedReservation reservation : inserted) {
+                reservationExpiryScheduler.schedule(reservation.getId(), now);
+                reservationMetrics.reservationSucceeded();
+            }
+        }
+    }
+
+    /**
+     * Repeats the reservation check for the pending entries on the primary, failing the entries of users who
+     * reserved since the first check.
+     *
+     * @return the pending entries that can still be claimed
+     */
+    private List<Integer> withoutReservation(List<String> entries, List<Integer> pending, LocalDateTime now,
+                                             BulkReservationResultDto[] results) {
+        Set<String> emails = new HashSet<>();
+        pending.forEach(entry -> emails.add(entries.get(entry)));
+        Set<String> withReservation = new HashSet<>(reservationRepository.findEmailsWithReservationAfter(emails, now));
+        if (withReservation.isEmpty()) {
+            return pending;
+        }
+        List<Integer> claimable = new ArrayList<>();
+        for (int entry : pending) {
+            if (withReservation.contains(entries.get(entry))) {
+                results[entry] = BulkReservationResultDto.failed(entries.get(entry), ACTIVE_RESERVATION);
+            } else {
+                claimable.add(entry);
+            }
+        }
+        return claimable;
+    }
+
+    /**
+     * Marks every pending entry that has no result yet as failed.
+     */
+    private static void failAll(List<String> entries, List<Integer> pending, BulkReservationResultDto[] results,
+                                String reason) {
+        for (int entry : pending) {
+            if (results[entry] == null) {
+                results[entry] = BulkReservationResultDto.failed(entries.get(entry), reason);
+            }
+        }
+    }
+
+    private static boolean isReserved(BulkReservationResultDto result) {
+        return RequestStatus.SUCCESS.name().equals(result.getStatus());
+    }
+
+    private static List<String> entries(BulkReservationRequestDto request) {
+        if (request.getEmails() != null && !request.getEmails().isEmpty()) {
+            return request.getEmails();
+        }
+        if (request.getEmail() != null && request.getCount() != null && request.getCount() > 0) {
+            return Collections.nCopies(request.getCount(), request.getEmail());
+        }
+        return List.of();
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import com.azki.reservation.entity.AvailableSlot;
+import com.azki.reservation.jfr.SlotCacheLoadEvent;
 import com.azki.reservation.repository.TimeSlotRepository;
 
 import lombok.RequiredArgsConstructor;
@@ -29,7 +30,14 @@ public class CacheableOperationsImpl implements CacheableOperations {
     @Cacheable(value = "nextSlot", key = "'single'")
     public Optional<AvailableSlot> findNextAvailableSlotCached(LocalDateTime now) {
         logger.debug("Finding next available time slot (cached)");
+        SlotCacheLoadEvent event = new SlotCacheLoadEvent();
+        event.begin();
         Optional<AvailableSlot> slot = timeSlotRepository.findNextAvailable(now);
+        event.end();
+        if (event.shouldCommit()) {
+            event.slotId = slot.map(AvailableSlot::getId).orElse(-1L);
+            event.commit();
+        }
         if (slot.isPresent()) {
             logger.debug("Found available slot: id={}, startTime={}", slot.get().getId(), slot.get().getStartTime());
         } else {
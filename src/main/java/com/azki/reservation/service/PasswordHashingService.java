@@ -0,0 +1,116 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a dedicated, bounded executor.
+ * <p>
+ * Hash verification is deliberately CPU-expensive. Running it on request threads lets a login burst saturate
+ * every core and starve reservation traffic. Here it gets a fixed number of threads and a bounded queue; once the
+ * queue is full new logins are rejected with {@link PasswordHashingOverloadedException} (HTTP 503) instead of
+ * piling up.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer verifyTimer;
+    private final Timer encodeTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.security.password.threads:0}") int threads,
+            @Value("${reservation.security.password.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        // Default to half the cores so hashing can never take the whole machine
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        this.verifyTimer = Timer.builder("reservation.password.hash.time")
+                .tag("operation", "verify")
+                .description("Time taken to hash a password")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("reservation.password.hash.time")
+                .tag("operation", "encode")
+                .description("Time taken to hash a password")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("reservation.password.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("reservation.password.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("reservation.password.active", executor, ThreadPoolExecutor::getActiveCount);
+        logger.info("Password hashing executor started with {} threads and queue capacity {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Verifies a raw password against its stored hash.
+     *
+     * @return future completing with the result, or failing with {@link PasswordHashingOverloadedException}
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(verifyTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a raw password with the current parameters.
+     *
+     * @return future completing with the hash, or failing with {@link PasswordHashingOverloadedException}
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * @return true if the hash was made with weaker parameters than currently configured
+     */
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(
+                new PasswordHashingOverloadedException("Too many concurrent logins, please try again later"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
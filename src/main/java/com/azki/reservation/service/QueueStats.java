@@ -0,0 +1,50 @@
+package com.azki.reservation.service;
+
+/**
+ * Point-in-time snapshot of the reservation queue, taken by {@link QueueStatsSampler}.
+ *
+ * @param queueLength requests waiting in the queue
+ * @param dlqLength requests in the dead letter queue
+ * @param inFlight requests dequeued by this instance and still being processed
+ * @param drainRate queued requests this instance completed per second
+ * @param retryRate queued requests this instance put back for another attempt per second
+ * @param oldestAgeSeconds age of the oldest waiting request, as last seen by this instance
+ * @param stalledSince epoch millis of the first of the samples in a row that each found a backlog no shorter than
+ *     the one before while this instance drained nothing; 0 if this sample did not
+ * @param sampledAt epoch millis at which the queue lengths were read
+ */
+public record QueueStats(
+        long queueLength,
+        long dlqLength,
+        int inFlight,
+        double drainRate,
+        double retryRate,
+        double oldestAgeSeconds,
+        long stalledSince,
+        long sampledAt) {
+
+    /**
+     * @return seconds this instance alone would need to work off the current backlog at its current drain rate;
+     *     0 for an empty queue and infinite if nothing is being drained
+     */
+    public double estimatedDrainSeconds() {
+        if (queueLength == 0) {
+            return 0;
+        }
+        return drainRate > 0 ? queueLength / drainRate : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return seconds the backlog had not drained at all as of this sample, 0 if it is not stalled
+     */
+    public double stalledSeconds() {
+        return stalledSince > 0 ? (sampledAt - stalledSince) / 1000.0 : 0;
+    }
+
+    /**
+     * @return milliseconds since the snapshot was taken
+     */
+    public long ageMillis(long now) {
+        return Math.max(0, now - sampledAt);
+    }
+}
@@ -0,0 +1,158 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.queue.QueueLengths;
+import com.azki.reservation.queue.ReservationQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the reservation queue at a fixed cadence so that health checks and metric scrapes never touch Redis.
+ * <p>
+ * Every {@code reservation.queue.stats.sample-interval-ms} a dedicated thread reads the queue and DLQ lengths from
+ * the {@link ReservationQueue} backend (one pipelined round trip on Redis) and combines them with this instance's
+ * in-process queue metrics into a {@link QueueStats} snapshot. {@code ReservationQueueHealthIndicator} and the
+ * {@code reservation.queue.length} and {@code reservation.dlq.length} gauges only read that snapshot. When Redis is slow or down, the sampler thread
+ * waits (bounded by the client's command timeout) and the last snapshot simply ages; the indicator reports it as
+ * stale instead of blocking the probe. The thread is separate from the shared scheduler so a slow sample never
+ * delays the queue poller.
+ */
+@Service
+public class QueueStatsSampler {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueueStatsSampler.class);
+
+    private final ReservationQueue reservationQueue;
+    private final ReservationQueueMetrics queueMetrics;
+    private final long sampleIntervalMillis;
+    private final Counter failureCounter;
+    private volatile QueueStats snapshot;
+    private volatile String lastFailure;
+    private ScheduledExecutorService sampler;
+
+    public QueueStatsSampler(
+            ReservationQueue reservationQueue,
+            ReservationQueueMetrics queueMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.queue.stats.sample-interval-ms:5000}") long sampleIntervalMillis) {
+        this.reservationQueue = reservationQueue;
+        this.queueMetrics = queueMetrics;
+        this.sampleIntervalMillis = sampleIntervalMillis;
+        this.failureCounter = Counter.builder("reservation.queue.stats.failures")
+                .description("Queue samples that failed to read from Redis")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.length", this, sampler -> sampler.lengthOf(false))
+                .description("Requests waiting in the queue, as of the last sample")
+                .register(meterRegistry);
+        Gauge.builder("reservation.dlq.length", this, sampler -> sampler.lengthOf(true))
+                .description("Requests in the dead letter queue, as of the last sample")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.stats.age", this, sampler -> sampler.ageSeconds())
+                .description("Seconds since the queue was last sampled successfully")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts sampling once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-queue-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleWithFixedDelay(this::sample, 0, sampleIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Queue stats sampling started: interval={}ms", sampleIntervalMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the latest snapshot, or null if the queue has not been sampled successfully yet
+     */
+    public QueueStats snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return why the most recent sample failed, or null if it succeeded
+     */
+    public String lastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * @return the configured interval between samples, in milliseconds
+     */
+    public long sampleIntervalMillis() {
+        return sampleIntervalMillis;
+    }
+
+    /**
+     * Takes one sample. Never throws, so the schedule keeps running through Redis outages.
+     */
+    void sample() {
+        try {
+            QueueLengths lengths = reservationQueue.lengths();
+            double drainRate = queueMetrics.drainRatePerSecond();
+            snapshot = new QueueStats(
+                lengths.pending(),
+                lengths.deadLettered(),
+                queueMetrics.inFlight(),
+                drainRate,
+                queueMetrics.retryRatePerSecond(),
+                queueMetrics.oldestAgeSeconds(),
+                stalledSince(snapshot, lengths.pending(), drainRate),
+                System.currentTimeMillis());
+            lastFailure = null;
+        } catch (Exception e) {
+            failureCounter.increment();
+            if (lastFailure == null) {
+                logger.warn("Failed to sample reservation queue stats, serving the last snapshot", e);
+            }
+            lastFailure = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * A backlog is stalled from the first sample after which it never got shorter while nothing was drained. Unlike
+     * the oldest age, this needs no dequeue by this instance, so a poller that never ran is caught too.
+     */
+    private static long stalledSince(QueueStats previous, long queueLength, double drainRate) {
+        if (previous == null || queueLength == 0 || drainRate > 0 || queueLength < previous.queueLength()) {
+            return 0;
+        }
+        return previous.stalledSince() > 0 ? previous.stalledSince() : previous.sampledAt();
+    }
+
+    private double lengthOf(boolean dlq) {
+        QueueStats stats = snapshot;
+        if (stats == null) {
+            return Double.NaN;
+        }
+        return dlq ? stats.dlqLength() : stats.queueLength();
+    }
+
+    private double ageSeconds() {
+        QueueStats stats = snapshot;
+        return stats != null ? stats.ageMillis(System.currentTimeMillis()) / 1000.0 : Double.NaN;
+    }
+}
@@ -1,33 +1,78 @@
 package com.azki.reservation.service;
 
+import com.azki.reservation.config.SchedulingConfig;
+import com.azki.reservation.util.RedisKeys;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Service responsible for cleaning up Redis resources to prevent memory growth.
- * Periodically scans and removes old keys related to reservation status tracking.
+ * <p>
+ * Maintenance is incremental so it never stalls the shared Redis: status keys are walked with a cursor-based
+ * {@code SCAN}, TTL checks and fixes are pipelined per page, the walk is rate-limited, and the cursor is stored
+ * in Redis so each run resumes where the previous one stopped. On Redis Cluster every primary is scanned
+ * with its own cursor.
  */
 @Service
 public class RedisCleanupService {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisCleanupService.class);
-    private static final String STATUS_KEY_PREFIX = "reservation:status:";
+    // Replaced by per-email in-queue markers and per-node cursors; removed if still present
+    private static final List<String> LEGACY_KEYS = List.of(
+        "reservation:emails:queued", "reservation:emails:request", "reservation:maintenance:status-scan-cursor");
+    private static final String SCAN_CURSOR_KEY = "reservation:maintenance:status-scan-cursors"; // node id -> cursor
+    private static final String STANDALONE_NODE = "standalone";
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final Counter keysScannedCounter;
+    private final Counter ttlAppliedCounter;
+
+    private record ScanPage(String cursor, boolean finished, int scanned, int fixed) {
+    }
 
     @Value("${reservation.status.expiry-hours:24}")
     private int statusExpiryHours;
 
-    public RedisCleanupService(RedisTemplate<String, Object> redisTemplate) {
+    @Value("${reservation.cleanup.scan-count:500}")
+    private int scanCount;
+
+    @Value("${reservation.cleanup.max-keys-per-run:100000}")
+    private int maxKeysPerRun;
+
+    @Value("${reservation.cleanup.max-keys-per-second:5000}")
+    private int maxKeysPerSecond;
+
+    @Value("${reservation.cleanup.command-timeout-ms:2000}")
+    private long commandTimeoutMillis;
+
+    public RedisCleanupService(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
+        this.keysScannedCounter = Counter.builder("reservation.cleanup.keys.scanned")
+                .description("Number of status keys visited by the incremental cleanup")
+                .register(meterRegistry);
+        this.ttlAppliedCounter = Counter.builder("reservation.cleanup.ttl.applied")
+                .description("Number of status keys that had no TTL and received one")
+                .register(meterRegistry);
     }
 
     /**
@@ -39,34 +84,153 @@ public class RedisCleanupService {
     }
 
     /**
-     * Runs every day at 2 AM to clean up old status keys
-     * that might have been created before TTL was implemented
+     * Runs periodically (every 10 minutes by default) to apply a TTL to status keys created without one.
+     * Every run is bounded by {@code max-keys-per-run} per node.
      */
-    @Scheduled(cron = "0 0 2 * * ?")
+    @Scheduled(cron = "${reservation.cleanup.cron:0 */10 * * * ?}", scheduler = SchedulingConfig.REDIS_CLEANUP_SCHEDULER)
     public void cleanupOldStatusKeys() {
-        logger.info("Starting scheduled cleanup of old reservation status keys");
         try {
-            // Use scan command with count option to avoid blocking Redis
-            Set<String> keys = redisTemplate.keys(STATUS_KEY_PREFIX + "*");
-
-            if (!keys.isEmpty()) {
-                int count = 0;
-                for (String key : keys) {
-                    // Check if key already has TTL, if not set it
-                    Duration ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS) > 0
-                        ? null : Duration.ofHours(statusExpiryHours);
-
-                    if (ttl != null) {
-                        redisTemplate.expire(key, statusExpiryHours, TimeUnit.HOURS);
-                        count++;
+            scanStatusKeys();
+        } catch (Exception e) {
+            logger.error("Error during status keys cleanup", e);
+        }
+        try {
+            redisTemplate.unlink(LEGACY_KEYS);
+        } catch (Exception e) {
+            logger.error("Error removing legacy queued-emails keys", e);
+        }
+    }
+
+    private void scanStatusKeys() {
+        List<String> nodeIds = redisTemplate.execute((RedisCallback<List<String>>) connection -> {
+            if (connection instanceof RedisClusterConnection clusterConnection) {
+                List<String> ids = new ArrayList<>();
+                for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+                    if (node.isMaster()) {
+                        ids.add(node.getId());
                     }
                 }
-                logger.info("Applied TTL to {} status keys", count);
+                return ids;
+            }
+            return List.of(STANDALONE_NODE);
+        });
+        if (nodeIds == null) {
+            return;
+        }
+
+        // Cursors of nodes that left the cluster can never be resumed
+        for (Object field : redisTemplate.opsForHash().keys(SCAN_CURSOR_KEY)) {
+            if (!nodeIds.contains(field.toString())) {
+                redisTemplate.opsForHash().delete(SCAN_CURSOR_KEY, field);
+            }
+        }
+        for (String nodeId : nodeIds) {
+            scanNode(nodeId);
+        }
+    }
+
+    /**
+     * Scans the status keys of one node (the only node unless running on Redis Cluster, where every primary
+     * keeps its own cursor).
+     */
+    private void scanNode(String nodeId) {
+        Object storedCursor = redisTemplate.opsForHash().get(SCAN_CURSOR_KEY, nodeId);
+        String cursor = storedCursor != null ? storedCursor.toString() : ScanCursor.INITIAL.getCursor();
+        logger.info("Starting incremental cleanup of reservation status keys on node {} from cursor {}", nodeId, cursor);
+
+        long startNanos = System.nanoTime();
+        int scanned = 0;
+        int fixed = 0;
+        boolean finished;
+        do {
+            String pageCursor = cursor;
+            ScanPage page = redisTemplate.execute((RedisCallback<ScanPage>) connection ->
+                scanPage(nodeCommands(connection, nodeId), pageCursor));
+            if (page == null) {
+                return;
+            }
+            cursor = page.cursor();
+            finished = page.finished();
+            fixed += page.fixed();
+            scanned += page.scanned();
+            keysScannedCounter.increment(page.scanned());
+
+            if (finished) {
+                redisTemplate.opsForHash().delete(SCAN_CURSOR_KEY, nodeId);
             } else {
-                logger.info("No status keys found to clean up");
+                redisTemplate.opsForHash().put(SCAN_CURSOR_KEY, nodeId, cursor);
             }
+            throttle(scanned, startNanos);
+        } while (!finished && scanned < maxKeysPerRun);
+
+        logger.info("Status keys cleanup on node {} visited {} keys and applied TTL to {} ({})",
+            nodeId, scanned, fixed, finished ? "full pass completed" : "will resume from cursor " + cursor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisKeyAsyncCommands<byte[], byte[]> nodeCommands(RedisConnection connection, String nodeId) {
+        Object nativeConnection = connection.getNativeConnection();
+        if (nativeConnection instanceof RedisAdvancedClusterAsyncCommands<?, ?> cluster) {
+            return (RedisKeyAsyncCommands<byte[], byte[]>) cluster.getConnection(nodeId);
+        }
+        return (RedisKeyAsyncCommands<byte[], byte[]>) nativeConnection;
+    }
+
+    /**
+     * Scans one page of status keys and applies a TTL where it is missing. Commands are issued asynchronously,
+     * so the TTL checks and fixes of a page are pipelined on the node that owns the keys.
+     */
+    private ScanPage scanPage(RedisKeyAsyncCommands<byte[], byte[]> commands, String cursor) {
+        ScanArgs args = ScanArgs.Builder.matches(RedisKeys.STATUS_PREFIX + "*").limit(scanCount);
+        KeyScanCursor<byte[]> result = await(commands.scan(ScanCursor.of(cursor), args));
+        List<byte[]> keys = result.getKeys();
+
+        List<RedisFuture<Long>> ttls = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            ttls.add(commands.ttl(key));
+        }
+        List<RedisFuture<Boolean>> expires = new ArrayList<>();
+        long expirySeconds = TimeUnit.HOURS.toSeconds(statusExpiryHours);
+        for (int i = 0; i < keys.size(); i++) {
+            // -1 means the key exists but has no expiry; -2 means it is already gone
+            Long ttl = await(ttls.get(i));
+            if (ttl != null && ttl == -1) {
+                expires.add(commands.expire(keys.get(i), expirySeconds));
+            }
+        }
+        for (RedisFuture<Boolean> expire : expires) {
+            await(expire);
+        }
+        ttlAppliedCounter.increment(expires.size());
+        return new ScanPage(result.getCursor(), result.isFinished(), keys.size(), expires.size());
+    }
+
+    private <T> T await(RedisFuture<T> future) {
+        try {
+            return future.get(commandTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while cleaning up status keys", e);
         } catch (Exception e) {
-            logger.error("Error during status keys cleanup", e);
+            throw new IllegalStateException("Failed to clean up status keys", e);
+        }
+    }
+
+    /**
+     * Sleeps as needed to keep the scan under {@code max-keys-per-second}.
+     */
+    private void throttle(int scanned, long startNanos) {
+        if (maxKeysPerSecond <= 0) {
+            return;
+        }
+        long expectedMillis = scanned * 1000L / maxKeysPerSecond;
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (expectedMillis > elapsedMillis) {
+            try {
+                Thread.sleep(expectedMillis - elapsedMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         }
     }
 }
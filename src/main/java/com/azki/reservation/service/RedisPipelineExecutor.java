@@ -0,0 +1,86 @@
+package com.azki.reservation.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Sends a sequence of Redis commands as one pipeline, so a multi-command write costs a single round trip
+ * instead of one per command.
+ * <p>
+ * Commands are issued through the regular {@link RedisOperations} API inside the callback; their return values
+ * are {@code null} there and the deserialized results are returned in order once the pipeline completes.
+ * Commands in a pipeline are not atomic; use a script when the sequence must be.
+ * <p>
+ * Each pipeline runs on a dedicated connection borrowed from the Redis pool, and at most
+ * {@code reservation.redis.pool.max-total} pipelines run at once. Extra callers wait here, on a
+ * {@code java.util.concurrent} lock. Without that limit they would wait inside the pool, where commons-pool2 waits
+ * on an object monitor while connections are being created. On virtual threads such a wait pins the carrier
+ * thread, and with few carriers the connection that is being created can never finish.
+ */
+@Service
+public class RedisPipelineExecutor {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Timer pipelineTimer;
+    private final DistributionSummary commandsSummary;
+    private final Semaphore connections;
+
+    public RedisPipelineExecutor(RedisTemplate<String, Object> redisTemplate, MeterRegistry meterRegistry) {
+        this(redisTemplate, meterRegistry, 16);
+    }
+
+    @Autowired
+    public RedisPipelineExecutor(
+            RedisTemplate<String, Object> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.redis.pool.max-total:16}") int poolMaxTotal) {
+        this.redisTemplate = redisTemplate;
+        this.connections = new Semaphore(poolMaxTotal, true);
+        this.pipelineTimer = Timer.builder("reservation.redis.pipeline.time")
+                .description("Round trip time of a Redis command pipeline")
+                .register(meterRegistry);
+        this.commandsSummary = DistributionSummary.builder("reservation.redis.pipeline.commands")
+                .description("Number of commands sent per Redis pipeline")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Executes the commands issued by {@code commands} in one pipeline.
+     *
+     * @param commands issues the commands against the given operations
+     * @return the result of every command, in the order they were issued
+     */
+    public List<Object> execute(Consumer<RedisOperations<String, Object>> commands) {
+        List<Object> results;
+        connections.acquireUninterruptibly();
+        try {
+            results = pipelineTimer.record(() -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    commands.accept((RedisOperations<String, Object>) operations);
+                    return null;
+                }
+            }));
+        } finally {
+            connections.release();
+        }
+        if (results == null) {
+            return List.of();
+        }
+        commandsSummary.record(results.size());
+        return results;
+    }
+}
@@ -0,0 +1,69 @@
+package com.azki.reservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets a reserve call wait for the final status of the request it just queued, without holding a servlet thread.
+ * <p>
+ * The controller registers a future per request id; {@link ReservationQueueService} completes it when this node
+ * acks the request, and on the Redis backend {@code RedisCompletionListener} completes it when a completion is
+ * published by any node. Completing a request nobody waits for is a no-op, so completions can be broadcast.
+ * <p>
+ * {@code reservation.queue.await.completed} and {@code reservation.queue.await.timeout} count the waits that got a
+ * final status in time and those that fell back to a 202; {@code reservation.queue.await.waiting} is the number of
+ * open waits.
+ */
+@Component
+public class ReservationCompletionRegistry {
+
+    private final Map<String, CompletableFuture<String>> waiting = new ConcurrentHashMap<>();
+    private final Counter completedCounter;
+    private final Counter timeoutCounter;
+
+    public ReservationCompletionRegistry(MeterRegistry meterRegistry) {
+        this.completedCounter = Counter.builder("reservation.queue.await.completed")
+                .description("Queued reservations answered with their final status within the await budget")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("reservation.queue.await.timeout")
+                .description("Queued reservations answered with 202 because the await budget ran out")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.await.waiting", waiting, Map::size)
+                .description("Reserve calls waiting for their queued request to finish")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts waiting for the final status of a request. Register before reading the status for the first time,
+     * otherwise a completion published in between is missed.
+     *
+     * @return a future completed with the final status, or with null once {@code timeoutMillis} passed
+     */
+    public CompletableFuture<String> await(String requestId, long timeoutMillis) {
+        CompletableFuture<String> completion = new CompletableFuture<>();
+        waiting.put(requestId, completion);
+        // CompletableFuture's own timer: the servlet container only checks async timeouts about once a second
+        return completion.completeOnTimeout(null, timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((status, failure) -> {
+                    waiting.remove(requestId, completion);
+                    (status != null ? completedCounter : timeoutCounter).increment();
+                });
+    }
+
+    /**
+     * Hands the final status of a request to its waiting reserve call, if there is one on this node.
+     */
+    public void complete(String requestId, String status) {
+        CompletableFuture<String> completion = waiting.get(requestId);
+        if (completion != null) {
+            completion.complete(status);
+        }
+    }
+}
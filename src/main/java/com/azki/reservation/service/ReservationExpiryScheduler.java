@@ -0,0 +1,191 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.repository.ReservationRepository;
+import com.azki.reservation.util.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event-driven reservation expiry backed by a {@link HierarchicalTimingWheel}.
+ * <p>
+ * Deadlines are added when reservations are created and loaded from the database on startup. A single ticker
+ * thread owns the wheel; request threads only append to a lock-free inbox. On every tick the reservations that
+ * became due are handed to {@link ReservationExpiryService} in one batch, so freed slots come back within one
+ * tick of their deadline instead of waiting for the next sweep.
+ * <p>
+ * Expiry is idempotent, so on multi-node deployments every node may fire the same deadline without harm; the
+ * periodic sweep in {@link ReservationExpiryService} remains as a safety net for anything missed here.
+ */
+@Service
+public class ReservationExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationExpiryScheduler.class);
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationExpiryService reservationExpiryService;
+    private final Queue<PendingExpiry> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduledCount = new AtomicInteger();
+    private final Counter firedCounter;
+    private final Timer latenessTimer;
+
+    @Value("${reservation.expiry.hours:24}")
+    private int expiryHours;
+
+    @Value("${reservation.expiry.wheel.enabled:true}")
+    private boolean enabled;
+
+    @Value("${reservation.expiry.wheel.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${reservation.expiry.wheel.wheel-size:64}")
+    private int wheelSize;
+
+    @Value("${reservation.expiry.wheel.levels:4}")
+    private int levels;
+
+    private HierarchicalTimingWheel<PendingExpiry> wheel;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * A reservation id together with its expiry deadline in epoch milliseconds.
+     */
+    private record PendingExpiry(long reservationId, long deadline) {
+    }
+
+    public ReservationExpiryScheduler(
+            ReservationRepository reservationRepository,
+            ReservationExpiryService reservationExpiryService,
+            MeterRegistry meterRegistry) {
+        this.reservationRepository = reservationRepository;
+        this.reservationExpiryService = reservationExpiryService;
+        this.firedCounter = Counter.builder("reservation.expiry.wheel.fired")
+                .description("Number of reservation deadlines fired by the timing wheel")
+                .register(meterRegistry);
+        this.latenessTimer = Timer.builder("reservation.expiry.wheel.lateness")
+                .description("Delay between a reservation's expiry deadline and its expiration")
+                .register(meterRegistry);
+        meterRegistry.gauge("reservation.expiry.wheel.scheduled", scheduledCount);
+    }
+
+    /**
+     * Starts the ticker and loads the deadlines of existing reservations once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Reservation expiry timing wheel is disabled, relying on the periodic sweep only");
+            return;
+        }
+        wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, levels, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.execute(this::loadExistingReservations);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info("Reservation expiry timing wheel started: tick={}ms, wheelSize={}, levels={}",
+            tickMillis, wheelSize, levels);
+    }
+
+    /**
+     * Graceful shutdown: stop the ticker. Deadlines still pending are picked up again on the next startup.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules the expiry of a newly created reservation. Safe to call from any thread.
+     *
+     * @param reservationId the reservation id
+     * @param createdAt the reservation's creation time
+     */
+    public void schedule(Long reservationId, LocalDateTime createdAt) {
+        if (!enabled || reservationId == null || createdAt == null) {
+            return;
+        }
+        inbox.add(new PendingExpiry(reservationId, deadlineOf(createdAt)));
+    }
+
+    private long deadlineOf(LocalDateTime createdAt) {
+        return createdAt.plusHours(expiryHours).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void loadExistingReservations() {
+        try {
+            long afterId = 0;
+            int loaded = 0;
+            List<ReservationRepository.ExpiryCandidate> page;
+            do {
+                page = reservationRepository.findExpiryCandidates(afterId, Limit.of(LOAD_PAGE_SIZE));
+                for (ReservationRepository.ExpiryCandidate candidate : page) {
+                    schedule(candidate.getId(), candidate.getCreatedDate());
+                    afterId = candidate.getId();
+                }
+                loaded += page.size();
+            } while (page.size() == LOAD_PAGE_SIZE);
+            logger.info("Loaded {} reservation expiry deadlines into the timing wheel", loaded);
+        } catch (Exception e) {
+            logger.error("Failed to load reservation expiry deadlines, relying on the periodic sweep", e);
+        }
+    }
+
+    /**
+     * Moves new deadlines into the wheel, advances it and expires everything that became due.
+     * Runs only on the ticker thread.
+     */
+    void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            List<PendingExpiry> due = new ArrayList<>();
+            PendingExpiry pending;
+            while ((pending = inbox.poll()) != null) {
+                if (!wheel.add(pending, pending.deadline())) {
+                    due.add(pending);
+                }
+            }
+            wheel.advance(now, due);
+            scheduledCount.set(wheel.size());
+
+            if (due.isEmpty()) {
+                return;
+            }
+            List<Long> ids = new ArrayList<>(due.size());
+            for (PendingExpiry expiry : due) {
+                ids.add(expiry.reservationId());
+                latenessTimer.record(Math.max(0, now - expiry.deadline()), TimeUnit.MILLISECONDS);
+            }
+            firedCounter.increment(ids.size());
+
+            int expired = reservationExpiryService.expireReservations(ids);
+            logger.info("Timing wheel fired {} reservation deadlines, {} reservations expired", ids.size(), expired);
+        } catch (Exception e) {
+            logger.error("Error while firing reservation expirations", e);
+        }
+    }
+}
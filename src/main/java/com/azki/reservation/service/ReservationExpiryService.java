@@ -1,22 +1,37 @@
 package com.azki.reservation.service;
 
-import com.azki.reservation.entity.AvailableSlot;
-import com.azki.reservation.entity.Reservation;
+import com.azki.reservation.config.SchedulingConfig;
+import com.azki.reservation.jfr.ExpiryChunkEvent;
 import com.azki.reservation.repository.ReservationRepository;
 import com.azki.reservation.repository.TimeSlotRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service responsible for managing reservation expirations and
  * automatically freeing up unclaimed slots.
+ * <p>
+ * Expired reservations are processed in keyset-paginated chunks of ids. Each chunk is expired with one
+ * {@code DELETE ... RETURNING} and one {@code UPDATE available_slot} statement in its own short transaction,
+ * so a large backlog never turns into one long transaction holding locks against live reservations.
+ * <p>
+ * Reservations are normally expired on time by {@link ReservationExpiryScheduler}; the periodic sweep only
+ * acts as a safety net for anything the scheduler missed (e.g. reservations created on another node).
  */
 @Service
 public class ReservationExpiryService {
@@ -26,62 +41,148 @@ public class ReservationExpiryService {
     private final ReservationRepository reservationRepository;
     private final TimeSlotRepository timeSlotRepository;
     private final CacheableOperations cacheableOperations;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter expiredCounter;
+    private final Counter chunkFailureCounter;
+    private final Timer chunkTimer;
+    private final Timer sweepTimer;
 
     @Value("${reservation.expiry.hours:24}")
     private int expiryHours;
 
+    @Value("${reservation.expiry.chunk-size:500}")
+    private int chunkSize;
+
     public ReservationExpiryService(
             ReservationRepository reservationRepository,
             TimeSlotRepository timeSlotRepository,
-            CacheableOperations cacheableOperations) {
+            CacheableOperations cacheableOperations,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry) {
         this.reservationRepository = reservationRepository;
         this.timeSlotRepository = timeSlotRepository;
         this.cacheableOperations = cacheableOperations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.expiredCounter = Counter.builder("reservation.expiry.expired")
+                .description("Number of reservations expired and whose slots were freed")
+                .register(meterRegistry);
+        this.chunkFailureCounter = Counter.builder("reservation.expiry.chunk.failures")
+                .description("Number of expiry chunks that failed and were rolled back")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder("reservation.expiry.chunk.time")
+                .description("Time taken to expire one chunk of reservations")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("reservation.expiry.sweep.time")
+                .description("Time taken by a full expired reservations sweep")
+                .register(meterRegistry);
     }
 
     /**
-     * Scheduled task that runs at a configured interval to detect and handle expired reservations.
+     * Safety-net task that runs at a configured interval to detect and handle expired reservations.
      * Default is to run every 15 minutes.
      */
-    @Scheduled(fixedDelayString = "${reservation.expiry.check-minutes:15}000")
-    @Transactional
+    @Scheduled(fixedDelayString = "${reservation.expiry.check-minutes:15}", timeUnit = TimeUnit.MINUTES,
+        scheduler = SchedulingConfig.EXPIRY_SWEEP_SCHEDULER)
     public void processExpiredReservations() {
         logger.info("Starting expired reservations check");
+        Timer.Sample sample = Timer.start();
 
         LocalDateTime expirationThreshold = LocalDateTime.now().minusHours(expiryHours);
-        List<Reservation> expiredReservations =
-            reservationRepository.findExpiredReservations(expirationThreshold);
+        long afterId = 0;
+        int chunks = 0;
+        int expired = 0;
+
+        while (true) {
+            List<Long> ids = reservationRepository.findExpiredReservationIds(expirationThreshold, afterId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.getLast();
+            chunks++;
+            try {
+                expired += expireChunk(ids, expirationThreshold);
+            } catch (Exception e) {
+                chunkFailureCounter.increment();
+                logger.error("Error expiring reservation chunk {}..{}", ids.getFirst(), afterId, e);
+            }
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
 
-        if (expiredReservations.isEmpty()) {
-            logger.info("No expired reservations found");
-            return;
+        if (expired > 0) {
+            // Clear cache once to reflect all the newly available slots
+            cacheableOperations.evictNextSlotCache();
         }
 
-        logger.info("Found {} expired reservations to process", expiredReservations.size());
+        long elapsedNanos = sample.stop(sweepTimer);
+        logger.info("Completed expired reservations cleanup, expired {} reservations in {} chunks ({} ms)",
+            expired, chunks, elapsedNanos / 1_000_000);
+    }
 
-        for (Reservation reservation : expiredReservations) {
+    /**
+     * Expires the given reservations whose deadline has passed, as handed over by {@link ReservationExpiryScheduler}.
+     * Ids are processed in chunks of the configured size and the cache is evicted once at the end.
+     *
+     * @param ids reservation ids to expire
+     * @return number of reservations actually expired
+     */
+    public int expireReservations(List<Long> ids) {
+        LocalDateTime expirationThreshold = LocalDateTime.now().minusHours(expiryHours);
+        int expired = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
             try {
-                // Free up the time slot
-                AvailableSlot slot = reservation.getAvailableSlot();
-                slot.setReserved(false);
-                timeSlotRepository.save(slot);
-
-                // Delete the reservation
-                reservationRepository.delete(reservation);
-
-                logger.info("Expired reservation deleted: id={}, user={}, slot={}",
-                    reservation.getId(), reservation.getUser().getEmail(),
-                    reservation.getAvailableSlot().getId());
-
+                expired += expireChunk(chunk, expirationThreshold);
             } catch (Exception e) {
-                logger.error("Error processing expired reservation {}", reservation.getId(), e);
+                chunkFailureCounter.increment();
+                logger.error("Error expiring reservation chunk {}..{}", chunk.getFirst(), chunk.getLast(), e);
             }
         }
+        if (expired > 0) {
+            cacheableOperations.evictNextSlotCache();
+        }
+        return expired;
+    }
 
-        // Clear cache to reflect the newly available slots
-        cacheableOperations.evictNextSlotCache();
-
-        logger.info("Completed expired reservations cleanup, processed {} reservations",
-            expiredReservations.size());
+    /**
+     * Expires the given reservations in one short transaction: deletes those that are still expired
+     * and releases the slots they were holding. Reservations that were cancelled or already expired
+     * by another node are simply skipped, so calling this for the same ids twice is harmless.
+     *
+     * @param ids reservation ids to expire
+     * @param expirationThreshold Reservations created before this time are considered expired
+     * @return number of reservations actually expired
+     */
+    int expireChunk(Collection<Long> ids, LocalDateTime expirationThreshold) {
+        ExpiryChunkEvent event = new ExpiryChunkEvent();
+        event.begin();
+        Integer expired = null;
+        try {
+            expired = chunkTimer.record(() -> transactionTemplate.execute(status -> {
+                List<Long> slotIds = reservationRepository.deleteExpiredReturningSlotIds(ids, expirationThreshold);
+                if (!slotIds.isEmpty()) {
+                    eventPublisher.publishEvent(SlotAvailabilityEvent.released(timeSlotRepository.releaseSlots(slotIds)));
+                }
+                return slotIds.size();
+            }));
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.requested = ids.size();
+                event.expired = expired != null ? expired : 0;
+                event.firstId = ids.isEmpty() ? 0 : Collections.min(ids);
+                event.lastId = ids.isEmpty() ? 0 : Collections.max(ids);
+                event.succeeded = expired != null;
+                event.commit();
+            }
+        }
+        int count = expired != null ? expired : 0;
+        expiredCounter.increment(count);
+        logger.debug("Expired {} of {} reservations in chunk", count, ids.size());
+        return count;
     }
 }
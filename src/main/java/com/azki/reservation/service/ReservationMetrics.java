@@ -0,0 +1,209 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.exception.DuplicateReservationException;
+import com.azki.reservation.exception.ReservationCapacityExceededException;
+import com.azki.reservation.exception.ReservationNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency breakdown of the reservation hot path.
+ * <p>
+ * Every meter is registered up front and indexed by enum ordinal, so recording never builds a meter id or looks
+ * one up by name. {@code reservation.phase.time{path,phase,outcome}} times the individual phases and
+ * {@code reservation.processing.time{path,outcome}} the whole reservation; both publish p50/p95/p99 and the
+ * configured SLO buckets ({@code reservation.metrics.slo-ms}).
+ */
+@Component
+public class ReservationMetrics {
+
+    /**
+     * Phases of a reservation, in the order they run. {@code SLOT_SELECTION} is the claim, which picks the slot and
+     * marks it reserved in one statement.
+     */
+    public enum Phase {
+        AUTH,
+        USER_LOOKUP,
+        DUPLICATE_CHECK,
+        SLOT_SELECTION,
+        INSERT,
+        COMMIT,
+        ENQUEUE,
+        STATUS_WRITE
+    }
+
+    /**
+     * Final outcome of a reservation attempt.
+     */
+    public enum Outcome {
+        SUCCESS,
+        DUPLICATE,
+        NO_SLOT,
+        CONFLICT,
+        ERROR;
+
+        public static Outcome of(Throwable failure) {
+            if (failure == null) {
+                return SUCCESS;
+            }
+            if (failure instanceof DuplicateReservationException) {
+                return DUPLICATE;
+            }
+            if (failure instanceof ReservationNotAvailableException) {
+                return NO_SLOT;
+            }
+            if (failure instanceof ReservationCapacityExceededException
+                    || failure instanceof OptimisticLockingFailureException) {
+                return CONFLICT;
+            }
+            return ERROR;
+        }
+    }
+
+    private final Timer[][][] phaseTimers;
+    private final Timer[][] processingTimers;
+    private final Counter successCounter;
+    private final Counter failedCounter;
+    private final Counter optimisticLockingFailureCounter;
+    private final Counter cancelledCounter;
+
+    public ReservationMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${reservation.metrics.slo-ms:5,10,25,50,100,250,500,1000}") long[] sloMillis) {
+        Duration[] slos = Arrays.stream(sloMillis).mapToObj(Duration::ofMillis).toArray(Duration[]::new);
+        ReservationPath[] paths = ReservationPath.values();
+        Phase[] phases = Phase.values();
+        Outcome[] outcomes = Outcome.values();
+
+        this.phaseTimers = new Timer[paths.length][phases.length][2];
+        this.processingTimers = new Timer[paths.length][outcomes.length];
+        for (ReservationPath path : paths) {
+            for (Phase phase : phases) {
+                for (int failed = 0; failed < 2; failed++) {
+                    phaseTimers[path.ordinal()][phase.ordinal()][failed] = Timer.builder("reservation.phase.time")
+                            .description("Time spent in one phase of a reservation")
+                            .tag("path", path.tag())
+                            .tag("phase", phase.name().toLowerCase())
+                            .tag("outcome", failed == 0 ? "success" : "error")
+                            .publishPercentiles(0.5, 0.95, 0.99)
+                            .serviceLevelObjectives(slos)
+                            .register(meterRegistry);
+                }
+            }
+            for (Outcome outcome : outcomes) {
+                processingTimers[path.ordinal()][outcome.ordinal()] = Timer.builder("reservation.processing.time")
+                        .description("Time taken to process a reservation")
+                        .tag("path", path.tag())
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .serviceLevelObjectives(slos)
+                        .register(meterRegistry);
+            }
+        }
+
+        this.successCounter = meterRegistry.counter("reservation.success");
+        this.failedCounter = meterRegistry.counter("reservation.failed");
+        this.optimisticLockingFailureCounter = meterRegistry.counter("reservation.optimistic_locking_failures");
+        this.cancelledCounter = meterRegistry.counter("reservation.cancelled");
+    }
+
+    /**
+     * Runs one phase and records its duration, tagged by whether it threw.
+     */
+    public <T> T time(ReservationPath path, Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            record(path, phase, System.nanoTime() - start, !failed);
+        }
+    }
+
+    /**
+     * Runs one phase that returns nothing and records its duration, tagged by whether it threw.
+     */
+    public void run(ReservationPath path, Phase phase, Runnable action) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            action.run();
+            failed = false;
+        } finally {
+            record(path, phase, System.nanoTime() - start, !failed);
+        }
+    }
+
+    /**
+     * Records a phase that was measured elsewhere, e.g. authentication in the security filter.
+     */
+    public void record(ReservationPath path, Phase phase, long nanos, boolean success) {
+        phaseTimers[path.ordinal()][phase.ordinal()][success ? 0 : 1].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the end-to-end duration of a reservation.
+     *
+     * @param failure the exception it failed with, or null on success
+     */
+    public void recordProcessing(ReservationPath path, long nanos, Throwable failure) {
+        processingTimers[path.ordinal()][Outcome.of(failure).ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Times the commit of the current transaction, flush included, as the {@link Phase#COMMIT} phase. Does nothing
+     * outside a transaction.
+     */
+    public void timeCommit(ReservationPath path) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean committing;
+            private long start;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                committing = true;
+                start = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // Rollbacks that never attempted a commit are not a commit phase
+                if (committing) {
+                    record(path, Phase.COMMIT, System.nanoTime() - start, status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
+    public void reservationSucceeded() {
+        successCounter.increment();
+    }
+
+    public void reservationFailed() {
+        failedCounter.increment();
+    }
+
+    public void optimisticLockingFailed() {
+        optimisticLockingFailureCounter.increment();
+    }
+
+    public void reservationCancelled() {
+        cancelledCounter.increment();
+    }
+}
@@ -0,0 +1,17 @@
+package com.azki.reservation.service;
+
+/**
+ * How a reservation request reached {@link ReservationService}: handled within the HTTP request, or enqueued
+ * under load and processed later by {@link ReservationQueueService}.
+ */
+public enum ReservationPath {
+    DIRECT,
+    QUEUED;
+
+    /**
+     * @return the value used for the {@code path} metric tag
+     */
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
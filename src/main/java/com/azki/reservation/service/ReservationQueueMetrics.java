@@ -0,0 +1,133 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.util.SlidingWindowRate;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lag and latency of queued reservations, based on the enqueue timestamp each queue item carries.
+ * <p>
+ * {@code reservation.queue.wait.time} is the time an item spent in the queue before a worker picked it up and
+ * {@code reservation.queue.total.time} the time from the 202 response to the final status. Processing itself is
+ * {@code reservation.processing.time{path="queued"}}. All three publish histograms for the Prometheus endpoint.
+ * <p>
+ * The gauges need no Redis round trip: {@code reservation.queue.oldest.age} is derived from the last item this
+ * instance dequeued (the queue is FIFO, so nothing left in it is older) and reset when a poll finds the queue
+ * empty, and {@code reservation.queue.drain.rate} is the number of completed items per second over the last
+ * minute. Ages use the enqueueing node's wall clock, so they include any clock skew between instances.
+ * <p>
+ * It also tracks the items this instance has dequeued but not finished with ({@code reservation.queue.in_flight})
+ * and how often failed items are put back for another attempt ({@code reservation.queue.retry.rate}).
+ */
+@Component
+public class ReservationQueueMetrics {
+
+    private final Timer waitTimer;
+    private final Timer totalSuccessTimer;
+    private final Timer totalFailedTimer;
+    private final SlidingWindowRate drainRate;
+    private final SlidingWindowRate retryRate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile long oldestEnqueuedAt;
+
+    public ReservationQueueMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${reservation.queue.drain-rate-window-seconds:60}") int drainRateWindowSeconds) {
+        this.waitTimer = Timer.builder("reservation.queue.wait.time")
+                .description("Time a reservation request waited in the queue before processing started")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.totalSuccessTimer = totalTimer(meterRegistry, "success");
+        this.totalFailedTimer = totalTimer(meterRegistry, "failed");
+        this.drainRate = new SlidingWindowRate(drainRateWindowSeconds);
+        this.retryRate = new SlidingWindowRate(drainRateWindowSeconds);
+        Gauge.builder("reservation.queue.oldest.age", this, ReservationQueueMetrics::oldestAgeSeconds)
+                .description("Age in seconds of the oldest request still waiting in the queue")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.drain.rate", drainRate, SlidingWindowRate::perSecond)
+                .description("Queued requests completed per second")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.retry.rate", retryRate, SlidingWindowRate::perSecond)
+                .description("Queued requests put back for another attempt per second")
+                .register(meterRegistry);
+        Gauge.builder("reservation.queue.in_flight", inFlight, AtomicInteger::get)
+                .description("Requests dequeued by this instance and still being processed")
+                .register(meterRegistry);
+    }
+
+    private static Timer totalTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("reservation.queue.total.time")
+                .description("Time from enqueueing a reservation request to its final status")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param enqueuedAt enqueue time of the item just dequeued, in epoch millis; 0 if unknown
+     */
+    public void onDequeued(long enqueuedAt) {
+        inFlight.incrementAndGet();
+        if (enqueuedAt > 0) {
+            oldestEnqueuedAt = enqueuedAt;
+            waitTimer.record(Math.max(0, System.currentTimeMillis() - enqueuedAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Called when the worker is done with a dequeued item, whatever the outcome.
+     */
+    public void onReleased() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Called when a failed item is put back on the queue for another attempt.
+     */
+    public void onRetried() {
+        retryRate.record(1);
+    }
+
+    /**
+     * Called when a poll found no more items.
+     */
+    public void onQueueEmpty() {
+        oldestEnqueuedAt = 0;
+    }
+
+    /**
+     * @param enqueuedAt enqueue time of the completed item, in epoch millis; 0 if unknown
+     * @param success whether the request ended in SUCCESS
+     */
+    public void onCompleted(long enqueuedAt, boolean success) {
+        drainRate.record(1);
+        if (enqueuedAt > 0) {
+            (success ? totalSuccessTimer : totalFailedTimer)
+                .record(Math.max(0, System.currentTimeMillis() - enqueuedAt), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    double drainRatePerSecond() {
+        return drainRate.perSecond();
+    }
+
+    double retryRatePerSecond() {
+        return retryRate.perSecond();
+    }
+
+    double oldestAgeSeconds() {
+        long enqueuedAt = oldestEnqueuedAt;
+        return enqueuedAt > 0 ? Math.max(0, System.currentTimeMillis() - enqueuedAt) / 1000.0 : 0;
+    }
+}
@@ -1,69 +1,78 @@
 package com.azki.reservation.service;
 
+import com.azki.reservation.config.SchedulingConfig;
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto;
+import com.azki.reservation.dto.reservation.BulkReservationResultDto;
 import com.azki.reservation.dto.reservation.ReservationRequestDto;
 import com.azki.reservation.exception.BusinessException;
 import com.azki.reservation.exception.DuplicateReservationException;
 import com.azki.reservation.exception.ReservationCapacityExceededException;
 import com.azki.reservation.exception.ReservationNotAvailableException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.azki.reservation.jfr.QueueAckEvent;
+import com.azki.reservation.jfr.QueueDequeueEvent;
+import com.azki.reservation.jfr.QueueProcessEvent;
+import com.azki.reservation.queue.QueueItem;
+import com.azki.reservation.queue.ReservationQueue;
+import com.azki.reservation.service.ReservationMetrics.Outcome;
+import com.azki.reservation.service.ReservationMetrics.Phase;
+import com.azki.reservation.util.TraceParent;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import jakarta.annotation.PreDestroy;
 
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
- * Service for managing reservation requests asynchronously using a Redis-backed queue.
+ * Service for managing reservation requests asynchronously through a {@link ReservationQueue}.
  * <p>
- * This service provides methods to enqueue reservation requests as JSON strings into a Redis list,
- * and a scheduled background worker to dequeue and process these requests by delegating to
- * {@link ReservationService}. Serialization and deserialization are handled using Jackson's ObjectMapper.
+ * This service enqueues reservation requests and runs a scheduled background worker that dequeues and processes
+ * them by delegating to {@link ReservationService}, retrying failed requests and moving those that exhaust their
+ * attempts to the dead letter queue. Where the queue lives is up to the configured backend: Redis
+ * ({@code reservation.queue.backend=redis}, the default) or this JVM ({@code memory}).
  * <p>
  * This design allows the system to handle high concurrency by decoupling incoming API requests from
  * direct database writes, improving scalability and reliability.
  */
 @Service
 public class ReservationQueueService {
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final ReservationQueue reservationQueue;
     private final ReservationService reservationService;
-    private final ObjectMapper objectMapper;
+    private final BulkReservationService bulkReservationService;
     private final MeterRegistry meterRegistry;
-    private final RedisCleanupService redisCleanupService;
+    private final UserIdentityCache userIdentityCache;
+    private final ReservationMetrics reservationMetrics;
+    private final ReservationQueueMetrics queueMetrics;
+    private final ReservationCompletionRegistry completionRegistry;
+    private final Counter processedCounter;
+    private final Counter duplicateCounter;
+    private final Counter noSlotsCounter;
+    private final Counter dlqMovedCounter;
+    private final Map<String, Counter> errorCounters;
     private static final Logger logger = LoggerFactory.getLogger(ReservationQueueService.class);
-    private static final String QUEUE_KEY = "reservation:queue";
-    private static final String DLQ_KEY = "reservation:dlq";
-    private static final String EMAIL_SET_KEY = "reservation:emails:queued"; // Key for tracking emails in queue
     private static final int MAX_ATTEMPTS = 3;
-    private static final String STATUS_KEY_PREFIX = "reservation:status:";
     @Value("${reservation.queue.batch-size:10}")
     private int batchSize;
 
     private volatile boolean running = true;
 
     public enum RequestStatus {
-        QUEUED, PROCESSING, SUCCESS, FAILED
-    }
-
-    /**
-     * Helper class to wrap reservation request and attempt count for DLQ support.
-     */
-    private static class QueueItem {
-        public ReservationRequestDto request;
-        public int attempts;
-        public String requestId; // Added requestId field
+        QUEUED, PROCESSING, SUCCESS, FAILED;
 
-
-        public QueueItem(ReservationRequestDto request, int attempts, String requestId) {
-            this.request = request;
-            this.attempts = attempts;
-            this.requestId = requestId;
+        /**
+         * @return true if the status is final; failed statuses carry the reason after the name
+         */
+        public static boolean isFinal(String status) {
+            return status != null && (status.startsWith(SUCCESS.name()) || status.startsWith(FAILED.name()));
         }
     }
 
@@ -71,53 +80,91 @@ public class ReservationQueueService {
         String requestId = UUID.randomUUID().toString();
         try {
             ReservationRequestDto req = (ReservationRequestDto) reservationRequest;
-            if (isUserAlreadyInQueue(req.getEmail())) {
+            QueueItem item = new QueueItem(req, 0, requestId, System.currentTimeMillis(), TraceParent.currentOrNew());
+            // The backend claims the email's in-queue marker before the item is added, rejecting duplicates
+            boolean enqueued = reservationMetrics.time(ReservationPath.QUEUED, Phase.ENQUEUE,
+                () -> reservationQueue.enqueue(item, RequestStatus.QUEUED.name()));
+            if (!enqueued) {
                 throw new DuplicateReservationException("A reservation request for this email is already in queue");
             }
+        } catch (DuplicateReservationException | ReservationCapacityExceededException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Failed to enqueue reservation request: {}", reservationRequest, e);
+            throw new BusinessException("Failed to process reservation request: " + e.getMessage());
+        }
+        return requestId;
+    }
 
-            String json = objectMapper.writeValueAsString(new QueueItem((ReservationRequestDto) reservationRequest, 0, requestId));
-            redisTemplate.opsForList().rightPush(QUEUE_KEY, json);
-            String statusKey = STATUS_KEY_PREFIX + requestId;
-            redisTemplate.opsForValue().set(statusKey, RequestStatus.QUEUED.name());
-            redisCleanupService.setExpiryOnStatusKey(statusKey);
-            redisTemplate.opsForSet().add(EMAIL_SET_KEY, req.getEmail()); // Add email to set
-        } catch (DuplicateReservationException e) {
+    /**
+     * Queues a bulk reservation as a single item, processed in one transaction by the worker.
+     *
+     * @return the request id to poll the status with
+     */
+    public String enqueueBulkReservationRequest(BulkReservationRequestDto request) {
+        String requestId = UUID.randomUUID().toString();
+        try {
+            QueueItem item = new QueueItem(request, requestId, System.currentTimeMillis(), TraceParent.currentOrNew());
+            boolean enqueued = reservationMetrics.time(ReservationPath.QUEUED, Phase.ENQUEUE,
+                () -> reservationQueue.enqueue(item, RequestStatus.QUEUED.name()));
+            if (!enqueued) {
+                throw new DuplicateReservationException("This bulk reservation request is already in queue");
+            }
+        } catch (DuplicateReservationException | ReservationCapacityExceededException e) {
             throw e;
         } catch (Exception e) {
-            logger.error("Failed to serialize reservation request: {}", reservationRequest, e);
+            logger.error("Failed to enqueue bulk reservation request: {}", request, e);
             throw new BusinessException("Failed to process reservation request: " + e.getMessage());
         }
         return requestId;
     }
 
     boolean isUserAlreadyInQueue(String email) {
-        // Check if the email is in the Redis set for O(1) lookup
-        return Boolean.TRUE.equals(redisTemplate.opsForSet().isMember(EMAIL_SET_KEY, email));
+        return reservationQueue.isQueued(email);
     }
 
-    public String getRequestStatus(String requestId) {
-        Object status = redisTemplate.opsForValue().get(STATUS_KEY_PREFIX + requestId);
-        return status != null ? status.toString() : null;
+    /**
+     * Marks a dequeued request as being processed and keeps its in-queue marker alive.
+     */
+    private void startProcessing(QueueItem item) {
+        reservationMetrics.run(ReservationPath.QUEUED, Phase.STATUS_WRITE,
+            () -> reservationQueue.markProcessing(item, RequestStatus.PROCESSING.name()));
     }
 
-    private QueueItem dequeueQueueItem() {
-        Object jsonObj = redisTemplate.opsForList().leftPop(QUEUE_KEY);
-        if (jsonObj instanceof String json) {
-            try {
-                return objectMapper.readValue(json, QueueItem.class);
-            } catch (Exception e) {
-                logger.error("Failed to deserialize queue item: {}", json, e);
-            }
+    /**
+     * Records the final status of a request, releases its in-queue marker and hands the status to a reserve call
+     * waiting on this node.
+     */
+    private void completeRequest(QueueItem item, String status) {
+        if (item.requestId == null) {
+            return; // Neither a status nor a marker is tracked without a request id
+        }
+        QueueAckEvent event = new QueueAckEvent();
+        event.begin();
+        reservationMetrics.run(ReservationPath.QUEUED, Phase.STATUS_WRITE, () -> reservationQueue.ack(item, status));
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = item.requestId;
+            event.status = status;
+            event.commit();
         }
-        return null;
+        queueMetrics.onCompleted(item.enqueuedAt, RequestStatus.SUCCESS.name().equals(status));
+        completionRegistry.complete(item.requestId, status);
+    }
+
+    /**
+     * Returns the status of a queued request for polling clients. It may lag behind the latest write, e.g. when
+     * served by a Redis replica.
+     */
+    public String getRequestStatus(String requestId) {
+        return reservationQueue.status(requestId);
     }
 
     private void moveToDLQ(QueueItem item) {
         try {
-            String json = objectMapper.writeValueAsString(item);
-            redisTemplate.opsForList().rightPush(DLQ_KEY, json);
-            meterRegistry.counter("reservation.dlq.moved").increment();
-            logger.warn("Moved reservation request to DLQ: {}", item.request);
+            reservationQueue.deadLetter(item);
+            dlqMovedCounter.increment();
+            logger.warn("Moved reservation request to DLQ: {}", payload(item));
         } catch (Exception e) {
             logger.error("Failed to move reservation request to DLQ: {}", item, e);
         }
@@ -133,129 +180,186 @@ public class ReservationQueueService {
     }
 
     /**
-     * Returns the current queue length for monitoring.
+     * Reads the current queue length from the backend. Health checks and gauges use the {@link QueueStatsSampler}
+     * snapshot instead.
      */
     public long getQueueLength() {
-        Long size = redisTemplate.opsForList().size(QUEUE_KEY);
-        return size != null ? size : 0;
+        return reservationQueue.size();
     }
 
     /**
-     * Returns the current DLQ length for monitoring.
+     * Reads the current DLQ length from the backend. Health checks and gauges use the {@link QueueStatsSampler}
+     * snapshot instead.
      */
     public long getDLQLength() {
-        Long size = redisTemplate.opsForList().size(DLQ_KEY);
-        return size != null ? size : 0;
+        return reservationQueue.deadLetterSize();
     }
 
     /**
      * Ensures idempotency by checking if a request with the same requestId has already succeeded.
      */
     private boolean isAlreadyProcessed(String requestId) {
-        String status = getRequestStatus(requestId);
-        return RequestStatus.SUCCESS.name().equals(status);
+        String status = reservationQueue.currentStatus(requestId);
+        // A partly reserved bulk request succeeded with a summary after the status name
+        return status != null && status.startsWith(RequestStatus.SUCCESS.name());
     }
 
     public ReservationQueueService(
-        RedisTemplate<String, Object> redisTemplate,
+        ReservationQueue reservationQueue,
         ReservationService reservationService,
-        ObjectMapper objectMapper,
+        BulkReservationService bulkReservationService,
         MeterRegistry meterRegistry,
-        RedisCleanupService redisCleanupService
+        UserIdentityCache userIdentityCache,
+        ReservationMetrics reservationMetrics,
+        ReservationQueueMetrics queueMetrics,
+        ReservationCompletionRegistry completionRegistry
     ) {
-        this.redisTemplate = redisTemplate;
+        this.reservationQueue = reservationQueue;
         this.reservationService = reservationService;
-        this.objectMapper = objectMapper;
+        this.bulkReservationService = bulkReservationService;
         this.meterRegistry = meterRegistry;
-        this.redisCleanupService = redisCleanupService;
-        meterRegistry.gauge("reservation.queue.length", this, ReservationQueueService::getQueueLength);
-        meterRegistry.gauge("reservation.dlq.length", this, ReservationQueueService::getDLQLength);
+        this.userIdentityCache = userIdentityCache;
+        this.reservationMetrics = reservationMetrics;
+        this.queueMetrics = queueMetrics;
+        this.completionRegistry = completionRegistry;
+        this.processedCounter = meterRegistry.counter("reservation.queue.processed");
+        this.duplicateCounter = meterRegistry.counter("reservation.queue.duplicate");
+        this.noSlotsCounter = meterRegistry.counter("reservation.queue.no_slots");
+        this.dlqMovedCounter = meterRegistry.counter("reservation.dlq.moved");
+        this.errorCounters = Map.of(
+            "capacity_exceeded", meterRegistry.counter("reservation.queue.process.errors.capacity_exceeded"),
+            "business_rule", meterRegistry.counter("reservation.queue.process.errors.business_rule"),
+            "technical", meterRegistry.counter("reservation.queue.process.errors.technical"));
     }
 
-    @Scheduled(fixedDelayString = "${reservation.queue.poll-interval-ms:100}")
+    @Scheduled(fixedDelayString = "${reservation.queue.poll-interval-ms:100}",
+        scheduler = SchedulingConfig.QUEUE_POLLER_SCHEDULER)
     public void processReservationQueue() {
         if (!running) return;
-        for (int i = 0; i < batchSize; i++) {
-            QueueItem item = dequeueQueueItem();
-            if (item == null) break;
+        QueueDequeueEvent dequeueEvent = new QueueDequeueEvent();
+        dequeueEvent.begin();
+        List<QueueItem> batch = reservationQueue.dequeue(batchSize);
+        for (QueueItem item : batch) {
+            queueMetrics.onDequeued(item.enqueuedAt);
+        }
+        if (batch.size() < batchSize) {
+            queueMetrics.onQueueEmpty();
+        }
+        if (batch.isEmpty()) return;
+        dequeueEvent.end();
+        if (dequeueEvent.shouldCommit()) {
+            dequeueEvent.requested = batchSize;
+            dequeueEvent.dequeued = batch.size();
+            dequeueEvent.commit();
+        }
 
-            String requestId = item.requestId; // Use requestId directly from QueueItem
-            if (requestId != null) {
-                if (isAlreadyProcessed(requestId)) {
-                    continue; // Item already popped by dequeueQueueItem
-                }
-                String statusKey = STATUS_KEY_PREFIX + requestId;
-                redisTemplate.opsForValue().set(statusKey, RequestStatus.PROCESSING.name());
-                redisCleanupService.setExpiryOnStatusKey(statusKey);
+        // Resolve every user in the batch with one query instead of one per item
+        try {
+            userIdentityCache.preload(batch.stream()
+                .filter(item -> item.request != null)
+                .map(item -> item.request.getEmail())
+                .toList());
+        } catch (Exception e) {
+            // The items are already popped; let each one fail and retry on its own
+            logger.warn("Failed to preload user identities for queue batch", e);
+        }
+        for (QueueItem item : batch) {
+            String traceId = TraceParent.traceId(item.traceparent);
+            if (traceId != null) {
+                MDC.put(TraceParent.MDC_TRACE_ID, traceId);
             }
-
             try {
-                reservationService.reserveNearestSlot(item.request.getEmail());
-                meterRegistry.counter("reservation.queue.processed").increment();
-                if (requestId != null) {
-                    String statusKey = STATUS_KEY_PREFIX + requestId;
-                    redisTemplate.opsForValue().set(statusKey, RequestStatus.SUCCESS.name());
-                    redisCleanupService.setExpiryOnStatusKey(statusKey);
-                }
-                // Remove email from tracking set after successful processing
-                redisTemplate.opsForSet().remove(EMAIL_SET_KEY, item.request.getEmail());
-            } catch (DuplicateReservationException e) {
-                logger.info("Skipping duplicate reservation: {}", item.request.getEmail());
-                meterRegistry.counter("reservation.queue.duplicate").increment();
-                if (requestId != null) {
-                    String statusKey = STATUS_KEY_PREFIX + requestId;
-                    redisTemplate.opsForValue().set(statusKey, RequestStatus.FAILED.name() + ": " + e.getMessage());
-                    redisCleanupService.setExpiryOnStatusKey(statusKey);
-                }
-                // Remove email from tracking set as this request is now completed (failed)
-                redisTemplate.opsForSet().remove(EMAIL_SET_KEY, item.request.getEmail());
-            } catch (ReservationNotAvailableException e) {
-                logger.info("No slots available for reservation: {}", item.request.getEmail());
-                meterRegistry.counter("reservation.queue.no_slots").increment();
-                if (requestId != null) {
-                    String statusKey = STATUS_KEY_PREFIX + requestId;
-                    redisTemplate.opsForValue().set(statusKey, RequestStatus.FAILED.name() + ": " + e.getMessage());
-                    redisCleanupService.setExpiryOnStatusKey(statusKey);
-                }
-                // Remove email from tracking set as this request is now completed (failed)
-                redisTemplate.opsForSet().remove(EMAIL_SET_KEY, item.request.getEmail());
-            } catch (ReservationCapacityExceededException e) {
-                handleRetryableError(item, requestId, e, "capacity_exceeded");
-            } catch (BusinessException e) {
-                handleRetryableError(item, requestId, e, "business_rule");
-            } catch (Exception e) {
-                handleRetryableError(item, requestId, e, "technical");
+                processQueueItem(item);
+            } finally {
+                queueMetrics.onReleased();
+                MDC.remove(TraceParent.MDC_TRACE_ID);
+            }
+        }
+    }
+
+    private void processQueueItem(QueueItem item) {
+        QueueProcessEvent event = new QueueProcessEvent();
+        event.begin();
+        // Captured up front: a retryable failure bumps the attempt count before the event is committed
+        event.attempt = item.attempts + 1;
+        String requestId = item.requestId; // Use requestId directly from QueueItem
+        if (requestId != null) {
+            if (isAlreadyProcessed(requestId)) {
+                commitProcessEvent(event, item, "skipped");
+                return; // Item already removed from the queue by dequeue
+            }
+        }
+        startProcessing(item);
+
+        long start = System.nanoTime();
+        Exception failure = null;
+        try {
+            if (item.bulk != null) {
+                List<BulkReservationResultDto> results = bulkReservationService.reserve(item.bulk);
+                processedCounter.increment();
+                completeRequest(item, BulkReservationService.status(results));
+                return;
             }
+            reservationService.reserveNearestSlot(item.request.getEmail(), ReservationPath.QUEUED);
+            processedCounter.increment();
+            // Record the outcome and release the in-queue marker after successful processing
+            completeRequest(item, RequestStatus.SUCCESS.name());
+        } catch (DuplicateReservationException e) {
+            logger.info("Skipping duplicate reservation: {}", item.request.getEmail());
+            failure = e;
+            duplicateCounter.increment();
+            // Record the outcome and release the in-queue marker as this request is now completed (failed)
+            completeRequest(item, RequestStatus.FAILED.name() + ": " + e.getMessage());
+        } catch (ReservationNotAvailableException e) {
+            logger.info("No slots available for reservation: {}", item.request.getEmail());
+            failure = e;
+            noSlotsCounter.increment();
+            // Record the outcome and release the in-queue marker as this request is now completed (failed)
+            completeRequest(item, RequestStatus.FAILED.name() + ": " + e.getMessage());
+        } catch (ReservationCapacityExceededException e) {
+            failure = e;
+            handleRetryableError(item, requestId, e, "capacity_exceeded");
+        } catch (BusinessException e) {
+            failure = e;
+            handleRetryableError(item, requestId, e, "business_rule");
+        } catch (Exception e) {
+            failure = e;
+            handleRetryableError(item, requestId, e, "technical");
+        } finally {
+            reservationMetrics.recordProcessing(ReservationPath.QUEUED, System.nanoTime() - start, failure);
+            commitProcessEvent(event, item, Outcome.of(failure).name().toLowerCase());
+        }
+    }
+
+    private static void commitProcessEvent(QueueProcessEvent event, QueueItem item, String outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.requestId = item.requestId;
+            event.waitMillis = item.enqueuedAt > 0 ? Math.max(0, System.currentTimeMillis() - item.enqueuedAt) : 0;
+            event.outcome = outcome;
+            event.commit();
         }
     }
 
+    private static Object payload(QueueItem item) {
+        return item.bulk != null ? item.bulk : item.request;
+    }
+
     private void handleRetryableError(QueueItem item, String requestId, Exception e, String errorType) {
         item.attempts++;
-        logger.error("Failed to process reservation request (attempt {}, type: {}): {}", item.attempts, errorType, item.request, e);
-        meterRegistry.counter("reservation.queue.process.errors." + errorType).increment();
+        logger.error("Failed to process reservation request (attempt {}, type: {}): {}", item.attempts, errorType, payload(item), e);
+        errorCounters.get(errorType).increment();
         if (item.attempts >= MAX_ATTEMPTS) {
             moveToDLQ(item);
-            if (requestId != null) {
-                redisTemplate.opsForValue().set(STATUS_KEY_PREFIX + requestId,
-                    RequestStatus.FAILED.name() + ": " + e.getMessage());
-            }
-            // Remove email from tracking set when max retries are exhausted
-            redisTemplate.opsForSet().remove(EMAIL_SET_KEY, item.request.getEmail());
-            redisTemplate.opsForList().leftPop(QUEUE_KEY);
+            // Record the outcome and release the in-queue marker when max retries are exhausted
+            completeRequest(item, RequestStatus.FAILED.name() + ": " + e.getMessage());
+        } else if (reservationQueue.nack(item)) {
+            queueMetrics.onRetried();
         } else {
-            try {
-                String updatedJson = objectMapper.writeValueAsString(item);
-                redisTemplate.opsForList().set(QUEUE_KEY, 0, updatedJson);
-            } catch (Exception ex) {
-                logger.error("Failed to re-enqueue reservation request: {}", item, ex);
-                moveToDLQ(item);
-                if (requestId != null) {
-                    redisTemplate.opsForValue().set(STATUS_KEY_PREFIX + requestId, RequestStatus.FAILED.name());
-                }
-                // Remove email from tracking set when request can't be re-enqueued
-                redisTemplate.opsForSet().remove(EMAIL_SET_KEY, item.request.getEmail());
-                redisTemplate.opsForList().leftPop(QUEUE_KEY);
-            }
+            logger.error("Failed to re-enqueue reservation request: {}", payload(item));
+            moveToDLQ(item);
+            // Record the outcome and release the in-queue marker when request can't be re-enqueued
+            completeRequest(item, RequestStatus.FAILED.name());
         }
     }
 }
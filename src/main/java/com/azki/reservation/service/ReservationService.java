@@ -2,26 +2,33 @@ package com.azki.reservation.service;
 
 import com.azki.reservation.entity.Reservation;
 import com.azki.reservation.entity.AvailableSlot;
-import com.azki.reservation.entity.User;
+import com.azki.reservation.dto.user.UserIdentity;
 import com.azki.reservation.exception.BusinessException;
 import com.azki.reservation.exception.DuplicateReservationException;
 import com.azki.reservation.exception.ReservationCapacityExceededException;
 import com.azki.reservation.exception.ReservationNotAvailableException;
+import com.azki.reservation.jfr.SlotClaimEvent;
 import com.azki.reservation.repository.ReservationRepository;
 import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.ClaimedSlot;
 import com.azki.reservation.repository.UserRepository;
-import io.micrometer.core.instrument.MeterRegistry;
+import com.azki.reservation.service.ReservationMetrics.Phase;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryContext;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.retry.annotation.Recover;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -34,8 +41,12 @@ public class ReservationService {
     private final TimeSlotRepository timeSlotRepository;
     private final ReservationRepository reservationRepository;
     private final UserRepository userRepository;
-    private final MeterRegistry meterRegistry;
+    private final ReservationMetrics reservationMetrics;
     private final CacheableOperations cacheableOperations;
+    private final ReservationExpiryScheduler reservationExpiryScheduler;
+    private final UserIdentityCache userIdentityCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final int MAX_RETRY_ATTEMPTS = 3;
     private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
@@ -51,11 +62,16 @@ public class ReservationService {
     }
 
     /**
-     * Reserves the nearest available time slot for the given user email with optimistic locking
-     * to handle concurrency. Retries up to MAX_RETRY_ATTEMPTS times if reservation fails due to
-     * concurrent modification by another transaction.
+     * Reserves the nearest available time slot for the given user email. The slot is claimed with a row lock
+     * that concurrent reservations skip, so each of them gets a different slot. Retries up to MAX_RETRY_ATTEMPTS
+     * times if reservation fails due to concurrent modification by another transaction.
+     * <p>
+     * The user lookup and a first duplicate check run before the write transaction starts, so with a read replica
+     * configured most duplicates are rejected by the replica. The replica can lag behind, so the check is repeated
+     * on the primary inside the write transaction, together with the slot claim and the insert.
      *
      * @param email the user's email
+     * @param path how the request arrived, for the phase timers
      * @return the created Reservation
      * @throws BusinessException if the user is not found or no available time slots exist
      */
@@ -64,31 +80,32 @@ public class ReservationService {
         maxAttempts = 3,
         backoff = @Backoff(delay = 10, multiplier = 1.5)
     )
-    @Transactional
-    public Reservation reserveNearestSlot(String email) {
+    public Reservation reserveNearestSlot(String email, ReservationPath path) {
         logger.info("Attempting to reserve nearest slot for user: {}", email);
         try {
-            User user = userRepository.findByEmail(email)
+            UserIdentity user = reservationMetrics.time(path, Phase.USER_LOOKUP, () -> userIdentityCache.findByEmail(email))
                     .orElseThrow(() -> {
                         logger.warn("User not found for email: {}", email);
                         return new BusinessException("User not found for email: " + email);
                     });
-            logger.debug("Found user: id={}, email={}", user.getId(), user.getEmail());
+            logger.debug("Found user: id={}, email={}", user.id(), user.email());
 
             // Check if user already has a pending reservation
-            if (reservationRepository.existsByUserEmailAndStartTimeAfter(email, LocalDateTime.now())) {
-                logger.warn("Duplicate reservation attempt detected for user: {}", email);
-                throw new DuplicateReservationException("User already has an active reservation");
-            }
+            checkNoActiveReservation(email, path);
 
-            Reservation reservation = attemptReservation(user);
+            Reservation reservation = transactionTemplate.execute(status -> {
+                reservationMetrics.timeCommit(path);
+                // Repeated on the primary: the check above may have been answered by a lagging replica
+                checkNoActiveReservation(email, path);
+                return attemptReservation(user, path);
+            });
             logger.info("Successfully created reservation: id={} for user={} at time={}",
                     reservation.getId(), email, reservation.getAvailableSlot().getStartTime());
-            meterRegistry.counter("reservation.success").increment();
+            reservationMetrics.reservationSucceeded();
             return reservation;
         } catch (BusinessException e) {
             logger.error("Failed to create reservation for user: {}. Reason: {}", email, e.getMessage());
-            meterRegistry.counter("reservation.failed").increment();
+            reservationMetrics.reservationFailed();
             throw e;
         }
     }
@@ -99,52 +116,109 @@ public class ReservationService {
      *
      * @param e The OptimisticLockingFailureException that caused retries to fail
      * @param email The user's email (from the original method parameter)
+     * @param path How the request arrived (from the original method parameter)
      * @return Never returns a Reservation, always throws an exception
      * @throws ReservationCapacityExceededException when recovery is needed
      */
     @Recover
-    public Reservation recoverFromOptimisticLockingFailure(OptimisticLockingFailureException e, String email) {
+    public Reservation recoverFromOptimisticLockingFailure(OptimisticLockingFailureException e, String email,
+                                                           ReservationPath path) {
         logger.error("Failed to reserve slot after {} attempts due to concurrent modifications", MAX_RETRY_ATTEMPTS);
-        meterRegistry.counter("reservation.optimistic_locking_failures").increment();
+        reservationMetrics.optimisticLockingFailed();
         throw new ReservationCapacityExceededException("Unable to reserve time slot due to high demand, please try again later");
     }
 
     /**
-     * Helper method to perform a single reservation attempt with optimistic locking.
+     * Recovery method for business failures, which are not retried. Without it the retry proxy finds no recovery
+     * method for them and wraps them in an {@code ExhaustedRetryException}.
      *
-     * @param user the user making the reservation
+     * @param e The business exception thrown by the reservation attempt
+     * @param email The user's email (from the original method parameter)
+     * @param path How the request arrived (from the original method parameter)
+     * @return Never returns a Reservation, always rethrows the exception
+     */
+    @Recover
+    public Reservation rethrowBusinessException(BusinessException e, String email, ReservationPath path) {
+        throw e;
+    }
+
+    /**
+     * @throws DuplicateReservationException if the user already has a reservation starting in the future
+     */
+    private void checkNoActiveReservation(String email, ReservationPath path) {
+        if (reservationMetrics.time(path, Phase.DUPLICATE_CHECK,
+                () -> reservationRepository.existsByUserEmailAndStartTimeAfter(email, LocalDateTime.now()))) {
+            logger.warn("Duplicate reservation attempt detected for user: {}", email);
+            throw new DuplicateReservationException("User already has an active reservation");
+        }
+    }
+
+    /**
+     * Helper method to perform a single reservation attempt. Runs inside the write
+     * transaction of {@link #reserveNearestSlot}, which is rolled back on any failure and retried on a conflict.
+     * Package-private so that the benchmarks can time an attempt on its own; the caller must open the transaction.
+     *
+     * @param user the identity of the user making the reservation
+     * @param path how the request arrived, for the phase timers
      * @return the created reservation
      * @throws ReservationNotAvailableException if no slots are available
      * @throws OptimisticLockingFailureException if concurrent modification is detected
      */
-    @Transactional(noRollbackFor = OptimisticLockingFailureException.class)
-    protected Reservation attemptReservation(User user) {
-        AvailableSlot slot = findNextAvailableSlotCached()
-                .orElseThrow(() -> new ReservationNotAvailableException("No available time slots"));
-
-        // Double-check the slot is still available in current database state
-        AvailableSlot freshSlot = timeSlotRepository.findById(slot.getId())
-                .orElseThrow(() -> new ReservationNotAvailableException("Time slot no longer exists"));
-
-        if (freshSlot.isReserved()) {
-            logger.warn("Concurrency issue: Slot {} is already reserved in database.", freshSlot.getId());
-            evictNextSlotCache();
-            throw new ReservationNotAvailableException("Time slot already reserved");
+    Reservation attemptReservation(UserIdentity user, ReservationPath path) {
+        SlotClaimEvent event = new SlotClaimEvent();
+        event.begin();
+        Reservation reservation = null;
+        String outcome = "error";
+        try {
+            reservation = claimNearestSlot(user, path);
+            outcome = "claimed";
+            return reservation;
+        } catch (ReservationNotAvailableException e) {
+            outcome = "no_slot";
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            outcome = "conflict";
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                RetryContext retryContext = RetrySynchronizationManager.getContext();
+                event.userId = user.id();
+                event.slotId = reservation != null ? reservation.getAvailableSlot().getId() : 0;
+                event.path = path.tag();
+                event.attempt = retryContext != null ? retryContext.getRetryCount() + 1 : 1;
+                event.outcome = outcome;
+                event.commit();
+            }
         }
+    }
 
-        freshSlot.setReserved(true);
-        AvailableSlot savedSlot = timeSlotRepository.save(freshSlot);
-        logger.info("Slot {} reserved for user {}", savedSlot.getId(), user.getEmail());
+    private Reservation claimNearestSlot(UserIdentity user, ReservationPath path) {
+        // Claimed with the same statement as bulk reservations: concurrent reservations each lock a different free
+        // slot instead of all racing for the first one, and the update marks it reserved
+        AvailableSlot savedSlot = reservationMetrics.time(path, Phase.SLOT_SELECTION, () -> {
+            ClaimedSlot claimed = timeSlotRepository.claimAvailableSlots(LocalDateTime.now(), 1).stream()
+                    .findFirst()
+                    .orElseThrow(() -> new ReservationNotAvailableException("No available time slots"));
+            return timeSlotRepository.findById(claimed.getId())
+                    .orElseThrow(() -> new ReservationNotAvailableException("Time slot no longer exists"));
+        });
+        logger.info("Slot {} reserved for user {}", savedSlot.getId(), user.email());
 
         evictNextSlotCache();
+        eventPublisher.publishEvent(SlotAvailabilityEvent.reserved(List.of(savedSlot.getStartTime())));
 
         Reservation reservation = new Reservation();
-        reservation.setUser(user);
+        // Proxy reference: only the foreign key is needed, the user row is never loaded
+        reservation.setUser(userRepository.getReferenceById(user.id()));
         reservation.setAvailableSlot(savedSlot);
         reservation.setReservedAt(LocalDateTime.now());
 
-        Reservation saved = reservationRepository.save(reservation);
-        logger.info("Reservation {} created for user {} at slot {}", saved.getId(), user.getEmail(), savedSlot.getId());
+        Reservation saved = reservationMetrics.time(path, Phase.INSERT, () -> reservationRepository.save(reservation));
+        logger.info("Reservation {} created for user {} at slot {}", saved.getId(), user.email(), savedSlot.getId());
+
+        reservationExpiryScheduler.schedule(saved.getId(),
+                saved.getCreatedDate() != null ? saved.getCreatedDate() : saved.getReservedAt());
         return saved;
     }
 
@@ -168,8 +242,9 @@ public class ReservationService {
         reservationRepository.delete(reservation);
         logger.info("Reservation {} cancelled", id);
 
-        meterRegistry.counter("reservation.cancelled").increment();
+        reservationMetrics.reservationCancelled();
         evictNextSlotCache();
+        eventPublisher.publishEvent(SlotAvailabilityEvent.released(List.of(slot.getStartTime())));
     }
 
     /**
@@ -0,0 +1,24 @@
+package com.azki.reservation.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published when slots are reserved or freed, with the start times of the slots concerned.
+ * <p>
+ * Published inside the transaction that changes the slots; {@link AvailabilityHistogram} applies it once that
+ * transaction has committed.
+ *
+ * @param startTimes start times of the slots that changed
+ * @param delta change of each slot's hour in free slots: -1 when reserved, +1 when freed
+ */
+public record SlotAvailabilityEvent(List<LocalDateTime> startTimes, int delta) {
+
+    public static SlotAvailabilityEvent reserved(List<LocalDateTime> startTimes) {
+        return new SlotAvailabilityEvent(startTimes, -1);
+    }
+
+    public static SlotAvailabilityEvent released(List<LocalDateTime> startTimes) {
+        return new SlotAvailabilityEvent(startTimes, 1);
+    }
+}
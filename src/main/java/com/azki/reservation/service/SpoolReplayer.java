@@ -0,0 +1,109 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.queue.EnqueueSpool;
+import com.azki.reservation.queue.RedisReservationQueue;
+import com.azki.reservation.service.ReservationQueueService.RequestStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forwards requests spooled during a Redis outage into the Redis queue once Redis is reachable again.
+ * <p>
+ * Every {@code reservation.queue.spool.replay-interval-ms} a dedicated thread reads a batch from the
+ * {@link EnqueueSpool} in append order and restores each request with its original id and status, then commits the
+ * replay position. While Redis is still down the first restore fails and the batch is retried on the next run, so
+ * clients keep seeing their requests as queued until the worker picks them up.
+ */
+@Service
+@ConditionalOnExpression("${reservation.queue.spool.enabled:true} and '${reservation.queue.backend:redis}' == 'redis'")
+public class SpoolReplayer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpoolReplayer.class);
+    private static final int BATCH_SIZE = 100;
+    private static final String DUPLICATE_STATUS =
+        RequestStatus.FAILED.name() + ": A reservation request for this email is already in queue";
+
+    private final EnqueueSpool spool;
+    private final RedisReservationQueue reservationQueue;
+    private final long replayIntervalMillis;
+    private final Counter replayedCounter;
+    private ScheduledExecutorService replayer;
+    private volatile boolean failing;
+
+    public SpoolReplayer(
+            EnqueueSpool spool,
+            RedisReservationQueue reservationQueue,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.queue.spool.replay-interval-ms:1000}") long replayIntervalMillis) {
+        this.spool = spool;
+        this.reservationQueue = reservationQueue;
+        this.replayIntervalMillis = replayIntervalMillis;
+        this.replayedCounter = Counter.builder("reservation.queue.spool.replayed")
+                .description("Spooled enqueues forwarded to the Redis queue")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts replaying once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        replayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-spool-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.scheduleWithFixedDelay(this::replay, 0, replayIntervalMillis, TimeUnit.MILLISECONDS);
+        logger.info("Spool replay started: interval={}ms, pending={}", replayIntervalMillis, spool.pendingCount());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (replayer != null) {
+            replayer.shutdownNow();
+        }
+    }
+
+    /**
+     * Replays the spool until it is empty or Redis fails. Never throws, so the schedule survives outages.
+     */
+    void replay() {
+        try {
+            List<EnqueueSpool.SpooledItem> batch;
+            while (!(batch = spool.read(BATCH_SIZE)).isEmpty()) {
+                int restored = 0;
+                try {
+                    for (EnqueueSpool.SpooledItem spooled : batch) {
+                        reservationQueue.restore(spooled.item(), spooled.status(), DUPLICATE_STATUS);
+                        restored++;
+                    }
+                } finally {
+                    spool.commit(batch.subList(0, restored));
+                    replayedCounter.increment(restored);
+                }
+                if (failing) {
+                    logger.info("Redis is reachable again, replaying spooled reservation requests");
+                    failing = false;
+                }
+            }
+        } catch (Exception e) {
+            if (!failing) {
+                logger.warn("Failed to replay spooled reservation requests, retrying in {}ms", replayIntervalMillis, e);
+            }
+            failing = true;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.dto.user.UserIdentity;
+import com.azki.reservation.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of {@link UserIdentity} projections, keyed by email and by id.
+ * <p>
+ * Users almost never change, so the reservation path resolves them here instead of querying the users table for
+ * every request. Entries are invalidated by {@code UserIdentityInvalidationListener} on every node once an update
+ * or removal of the user has committed; the expire-after-write TTL bounds staleness for changes that bypass JPA or
+ * whose broadcast is lost. Unknown emails are not cached, so newly created users are found immediately.
+ */
+@Service
+public class UserIdentityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityCache.class);
+
+    private final UserRepository userRepository;
+    private final Cache<String, UserIdentity> byEmail;
+    private final Cache<Long, UserIdentity> byId;
+
+    public UserIdentityCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${reservation.user-cache.max-size:100000}") long maxSize,
+            @Value("${reservation.user-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.userRepository = userRepository;
+        this.byEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byEmail, "user.identity.by-email");
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "user.identity.by-id");
+    }
+
+    /**
+     * @param email the user's email
+     * @return the user's identity, or empty if no such user exists
+     */
+    public Optional<UserIdentity> findByEmail(String email) {
+        UserIdentity identity = byEmail.getIfPresent(email);
+        if (identity == null) {
+            identity = loadByEmails(List.of(email)).get(email);
+        }
+        return Optional.ofNullable(identity);
+    }
+
+    /**
+     * @param id the user id
+     * @return the user's identity, or empty if no such user exists
+     */
+    public Optional<UserIdentity> findById(Long id) {
+        UserIdentity identity = byId.getIfPresent(id);
+        if (identity == null) {
+            identity = userRepository.findIdentitiesByIdIn(List.of(id)).stream().findFirst().orElse(null);
+            if (identity != null) {
+                put(identity);
+            }
+        }
+        return Optional.ofNullable(identity);
+    }
+
+    /**
+     * Loads all emails not cached yet with a single query, e.g. for a batch of queued requests.
+     *
+     * @param emails emails about to be looked up
+     */
+    public void preload(Collection<String> emails) {
+        List<String> missing = emails.stream()
+                .filter(email -> email != null && byEmail.getIfPresent(email) == null)
+                .distinct()
+                .toList();
+        if (!missing.isEmpty()) {
+            Map<String, UserIdentity> loaded = loadByEmails(missing);
+            logger.debug("Preloaded {} of {} missing user identities", loaded.size(), missing.size());
+        }
+    }
+
+    /**
+     * Drops a user from the cache, including the email it was cached under if that has changed since.
+     *
+     * @param id the user id
+     * @param email the user's current email
+     */
+    public void invalidate(Long id, String email) {
+        if (id != null) {
+            UserIdentity previous = byId.getIfPresent(id);
+            if (previous != null) {
+                byEmail.invalidate(previous.email());
+            }
+            byId.invalidate(id);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    private Map<String, UserIdentity> loadByEmails(Collection<String> emails) {
+        Map<String, UserIdentity> loaded = new HashMap<>();
+        for (UserIdentity identity : userRepository.findIdentitiesByEmailIn(emails)) {
+            // Ordered by id: the first match wins should an email be duplicated
+            if (loaded.putIfAbsent(identity.email(), identity) == null) {
+                put(identity);
+            }
+        }
+        return loaded;
+    }
+
+    private void put(UserIdentity identity) {
+        byEmail.put(identity.email(), identity);
+        byId.put(identity.id(), identity);
+    }
+}
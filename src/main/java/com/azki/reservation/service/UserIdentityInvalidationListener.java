@@ -0,0 +1,71 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.entity.UserChangedEvent;
+import com.azki.reservation.util.RedisKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts {@link UserIdentityCache} entries of users updated or removed, on every node.
+ * <p>
+ * Eviction waits for the writing transaction to commit: evicting earlier would let a concurrent lookup cache the
+ * old row again before the new one is visible. The change is then broadcast on
+ * {@code RedisKeys.USER_CHANGES_CHANNEL}, so the other nodes evict too instead of serving the old identity until
+ * their entries expire.
+ */
+@Component
+public class UserIdentityInvalidationListener implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityInvalidationListener.class);
+
+    private final UserIdentityCache userIdentityCache;
+    private final ObjectProvider<RedisTemplate<String, Object>> redisTemplate;
+
+    public UserIdentityInvalidationListener(UserIdentityCache userIdentityCache,
+                                            ObjectProvider<RedisTemplate<String, Object>> redisTemplate) {
+        this.userIdentityCache = userIdentityCache;
+        this.redisTemplate = redisTemplate;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        userIdentityCache.invalidate(event.userId(), event.email());
+        redisTemplate.ifAvailable(template -> {
+            try {
+                template.convertAndSend(RedisKeys.USER_CHANGES_CHANNEL, message(event));
+            } catch (Exception e) {
+                // Other nodes still drop the entry when it expires (reservation.user-cache.ttl-minutes)
+                logger.warn("Failed to broadcast change of user {}", event.userId(), e);
+            }
+        });
+    }
+
+    /**
+     * Receives changes broadcast by any node, this one included.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getObject().getValueSerializer().deserialize(message.getBody());
+        if (!(body instanceof String change)) {
+            return;
+        }
+        int separator = change.indexOf(' ');
+        if (separator > 0) {
+            String email = change.substring(separator + 1);
+            userIdentityCache.invalidate(Long.valueOf(change.substring(0, separator)), email.isEmpty() ? null : email);
+        }
+    }
+
+    /**
+     * @return the message announcing a user change; emails never contain a space
+     */
+    static String message(UserChangedEvent event) {
+        return event.userId() + " " + (event.email() != null ? event.email() : "");
+    }
+}
@@ -0,0 +1,145 @@
+package com.azki.reservation.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for scheduling a large number of deadlines with O(1) insertion and
+ * O(1) amortized expiration per item.
+ * <p>
+ * Level 0 has {@code wheelSize} buckets of {@code tickMillis} each. Every higher level has the same number
+ * of buckets, each as wide as the whole level below it. Items far in the future live in coarse buckets and
+ * cascade down to finer levels as time advances. Items are never reported before their deadline and at most
+ * one tick after it.
+ * <p>
+ * This class is not thread-safe: all calls are expected to come from a single owner thread.
+ *
+ * @param <T> type of the scheduled items
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final ArrayDeque<Entry<T>>[][] buckets;
+    private long currentTime;
+    private int size;
+
+    private record Entry<T>(T item, long deadline) {
+    }
+
+    /**
+     * @param tickMillis resolution of the wheel in milliseconds
+     * @param wheelSize number of buckets per level
+     * @param levels number of levels; the wheel covers roughly {@code tickMillis * wheelSize^levels}
+     * @param startTime current time in epoch milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startTime) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels];
+        this.buckets = new ArrayDeque[levels][wheelSize];
+        long tick = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = tick;
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[level][i] = new ArrayDeque<>();
+            }
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        this.currentTime = startTime - Math.floorMod(startTime, tickMillis);
+    }
+
+    /**
+     * Schedules an item.
+     *
+     * @param item the item
+     * @param deadline deadline in epoch milliseconds
+     * @return true if scheduled, false if the deadline has already passed and the caller should handle it now
+     */
+    public boolean add(T item, long deadline) {
+        if (!place(new Entry<>(item, deadline))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to {@code now} and collects every item whose deadline has passed.
+     *
+     * @param now current time in epoch milliseconds
+     * @param due list receiving the expired items
+     */
+    public void advance(long now, List<T> due) {
+        while (currentTime + tickMillis <= now) {
+            currentTime += tickMillis;
+
+            // Drain the level 0 bucket first, then cascade coarser buckets whose window starts now
+            cascade(buckets[0][(int) ((currentTime / tickMillis) % wheelSize)], due);
+            for (int level = levelTicks.length - 1; level >= 1; level--) {
+                long tick = levelTicks[level];
+                if (currentTime % tick == 0) {
+                    cascade(buckets[level][(int) ((currentTime / tick) % wheelSize)], due);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return number of items currently scheduled
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(ArrayDeque<Entry<T>> bucket, List<T> due) {
+        if (bucket.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(bucket);
+        bucket.clear();
+        for (Entry<T> entry : entries) {
+            if (!place(entry)) {
+                due.add(entry.item());
+                size--;
+            }
+        }
+    }
+
+    private boolean place(Entry<T> entry) {
+        long deadline = entry.deadline();
+        if (deadline <= currentTime) {
+            return false;
+        }
+
+        // Level 0 rounds up so items never fire early; the bucket at the current index is already drained
+        long current = currentTime / tickMillis;
+        long slot = Math.ceilDiv(deadline, tickMillis);
+        if (slot - current <= wheelSize) {
+            buckets[0][(int) (slot % wheelSize)].add(entry);
+            return true;
+        }
+
+        int top = levelTicks.length - 1;
+        for (int level = 1; level <= top; level++) {
+            long tick = levelTicks[level];
+            current = currentTime / tick;
+            slot = deadline / tick;
+            if (slot - current < wheelSize) {
+                buckets[level][(int) (slot % wheelSize)].add(entry);
+                return true;
+            }
+        }
+
+        // Beyond the top level: park in its furthest bucket and re-place when it cascades
+        long topTick = levelTicks[top];
+        buckets[top][(int) ((currentTime / topTick + wheelSize - 1) % wheelSize)].add(entry);
+        return true;
+    }
+}
@@ -0,0 +1,65 @@
+package com.azki.reservation.util;
+
+/**
+ * Redis key layout of the reservation queue.
+ * <p>
+ * Keys carry a hash tag (the part in braces) so that on Redis Cluster everything a single operation or script
+ * touches lives in one slot: the pending queue and the DLQ share the {@code {queue}} tag, the availability
+ * histogram and its version share the {@code {availability}} tag, while per-request and per-email keys are tagged
+ * with their own id and therefore spread evenly across shards.
+ */
+public final class RedisKeys {
+
+    public static final String QUEUE = "reservation:{queue}:pending";
+    public static final String DLQ = "reservation:{queue}:dlq";
+    public static final String STATUS_PREFIX = "reservation:status:";
+    public static final String QUEUED_MARKER_PREFIX = "reservation:queued:";
+    public static final String REVOKED_BEFORE_PREFIX = "reservation:auth:revoked-before:";
+
+    /** Free slot counts per hour, one field {@code <epoch day>:<hour>} each, and the version bumped on every change. */
+    public static final String AVAILABILITY = "reservation:{availability}:free";
+    public static final String AVAILABILITY_VERSION = "reservation:{availability}:version";
+    /** Availability changes whose transaction is committing, scored by the time their mark expires. */
+    public static final String AVAILABILITY_IN_FLIGHT = "reservation:{availability}:in-flight";
+
+    /** Pub/sub channel announcing the final status of queued requests. */
+    public static final String COMPLETIONS_CHANNEL = "reservation:completions";
+
+    /** Pub/sub channel announcing users updated or removed on any node. */
+    public static final String USER_CHANGES_CHANNEL = "reservation:user-changes";
+
+    /** Keys used before the hash-tagged layout, migrated on startup. */
+    public static final String LEGACY_QUEUE = "reservation:queue";
+    public static final String LEGACY_DLQ = "reservation:dlq";
+
+    private RedisKeys() {
+    }
+
+    /**
+     * @return status key of a queued request
+     */
+    public static String status(String requestId) {
+        return STATUS_PREFIX + "{" + requestId + "}";
+    }
+
+    /**
+     * @return status key of a request enqueued before the hash-tagged layout, read until it expires
+     */
+    public static String legacyStatus(String requestId) {
+        return STATUS_PREFIX + requestId;
+    }
+
+    /**
+     * @return key holding the instant (epoch millis) before which all tokens of a user are revoked
+     */
+    public static String revokedBefore(Long userId) {
+        return REVOKED_BEFORE_PREFIX + "{" + userId + "}";
+    }
+
+    /**
+     * @return in-queue marker key of an email, whose value is the id of the request holding it
+     */
+    public static String queuedMarker(String email) {
+        return QUEUED_MARKER_PREFIX + "{" + email + "}";
+    }
+}
@@ -0,0 +1,54 @@
+package com.azki.reservation.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Events per second over a sliding window of one-second buckets.
+ * <p>
+ * Recording is a couple of atomic operations and reading sums at most {@code windowSeconds} buckets, cheap enough
+ * for a gauge. An event recorded exactly while its bucket is being recycled can be lost, which is acceptable for
+ * a rate metric.
+ */
+public final class SlidingWindowRate {
+
+    private final int windowSeconds;
+    private final LongSupplier clockMillis;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray stamps;
+
+    public SlidingWindowRate(int windowSeconds) {
+        this(windowSeconds, System::currentTimeMillis);
+    }
+
+    SlidingWindowRate(int windowSeconds, LongSupplier clockMillis) {
+        this.windowSeconds = windowSeconds;
+        this.clockMillis = clockMillis;
+        this.counts = new AtomicLongArray(windowSeconds);
+        this.stamps = new AtomicLongArray(windowSeconds);
+    }
+
+    public void record(long events) {
+        long second = clockMillis.getAsLong() / 1000;
+        int index = (int) (second % windowSeconds);
+        long stamp = stamps.get(index);
+        if (stamp != second && stamps.compareAndSet(index, stamp, second)) {
+            counts.set(index, 0);
+        }
+        counts.addAndGet(index, events);
+    }
+
+    /**
+     * @return average events per second over the window
+     */
+    public double perSecond() {
+        long second = clockMillis.getAsLong() / 1000;
+        long total = 0;
+        for (int i = 0; i < windowSeconds; i++) {
+            if (second - stamps.get(i) < windowSeconds) {
+                total += counts.get(i);
+            }
+        }
+        return (double) total / windowSeconds;
+    }
+}
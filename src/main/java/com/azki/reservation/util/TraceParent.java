@@ -0,0 +1,49 @@
+package com.azki.reservation.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * W3C trace context ({@code traceparent}) carried with queued requests so that the enqueueing HTTP request and
+ * the later processing can be correlated.
+ */
+public final class TraceParent {
+
+    public static final String HEADER = "traceparent";
+    /** MDC key holding the trace id while a queued request is processed. */
+    public static final String MDC_TRACE_ID = "traceId";
+
+    private static final Pattern FORMAT = Pattern.compile("[0-9a-f]{2}-[0-9a-f]{32}-[0-9a-f]{16}-[0-9a-f]{2}");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TraceParent() {
+    }
+
+    /**
+     * @return the valid {@code traceparent} header of the current HTTP request, or a new sampled trace context
+     */
+    public static String currentOrNew() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            String header = request.getHeader(HEADER);
+            if (header != null && FORMAT.matcher(header).matches()) {
+                return header;
+            }
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "00-" + HEX.toHexDigits(random.nextLong()) + HEX.toHexDigits(random.nextLong())
+            + "-" + HEX.toHexDigits(random.nextLong()) + "-01";
+    }
+
+    /**
+     * @return the trace id part of a {@code traceparent} value, or null if it is missing or malformed
+     */
+    public static String traceId(String traceparent) {
+        return traceparent != null && FORMAT.matcher(traceparent).matches() ? traceparent.substring(3, 35) : null;
+    }
+}
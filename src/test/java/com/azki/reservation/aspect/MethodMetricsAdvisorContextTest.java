@@ -0,0 +1,55 @@
+package com.azki.reservation.aspect;
+
+import com.azki.reservation.jdbc.QueryMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.actuate.autoconfigure.metrics.JvmMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodMetricsAdvisorContextTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class,
+                    AopAutoConfiguration.class, MetricsAutoConfiguration.class,
+                    SimpleMetricsExportAutoConfiguration.class, JvmMetricsAutoConfiguration.class))
+            .withUserConfiguration(MethodMetricsAdvisor.class, QueryMetricsListener.class)
+            .withBean(SampleService.class)
+            .withPropertyValues("reservation.instrumentation.packages=aspect", "management.metrics.tags.application=test");
+
+    @Test
+    void shouldLeaveTheRegistryToBeCustomizedByBoot() {
+        contextRunner.run(context -> {
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            // Binders and common tags are only applied if the registry is created after MeterRegistryPostProcessor
+            assertNotNull(registry.find("jvm.memory.used").tag("application", "test").gauge());
+        });
+    }
+
+    @Test
+    void shouldRegisterTimersBeforeTheFirstCall() {
+        contextRunner.run(context -> {
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            assertTrue(AopUtils.isAopProxy(context.getBean(SampleService.class)));
+            assertNotNull(registry.find("reservation.method.time")
+                    .tags("class", "SampleService", "method", "work", "outcome", "success").timer());
+            assertNotNull(registry.find("reservation.method.time")
+                    .tags("class", "SampleService", "method", "work", "outcome", "error").timer());
+        });
+    }
+
+    static class SampleService {
+        public String work() {
+            return "done";
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.azki.reservation.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodMetricsAdvisorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldRecordSuccessAndErrorTimers() {
+        // Given
+        MethodMetricsAdvisor advisor = new MethodMetricsAdvisor(registryProvider(), Set.of("aspect"), false, 1.0, 500);
+        SampleService proxy = proxy(advisor);
+
+        // When
+        proxy.work(false);
+        proxy.work(false);
+        assertThrows(IllegalStateException.class, () -> proxy.work(true));
+
+        // Then
+        assertEquals(2, meterRegistry.get("reservation.method.time")
+            .tags("class", "SampleService", "method", "work", "outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("reservation.method.time")
+            .tags("class", "SampleService", "method", "work", "outcome", "error").timer().count());
+    }
+
+    @Test
+    void shouldNotAdviseDisabledPackages() {
+        // Given
+        MethodMetricsAdvisor advisor = new MethodMetricsAdvisor(registryProvider(), Set.of("service"), false, 1.0, 500);
+
+        // When/Then
+        assertFalse(AopUtils.canApply(advisor, SampleService.class));
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    private ObjectProvider<MeterRegistry> registryProvider() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        return beanFactory.getBeanProvider(MeterRegistry.class);
+    }
+
+    private SampleService proxy(MethodMetricsAdvisor advisor) {
+        ProxyFactory factory = new ProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        return (SampleService) factory.getProxy();
+    }
+
+    static class SampleService {
+        public String work(boolean fail) {
+            if (fail) {
+                throw new IllegalStateException("failed");
+            }
+            return "done";
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.azki.reservation.config;
+
+import com.azki.reservation.service.QueueStats;
+import com.azki.reservation.service.QueueStatsSampler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationQueueHealthIndicatorTest {
+
+    @Mock
+    private QueueStatsSampler queueStatsSampler;
+
+    private ReservationQueueHealthIndicator healthIndicator;
+
+    @BeforeEach
+    void setUp() {
+        healthIndicator = new ReservationQueueHealthIndicator(queueStatsSampler, 50, 100, 10, 60, 120, 30000);
+    }
+
+    @Test
+    void shouldBeUpForDrainingQueue() {
+        // Given: 20 waiting, draining at 5/s
+        when(queueStatsSampler.snapshot()).thenReturn(stats(20, 0, 5, 1));
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(20L, health.getDetails().get("queueSize"));
+        assertEquals(4.0, health.getDetails().get("estimatedDrainSeconds"));
+    }
+
+    @Test
+    void shouldApplyConfiguredLengthThresholds() {
+        when(queueStatsSampler.snapshot()).thenReturn(stats(101, 0, 50, 1));
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+
+        when(queueStatsSampler.snapshot()).thenReturn(stats(51, 0, 50, 1));
+        assertEquals("WARNING", healthIndicator.health().getStatus().getCode());
+
+        when(queueStatsSampler.snapshot()).thenReturn(stats(0, 11, 0, 0));
+        assertEquals("WARNING", healthIndicator.health().getStatus().getCode());
+    }
+
+    @Test
+    void shouldReportSlowAndStalledDrain() {
+        // Backlog that takes 200s to drain
+        when(queueStatsSampler.snapshot()).thenReturn(stats(40, 0, 0.2, 10));
+        assertEquals("WARNING", healthIndicator.health().getStatus().getCode());
+
+        // Not drained for longer than the stall threshold, though this instance never saw the oldest request
+        long now = System.currentTimeMillis();
+        when(queueStatsSampler.snapshot()).thenReturn(new QueueStats(5, 0, 0, 0, 0, 0, now - 300_000, now));
+        Health health = healthIndicator.health();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertEquals("unbounded", health.getDetails().get("estimatedDrainSeconds"));
+        assertEquals(300.0, health.getDetails().get("stalledSeconds"));
+
+        // Not drained, but not for long enough yet: only the unbounded drain time is a warning
+        when(queueStatsSampler.snapshot()).thenReturn(new QueueStats(5, 0, 0, 0, 0, 300, now - 60_000, now));
+        assertEquals("WARNING", healthIndicator.health().getStatus().getCode());
+    }
+
+    @Test
+    void shouldReportUnknownForMissingOrStaleSnapshot() {
+        // Not sampled yet
+        when(queueStatsSampler.snapshot()).thenReturn(null);
+        assertEquals(Status.UNKNOWN, healthIndicator.health().getStatus());
+
+        // Last sample is a minute old and critical, but stale data must not take the instance down
+        when(queueStatsSampler.snapshot())
+            .thenReturn(new QueueStats(500, 0, 0, 0, 0, 0, 0, System.currentTimeMillis() - 60_000));
+        when(queueStatsSampler.lastFailure()).thenReturn("RedisCommandTimeoutException: timed out");
+        Health health = healthIndicator.health();
+        assertEquals(Status.UNKNOWN, health.getStatus());
+        assertEquals("RedisCommandTimeoutException: timed out", health.getDetails().get("lastFailure"));
+    }
+
+    private static QueueStats stats(long queueLength, long dlqLength, double drainRate, double oldestAgeSeconds) {
+        return new QueueStats(queueLength, dlqLength, 0, drainRate, 0, oldestAgeSeconds, 0, System.currentTimeMillis());
+    }
+}
@@ -1,19 +1,34 @@
 package com.azki.reservation.controller;
 
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto;
+import com.azki.reservation.dto.reservation.BulkReservationResponseDto;
+import com.azki.reservation.dto.reservation.BulkReservationResultDto;
 import com.azki.reservation.dto.reservation.ReservationRequestDto;
 import com.azki.reservation.dto.reservation.ReservationResponseDto;
+import com.azki.reservation.entity.Reservation;
+import com.azki.reservation.service.BulkReservationService;
+import com.azki.reservation.service.LoadMonitoringService;
+import com.azki.reservation.service.ReservationCompletionRegistry;
+import com.azki.reservation.service.ReservationMetrics;
+import com.azki.reservation.service.ReservationMetrics.Phase;
+import com.azki.reservation.service.ReservationPath;
 import com.azki.reservation.service.ReservationQueueService;
 import com.azki.reservation.service.ReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,29 +37,184 @@ class ReservationControllerTest {
     @Mock
     private ReservationService reservationService;
 
+    @Mock
+    private BulkReservationService bulkReservationService;
+
     @Mock
     private ReservationQueueService reservationQueueService;
 
-    @InjectMocks
+    @Mock
+    private LoadMonitoringService loadMonitoringService;
+
+    @Mock
+    private ReservationMetrics reservationMetrics;
+
+    private ReservationCompletionRegistry completionRegistry;
     private ReservationController reservationController;
 
+    @BeforeEach
+    void setUp() {
+        completionRegistry = new ReservationCompletionRegistry(new SimpleMeterRegistry());
+        reservationController = new ReservationController(reservationService, bulkReservationService,
+            reservationQueueService, loadMonitoringService, reservationMetrics, completionRegistry);
+        ReflectionTestUtils.setField(reservationController, "awaitResultMillis", 0L);
+    }
+
+    @Test
+    void shouldReserveNearestDirectlyUnderNormalLoad() {
+        // Given
+        ReservationRequestDto requestDto = new ReservationRequestDto();
+        requestDto.setEmail("test@example.com");
+        Reservation reservation = new Reservation();
+        reservation.setId(7L);
+        when(reservationService.reserveNearestSlot("test@example.com", ReservationPath.DIRECT)).thenReturn(reservation);
+
+        // When
+        ResponseEntity<ReservationResponseDto> response = reservationController.reserveNearest(requestDto, 1000L).join();
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new ReservationResponseDto("direct-7", "SUCCESS"), response.getBody());
+        verify(reservationMetrics).record(ReservationPath.DIRECT, Phase.AUTH, 1000L, true);
+        verify(reservationMetrics).recordProcessing(eq(ReservationPath.DIRECT), anyLong(), isNull());
+        verify(loadMonitoringService).decrementActiveRequests();
+        verifyNoInteractions(reservationQueueService);
+    }
+
     @Test
     void shouldReserveNearest() {
         // Given
         ReservationRequestDto requestDto = new ReservationRequestDto();
         requestDto.setEmail("test@example.com");
-        String expectedResponseBody = "request-123";
+        String expectedRequestId = "request-123";
 
+        when(loadMonitoringService.shouldQueueRequest()).thenReturn(true);
         when(reservationQueueService.enqueueReservationRequest(any(ReservationRequestDto.class)))
-                .thenReturn(expectedResponseBody);
+                .thenReturn(expectedRequestId);
+        when(reservationQueueService.getRequestStatus(expectedRequestId)).thenReturn("QUEUED");
 
         // When
-        ResponseEntity<ReservationResponseDto> response = reservationController.reserveNearest(requestDto);
+        ResponseEntity<ReservationResponseDto> response = reservationController.reserveNearest(requestDto, null).join();
 
         // Then
         assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
-        assertEquals(expectedResponseBody, response.getBody());
+        assertEquals(new ReservationResponseDto(expectedRequestId, "QUEUED"), response.getBody());
         verify(reservationQueueService).enqueueReservationRequest(requestDto);
+        verify(loadMonitoringService).decrementActiveRequests();
+        verifyNoInteractions(reservationService);
+    }
+
+    @Test
+    void shouldReturnFinalStatusWhenQueuedRequestCompletesWithinBudget() {
+        // Given
+        ReservationController controller = queueingController(5000);
+        ReservationRequestDto requestDto = new ReservationRequestDto();
+        requestDto.setEmail("test@example.com");
+        when(reservationQueueService.enqueueReservationRequest(requestDto)).thenReturn("request-123");
+        when(reservationQueueService.getRequestStatus("request-123")).thenReturn("QUEUED");
+
+        // When
+        CompletableFuture<ResponseEntity<ReservationResponseDto>> result = controller.reserveNearest(requestDto, null);
+        completionRegistry.complete("request-123", "SUCCESS");
+
+        // Then
+        ResponseEntity<ReservationResponseDto> response = result.join();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(new ReservationResponseDto("request-123", "SUCCESS"), response.getBody());
+    }
+
+    @Test
+    void shouldAnswerConflictWhenQueuedRequestFailsWithinBudget() {
+        // Given
+        ReservationController controller = queueingController(5000);
+        ReservationRequestDto requestDto = new ReservationRequestDto();
+        requestDto.setEmail("test@example.com");
+        when(reservationQueueService.enqueueReservationRequest(requestDto)).thenReturn("request-123");
+        when(reservationQueueService.getRequestStatus("request-123")).thenReturn("QUEUED");
+
+        // When
+        CompletableFuture<ResponseEntity<ReservationResponseDto>> result = controller.reserveNearest(requestDto, null);
+        completionRegistry.complete("request-123", "FAILED: User already has an active reservation");
+
+        // Then
+        ResponseEntity<ReservationResponseDto> response = result.join();
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(new ReservationResponseDto("request-123", "FAILED: User already has an active reservation"),
+            response.getBody());
+    }
+
+    @Test
+    void shouldAnswerConflictWhenQueuedBulkRequestFailsWithinBudget() {
+        // Given
+        ReservationController controller = queueingController(5000);
+        BulkReservationRequestDto requestDto = new BulkReservationRequestDto();
+        requestDto.setEmails(List.of("a@example.com"));
+        when(reservationQueueService.enqueueBulkReservationRequest(requestDto)).thenReturn("request-456");
+        when(reservationQueueService.getRequestStatus("request-456")).thenReturn("FAILED: No available time slots");
+
+        // When
+        ResponseEntity<BulkReservationResponseDto> response = controller.reserveBulk(requestDto).join();
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(new BulkReservationResponseDto("request-456", "FAILED: No available time slots", null),
+            response.getBody());
+    }
+
+    @Test
+    void shouldAcceptQueuedRequestWhenBudgetRunsOut() {
+        // Given
+        ReservationController controller = queueingController(20);
+        ReservationRequestDto requestDto = new ReservationRequestDto();
+        requestDto.setEmail("test@example.com");
+        when(reservationQueueService.enqueueReservationRequest(requestDto)).thenReturn("request-123");
+        when(reservationQueueService.getRequestStatus("request-123")).thenReturn("QUEUED");
+
+        // When
+        ResponseEntity<ReservationResponseDto> response = controller.reserveNearest(requestDto, null).join();
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(new ReservationResponseDto("request-123", "QUEUED"), response.getBody());
+    }
+
+    @Test
+    void shouldQueueBulkReservationUnderHighLoad() {
+        // Given
+        BulkReservationRequestDto requestDto = new BulkReservationRequestDto();
+        requestDto.setEmails(List.of("a@example.com", "b@example.com"));
+        when(loadMonitoringService.shouldQueueRequest()).thenReturn(true);
+        when(reservationQueueService.enqueueBulkReservationRequest(requestDto)).thenReturn("request-456");
+        when(reservationQueueService.getRequestStatus("request-456")).thenReturn("QUEUED");
+
+        // When
+        ResponseEntity<BulkReservationResponseDto> response = reservationController.reserveBulk(requestDto).join();
+
+        // Then
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(new BulkReservationResponseDto("request-456", "QUEUED", null), response.getBody());
+        verify(bulkReservationService).validate(requestDto);
+        verify(bulkReservationService, never()).reserve(any());
+        verify(loadMonitoringService).decrementActiveRequests();
+    }
+
+    @Test
+    void shouldAnswerConflictWhenNoBulkEntryWasReserved() {
+        // Given
+        BulkReservationRequestDto requestDto = new BulkReservationRequestDto();
+        requestDto.setEmails(List.of("a@example.com"));
+        List<BulkReservationResultDto> results = List.of(
+            BulkReservationResultDto.failed("a@example.com", "No available time slots"));
+        when(bulkReservationService.reserve(requestDto)).thenReturn(results);
+
+        // When
+        ResponseEntity<BulkReservationResponseDto> response = reservationController.reserveBulk(requestDto).join();
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(new BulkReservationResponseDto("direct-bulk", "FAILED: No available time slots", results),
+            response.getBody());
+        verifyNoInteractions(reservationQueueService);
     }
 
     @Test
@@ -60,7 +230,7 @@ class ReservationControllerTest {
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(status, response.getBody());
+        assertEquals(new ReservationResponseDto(requestId, status), response.getBody());
         verify(reservationQueueService).getRequestStatus(requestId);
     }
 
@@ -79,6 +249,12 @@ class ReservationControllerTest {
         verify(reservationQueueService).getRequestStatus(requestId);
     }
 
+    private ReservationController queueingController(long awaitResultMillis) {
+        when(loadMonitoringService.shouldQueueRequest()).thenReturn(true);
+        ReflectionTestUtils.setField(reservationController, "awaitResultMillis", awaitResultMillis);
+        return reservationController;
+    }
+
     @Test
     void shouldCancelReservation() {
         // Given
@@ -0,0 +1,109 @@
+package com.azki.reservation.jdbc;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueryMetricsListenerTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private QueryMetricsListener listener;
+    private DataSource proxy;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        listener = new QueryMetricsListener(meterRegistry, 500, 200, 0.0, 3);
+        proxy = ProxyDataSourceBuilder.create("test", dataSource)
+            .listener(listener)
+            .proxyResultSet()
+            .methodListener(listener)
+            .build();
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        lenient().when(statement.executeQuery()).thenReturn(resultSet);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestStatementScope.close();
+    }
+
+    @Test
+    void shouldGroupInListsOfDifferentSizeIntoOneShapeAndCountRows() throws Exception {
+        // Given
+        when(resultSet.next()).thenReturn(true, true, false, true, false);
+
+        // When
+        select("select * from users u where u.id in (?, ?)");
+        select("select * from users u where u.id in (?, ?, ?)");
+
+        // Then
+        QueryShape shape = QueryShape.of("select * from users u where u.id in (?)");
+        Timer timer = meterRegistry.get("reservation.jdbc.query.time").tag("shape", shape.id()).timer();
+        assertEquals(2, timer.count());
+        // Sub-millisecond statements are still timed
+        assertTrue(timer.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals("users", shape.table());
+        assertEquals(3.0, meterRegistry.get("reservation.jdbc.query.rows").tag("shape", shape.id())
+            .summary().totalAmount());
+    }
+
+    @Test
+    void shouldFlagRepeatedSelectsInOneScope() throws Exception {
+        // Given
+        when(resultSet.next()).thenReturn(false);
+        RequestStatementScope scope = RequestStatementScope.open();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            select("select * from reservations r where r.user_id = ?");
+        }
+        RequestStatementScope.close();
+        listener.completeScope(scope, "/api/v1/reservations");
+
+        // Then
+        assertEquals(3, scope.total());
+        assertEquals(1.0, meterRegistry.get("reservation.jdbc.n_plus_one")
+            .tag("route", "/api/v1/reservations").counter().count());
+        assertEquals(3.0, meterRegistry.get("reservation.jdbc.statements.per_request").summary().totalAmount());
+    }
+
+    private void select(String sql) throws Exception {
+        try (Connection c = proxy.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                // Consume the result like Hibernate does
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.azki.reservation.jdbc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Connection primaryConnection;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReplicaLagMonitor lagMonitor;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        lagMonitor = new ReplicaLagMonitor(replica, meterRegistry, 1000, 500);
+        routing = new ReplicaRoutingDataSource(replica, primary, lagMonitor, meterRegistry);
+    }
+
+    @Test
+    void shouldReadFromPrimaryUntilTheReplicaWasChecked() throws Exception {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verify(replica, never()).getConnection();
+        assertEquals(1.0, reads("primary"));
+    }
+
+    @Test
+    void shouldReadFromReplicaWithinMaxLag() throws Exception {
+        // Given
+        replicaLagging(0.2);
+        lagMonitor.sample();
+
+        // When
+        Connection connection = routing.getConnection();
+
+        // Then
+        assertSame(replicaConnection, connection);
+        assertEquals(1.0, reads("replica"));
+        assertEquals(0.2, meterRegistry.get("reservation.datasource.replica.lag").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void shouldReadFromPrimaryWhenReplicaLagsTooFarBehind() throws Exception {
+        // Given
+        replicaLagging(5.0);
+        lagMonitor.sample();
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        assertEquals(1.0, reads("primary"));
+        assertEquals(0.0, reads("replica"));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicaRefusesConnection() throws Exception {
+        // Given
+        replicaLagging(0.0);
+        lagMonitor.sample();
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routing.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        assertFalse(lagMonitor.isUsable());
+        assertEquals(1.0, reads("primary"));
+    }
+
+    @Test
+    void shouldRouteConnectionsWithCredentialsToTheChosenPool() throws Exception {
+        // Given
+        replicaLagging(0.0);
+        lagMonitor.sample();
+        when(replica.getConnection("reader", "secret")).thenReturn(replicaConnection);
+
+        // When
+        Connection connection = routing.getConnection("reader", "secret");
+
+        // Then
+        assertSame(replicaConnection, connection);
+        verify(primary, never()).getConnection("reader", "secret");
+        assertEquals(1.0, reads("replica"));
+    }
+
+    @Test
+    void shouldStopUsingReplicaWhenLagCheckFails() throws Exception {
+        // Given
+        replicaLagging(0.0);
+        lagMonitor.sample();
+        assertTrue(lagMonitor.isUsable());
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When
+        lagMonitor.sample();
+
+        // Then
+        assertFalse(lagMonitor.isUsable());
+        assertEquals(1.0, meterRegistry.get("reservation.datasource.replica.lag.failures").counter().count());
+        assertTrue(Double.isNaN(meterRegistry.get("reservation.datasource.replica.lag").gauge().value()));
+    }
+
+    private void replicaLagging(double seconds) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaLagMonitor.LAG_QUERY)).thenReturn(resultSet);
+        when(resultSet.getMetaData()).thenReturn(metaData);
+        when(metaData.getColumnCount()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getDouble(1)).thenReturn(seconds);
+    }
+
+    private double reads(String pool) {
+        return meterRegistry.get("reservation.datasource.reads").tag("pool", pool).counter().count();
+    }
+}
@@ -0,0 +1,78 @@
+package com.azki.reservation.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationEventsTest {
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS = List.of(
+        SlotClaimEvent.class, OptimisticLockFailureEvent.class, SlotCacheLoadEvent.class,
+        QueueDequeueEvent.class, QueueProcessEvent.class, QueueAckEvent.class, ExpiryChunkEvent.class);
+
+    @Test
+    void shouldBeDisabledWithoutARecording() {
+        for (Class<? extends jdk.jfr.Event> eventClass : EVENTS) {
+            assertFalse(EventType.getEventType(eventClass).isEnabled(), eventClass.getSimpleName());
+        }
+    }
+
+    @Test
+    void shouldEnableEveryEventInBundledProfile() throws Exception {
+        // When
+        Map<String, String> settings = loadProfile().getSettings();
+
+        // Then
+        for (Class<? extends jdk.jfr.Event> eventClass : EVENTS) {
+            String name = EventType.getEventType(eventClass).getName();
+            assertEquals("true", settings.get(name + "#enabled"), name);
+        }
+    }
+
+    @Test
+    void shouldRecordEventsWithBundledProfile(@TempDir Path tempDir) throws Exception {
+        // Given
+        Path file = tempDir.resolve("reservation.jfr");
+        try (Recording recording = new Recording(loadProfile())) {
+            recording.start();
+
+            // When
+            SlotCacheLoadEvent event = new SlotCacheLoadEvent();
+            event.begin();
+            event.end();
+            assertTrue(event.shouldCommit());
+            event.slotId = 42;
+            event.commit();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        // Then
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.azki.reservation.SlotCacheLoad"))
+                .toList();
+        assertEquals(1, events.size());
+        assertEquals(42L, events.getFirst().getLong("slotId"));
+    }
+
+    private static Configuration loadProfile() throws Exception {
+        try (Reader reader = new InputStreamReader(
+                ReservationEventsTest.class.getResourceAsStream("/jfr/reservation.jfc"), StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.azki.reservation.jfr;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    void shouldRecordVirtualThreadBlockingInsideSynchronized() throws Exception {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor pinningMonitor = new VirtualThreadPinningMonitor(meterRegistry, 10);
+        pinningMonitor.start();
+
+        try {
+            // When
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    sleep(50);
+                }
+            }).join();
+
+            // Then: events reach the stream when the recording is flushed, about once a second
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (meterRegistry.get("reservation.virtual_threads.pinned").timer().count() == 0
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertEquals(1, meterRegistry.get("reservation.virtual_threads.pinned").timer().count());
+        } finally {
+            pinningMonitor.shutdown();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
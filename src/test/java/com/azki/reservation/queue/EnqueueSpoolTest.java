@@ -0,0 +1,135 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.dto.reservation.ReservationRequestDto;
+import com.azki.reservation.exception.ReservationCapacityExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EnqueueSpoolTest {
+
+    private static final int SEGMENT_BYTES = 512;
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private EnqueueSpool spool;
+
+    @AfterEach
+    void closeSpool() {
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    @Test
+    void shouldRecoverUnreplayedItemsAfterRestart() throws IOException {
+        // Given
+        spool = open(4);
+        assertTrue(spool.append(item("a@example.com", "r1"), "QUEUED"));
+        assertTrue(spool.append(item("b@example.com", "r2"), "QUEUED"));
+        assertFalse(spool.append(item("a@example.com", "r3"), "QUEUED"));
+        spool.commit(spool.read(1));
+        spool.close();
+
+        // When
+        spool = open(4);
+        List<EnqueueSpool.SpooledItem> items = spool.read(10);
+
+        // Then
+        assertEquals(1, items.size());
+        assertEquals("r2", items.getFirst().item().requestId);
+        assertEquals("b@example.com", items.getFirst().item().request.getEmail());
+        assertEquals("QUEUED", items.getFirst().status());
+        assertNull(spool.pendingStatus("r1"));
+        assertEquals("QUEUED", spool.pendingStatus("r2"));
+        assertTrue(spool.isEmailPending("b@example.com"));
+        assertFalse(spool.isEmailPending("a@example.com"));
+    }
+
+    @Test
+    void shouldSkipCorruptTailAndKeepAppending() throws IOException {
+        // Given
+        spool = open(4);
+        spool.append(item("a@example.com", "r1"), "QUEUED");
+        spool.append(item("b@example.com", "r2"), "QUEUED");
+        spool.close();
+        Path segment = segments().getFirst();
+        int secondRecord;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            secondRecord = 8 + header.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), secondRecord + 8);
+        }
+
+        // When
+        spool = open(4);
+        spool.append(item("c@example.com", "r3"), "QUEUED");
+        List<EnqueueSpool.SpooledItem> items = spool.read(10);
+
+        // Then
+        assertEquals(List.of("r1", "r3"), items.stream().map(spooled -> spooled.item().requestId).toList());
+        assertNull(spool.pendingStatus("r2"));
+        assertEquals(1.0, meterRegistry.get("reservation.queue.spool.corrupt").counter().count());
+    }
+
+    @Test
+    void shouldRollSegmentsAndDeleteThemOnceReplayed() throws IOException {
+        // Given
+        spool = open(3);
+        int appended = 0;
+        try {
+            while (appended < 100) {
+                spool.append(item("user" + appended + "@example.com", "r" + appended), "QUEUED");
+                appended++;
+            }
+            fail("Expected the spool to fill up");
+        } catch (ReservationCapacityExceededException e) {
+            // All segments are full
+        }
+        assertEquals(3, segments().size());
+
+        // When
+        List<EnqueueSpool.SpooledItem> items = spool.read(appended);
+        spool.commit(items);
+
+        // Then
+        assertEquals(appended, items.size());
+        assertEquals("r" + (appended - 1), items.getLast().item().requestId);
+        assertEquals(1, segments().size());
+        assertEquals(0, spool.pendingCount());
+        assertTrue(spool.append(item("late@example.com", "late"), "QUEUED"));
+    }
+
+    private EnqueueSpool open(int maxSegments) throws IOException {
+        return new EnqueueSpool(objectMapper, meterRegistry, directory, SEGMENT_BYTES, maxSegments, 1, true, 1000);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".spool")).sorted().toList();
+        }
+    }
+
+    private static QueueItem item(String email, String requestId) {
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail(email);
+        return new QueueItem(request, 0, requestId, System.currentTimeMillis(), null);
+    }
+}
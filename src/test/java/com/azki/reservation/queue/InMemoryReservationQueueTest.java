@@ -0,0 +1,73 @@
+package com.azki.reservation.queue;
+
+import com.azki.reservation.dto.reservation.ReservationRequestDto;
+import com.azki.reservation.exception.ReservationCapacityExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryReservationQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryReservationQueue queue = new InMemoryReservationQueue(meterRegistry, 2, 2, 100, 24);
+
+    @Test
+    void shouldRejectSecondRequestForQueuedEmailUntilAcked() {
+        // Given
+        assertTrue(queue.enqueue(item("a@example.com", "r1"), "QUEUED"));
+
+        // When
+        boolean duplicate = queue.enqueue(item("a@example.com", "r2"), "QUEUED");
+        QueueItem dequeued = queue.dequeue(10).getFirst();
+        queue.ack(dequeued, "SUCCESS");
+
+        // Then
+        assertFalse(duplicate);
+        assertNull(queue.status("r2"));
+        assertEquals("SUCCESS", queue.currentStatus("r1"));
+        assertFalse(queue.isQueued("a@example.com"));
+        assertTrue(queue.enqueue(item("a@example.com", "r3"), "QUEUED"));
+    }
+
+    @Test
+    void shouldRejectWhenFullAndReleaseTheMarker() {
+        // Given
+        queue.enqueue(item("a@example.com", "r1"), "QUEUED");
+        queue.enqueue(item("b@example.com", "r2"), "QUEUED");
+
+        // When/Then
+        assertThrows(ReservationCapacityExceededException.class,
+            () -> queue.enqueue(item("c@example.com", "r3"), "QUEUED"));
+        assertFalse(queue.isQueued("c@example.com"));
+        assertNull(queue.status("r3"));
+        assertEquals(2, queue.size());
+        assertEquals(1.0, meterRegistry.get("reservation.queue.rejected").counter().count());
+    }
+
+    @Test
+    void shouldRequeueNackedItemsAndDropOldestDeadLetterWhenFull() {
+        // Given
+        queue.enqueue(item("a@example.com", "r1"), "QUEUED");
+        List<QueueItem> batch = queue.dequeue(10);
+
+        // When
+        assertTrue(queue.nack(batch.getFirst()));
+        queue.deadLetter(item("x@example.com", "d1"));
+        queue.deadLetter(item("y@example.com", "d2"));
+        queue.deadLetter(item("z@example.com", "d3"));
+
+        // Then
+        assertEquals(new QueueLengths(1, 2), queue.lengths());
+        assertEquals("r1", queue.dequeue(10).getFirst().requestId);
+        assertEquals(1.0, meterRegistry.get("reservation.dlq.dropped").counter().count());
+    }
+
+    private static QueueItem item(String email, String requestId) {
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail(email);
+        return new QueueItem(request, 0, requestId, System.currentTimeMillis(), null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.azki.reservation.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpmcRingBufferTest {
+
+    @Test
+    void shouldReturnElementsInFifoOrderAcrossLaps() {
+        // Given
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(4);
+
+        // When/Then: three laps around the four cells
+        for (int i = 0; i < 12; i += 2) {
+            assertTrue(buffer.offer(i));
+            assertTrue(buffer.offer(i + 1));
+            assertEquals(i, buffer.poll());
+            assertEquals(i + 1, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void shouldRejectOfferWhenFull() {
+        // Given: capacity 3 rounds up to 4
+        MpmcRingBuffer<String> buffer = new MpmcRingBuffer<>(3);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer("item" + i));
+        }
+
+        // When
+        boolean accepted = buffer.offer("overflow");
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(4, buffer.capacity());
+        assertEquals(4, buffer.size());
+        assertEquals("item0", buffer.poll());
+        assertTrue(buffer.offer("overflow"));
+    }
+
+    @Test
+    void shouldDeliverEveryElementExactlyOnceUnderContention() throws Exception {
+        // Given: more elements than cells, so producers and consumers lap each other many times
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 20_000;
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(64);
+        ConcurrentHashMap<Integer, Boolean> received = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(producers * perProducer);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+
+        // When
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (remaining.get() > 0) {
+                        Integer element = buffer.poll();
+                        if (element == null) {
+                            Thread.yield();
+                        } else {
+                            if (received.putIfAbsent(element, Boolean.TRUE) != null) {
+                                duplicates.incrementAndGet();
+                            }
+                            remaining.decrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertEquals(0, duplicates.get());
+        assertEquals(producers * perProducer, received.size());
+        assertNull(buffer.poll());
+    }
+}
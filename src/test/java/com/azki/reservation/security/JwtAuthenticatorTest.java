@@ -0,0 +1,82 @@
+package com.azki.reservation.security;
+
+import com.azki.reservation.entity.User;
+import com.azki.reservation.security.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticatorTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123";
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000);
+    private JwtAuthenticator jwtAuthenticator;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtAuthenticator = new JwtAuthenticator(jwtUtil, tokenRevocationService, new SimpleMeterRegistry(), 100, 30);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("test@example.com");
+    }
+
+    @Test
+    void shouldAuthenticateValidTokenAndCacheTheResult() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+
+        // When
+        Optional<AuthenticatedUser> first = jwtAuthenticator.authenticate(token);
+        Optional<AuthenticatedUser> second = jwtAuthenticator.authenticate(token);
+
+        // Then
+        assertEquals(42L, first.orElseThrow().userId());
+        assertEquals(first, second);
+        verify(tokenRevocationService, times(1)).isRevoked(any());
+    }
+
+    @Test
+    void shouldRejectRevokedToken() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+        when(tokenRevocationService.isRevoked(any())).thenReturn(true);
+
+        // When/Then
+        assertTrue(jwtAuthenticator.authenticate(token).isEmpty());
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Given
+        String token = new JwtUtil(SECRET, -1_000).generateToken(user);
+
+        // When/Then
+        assertTrue(jwtAuthenticator.authenticate(token).isEmpty());
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    void shouldRejectTokenWhenRevocationCannotBeChecked() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+        when(tokenRevocationService.isRevoked(any())).thenThrow(new IllegalStateException("Connection refused"));
+
+        // When/Then
+        assertTrue(jwtAuthenticator.authenticate(token).isEmpty());
+    }
+}
@@ -0,0 +1,74 @@
+package com.azki.reservation.security;
+
+import com.azki.reservation.entity.UserChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final String KEY = "reservation:auth:revoked-before:{42}";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        tokenRevocationService = new TokenRevocationService(redisTemplate);
+        ReflectionTestUtils.setField(tokenRevocationService, "tokenExpirationMillis", 86_400_000L);
+    }
+
+    @Test
+    void shouldRevokeTokensOfChangedUserForTheTokenLifetime() {
+        // When
+        tokenRevocationService.onUserChanged(new UserChangedEvent(42L, "test@example.com"));
+
+        // Then
+        verify(valueOperations).set(eq(KEY), anyLong(), eq(Duration.ofDays(1)));
+    }
+
+    @Test
+    void shouldRejectTokensIssuedUpToTheRevocation() {
+        // Given
+        Instant revokedAt = Instant.now();
+        when(valueOperations.get(KEY)).thenReturn(revokedAt.toEpochMilli());
+
+        // When/Then
+        assertTrue(tokenRevocationService.isRevoked(user(revokedAt.minusSeconds(60))));
+        assertTrue(tokenRevocationService.isRevoked(user(revokedAt)));
+        assertFalse(tokenRevocationService.isRevoked(user(revokedAt.plusSeconds(1))));
+    }
+
+    @Test
+    void shouldAcceptTokensOfUsersNeverRevoked() {
+        // Given
+        when(valueOperations.get(KEY)).thenReturn(null);
+
+        // When/Then
+        assertFalse(tokenRevocationService.isRevoked(user(Instant.now())));
+    }
+
+    private static AuthenticatedUser user(Instant issuedAt) {
+        return new AuthenticatedUser(42L, "test@example.com", List.of("USER"), issuedAt, issuedAt.plusSeconds(3600));
+    }
+}
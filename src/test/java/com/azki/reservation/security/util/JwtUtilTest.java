@@ -0,0 +1,60 @@
+package com.azki.reservation.security.util;
+
+import com.azki.reservation.entity.User;
+import com.azki.reservation.security.AuthenticatedUser;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123";
+
+    private JwtUtil jwtUtil;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(SECRET, 60_000);
+        user = new User();
+        user.setId(42L);
+        user.setEmail("test@example.com");
+    }
+
+    @Test
+    void shouldCarryUserIdAndRolesInToken() {
+        // Given
+        String token = jwtUtil.generateToken(user);
+
+        // When
+        AuthenticatedUser authenticated = jwtUtil.parse(token);
+
+        // Then
+        assertEquals(42L, authenticated.userId());
+        assertEquals("test@example.com", authenticated.email());
+        assertEquals(List.of("USER"), authenticated.roles());
+        assertTrue(authenticated.expiresAt().isAfter(authenticated.issuedAt()));
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherKey() {
+        // Given
+        String token = new JwtUtil(SECRET + "-other", 60_000).generateToken(user);
+
+        // When/Then
+        assertThrows(JwtException.class, () -> jwtUtil.parse(token));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Given
+        String token = new JwtUtil(SECRET, -1_000).generateToken(user);
+
+        // When/Then
+        assertThrows(JwtException.class, () -> jwtUtil.parse(token));
+    }
+}
@@ -0,0 +1,161 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.util.RedisKeys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityHistogramTest {
+
+    private static final List<String> KEYS = List.of(
+            RedisKeys.AVAILABILITY, RedisKeys.AVAILABILITY_VERSION, RedisKeys.AVAILABILITY_IN_FLIGHT);
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AvailabilityHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new AvailabilityHistogram(redisTemplate, redisPipelineExecutor, timeSlotRepository, meterRegistry);
+    }
+
+    @Test
+    void shouldAdjustEachHourOnceAndSkipPastDays() {
+        // Given
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 15);
+        long epochDay = tomorrow.toLocalDate().toEpochDay();
+
+        // When
+        histogram.onSlotAvailabilityChanged(SlotAvailabilityEvent.reserved(
+                List.of(tomorrow, tomorrow.plusMinutes(30), LocalDateTime.now().minusDays(1))));
+
+        // Then
+        verify(redisTemplate).execute(script(), argsSerializer(), resultSerializer(),
+                eq(KEYS), eq(""), eq(epochDay + ":10"), eq("-2"));
+    }
+
+    @Test
+    void shouldMarkTheChangeInFlightUntilItsTransactionCommits() {
+        // Given
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(10, 15);
+        long epochDay = tomorrow.toLocalDate().toEpochDay();
+        TransactionSynchronization transaction = publishInTransaction(SlotAvailabilityEvent.reserved(List.of(tomorrow)));
+        verifyNoInteractions(redisTemplate);
+
+        // When
+        transaction.beforeCommit(false);
+        transaction.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+
+        // Then
+        ArgumentCaptor<String> change = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(script(), argsSerializer(), resultSerializer(),
+                eq(List.of(RedisKeys.AVAILABILITY_IN_FLIGHT)), anyString(), change.capture());
+        verify(redisTemplate).execute(script(), argsSerializer(), resultSerializer(),
+                eq(KEYS), eq(change.getValue()), eq(epochDay + ":10"), eq("-1"));
+    }
+
+    @Test
+    void shouldOnlyUnmarkTheChangeWhenItsTransactionRollsBack() {
+        // Given
+        TransactionSynchronization transaction = publishInTransaction(
+                SlotAvailabilityEvent.released(List.of(LocalDateTime.now().plusDays(1))));
+
+        // When
+        transaction.beforeCommit(false);
+        transaction.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        ArgumentCaptor<String> change = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(script(), argsSerializer(), resultSerializer(),
+                eq(List.of(RedisKeys.AVAILABILITY_IN_FLIGHT)), anyString(), change.capture());
+        verify(redisTemplate).execute(script(), argsSerializer(), resultSerializer(), eq(KEYS), eq(change.getValue()));
+    }
+
+    @Test
+    void shouldCountFailedUpdatesInsteadOfFailingTheCaller() {
+        // Given
+        when(redisTemplate.execute(script(), argsSerializer(), resultSerializer(), anyList(), any(Object[].class)))
+                .thenThrow(new IllegalStateException("Connection refused"));
+
+        // When
+        histogram.onSlotAvailabilityChanged(SlotAvailabilityEvent.released(List.of(LocalDateTime.now().plusDays(1))));
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("reservation.availability.update.failures").counter().count());
+    }
+
+    @Test
+    void shouldRetryRebuildWhenHistogramChangedMeanwhile() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(RedisKeys.AVAILABILITY_VERSION)).thenReturn(5L, 6L);
+        when(redisTemplate.execute(script(), argsSerializer(), resultSerializer(), anyList(), any(Object[].class)))
+                .thenReturn(-1L, 7L);
+
+        // When
+        histogram.rebuild();
+
+        // Then
+        verify(timeSlotRepository, times(2)).countFreeSlotsByHour(any(LocalDateTime.class));
+        assertEquals(1.0, rebuilds("conflict"));
+        assertEquals(1.0, rebuilds("applied"));
+    }
+
+    private TransactionSynchronization publishInTransaction(SlotAvailabilityEvent event) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            histogram.onSlotAvailabilityChanged(event);
+            return TransactionSynchronizationManager.getSynchronizations().getFirst();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static RedisScript<Long> script() {
+        return ArgumentMatchers.any();
+    }
+
+    private static RedisSerializer<?> argsSerializer() {
+        return ArgumentMatchers.any();
+    }
+
+    private static RedisSerializer<Long> resultSerializer() {
+        return ArgumentMatchers.any();
+    }
+
+    private double rebuilds(String outcome) {
+        return meterRegistry.get("reservation.availability.rebuilds").tag("outcome", outcome).counter().count();
+    }
+}
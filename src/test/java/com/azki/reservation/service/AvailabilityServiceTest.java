@@ -0,0 +1,168 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.dto.availability.AvailabilityBucketDto;
+import com.azki.reservation.dto.availability.AvailabilityResponseDto;
+import com.azki.reservation.dto.availability.AvailabilityResponseDto.Granularity;
+import com.azki.reservation.dto.availability.FreeSlotPageDto;
+import com.azki.reservation.exception.AvailabilityNotReadyException;
+import com.azki.reservation.exception.BusinessException;
+import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.FreeSlot;
+import com.azki.reservation.service.AvailabilityHistogram.Snapshot;
+import com.azki.reservation.service.AvailabilityService.Tagged;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2030, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2030, 1, 2);
+
+    @Mock
+    private AvailabilityHistogram availabilityHistogram;
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        availabilityService = new AvailabilityService(availabilityHistogram, timeSlotRepository);
+        ReflectionTestUtils.setField(availabilityService, "maxDays", 31);
+        ReflectionTestUtils.setField(availabilityService, "maxPageSize", 100);
+    }
+
+    @Test
+    void shouldSumHoursIntoDaysWithFreeSlots() {
+        // Given
+        long[] free = new long[2 * AvailabilityHistogram.HOURS_PER_DAY];
+        free[9] = 2;
+        free[10] = 1;
+        when(availabilityHistogram.read(FROM, TO)).thenReturn(Optional.of(new Snapshot(7, FROM, free)));
+
+        // When
+        Tagged<AvailabilityResponseDto> response = availabilityService.availability(FROM, TO, Granularity.DAY);
+
+        // Then
+        assertEquals(List.of(new AvailabilityBucketDto(FROM, null, 3)), response.body().getBuckets());
+        assertEquals("W/\"7-2030-01-01..2030-01-02\"", response.etag());
+    }
+
+    @Test
+    void shouldListHoursWithFreeSlots() {
+        // Given
+        long[] free = new long[2 * AvailabilityHistogram.HOURS_PER_DAY];
+        free[9] = 2;
+        free[AvailabilityHistogram.HOURS_PER_DAY + 23] = 1;
+        when(availabilityHistogram.read(FROM, TO)).thenReturn(Optional.of(new Snapshot(7, FROM, free)));
+
+        // When
+        Tagged<AvailabilityResponseDto> response = availabilityService.availability(FROM, TO, Granularity.HOUR);
+
+        // Then
+        assertEquals(List.of(new AvailabilityBucketDto(FROM, 9, 2), new AvailabilityBucketDto(TO, 23, 1)),
+                response.body().getBuckets());
+    }
+
+    @Test
+    void shouldLeaveOutHoursThatHaveStarted() {
+        // Given
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDate today = currentHour.toLocalDate();
+        long[] free = new long[AvailabilityHistogram.HOURS_PER_DAY];
+        Arrays.fill(free, 1);
+        when(availabilityHistogram.read(today, today)).thenReturn(Optional.of(new Snapshot(7, today, free)));
+
+        // When
+        Tagged<AvailabilityResponseDto> response = availabilityService.availability(today, today, Granularity.HOUR);
+
+        // Then
+        List<AvailabilityBucketDto> buckets = response.body().getBuckets();
+        assertEquals(AvailabilityHistogram.HOURS_PER_DAY - currentHour.getHour(), buckets.size());
+        assertEquals(currentHour.getHour(), buckets.getFirst().getHour());
+        assertEquals("W/\"7-" + today + ".." + today + "@" + currentHour + "\"", response.etag());
+    }
+
+    @Test
+    void shouldRejectRangesLongerThanMaxDays() {
+        // When/Then
+        assertThrows(BusinessException.class,
+                () -> availabilityService.availability(FROM, FROM.plusDays(31), Granularity.DAY));
+        assertThrows(BusinessException.class, () -> availabilityService.availability(TO, FROM, Granularity.DAY));
+        verifyNoInteractions(availabilityHistogram);
+    }
+
+    @Test
+    void shouldReportNotReadyBeforeTheHistogramIsBuilt() {
+        // Given
+        when(availabilityHistogram.version()).thenReturn(OptionalLong.empty());
+
+        // When/Then
+        assertThrows(AvailabilityNotReadyException.class, () -> availabilityService.availabilityEtag(FROM, TO));
+    }
+
+    @Test
+    void shouldPageFreeSlotsWithCursor() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 9, 0);
+        when(availabilityHistogram.version()).thenReturn(OptionalLong.of(7));
+        when(timeSlotRepository.findFreeSlotsAfter(any(LocalDateTime.class), eq(0L), eq(2)))
+                .thenReturn(List.of(slot(1L, start), slot(2L, start.plusHours(1))));
+        when(timeSlotRepository.findFreeSlotsAfter(start.plusHours(1), 2L, 2))
+                .thenReturn(List.of(slot(3L, start.plusHours(2))));
+
+        // When
+        FreeSlotPageDto first = availabilityService.freeSlots(null, 2).body();
+        Tagged<FreeSlotPageDto> second = availabilityService.freeSlots(first.getNextCursor(), 2);
+
+        // Then
+        assertEquals(List.of(1L, 2L), first.getSlots().stream().map(slot -> slot.getId()).toList());
+        assertEquals(List.of(3L), second.body().getSlots().stream().map(slot -> slot.getId()).toList());
+        assertNull(second.body().getNextCursor());
+        assertEquals("W/\"7-2030-01-01T10:00_2\"", second.etag());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        // When/Then
+        assertThrows(BusinessException.class, () -> availabilityService.freeSlots("not-a-cursor", 20));
+        verifyNoInteractions(timeSlotRepository);
+    }
+
+    private static FreeSlot slot(Long id, LocalDateTime startTime) {
+        return new FreeSlot() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return startTime;
+            }
+
+            @Override
+            public LocalDateTime getEndTime() {
+                return startTime.plusHours(1);
+            }
+        };
+    }
+}
@@ -0,0 +1,248 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto;
+import com.azki.reservation.dto.reservation.BulkReservationRequestDto.Mode;
+import com.azki.reservation.dto.reservation.BulkReservationResultDto;
+import com.azki.reservation.dto.user.UserIdentity;
+import com.azki.reservation.exception.BusinessException;
+import com.azki.reservation.repository.ReservationRepository;
+import com.azki.reservation.repository.ReservationRepository.InsertedReservation;
+import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.ClaimedSlot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkReservationServiceTest {
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @Mock
+    private CacheableOperations cacheableOperations;
+
+    @Mock
+    private ReservationExpiryScheduler reservationExpiryScheduler;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MeterRegistry meterRegistry;
+    private BulkReservationService bulkReservationService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkReservationService = new BulkReservationService(
+                timeSlotRepository,
+                reservationRepository,
+                userIdentityCache,
+                cacheableOperations,
+                reservationExpiryScheduler,
+                new ReservationMetrics(meterRegistry, new long[] {10}),
+                Optional::empty,
+                new TransactionTemplate(transactionManager),
+                eventPublisher,
+                meterRegistry
+        );
+        ReflectionTestUtils.setField(bulkReservationService, "maxSize", 100);
+        ReflectionTestUtils.setField(bulkReservationService, "maxSlotsPerEmail", 10);
+    }
+
+    @Test
+    void shouldReserveEveryEntryInOneTransaction() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        knownUsers("a@example.com", "b@example.com");
+        SimpleTransactionStatus transaction = transaction();
+        when(timeSlotRepository.claimAvailableSlots(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(slot(11L, start.plusHours(1)), slot(10L, start)));
+        when(reservationRepository.insertReservations(any(), any(), any(LocalDateTime.class), eq("system")))
+                .thenReturn(List.of(inserted(100L, 10L), inserted(101L, 11L)));
+
+        // When
+        List<BulkReservationResultDto> results = bulkReservationService.reserve(request(Mode.ALL_OR_NOTHING,
+                "a@example.com", "b@example.com"));
+
+        // Then
+        assertEquals(List.of(
+                BulkReservationResultDto.reserved("a@example.com", 100L, start),
+                BulkReservationResultDto.reserved("b@example.com", 101L, start.plusHours(1))), results);
+        assertFalse(transaction.isRollbackOnly());
+        verify(reservationRepository).insertReservations(eq(new Long[] {1L, 2L}), eq(new Long[] {10L, 11L}),
+                any(LocalDateTime.class), eq("system"));
+        verify(cacheableOperations, times(1)).evictNextSlotCache();
+        verify(reservationExpiryScheduler).schedule(eq(100L), any(LocalDateTime.class));
+        verify(reservationExpiryScheduler).schedule(eq(101L), any(LocalDateTime.class));
+        assertEquals("SUCCESS", BulkReservationService.status(results));
+    }
+
+    @Test
+    void shouldReserveNothingWhenAnEntryFailsInAllOrNothingMode() {
+        // Given
+        knownUsers("a@example.com");
+
+        // When
+        List<BulkReservationResultDto> results = bulkReservationService.reserve(request(Mode.ALL_OR_NOTHING,
+                "a@example.com", "unknown@example.com"));
+
+        // Then
+        assertEquals("Not reserved because another entry failed", results.get(0).getReason());
+        assertEquals("User not found for email: unknown@example.com", results.get(1).getReason());
+        verifyNoInteractions(transactionManager, timeSlotRepository);
+        assertEquals("FAILED: User not found for email: unknown@example.com", BulkReservationService.status(results));
+    }
+
+    @Test
+    void shouldRollBackWhenTooFewSlotsInAllOrNothingMode() {
+        // Given
+        knownUsers("a@example.com", "b@example.com");
+        SimpleTransactionStatus transaction = transaction();
+        when(timeSlotRepository.claimAvailableSlots(any(LocalDateTime.class), eq(2)))
+                .thenReturn(List.of(slot(10L, LocalDateTime.now().plusHours(1))));
+
+        // When
+        List<BulkReservationResultDto> results = bulkReservationService.reserve(request(Mode.ALL_OR_NOTHING,
+                "a@example.com", "b@example.com"));
+
+        // Then
+        assertTrue(transaction.isRollbackOnly());
+        assertTrue(results.stream().allMatch(result -> "No available time slots".equals(result.getReason())));
+        verify(reservationRepository, never()).insertReservations(any(), any(), any(), any());
+        verify(cacheableOperations, never()).evictNextSlotCache();
+    }
+
+    @Test
+    void shouldRepeatTheReservationCheckInsideTheWriteTransaction() {
+        // Given: the first check is answered by a replica that has not seen b's reservation yet
+        knownUsers("a@example.com", "b@example.com");
+        when(reservationRepository.findEmailsWithReservationAfter(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of())
+                .thenReturn(List.of("b@example.com"));
+        transaction();
+
+        // When
+        List<BulkReservationResultDto> results = bulkReservationService.reserve(request(Mode.ALL_OR_NOTHING,
+                "a@example.com", "b@example.com"));
+
+        // Then
+        assertEquals("Not reserved because another entry failed", results.get(0).getReason());
+        assertEquals("User already has an active reservation", results.get(1).getReason());
+        verify(reservationRepository, times(2)).findEmailsWithReservationAfter(anyCollection(), any(LocalDateTime.class));
+        verifyNoInteractions(timeSlotRepository);
+        verify(reservationRepository, never()).insertReservations(any(), any(), any(), any());
+        assertEquals("FAILED: User already has an active reservation", BulkReservationService.status(results));
+    }
+
+    @Test
+    void shouldReserveWhatItCanInBestEffortMode() {
+        // Given
+        LocalDateTime start = LocalDateTime.now().plusHours(1);
+        knownUsers("a@example.com", "b@example.com");
+        when(reservationRepository.findEmailsWithReservationAfter(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(List.of("a@example.com"));
+        transaction();
+        when(timeSlotRepository.claimAvailableSlots(any(LocalDateTime.class), eq(1)))
+                .thenReturn(List.of(slot(10L, start)));
+        when(reservationRepository.insertReservations(any(), any(), any(LocalDateTime.class), eq("system")))
+                .thenReturn(List.of(inserted(100L, 10L)));
+
+        // When
+        List<BulkReservationResultDto> results = bulkReservationService.reserve(request(Mode.BEST_EFFORT,
+                "a@example.com", "b@example.com"));
+
+        // Then
+        assertEquals("User already has an active reservation", results.get(0).getReason());
+        assertEquals(BulkReservationResultDto.reserved("b@example.com", 100L, start), results.get(1));
+        assertEquals("SUCCESS: 1 of 2 reserved", BulkReservationService.status(results));
+        assertEquals(1.0, meterRegistry.get("reservation.bulk.entries").tag("outcome", "reserved").counter().count());
+        assertEquals(1.0, meterRegistry.get("reservation.bulk.entries").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void shouldRejectMoreSlotsPerEmailThanThePolicyAllows() {
+        // Given
+        BulkReservationRequestDto request = new BulkReservationRequestDto();
+        request.setEmail("a@example.com");
+        request.setCount(11);
+
+        // When/Then
+        assertThrows(BusinessException.class, () -> bulkReservationService.reserve(request));
+        verifyNoInteractions(userIdentityCache, transactionManager);
+    }
+
+    private void knownUsers(String... emails) {
+        for (int i = 0; i < emails.length; i++) {
+            UserIdentity user = new UserIdentity(i + 1L, emails[i], "user" + (i + 1));
+            when(userIdentityCache.findByEmail(emails[i])).thenReturn(Optional.of(user));
+        }
+    }
+
+    private SimpleTransactionStatus transaction() {
+        SimpleTransactionStatus transaction = new SimpleTransactionStatus();
+        when(transactionManager.getTransaction(any())).thenReturn(transaction);
+        return transaction;
+    }
+
+    private static BulkReservationRequestDto request(Mode mode, String... emails) {
+        BulkReservationRequestDto request = new BulkReservationRequestDto();
+        request.setEmails(List.of(emails));
+        request.setMode(mode);
+        return request;
+    }
+
+    private static ClaimedSlot slot(Long id, LocalDateTime startTime) {
+        return new ClaimedSlot() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return startTime;
+            }
+        };
+    }
+
+    private static InsertedReservation inserted(Long id, Long slotId) {
+        return new InsertedReservation() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getSlotId() {
+                return slotId;
+            }
+        };
+    }
+}
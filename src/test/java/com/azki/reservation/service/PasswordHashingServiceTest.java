@@ -0,0 +1,77 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.exception.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingService passwordHashingService;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    void shouldVerifyPasswordOnHashingExecutor() throws Exception {
+        // Given
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1);
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+
+        // When
+        boolean matched = passwordHashingService.matches("secret", "hash").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertTrue(matched);
+        assertEquals(1, meterRegistry.get("reservation.password.hash.time").tag("operation", "verify").timer().count());
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() throws Exception {
+        // Given: one busy thread and a queue of one
+        passwordHashingService = new PasswordHashingService(passwordEncoder, meterRegistry, 1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(passwordEncoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        CompletableFuture<Boolean> running = passwordHashingService.matches("a", "hash");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = passwordHashingService.matches("b", "hash");
+
+        // When
+        CompletableFuture<Boolean> rejected = passwordHashingService.matches("c", "hash");
+
+        // Then
+        ExecutionException exception = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(PasswordHashingOverloadedException.class, exception.getCause());
+        assertEquals(1.0, meterRegistry.get("reservation.password.rejected").counter().count());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,111 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.queue.RedisReservationQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueueStatsSamplerTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationQueueMetrics queueMetrics;
+    private QueueStatsSampler sampler;
+
+    @BeforeEach
+    void setUp() {
+        queueMetrics = new ReservationQueueMetrics(meterRegistry, 60);
+        RedisReservationQueue reservationQueue = new RedisReservationQueue(redisTemplate, redisTemplate, redisPipelineExecutor,
+            new ObjectMapper(), meterRegistry, 600000, 24);
+        sampler = new QueueStatsSampler(reservationQueue, queueMetrics, meterRegistry, 5000);
+    }
+
+    @Test
+    void shouldServeGaugesFromLastSample() {
+        // Given
+        when(redisPipelineExecutor.execute(any())).thenReturn(List.of(7L, 2L));
+        queueMetrics.onDequeued(System.currentTimeMillis());
+
+        // When
+        sampler.sample();
+
+        // Then
+        QueueStats stats = sampler.snapshot();
+        assertEquals(7, stats.queueLength());
+        assertEquals(2, stats.dlqLength());
+        assertEquals(1, stats.inFlight());
+        assertEquals(7.0, meterRegistry.get("reservation.queue.length").gauge().value());
+        assertEquals(2.0, meterRegistry.get("reservation.dlq.length").gauge().value());
+
+        // Scrapes read the snapshot, not Redis
+        meterRegistry.get("reservation.queue.length").gauge().value();
+        verify(redisPipelineExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    void shouldKeepLastSnapshotWhenRedisFails() {
+        // Given
+        when(redisPipelineExecutor.execute(any()))
+            .thenReturn(List.of(3L, 0L))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        sampler.sample();
+
+        // When
+        sampler.sample();
+
+        // Then
+        assertEquals(3, sampler.snapshot().queueLength());
+        assertNotNull(sampler.lastFailure());
+        assertEquals(1.0, meterRegistry.get("reservation.queue.stats.failures").counter().count());
+    }
+
+    @Test
+    void shouldDetectStalledBacklogWithoutDequeuing() {
+        // Given: a backlog that grows while this instance never dequeues
+        when(redisPipelineExecutor.execute(any()))
+            .thenReturn(List.of(5L, 0L))
+            .thenReturn(List.of(5L, 0L))
+            .thenReturn(List.of(8L, 0L))
+            .thenReturn(List.of(4L, 0L));
+        sampler.sample();
+        long firstSample = sampler.snapshot().sampledAt();
+        assertEquals(0, sampler.snapshot().stalledSince());
+
+        // When
+        sampler.sample();
+        sampler.sample();
+
+        // Then
+        assertEquals(firstSample, sampler.snapshot().stalledSince());
+        assertEquals(0.0, sampler.snapshot().oldestAgeSeconds());
+
+        // A shrinking backlog is draining somewhere
+        sampler.sample();
+        assertEquals(0, sampler.snapshot().stalledSince());
+    }
+
+    @Test
+    void shouldEstimateDrainTimeFromDrainRate() {
+        assertEquals(0, new QueueStats(0, 0, 0, 0, 0, 0, 0, 0).estimatedDrainSeconds());
+        assertEquals(50, new QueueStats(100, 0, 0, 2, 0, 0, 0, 0).estimatedDrainSeconds());
+        assertTrue(Double.isInfinite(new QueueStats(1, 0, 0, 0, 0, 0, 0, 0).estimatedDrainSeconds()));
+    }
+}
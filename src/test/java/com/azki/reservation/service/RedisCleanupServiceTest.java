@@ -0,0 +1,150 @@
+package com.azki.reservation.service;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisCleanupServiceTest {
+
+    private static final String CURSORS = "reservation:maintenance:status-scan-cursors";
+    private static final byte[] WITHOUT_TTL = "reservation:status:{1}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] WITH_TTL = "reservation:status:{2}".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisKeyAsyncCommands<byte[], byte[]> commands;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RedisCleanupService cleanupService;
+
+    @BeforeEach
+    void setUp() {
+        cleanupService = new RedisCleanupService(redisTemplate, meterRegistry);
+        ReflectionTestUtils.setField(cleanupService, "statusExpiryHours", 24);
+        ReflectionTestUtils.setField(cleanupService, "scanCount", 500);
+        ReflectionTestUtils.setField(cleanupService, "maxKeysPerRun", 100000);
+        ReflectionTestUtils.setField(cleanupService, "maxKeysPerSecond", 0);
+        ReflectionTestUtils.setField(cleanupService, "commandTimeoutMillis", 1000L);
+
+        doReturn(hashOperations).when(redisTemplate).opsForHash();
+        lenient().when(connection.getNativeConnection()).thenReturn(commands);
+        when(redisTemplate.execute(ArgumentMatchers.<RedisCallback<Object>>any())).thenAnswer(invocation -> {
+            RedisCallback<?> callback = invocation.getArgument(0);
+            return callback.doInRedis(connection);
+        });
+    }
+
+    @Test
+    void shouldApplyTtlOnlyToStatusKeysWithoutOne() {
+        // Given
+        when(hashOperations.keys(CURSORS)).thenReturn(Set.of("standalone", "departed-node"));
+        scanReturns(scanPage("0", true, WITHOUT_TTL, WITH_TTL));
+        ttlReturns(WITHOUT_TTL, -1L);
+        ttlReturns(WITH_TTL, 3600L);
+        RedisFuture<Boolean> expired = completed(true);
+        when(commands.expire(WITHOUT_TTL, TimeUnit.HOURS.toSeconds(24))).thenReturn(expired);
+
+        // When
+        cleanupService.cleanupOldStatusKeys();
+
+        // Then
+        verify(commands, never()).expire(eq(WITH_TTL), anyLong());
+        verify(hashOperations).delete(CURSORS, "departed-node");
+        verify(hashOperations).delete(CURSORS, "standalone");
+        verify(redisTemplate).unlink(List.of("reservation:emails:queued", "reservation:emails:request",
+                "reservation:maintenance:status-scan-cursor"));
+        assertEquals(2.0, meterRegistry.get("reservation.cleanup.keys.scanned").counter().count());
+        assertEquals(1.0, meterRegistry.get("reservation.cleanup.ttl.applied").counter().count());
+    }
+
+    @Test
+    void shouldResumeFromStoredCursorAndStoreWhereTheRunStopped() {
+        // Given
+        ReflectionTestUtils.setField(cleanupService, "maxKeysPerRun", 1);
+        when(hashOperations.keys(CURSORS)).thenReturn(Set.of("standalone"));
+        when(hashOperations.get(CURSORS, "standalone")).thenReturn("42");
+        scanReturns(scanPage("43", false, WITH_TTL));
+        ttlReturns(WITH_TTL, 3600L);
+
+        // When
+        cleanupService.cleanupOldStatusKeys();
+
+        // Then
+        verify(commands).scan(argThat((ScanCursor cursor) -> "42".equals(cursor.getCursor())), any(ScanArgs.class));
+        verify(hashOperations).put(CURSORS, "standalone", "43");
+        verify(hashOperations, never()).delete(CURSORS, "standalone");
+    }
+
+    @Test
+    void shouldStillRemoveLegacyKeysWhenTheScanFails() {
+        // Given
+        when(hashOperations.keys(CURSORS)).thenThrow(new IllegalStateException("Connection refused"));
+
+        // When
+        cleanupService.cleanupOldStatusKeys();
+
+        // Then
+        verify(redisTemplate).unlink(anyCollection());
+    }
+
+    private void scanReturns(KeyScanCursor<byte[]> page) {
+        RedisFuture<KeyScanCursor<byte[]>> future = completed(page);
+        when(commands.scan(any(ScanCursor.class), any(ScanArgs.class))).thenReturn(future);
+    }
+
+    private void ttlReturns(byte[] key, long ttl) {
+        RedisFuture<Long> future = completed(ttl);
+        when(commands.ttl(key)).thenReturn(future);
+    }
+
+    private static KeyScanCursor<byte[]> scanPage(String cursor, boolean finished, byte[]... keys) {
+        KeyScanCursor<byte[]> page = new KeyScanCursor<>();
+        page.setCursor(cursor);
+        page.setFinished(finished);
+        page.getKeys().addAll(List.of(keys));
+        return page;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> RedisFuture<T> completed(T value) {
+        RedisFuture<T> future = mock(RedisFuture.class);
+        try {
+            when(future.get(anyLong(), any(TimeUnit.class))).thenReturn(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return future;
+    }
+}
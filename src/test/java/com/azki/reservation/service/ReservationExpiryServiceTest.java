@@ -0,0 +1,134 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.repository.ReservationRepository;
+import com.azki.reservation.repository.TimeSlotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExpiryServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private TimeSlotRepository timeSlotRepository;
+
+    @Mock
+    private CacheableOperations cacheableOperations;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MeterRegistry meterRegistry;
+    private ReservationExpiryService expiryService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        expiryService = new ReservationExpiryService(
+                reservationRepository,
+                timeSlotRepository,
+                cacheableOperations,
+                transactionManager,
+                eventPublisher,
+                meterRegistry
+        );
+        ReflectionTestUtils.setField(expiryService, "expiryHours", 24);
+        ReflectionTestUtils.setField(expiryService, "chunkSize", 2);
+    }
+
+    @Test
+    void shouldExpireReservationsInKeysetChunks() {
+        // Given
+        when(reservationRepository.findExpiredReservationIds(any(LocalDateTime.class), eq(0L), eq(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(reservationRepository.findExpiredReservationIds(any(LocalDateTime.class), eq(2L), eq(2)))
+                .thenReturn(List.of(5L));
+        when(reservationRepository.deleteExpiredReturningSlotIds(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(10L, 20L));
+        when(reservationRepository.deleteExpiredReturningSlotIds(eq(List.of(5L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(50L));
+
+        // When
+        expiryService.processExpiredReservations();
+
+        // Then
+        verify(timeSlotRepository).releaseSlots(List.of(10L, 20L));
+        verify(timeSlotRepository).releaseSlots(List.of(50L));
+        verify(transactionManager, times(2)).commit(any());
+        verify(cacheableOperations, times(1)).evictNextSlotCache();
+        assertEquals(3.0, meterRegistry.counter("reservation.expiry.expired").count());
+    }
+
+    @Test
+    void shouldPublishTheReleasedSlotsStartTimes() {
+        // Given
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1);
+        when(reservationRepository.findExpiredReservationIds(any(LocalDateTime.class), eq(0L), eq(2)))
+                .thenReturn(List.of(1L));
+        when(reservationRepository.deleteExpiredReturningSlotIds(eq(List.of(1L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(10L));
+        when(timeSlotRepository.releaseSlots(List.of(10L))).thenReturn(List.of(startTime));
+
+        // When
+        expiryService.processExpiredReservations();
+
+        // Then
+        verify(eventPublisher).publishEvent(SlotAvailabilityEvent.released(List.of(startTime)));
+    }
+
+    @Test
+    void shouldNotEvictCacheWhenNothingExpired() {
+        // Given
+        when(reservationRepository.findExpiredReservationIds(any(LocalDateTime.class), anyLong(), anyInt()))
+                .thenReturn(List.of());
+
+        // When
+        expiryService.processExpiredReservations();
+
+        // Then
+        verify(reservationRepository, never()).deleteExpiredReturningSlotIds(anyCollection(), any(LocalDateTime.class));
+        verify(cacheableOperations, never()).evictNextSlotCache();
+    }
+
+    @Test
+    void shouldContinueWithNextChunkWhenChunkFails() {
+        // Given
+        when(reservationRepository.findExpiredReservationIds(any(LocalDateTime.class), eq(0L), eq(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(reservationRepository.findExpiredReservationIds(any(LocalDateTime.class), eq(2L), eq(2)))
+                .thenReturn(List.of(3L));
+        when(reservationRepository.deleteExpiredReturningSlotIds(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenThrow(new IllegalStateException("lock timeout"));
+        when(reservationRepository.deleteExpiredReturningSlotIds(eq(List.of(3L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(30L));
+
+        // When
+        expiryService.processExpiredReservations();
+
+        // Then
+        verify(transactionManager).rollback(any());
+        verify(timeSlotRepository).releaseSlots(List.of(30L));
+        verify(cacheableOperations).evictNextSlotCache();
+        assertEquals(1.0, meterRegistry.counter("reservation.expiry.chunk.failures").count());
+    }
+}
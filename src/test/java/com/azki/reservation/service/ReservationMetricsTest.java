@@ -0,0 +1,72 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.exception.ReservationNotAvailableException;
+import com.azki.reservation.service.ReservationMetrics.Phase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReservationMetrics reservationMetrics = new ReservationMetrics(meterRegistry, new long[] {5, 50});
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldTagPhaseByOutcome() {
+        // When
+        reservationMetrics.time(ReservationPath.QUEUED, Phase.SLOT_SELECTION, () -> "slot");
+        assertThrows(ReservationNotAvailableException.class, () -> reservationMetrics.time(
+            ReservationPath.QUEUED, Phase.SLOT_SELECTION, () -> {
+                throw new ReservationNotAvailableException("none");
+            }));
+
+        // Then
+        assertEquals(1, phaseCount("queued", "slot_selection", "success"));
+        assertEquals(1, phaseCount("queued", "slot_selection", "error"));
+        assertEquals(0, phaseCount("direct", "slot_selection", "success"));
+    }
+
+    @Test
+    void shouldRecordProcessingOutcome() {
+        // When
+        reservationMetrics.recordProcessing(ReservationPath.DIRECT, 1_000_000, new ReservationNotAvailableException("none"));
+
+        // Then
+        assertEquals(1, meterRegistry.get("reservation.processing.time")
+            .tags("path", "direct", "outcome", "no_slot").timer().count());
+    }
+
+    @Test
+    void shouldTimeCommitOnlyWhenCommitIsAttempted() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        reservationMetrics.timeCommit(ReservationPath.DIRECT);
+        reservationMetrics.timeCommit(ReservationPath.QUEUED);
+        var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        // When: the first transaction commits, the second rolls back before committing
+        synchronizations.get(0).beforeCommit(false);
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        // Then
+        assertEquals(1, phaseCount("direct", "commit", "success"));
+        assertEquals(0, phaseCount("queued", "commit", "error"));
+    }
+
+    private long phaseCount(String path, String phase, String outcome) {
+        return meterRegistry.get("reservation.phase.time")
+            .tags("path", path, "phase", phase, "outcome", outcome).timer().count();
+    }
+}
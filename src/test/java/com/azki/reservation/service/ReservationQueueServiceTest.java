@@ -2,17 +2,31 @@ package com.azki.reservation.service;
 
 import com.azki.reservation.dto.reservation.ReservationRequestDto;
 import com.azki.reservation.exception.DuplicateReservationException;
+import com.azki.reservation.queue.EnqueueSpool;
+import com.azki.reservation.queue.QueueItem;
+import com.azki.reservation.queue.RedisReservationQueue;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,28 +47,39 @@ class ReservationQueueServiceTest {
     @Mock
     private ValueOperations<String, Object> valueOperations;
 
+    @Mock
+    private RedisPipelineExecutor redisPipelineExecutor;
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @Mock
+    private BulkReservationService bulkReservationService;
+
     private ObjectMapper objectMapper;
     private MeterRegistry meterRegistry;
+    private RedisReservationQueue reservationQueue;
     private ReservationQueueService queueService;
-    private final RedisCleanupService redisCleanupService;
-
-    ReservationQueueServiceTest(ObjectMapper objectMapper, MeterRegistry meterRegistry, ReservationQueueService queueService, RedisCleanupService redisCleanupService) {
-        this.objectMapper = objectMapper;
-        this.meterRegistry = meterRegistry;
-        this.queueService = queueService;
-        this.redisCleanupService = redisCleanupService;
-    }
-
 
     @BeforeEach
     void setUp() {
         objectMapper = new ObjectMapper();
         meterRegistry = new SimpleMeterRegistry();
 
-        when(redisTemplate.opsForList()).thenReturn(listOperations);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(redisTemplate.opsForList()).thenReturn(listOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Run pipelined commands directly against the mocked template
+        lenient().when(redisPipelineExecutor.execute(any())).thenAnswer(invocation -> {
+            Consumer<RedisOperations<String, Object>> commands = invocation.getArgument(0);
+            commands.accept(redisTemplate);
+            return List.of();
+        });
 
-        queueService = new ReservationQueueService(redisTemplate, reservationService, objectMapper, meterRegistry,redisCleanupService);
+        reservationQueue = new RedisReservationQueue(redisTemplate, redisTemplate, redisPipelineExecutor,
+            objectMapper, meterRegistry, 600000, 24);
+        queueService = new ReservationQueueService(reservationQueue, reservationService, bulkReservationService, meterRegistry, userIdentityCache,
+            new ReservationMetrics(meterRegistry, new long[] {10}), new ReservationQueueMetrics(meterRegistry, 60),
+            new ReservationCompletionRegistry(meterRegistry));
     }
 
     @Test
@@ -62,6 +87,8 @@ class ReservationQueueServiceTest {
         // Given
         ReservationRequestDto request = new ReservationRequestDto();
         request.setEmail("test@example.com");
+        when(valueOperations.setIfAbsent(eq("reservation:queued:{test@example.com}"), anyString(), any(Duration.class)))
+            .thenReturn(true);
 
         // When
         String requestId = queueService.enqueueReservationRequest(request);
@@ -69,7 +96,38 @@ class ReservationQueueServiceTest {
         // Then
         assertNotNull(requestId);
         verify(listOperations).rightPush(anyString(), anyString());
-        verify(valueOperations).set(contains("reservation:status:"), eq(ReservationQueueService.RequestStatus.QUEUED.name()));
+        verify(valueOperations).set(contains("reservation:status:"), eq(ReservationQueueService.RequestStatus.QUEUED.name()),
+            any(Duration.class));
+    }
+
+    @Test
+    void shouldSpoolEnqueueWhenRedisIsUnreachable(@TempDir Path spoolDirectory) throws Exception {
+        // Given
+        EnqueueSpool spool = new EnqueueSpool(objectMapper, meterRegistry, spoolDirectory, 4096, 2, 1, true, 1000);
+        RedisReservationQueue reservationQueue = new RedisReservationQueue(redisTemplate, redisTemplate,
+            redisPipelineExecutor, objectMapper, meterRegistry, 600000, 24, spool);
+        queueService = new ReservationQueueService(reservationQueue, reservationService, bulkReservationService, meterRegistry, userIdentityCache,
+            new ReservationMetrics(meterRegistry, new long[] {10}), new ReservationQueueMetrics(meterRegistry, 60),
+            new ReservationCompletionRegistry(meterRegistry));
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail("test@example.com");
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        try {
+            // When
+            String requestId = queueService.enqueueReservationRequest(request);
+
+            // Then
+            assertEquals(ReservationQueueService.RequestStatus.QUEUED.name(), queueService.getRequestStatus(requestId));
+            assertThrows(DuplicateReservationException.class, () -> queueService.enqueueReservationRequest(request));
+            List<EnqueueSpool.SpooledItem> spooled = spool.read(10);
+            assertEquals(1, spooled.size());
+            assertEquals(requestId, spooled.getFirst().item().requestId);
+            verify(listOperations, never()).rightPush(anyString(), any());
+        } finally {
+            spool.close();
+        }
     }
 
     @Test
@@ -84,7 +142,7 @@ class ReservationQueueServiceTest {
 
         // Then
         assertEquals(status, result);
-        verify(valueOperations).get("reservation:status:" + requestId);
+        verify(valueOperations).get("reservation:status:{" + requestId + "}");
     }
 
     @Test
@@ -98,7 +156,41 @@ class ReservationQueueServiceTest {
 
         // Then
         assertNull(result);
-        verify(valueOperations).get("reservation:status:" + requestId);
+        verify(valueOperations).get("reservation:status:{" + requestId + "}");
+    }
+
+    @Test
+    void shouldReadStatusWrittenBeforeHashTaggedKeys() {
+        // Given
+        String requestId = "test-request-id";
+        when(valueOperations.get("reservation:status:{" + requestId + "}")).thenReturn(null);
+        when(valueOperations.get("reservation:status:" + requestId))
+            .thenReturn(ReservationQueueService.RequestStatus.QUEUED.name());
+
+        // When
+        String result = queueService.getRequestStatus(requestId);
+
+        // Then
+        assertEquals(ReservationQueueService.RequestStatus.QUEUED.name(), result);
+    }
+
+    @Test
+    void shouldMigrateStatusAndMarkerOfLegacyQueueItems() throws Exception {
+        // Given
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail("test@example.com");
+        String json = objectMapper.writeValueAsString(new QueueItem(request, 0, "r1", System.currentTimeMillis(), null));
+        when(listOperations.leftPop("reservation:queue")).thenReturn(json, (Object) null);
+        when(valueOperations.get("reservation:status:r1")).thenReturn(ReservationQueueService.RequestStatus.QUEUED.name());
+
+        // When
+        reservationQueue.migrateLegacyQueues();
+
+        // Then
+        verify(listOperations).rightPush("reservation:{queue}:pending", json);
+        verify(valueOperations).setIfAbsent("reservation:status:{r1}", ReservationQueueService.RequestStatus.QUEUED.name(),
+            Duration.ofHours(24));
+        verify(valueOperations).setIfAbsent(eq("reservation:queued:{test@example.com}"), eq("r1"), any(Duration.class));
     }
 
     @Test
@@ -112,7 +204,7 @@ class ReservationQueueServiceTest {
 
         // Then
         assertEquals(expectedLength, length);
-        verify(listOperations).size("reservation:queue");
+        verify(listOperations).size("reservation:{queue}:pending");
     }
 
     @Test
@@ -121,11 +213,61 @@ class ReservationQueueServiceTest {
         ReservationRequestDto request = new ReservationRequestDto();
         request.setEmail("test@example.com");
 
-        when(queueService.isUserAlreadyInQueue(anyString())).thenReturn(true);
+        when(valueOperations.setIfAbsent(eq("reservation:queued:{test@example.com}"), anyString(), any(Duration.class)))
+            .thenReturn(false);
 
         // When/Then
         assertThrows(DuplicateReservationException.class, () -> queueService.enqueueReservationRequest(request));
 
         verify(redisTemplate, never()).opsForList();
     }
+
+    @Test
+    void shouldCarryEnqueueTimeAndTraceContextThroughQueue() throws Exception {
+        // Given
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail("test@example.com");
+        when(valueOperations.setIfAbsent(eq("reservation:queued:{test@example.com}"), anyString(), any(Duration.class)))
+            .thenReturn(true);
+        queueService.enqueueReservationRequest(request);
+        ArgumentCaptor<Object> json = ArgumentCaptor.forClass(Object.class);
+        verify(listOperations).rightPush(eq("reservation:{queue}:pending"), json.capture());
+        when(listOperations.leftPop("reservation:{queue}:pending")).thenReturn(json.getValue(), (Object) null);
+        ReflectionTestUtils.setField(queueService, "batchSize", 10);
+
+        // When
+        queueService.processReservationQueue();
+
+        // Then
+        JsonNode queued = objectMapper.readTree(json.getValue().toString());
+        assertTrue(queued.get("enqueuedAt").asLong() > 0);
+        assertTrue(queued.get("traceparent").asText().startsWith("00-"));
+        verify(reservationService).reserveNearestSlot("test@example.com", ReservationPath.QUEUED);
+        assertEquals(1, meterRegistry.get("reservation.queue.wait.time").timer().count());
+        assertEquals(1, meterRegistry.get("reservation.queue.total.time").tag("outcome", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("reservation.queue.oldest.age").gauge().value());
+    }
+
+    @Test
+    void shouldPushFailedItemBackOntoHeadOfQueueForRetry() throws Exception {
+        // Given
+        ReservationRequestDto request = new ReservationRequestDto();
+        request.setEmail("test@example.com");
+        String json = objectMapper.writeValueAsString(new QueueItem(request, 0, "r1", System.currentTimeMillis(), null));
+        when(listOperations.leftPop("reservation:{queue}:pending")).thenReturn(json, (Object) null);
+        when(reservationService.reserveNearestSlot("test@example.com", ReservationPath.QUEUED))
+            .thenThrow(new IllegalStateException("Connection reset"));
+        when(redisTemplate.expire(eq("reservation:queued:{test@example.com}"), anyLong(), any())).thenReturn(true);
+        ReflectionTestUtils.setField(queueService, "batchSize", 10);
+
+        // When
+        queueService.processReservationQueue();
+
+        // Then
+        ArgumentCaptor<Object> requeued = ArgumentCaptor.forClass(Object.class);
+        verify(listOperations).leftPush(eq("reservation:{queue}:pending"), requeued.capture());
+        assertEquals(1, objectMapper.readTree(requeued.getValue().toString()).get("attempts").asInt());
+        verify(listOperations, never()).set(anyString(), anyLong(), any());
+        verify(listOperations, never()).rightPush(eq("reservation:{queue}:dlq"), any());
+    }
 }
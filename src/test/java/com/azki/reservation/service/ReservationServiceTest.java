@@ -1,5 +1,6 @@
 package com.azki.reservation.service;
 
+import com.azki.reservation.dto.user.UserIdentity;
 import com.azki.reservation.entity.AvailableSlot;
 import com.azki.reservation.entity.Reservation;
 import com.azki.reservation.entity.User;
@@ -7,22 +8,30 @@ import com.azki.reservation.exception.DuplicateReservationException;
 import com.azki.reservation.exception.ReservationNotAvailableException;
 import com.azki.reservation.repository.ReservationRepository;
 import com.azki.reservation.repository.TimeSlotRepository;
+import com.azki.reservation.repository.TimeSlotRepository.ClaimedSlot;
 import com.azki.reservation.repository.UserRepository;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +49,18 @@ class ReservationServiceTest {
     @Mock
     private CacheableOperations cacheableOperations;
 
+    @Mock
+    private ReservationExpiryScheduler reservationExpiryScheduler;
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private MeterRegistry meterRegistry;
 
     @InjectMocks
@@ -52,8 +73,12 @@ class ReservationServiceTest {
                 timeSlotRepository,
                 reservationRepository,
                 userRepository,
-                meterRegistry,
-                cacheableOperations
+                new ReservationMetrics(meterRegistry, new long[] {10}),
+                cacheableOperations,
+                reservationExpiryScheduler,
+                userIdentityCache,
+                new TransactionTemplate(transactionManager),
+                eventPublisher
         );
     }
 
@@ -67,7 +92,7 @@ class ReservationServiceTest {
         availableSlot.setEndTime(now.plusHours(2));
         availableSlot.setReserved(false);
 
-        when(timeSlotRepository.findNextAvailable(any(LocalDateTime.class)))
+        when(cacheableOperations.findNextAvailableSlotCached(any(LocalDateTime.class)))
                 .thenReturn(Optional.of(availableSlot));
 
         // When
@@ -93,59 +118,90 @@ class ReservationServiceTest {
         slot.setId(1L);
         slot.setStartTime(now.plusHours(1));
         slot.setEndTime(now.plusHours(2));
-        slot.setReserved(false);
+        slot.setReserved(true);
 
         Reservation reservation = new Reservation();
         reservation.setId(1L);
         reservation.setUser(user);
         reservation.setAvailableSlot(slot);
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
-        when(timeSlotRepository.findNextAvailable(any(LocalDateTime.class))).thenReturn(Optional.of(slot));
+        when(userIdentityCache.findByEmail(email)).thenReturn(Optional.of(new UserIdentity(1L, email, "test")));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
+        when(timeSlotRepository.claimAvailableSlots(any(LocalDateTime.class), eq(1)))
+                .thenReturn(List.of(claimed(slot.getId(), slot.getStartTime())));
         when(timeSlotRepository.findById(slot.getId())).thenReturn(Optional.of(slot));
-        when(timeSlotRepository.save(any(AvailableSlot.class))).thenReturn(slot);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(reservation);
         when(reservationRepository.existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class))).thenReturn(false);
 
         // When
-        Reservation result = reservationService.reserveNearestSlot(email);
+        Reservation result = reservationService.reserveNearestSlot(email, ReservationPath.DIRECT);
 
         // Then
         assertNotNull(result);
         assertEquals(1L, result.getId());
-        verify(timeSlotRepository).save(any(AvailableSlot.class));
-        verify(reservationRepository).save(any(Reservation.class));
+        verify(reservationRepository).save(argThat((Reservation saved) -> saved.getAvailableSlot() == slot));
+        verify(cacheableOperations).evictNextSlotCache();
+        verify(transactionManager).commit(any());
+        verify(reservationExpiryScheduler).schedule(eq(1L), any());
     }
 
     @Test
     void shouldThrowExceptionWhenUserAlreadyHasActiveReservation() {
         // Given
         String email = "test@example.com";
-        User user = new User();
-        user.setId(1L);
-        user.setEmail(email);
-
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        when(userIdentityCache.findByEmail(email)).thenReturn(Optional.of(new UserIdentity(1L, email, "test")));
         when(reservationRepository.existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class))).thenReturn(true);
 
         // When/Then
-        assertThrows(DuplicateReservationException.class, () -> reservationService.reserveNearestSlot(email));
+        assertThrows(DuplicateReservationException.class, () -> reservationService.reserveNearestSlot(email, ReservationPath.DIRECT));
+        verifyNoInteractions(transactionManager);
     }
 
     @Test
-    void shouldThrowExceptionWhenNoSlotsAvailable() {
+    void shouldCheckForDuplicatesBeforeStartingTheWriteTransaction() {
         // Given
         String email = "test@example.com";
-        User user = new User();
-        user.setId(1L);
-        user.setEmail(email);
+        when(userIdentityCache.findByEmail(email)).thenReturn(Optional.of(new UserIdentity(1L, email, "test")));
+        when(reservationRepository.existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class))).thenReturn(false);
+        when(timeSlotRepository.claimAvailableSlots(any(LocalDateTime.class), eq(1))).thenReturn(List.of());
+
+        // When
+        assertThrows(ReservationNotAvailableException.class, () -> reservationService.reserveNearestSlot(email, ReservationPath.DIRECT));
+
+        // Then
+        InOrder inOrder = inOrder(reservationRepository, transactionManager, timeSlotRepository);
+        inOrder.verify(reservationRepository).existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(reservationRepository).existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class));
+        inOrder.verify(timeSlotRepository).claimAvailableSlots(any(LocalDateTime.class), eq(1));
+        inOrder.verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void shouldRepeatTheDuplicateCheckInsideTheWriteTransaction() {
+        // Given: the first check is answered by a replica that has not seen the user's reservation yet
+        String email = "test@example.com";
+        when(userIdentityCache.findByEmail(email)).thenReturn(Optional.of(new UserIdentity(1L, email, "test")));
+        when(reservationRepository.existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class)))
+                .thenReturn(false, true);
 
-        when(userRepository.findByEmail(email)).thenReturn(Optional.of(user));
+        // When/Then
+        assertThrows(DuplicateReservationException.class, () -> reservationService.reserveNearestSlot(email, ReservationPath.DIRECT));
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(cacheableOperations, timeSlotRepository);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenNoSlotsAvailable() {
+        // Given
+        String email = "test@example.com";
+        when(userIdentityCache.findByEmail(email)).thenReturn(Optional.of(new UserIdentity(1L, email, "test")));
         when(reservationRepository.existsByUserEmailAndStartTimeAfter(anyString(), any(LocalDateTime.class))).thenReturn(false);
-        when(timeSlotRepository.findNextAvailable(any(LocalDateTime.class))).thenReturn(Optional.empty());
+        when(timeSlotRepository.claimAvailableSlots(any(LocalDateTime.class), eq(1))).thenReturn(List.of());
 
         // When/Then
-        assertThrows(ReservationNotAvailableException.class, () -> reservationService.reserveNearestSlot(email));
+        assertThrows(ReservationNotAvailableException.class, () -> reservationService.reserveNearestSlot(email, ReservationPath.DIRECT));
+        verify(reservationRepository, never()).save(any(Reservation.class));
     }
 
     @Test
@@ -179,4 +235,18 @@ class ReservationServiceTest {
         verify(reservationRepository).delete(any(Reservation.class));
         assertFalse(slot.isReserved());
     }
+
+    private static ClaimedSlot claimed(Long id, LocalDateTime startTime) {
+        return new ClaimedSlot() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getStartTime() {
+                return startTime;
+            }
+        };
+    }
 }
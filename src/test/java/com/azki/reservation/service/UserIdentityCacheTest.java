@@ -0,0 +1,83 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.dto.user.UserIdentity;
+import com.azki.reservation.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdentityCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserIdentityCache userIdentityCache;
+
+    @BeforeEach
+    void setUp() {
+        userIdentityCache = new UserIdentityCache(userRepository, new SimpleMeterRegistry(), 100, 10);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        UserIdentity identity = new UserIdentity(1L, "test@example.com", "test");
+        when(userRepository.findIdentitiesByEmailIn(List.of("test@example.com"))).thenReturn(List.of(identity));
+
+        // When
+        Optional<UserIdentity> first = userIdentityCache.findByEmail("test@example.com");
+        Optional<UserIdentity> second = userIdentityCache.findByEmail("test@example.com");
+        Optional<UserIdentity> byId = userIdentityCache.findById(1L);
+
+        // Then
+        assertEquals(Optional.of(identity), first);
+        assertEquals(first, second);
+        assertEquals(first, byId);
+        verify(userRepository, times(1)).findIdentitiesByEmailIn(anyCollection());
+        verify(userRepository, never()).findIdentitiesByIdIn(anyCollection());
+    }
+
+    @Test
+    void shouldPreloadOnlyMissingEmailsInOneQuery() {
+        // Given
+        UserIdentity cached = new UserIdentity(1L, "a@example.com", "a");
+        UserIdentity missing = new UserIdentity(2L, "b@example.com", "b");
+        when(userRepository.findIdentitiesByEmailIn(List.of("a@example.com"))).thenReturn(List.of(cached));
+        when(userRepository.findIdentitiesByEmailIn(List.of("b@example.com"))).thenReturn(List.of(missing));
+        userIdentityCache.findByEmail("a@example.com");
+
+        // When
+        userIdentityCache.preload(List.of("a@example.com", "b@example.com", "b@example.com"));
+
+        // Then
+        assertEquals(Optional.of(missing), userIdentityCache.findByEmail("b@example.com"));
+        verify(userRepository, times(2)).findIdentitiesByEmailIn(anyCollection());
+    }
+
+    @Test
+    void shouldEvictPreviousEmailOnInvalidate() {
+        // Given
+        UserIdentity identity = new UserIdentity(1L, "old@example.com", "test");
+        when(userRepository.findIdentitiesByEmailIn(List.of("old@example.com")))
+            .thenReturn(List.of(identity))
+            .thenReturn(List.of());
+        userIdentityCache.findByEmail("old@example.com");
+
+        // When: the user changed their email
+        userIdentityCache.invalidate(1L, "new@example.com");
+
+        // Then
+        assertTrue(userIdentityCache.findByEmail("old@example.com").isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.azki.reservation.service;
+
+import com.azki.reservation.entity.UserChangedEvent;
+import com.azki.reservation.util.RedisKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdentityInvalidationListenerTest {
+
+    @Mock
+    private UserIdentityCache userIdentityCache;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider;
+
+    private UserIdentityInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new UserIdentityInvalidationListener(userIdentityCache, redisTemplateProvider);
+    }
+
+    @Test
+    void shouldEvictLocallyAndBroadcastTheChange() {
+        // Given
+        availableTemplate();
+
+        // When
+        listener.onUserChanged(new UserChangedEvent(1L, "a@example.com"));
+
+        // Then
+        verify(userIdentityCache).invalidate(1L, "a@example.com");
+        verify(redisTemplate).convertAndSend(RedisKeys.USER_CHANGES_CHANNEL, "1 a@example.com");
+    }
+
+    @Test
+    void shouldEvictLocallyWhenTheBroadcastFails() {
+        // Given
+        availableTemplate();
+        when(redisTemplate.convertAndSend(anyString(), any())).thenThrow(new IllegalStateException("Connection refused"));
+
+        // When
+        listener.onUserChanged(new UserChangedEvent(1L, "a@example.com"));
+
+        // Then
+        verify(userIdentityCache).invalidate(1L, "a@example.com");
+    }
+
+    @Test
+    void shouldEvictChangesBroadcastByOtherNodes() {
+        // Given
+        RedisSerializer<Object> serializer = new GenericJackson2JsonRedisSerializer();
+        doReturn(serializer).when(redisTemplate).getValueSerializer();
+        when(redisTemplateProvider.getObject()).thenReturn(redisTemplate);
+        byte[] channel = RedisKeys.USER_CHANGES_CHANNEL.getBytes(StandardCharsets.UTF_8);
+
+        // When
+        listener.onMessage(new DefaultMessage(channel, serializer.serialize("2 b@example.com")), null);
+
+        // Then
+        verify(userIdentityCache).invalidate(2L, "b@example.com");
+    }
+
+    private void availableTemplate() {
+        doAnswer(invocation -> {
+            Consumer<RedisTemplate<String, Object>> consumer = invocation.getArgument(0);
+            consumer.accept(redisTemplate);
+            return null;
+        }).when(redisTemplateProvider).ifAvailable(any());
+    }
+}
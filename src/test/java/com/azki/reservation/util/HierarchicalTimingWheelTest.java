@@ -0,0 +1,61 @@
+package com.azki.reservation.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void shouldReturnFalseForDeadlineInThePast() {
+        // Given
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(10, 8, 3, 1_000);
+
+        // When/Then
+        assertFalse(wheel.add("late", 500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void shouldFireItemsNeverEarlyAndAtMostOneTickLate() {
+        // Given
+        long tick = 10;
+        long start = 1_000_003;
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(tick, 8, 3, start);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long id = 0; id < 2_000; id++) {
+            // Spans every level and beyond the top level (10 * 8^3 = 5120ms)
+            long deadline = start + 1 + random.nextInt(20_000);
+            deadlines.put(id, deadline);
+            assertTrue(wheel.add(id, deadline));
+        }
+
+        // When
+        Map<Long, Long> firedAt = new HashMap<>();
+        List<Long> due = new ArrayList<>();
+        for (long now = start; now <= start + 20_100; now += 7) {
+            wheel.advance(now, due);
+            for (Long id : due) {
+                assertNull(firedAt.put(id, now), "item fired twice: " + id);
+            }
+            due.clear();
+        }
+
+        // Then
+        assertEquals(deadlines.size(), firedAt.size());
+        assertEquals(0, wheel.size());
+        deadlines.forEach((id, deadline) -> {
+            long fired = firedAt.get(id);
+            assertTrue(fired >= deadline, "item fired early: " + id);
+            // One tick of wheel resolution plus the 7ms step of the simulated clock
+            assertTrue(fired - deadline < tick + 7, "item fired late: " + id);
+        });
+    }
+}